@@ -62,6 +62,18 @@ public interface InstanceCloudConnector {
      */
     Observable<List<Instance>> getInstancesByInstanceGroupId(String instanceGroupId);
 
+    /**
+     * Get detailed information about instances belonging to any of the given instance groups. Connectors backed by
+     * a cloud API should override it, and fetch all instances with a few large page requests. The default
+     * implementation queries each instance group separately.
+     */
+    default Observable<List<Instance>> getInstancesByInstanceGroupIds(List<String> instanceGroupIds) {
+        return Observable.from(instanceGroupIds)
+                .concatMap(this::getInstancesByInstanceGroupId)
+                .flatMapIterable(instances -> instances)
+                .toList();
+    }
+
     /**
      * Change instance group capacity.
      */
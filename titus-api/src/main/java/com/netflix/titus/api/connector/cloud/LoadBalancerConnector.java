@@ -16,6 +16,7 @@
 
 package com.netflix.titus.api.connector.cloud;
 
+import java.util.HashSet;
 import java.util.Set;
 
 import rx.Completable;
@@ -38,4 +39,19 @@ public interface LoadBalancerConnector {
     Completable isValid(String loadBalancerId);
 
     Single<LoadBalancer> getLoadBalancer(String loadBalancerId);
+
+    /**
+     * Incremental version of {@link #getLoadBalancer(String)}, which checks only the given ip addresses, instead of
+     * downloading all targets registered on the load balancer.
+     *
+     * @return the load balancer with its registered ip addresses limited to the subset of the given ones, or in
+     * the {@link LoadBalancer.State#REMOVED} state if it does not exist
+     */
+    default Single<LoadBalancer> getLoadBalancer(String loadBalancerId, Set<String> ipAddresses) {
+        return getLoadBalancer(loadBalancerId).map(loadBalancer -> {
+            Set<String> registered = new HashSet<>(ipAddresses);
+            registered.retainAll(loadBalancer.getRegisteredIps());
+            return new LoadBalancer(loadBalancer.getId(), loadBalancer.getState(), registered);
+        });
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.api.jobmanager.model.job;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+
+/**
+ * Canonicalizes job and task values which are repeated across many entities (application names, capacity groups,
+ * image names, security groups, environment variables, constraints, task context keys, etc). Entities loaded from
+ * the store or received from a replicator are deserialized into distinct, but equal objects, which for a large cell
+ * adds up to a substantial part of the heap. Interning them makes all equal values share a single instance.
+ * <p>
+ * Job level collections are interned as a whole, as they are frequently identical between jobs of the same application.
+ * Task level collections hold mostly task specific values, so only their keys and values are interned.
+ * <p>
+ * The pools are weak, so values no longer referenced by any entity are garbage collected. Null map values and list
+ * elements are preserved.
+ */
+public class JobModelInterner {
+
+    private static final String METRIC_ROOT = "titus.jobManager.interner.";
+
+    // Rough object size estimates for a 64-bit JVM with compressed oops.
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int COLLECTION_OVERHEAD_BYTES = 48;
+    private static final int COLLECTION_ENTRY_BYTES = 32;
+
+    private final Interner<String> stringInterner = Interners.newWeakInterner();
+    private final Interner<Map<String, String>> mapInterner = Interners.newWeakInterner();
+    private final Interner<List<String>> listInterner = Interners.newWeakInterner();
+
+    private final Counter internedStringsCounter;
+    private final Counter internedCollectionsCounter;
+    private final Counter savedBytesCounter;
+
+    public JobModelInterner(Registry registry) {
+        this.internedStringsCounter = registry.counter(METRIC_ROOT + "internedStrings");
+        this.internedCollectionsCounter = registry.counter(METRIC_ROOT + "internedCollections");
+        this.savedBytesCounter = registry.counter(METRIC_ROOT + "savedBytes");
+    }
+
+    public <E extends JobDescriptor.JobDescriptorExt> Job<E> intern(Job<E> job) {
+        if (job == null) {
+            return null;
+        }
+        return job.toBuilder()
+                .withId(internString(job.getId()))
+                .withJobDescriptor(intern(job.getJobDescriptor()))
+                .build();
+    }
+
+    public <E extends JobDescriptor.JobDescriptorExt> JobDescriptor<E> intern(JobDescriptor<E> jobDescriptor) {
+        if (jobDescriptor == null) {
+            return null;
+        }
+        Owner owner = jobDescriptor.getOwner();
+        return jobDescriptor.toBuilder()
+                .withOwner(owner == null ? null : Owner.newBuilder(owner).withTeamEmail(internString(owner.getTeamEmail())).build())
+                .withApplicationName(internString(jobDescriptor.getApplicationName()))
+                .withCapacityGroup(internString(jobDescriptor.getCapacityGroup()))
+                .withAttributes(internMap(jobDescriptor.getAttributes()))
+                .withContainer(intern(jobDescriptor.getContainer()))
+                .build();
+    }
+
+    public Container intern(Container container) {
+        if (container == null) {
+            return null;
+        }
+        Image image = container.getImage();
+        SecurityProfile securityProfile = container.getSecurityProfile();
+        return container.toBuilder()
+                .withImage(image == null ? null : image.toBuilder()
+                        .withName(internString(image.getName()))
+                        .withTag(internString(image.getTag()))
+                        .withDigest(internString(image.getDigest()))
+                        .build()
+                )
+                .withSecurityProfile(securityProfile == null ? null : securityProfile.toBuilder()
+                        .withSecurityGroups(internList(securityProfile.getSecurityGroups()))
+                        .withIamRole(internString(securityProfile.getIamRole()))
+                        .withAttributes(internMap(securityProfile.getAttributes()))
+                        .build()
+                )
+                .withAttributes(internMap(container.getAttributes()))
+                .withEntryPoint(internList(container.getEntryPoint()))
+                .withCommand(internList(container.getCommand()))
+                .withEnv(internMap(container.getEnv()))
+                .withSoftConstraints(internMap(container.getSoftConstraints()))
+                .withHardConstraints(internMap(container.getHardConstraints()))
+                .build();
+    }
+
+    public Task intern(Task task) {
+        if (task == null) {
+            return null;
+        }
+        return task.toBuilder()
+                .withJobId(internString(task.getJobId()))
+                .withTaskContext(task.getTaskContext() == null ? null : internMapEntries(task.getTaskContext()))
+                .withAttributes(task.getAttributes() == null ? null : internMapEntries(task.getAttributes()))
+                .build();
+    }
+
+    public String internString(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = stringInterner.intern(value);
+        if (canonical != value) {
+            internedStringsCounter.increment();
+            savedBytesCounter.increment(sizeOf(value));
+        }
+        return canonical;
+    }
+
+    public Map<String, String> internMap(Map<String, String> map) {
+        if (map == null) {
+            return null;
+        }
+        if (map.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        Map<String, String> candidate = internMapEntries(map);
+        Map<String, String> canonical = mapInterner.intern(candidate);
+        if (canonical != candidate) {
+            // The saved strings are already accounted for by internString.
+            internedCollectionsCounter.increment();
+            savedBytesCounter.increment(COLLECTION_OVERHEAD_BYTES + (long) COLLECTION_ENTRY_BYTES * map.size());
+        }
+        return canonical;
+    }
+
+    public List<String> internList(List<String> list) {
+        if (list == null) {
+            return null;
+        }
+        if (list.isEmpty()) {
+            return ImmutableList.of();
+        }
+        List<String> values = new ArrayList<>(list.size());
+        list.forEach(value -> values.add(internString(value)));
+        List<String> candidate = Collections.unmodifiableList(values);
+        List<String> canonical = listInterner.intern(candidate);
+        if (canonical != candidate) {
+            internedCollectionsCounter.increment();
+            savedBytesCounter.increment(COLLECTION_OVERHEAD_BYTES + (long) COLLECTION_ENTRY_BYTES * list.size());
+        }
+        return canonical;
+    }
+
+    private Map<String, String> internMapEntries(Map<String, String> map) {
+        Map<String, String> entries = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+        map.forEach((key, value) -> entries.put(internString(key), internString(value)));
+        return Collections.unmodifiableMap(entries);
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+}
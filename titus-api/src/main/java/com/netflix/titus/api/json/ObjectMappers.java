@@ -17,7 +17,11 @@
 package com.netflix.titus.api.json;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
 
 import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -28,6 +32,7 @@ import com.fasterxml.jackson.databind.AnnotationIntrospector;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.introspect.Annotated;
@@ -38,6 +43,8 @@ import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.netflix.titus.api.agent.model.AgentInstance;
 import com.netflix.titus.api.agent.model.AgentInstanceGroup;
 import com.netflix.titus.api.agent.model.InstanceGroupLifecycleStatus;
@@ -156,6 +163,7 @@ import com.netflix.titus.api.scheduler.store.mixin.SystemSelectorMixin;
 import com.netflix.titus.api.store.v2.ResourceDimensionMixin;
 import com.netflix.titus.common.util.PropertiesExt;
 import com.netflix.titus.common.util.ReflectionExt;
+import com.netflix.titus.common.util.tuple.Pair;
 import rx.exceptions.Exceptions;
 
 /**
@@ -171,6 +179,20 @@ public class ObjectMappers {
     private static final ObjectMapper STORE = createStoreMapper();
     private static final ObjectMapper APP_SCALE_STORE = createAppScalePolicyMapper();
 
+    private static final String FIELDS_FILTER_ID = "titusFilter";
+    private static final int MAX_FIELDS_FILTER_WRITERS = 1_000;
+
+    /**
+     * Original mapper to its copy with the fields filter module registered. Mappers are compared by identity.
+     */
+    private static final Cache<ObjectMapper, ObjectMapper> FIELDS_FILTER_MAPPERS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    private static final Cache<Pair<ObjectMapper, List<String>>, ObjectWriter> FIELDS_FILTER_WRITERS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_FIELDS_FILTER_WRITERS)
+            .build();
+
     /**
      * A helper marker class for use with {@link JsonView} annotation.
      */
@@ -222,17 +244,43 @@ public class ObjectMappers {
     public static ObjectMapper applyFieldsFilter(ObjectMapper original, Collection<String> fields) {
         Preconditions.checkArgument(!fields.isEmpty(), "Fields filter, with no field names provided");
 
-        PropertiesExt.PropertyNode<Boolean> rootNode = PropertiesExt.fullSplit(fields);
-        SimpleModule module = new SimpleModule() {
+        ObjectMapper newMapper = original.copy().registerModule(newFieldsFilterModule());
+        newMapper.setFilterProvider(new SimpleFilterProvider().addFilter(FIELDS_FILTER_ID, newFieldsFilter(fields)));
+        return newMapper;
+    }
+
+    /**
+     * Returns a writer that serializes only the specified fields in Titus POJOs. Unlike {@link #applyFieldsFilter(ObjectMapper, Collection)},
+     * the mapper with the fields filter module is created once per original mapper, so its serializer caches are
+     * reused across calls, and the writers are cached by the normalized field set (sorted, with duplicates removed).
+     */
+    public static ObjectWriter fieldsFilterWriter(ObjectMapper original, Collection<String> fields) {
+        Preconditions.checkArgument(!fields.isEmpty(), "Fields filter, with no field names provided");
+
+        try {
+            ObjectMapper filteringMapper = FIELDS_FILTER_MAPPERS.get(original, () -> original.copy().registerModule(newFieldsFilterModule()));
+            List<String> normalizedFields = new ArrayList<>(new TreeSet<>(fields));
+            return FIELDS_FILTER_WRITERS.get(Pair.of(filteringMapper, normalizedFields), () ->
+                    filteringMapper.writer(new SimpleFilterProvider().addFilter(FIELDS_FILTER_ID, newFieldsFilter(normalizedFields)))
+            );
+        } catch (ExecutionException e) {
+            throw Exceptions.propagate(e.getCause());
+        }
+    }
+
+    private static SimpleModule newFieldsFilterModule() {
+        return new SimpleModule() {
             @Override
             public void setupModule(SetupContext context) {
                 super.setupModule(context);
                 context.appendAnnotationIntrospector(new TitusAnnotationIntrospector());
             }
         };
-        ObjectMapper newMapper = original.copy().registerModule(module);
+    }
 
-        SimpleBeanPropertyFilter filter = new SimpleBeanPropertyFilter() {
+    private static SimpleBeanPropertyFilter newFieldsFilter(Collection<String> fields) {
+        PropertiesExt.PropertyNode<Boolean> rootNode = PropertiesExt.fullSplit(fields);
+        return new SimpleBeanPropertyFilter() {
 
             private PropertiesExt.PropertyNode<Boolean> findNode(JsonStreamContext outputContext) {
                 if (outputContext.inArray()) {
@@ -285,9 +333,6 @@ public class ObjectMappers {
                 return childNode.getValue().orElse(Boolean.FALSE);
             }
         };
-
-        newMapper.setFilterProvider(new SimpleFilterProvider().addFilter("titusFilter", filter));
-        return newMapper;
     }
 
     private static class TitusAnnotationIntrospector extends AnnotationIntrospector {
@@ -300,7 +345,7 @@ public class ObjectMappers {
         public Object findFilterId(Annotated ann) {
             Object id = super.findFilterId(ann);
             if (id == null && ann.getRawType().getName().startsWith("com.netflix.titus")) {
-                id = "titusFilter";
+                id = FIELDS_FILTER_ID;
             }
             return id;
         }
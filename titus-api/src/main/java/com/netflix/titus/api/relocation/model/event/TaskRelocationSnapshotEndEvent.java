@@ -14,34 +14,13 @@
  * limitations under the License.
  */
 
-package com.netflix.titus.common.framework.reconciler.internal;
+package com.netflix.titus.api.relocation.model.event;
 
-import java.util.Optional;
+public class TaskRelocationSnapshotEndEvent extends TaskRelocationEvent {
 
-class EmptyTransaction implements Transaction {
+    private static final TaskRelocationSnapshotEndEvent INSTANCE = new TaskRelocationSnapshotEndEvent();
 
-    static final Transaction EMPTY = new EmptyTransaction();
-
-    @Override
-    public void close() {
-    }
-
-    @Override
-    public boolean isClosed() {
-        return true;
-    }
-
-    @Override
-    public Optional<ModelHolder> applyModelUpdates(ModelHolder modelHolder) {
-        return Optional.empty();
-    }
-
-    @Override
-    public void emitEvents() {
-    }
-
-    @Override
-    public boolean completeSubscribers() {
-        return false;
+    public static TaskRelocationSnapshotEndEvent getInstance() {
+        return INSTANCE;
     }
 }
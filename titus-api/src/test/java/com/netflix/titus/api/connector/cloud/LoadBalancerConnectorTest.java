@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.api.connector.cloud;
+
+import java.util.Set;
+
+import com.netflix.titus.common.util.CollectionsExt;
+import org.junit.Test;
+import rx.Completable;
+import rx.Single;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadBalancerConnectorTest {
+
+    private static final String LOAD_BALANCER_ID = "loadBalancer";
+
+    private final LoadBalancerConnector connector = new LoadBalancerConnector() {
+        @Override
+        public Completable registerAll(String loadBalancerId, Set<String> ipAddresses) {
+            return Completable.complete();
+        }
+
+        @Override
+        public Completable deregisterAll(String loadBalancerId, Set<String> ipAddresses) {
+            return Completable.complete();
+        }
+
+        @Override
+        public Completable isValid(String loadBalancerId) {
+            return Completable.complete();
+        }
+
+        @Override
+        public Single<LoadBalancer> getLoadBalancer(String loadBalancerId) {
+            return Single.just(new LoadBalancer(loadBalancerId, LoadBalancer.State.ACTIVE, CollectionsExt.asSet("1.1.1.1", "2.2.2.2")));
+        }
+    };
+
+    @Test
+    public void testDefaultIncrementalGetLoadBalancerReturnsOnlyGivenIps() {
+        LoadBalancer loadBalancer = connector.getLoadBalancer(LOAD_BALANCER_ID, CollectionsExt.asSet("2.2.2.2", "3.3.3.3")).toBlocking().value();
+        assertThat(loadBalancer.getState()).isEqualTo(LoadBalancer.State.ACTIVE);
+        assertThat(loadBalancer.getRegisteredIps()).containsOnly("2.2.2.2");
+    }
+}
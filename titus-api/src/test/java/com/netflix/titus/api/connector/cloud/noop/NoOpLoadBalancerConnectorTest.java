@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.api.connector.cloud.noop;
+
+import com.netflix.titus.api.connector.cloud.LoadBalancer;
+import com.netflix.titus.common.util.CollectionsExt;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NoOpLoadBalancerConnectorTest {
+
+    private static final String LOAD_BALANCER_ID = "loadBalancer";
+
+    private final NoOpLoadBalancerConnector connector = new NoOpLoadBalancerConnector();
+
+    @Test
+    public void testUpdatesSucceed() {
+        assertThat(connector.registerAll(LOAD_BALANCER_ID, CollectionsExt.asSet("1.1.1.1")).get()).isNull();
+        assertThat(connector.deregisterAll(LOAD_BALANCER_ID, CollectionsExt.asSet("1.1.1.1")).get()).isNull();
+        assertThat(connector.isValid(LOAD_BALANCER_ID).get()).isNull();
+    }
+
+    @Test
+    public void testNothingIsRegistered() {
+        LoadBalancer loadBalancer = connector.getLoadBalancer(LOAD_BALANCER_ID).toBlocking().value();
+        assertThat(loadBalancer.getId()).isEqualTo(LOAD_BALANCER_ID);
+        assertThat(loadBalancer.getState()).isEqualTo(LoadBalancer.State.REMOVED);
+        assertThat(loadBalancer.getRegisteredIps()).isEmpty();
+
+        LoadBalancer incremental = connector.getLoadBalancer(LOAD_BALANCER_ID, CollectionsExt.asSet("1.1.1.1")).toBlocking().value();
+        assertThat(incremental.getState()).isEqualTo(LoadBalancer.State.REMOVED);
+        assertThat(incremental.getRegisteredIps()).isEmpty();
+    }
+}
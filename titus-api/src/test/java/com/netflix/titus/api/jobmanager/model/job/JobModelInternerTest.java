@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.api.jobmanager.model.job;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.json.ObjectMappers;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JobModelInternerTest {
+
+    private static final ObjectMapper MAPPER = ObjectMappers.storeMapper();
+
+    private final DefaultRegistry registry = new DefaultRegistry();
+
+    private final JobModelInterner interner = new JobModelInterner(registry);
+
+    @Test
+    public void testEqualJobValuesAreShared() {
+        Job<BatchJobExt> job = JobGenerator.batchJobs(JobDescriptorGenerator.oneTaskBatchJobDescriptor()).getValue();
+
+        Job<?> first = interner.intern(roundTrip(job));
+        Job<?> second = interner.intern(roundTrip(job));
+
+        assertThat(first).isEqualTo(job);
+        assertThat(second).isEqualTo(job);
+
+        JobDescriptor<?> firstDescriptor = first.getJobDescriptor();
+        JobDescriptor<?> secondDescriptor = second.getJobDescriptor();
+        assertThat(secondDescriptor.getApplicationName()).isSameAs(firstDescriptor.getApplicationName());
+        assertThat(secondDescriptor.getCapacityGroup()).isSameAs(firstDescriptor.getCapacityGroup());
+        assertThat(secondDescriptor.getContainer().getImage().getName()).isSameAs(firstDescriptor.getContainer().getImage().getName());
+        assertThat(secondDescriptor.getContainer().getEnv()).isSameAs(firstDescriptor.getContainer().getEnv());
+        assertThat(secondDescriptor.getContainer().getSecurityProfile().getSecurityGroups())
+                .isSameAs(firstDescriptor.getContainer().getSecurityProfile().getSecurityGroups());
+
+        assertThat(counter("internedStrings")).isGreaterThan(0);
+        assertThat(counter("internedCollections")).isGreaterThan(0);
+        assertThat(counter("savedBytes")).isGreaterThan(0);
+    }
+
+    @Test
+    public void testTaskSharesJobIdAndContextValues() {
+        Job<BatchJobExt> job = JobGenerator.batchJobs(JobDescriptorGenerator.oneTaskBatchJobDescriptor()).getValue();
+        Task task = JobGenerator.batchTasks(job).getValue();
+
+        Job<?> internedJob = interner.intern(roundTrip(job));
+        Task internedTask = interner.intern(roundTrip(task));
+
+        assertThat(internedTask).isEqualTo(task);
+        assertThat(internedTask.getJobId()).isSameAs(internedJob.getId());
+    }
+
+    @Test
+    public void testNullAndEmptyValues() {
+        assertThat(interner.internString(null)).isNull();
+        assertThat(interner.internMap(null)).isNull();
+        assertThat(interner.internList(null)).isNull();
+        assertThat(interner.internMap(new HashMap<>())).isEmpty();
+    }
+
+    @Test
+    public void testNullMapValuesAndListElementsArePreserved() {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("key", "value");
+        attributes.put("nullValue", null);
+
+        Map<String, String> first = interner.internMap(attributes);
+        Map<String, String> second = interner.internMap(new HashMap<>(attributes));
+        assertThat(first).isEqualTo(attributes);
+        assertThat(first).containsEntry("nullValue", null);
+        assertThat(second).isSameAs(first);
+
+        assertThat(interner.internList(Arrays.asList("a", null))).containsExactly("a", null);
+    }
+
+    private long counter(String name) {
+        return registry.counter("titus.jobManager.interner." + name).count();
+    }
+
+    private static Job<?> roundTrip(Job<?> job) {
+        return ObjectMappers.readValue(MAPPER, ObjectMappers.writeValueAsString(MAPPER, job), Job.class);
+    }
+
+    private static Task roundTrip(Task task) {
+        return ObjectMappers.readValue(MAPPER, ObjectMappers.writeValueAsString(MAPPER, task), Task.class);
+    }
+}
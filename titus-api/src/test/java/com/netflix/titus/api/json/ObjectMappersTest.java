@@ -22,6 +22,7 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.junit.Test;
 
 import static com.netflix.titus.api.json.ObjectMappers.compactMapper;
@@ -62,6 +63,36 @@ public class ObjectMappersTest {
         assertThat(deserialized.objectValue.intValue).isEqualTo(0);
     }
 
+    @Test
+    public void testFieldsFilterWriter() throws Exception {
+        List<String> fields = asList("stringValue", "objectValue.intValue", "objectValues.intValue");
+        String expected = ObjectMappers.applyFieldsFilter(compactMapper(), fields).writeValueAsString(NESTED_OBJECT);
+
+        ObjectWriter writer = ObjectMappers.fieldsFilterWriter(compactMapper(), fields);
+        assertThat(writer.writeValueAsString(NESTED_OBJECT)).isEqualTo(expected);
+
+        // Writers are cached by the normalized field set.
+        List<String> reordered = asList("objectValues.intValue", "stringValue", "objectValue.intValue", "stringValue");
+        assertThat(ObjectMappers.fieldsFilterWriter(compactMapper(), reordered)).isSameAs(writer);
+    }
+
+    @Test
+    public void testFieldsFilterWritersAreIndependent() throws Exception {
+        OuterClass first = compactMapper().readValue(
+                ObjectMappers.fieldsFilterWriter(compactMapper(), Collections.singletonList("stringValue")).writeValueAsString(NESTED_OBJECT),
+                OuterClass.class
+        );
+        OuterClass second = compactMapper().readValue(
+                ObjectMappers.fieldsFilterWriter(compactMapper(), Collections.singletonList("intValue")).writeValueAsString(NESTED_OBJECT),
+                OuterClass.class
+        );
+
+        assertThat(first.stringValue).isEqualTo("outerStringValue");
+        assertThat(first.intValue).isEqualTo(0);
+        assertThat(second.stringValue).isNull();
+        assertThat(second.intValue).isEqualTo(123);
+    }
+
     private OuterClass filter(List<String> fields) throws Exception {
         ObjectMapper mapper = ObjectMappers.applyFieldsFilter(compactMapper(), fields);
 
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.jobmanager.model.job.ext.ServiceJobExt;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+
+/**
+ * Job/task data set of a cell, shared by the benchmarks. Half of the tasks belong to batch jobs, and half to
+ * service jobs, with {@link #TASKS_PER_JOB} tasks in each job.
+ */
+public class CellData {
+
+    public static final int TASKS_PER_JOB = 100;
+
+    private final List<Job<?>> jobs;
+    private final List<Task> tasks;
+    private final Map<String, List<Task>> tasksByJobId;
+
+    private CellData(List<Job<?>> jobs, Map<String, List<Task>> tasksByJobId) {
+        this.jobs = Collections.unmodifiableList(jobs);
+        this.tasksByJobId = Collections.unmodifiableMap(tasksByJobId);
+
+        List<Task> tasks = new ArrayList<>();
+        tasksByJobId.values().forEach(tasks::addAll);
+        this.tasks = Collections.unmodifiableList(tasks);
+    }
+
+    public List<Job<?>> getJobs() {
+        return jobs;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public Map<String, List<Task>> getTasksByJobId() {
+        return tasksByJobId;
+    }
+
+    public Map<String, Job<?>> getJobsById() {
+        Map<String, Job<?>> jobsById = new HashMap<>();
+        jobs.forEach(job -> jobsById.put(job.getId(), job));
+        return jobsById;
+    }
+
+    /**
+     * Creates a cell with the given number of tasks (rounded up to a multiple of 2 * {@link #TASKS_PER_JOB}).
+     */
+    public static CellData newCell(int taskCount) {
+        int jobsPerType = Math.max(1, (taskCount + 2 * TASKS_PER_JOB - 1) / (2 * TASKS_PER_JOB));
+
+        List<Job<BatchJobExt>> batchJobs = JobGenerator.batchJobs(
+                JobFunctions.changeBatchJobSize(JobDescriptorGenerator.oneTaskBatchJobDescriptor(), TASKS_PER_JOB)
+        ).getValues(jobsPerType);
+
+        // Skip the job ids already taken by the batch jobs.
+        List<Job<ServiceJobExt>> serviceJobs = JobGenerator.serviceJobs(
+                JobFunctions.changeServiceJobCapacity(JobDescriptorGenerator.oneTaskServiceJobDescriptor(), TASKS_PER_JOB)
+        ).skip(jobsPerType).getValues(jobsPerType);
+
+        List<Job<?>> jobs = new ArrayList<>();
+        Map<String, List<Task>> tasksByJobId = new HashMap<>();
+        batchJobs.forEach(job -> {
+            jobs.add(job);
+            tasksByJobId.put(job.getId(), new ArrayList<>(JobGenerator.batchTasks(job).getValues(TASKS_PER_JOB)));
+        });
+        serviceJobs.forEach(job -> {
+            jobs.add(job);
+            tasksByJobId.put(job.getId(), new ArrayList<>(JobGenerator.serviceTasks(job).getValues(TASKS_PER_JOB)));
+        });
+        return new CellData(jobs, tasksByJobId);
+    }
+}
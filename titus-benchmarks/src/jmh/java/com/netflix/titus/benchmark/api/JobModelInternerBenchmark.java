@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobModelInterner;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.json.ObjectMappers;
+import com.netflix.titus.benchmark.CellData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Loading of a serialized cell snapshot, as done by the job store on master startup, with and without
+ * {@link JobModelInterner}. The JMH benchmarks measure the load time (run with '-prof gc' to see the allocation rate).
+ * The retained heap size of the loaded snapshot is printed by the {@link #main(String[])} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JobModelInternerBenchmark {
+
+    private static final ObjectMapper MAPPER = ObjectMappers.storeMapper();
+
+    @Param({"10000", "100000"})
+    public int taskCount;
+
+    private List<String> serializedJobs;
+    private List<String> serializedTasks;
+
+    @Setup
+    public void setUp() {
+        CellData cell = CellData.newCell(taskCount);
+        this.serializedJobs = new ArrayList<>();
+        cell.getJobs().forEach(job -> serializedJobs.add(ObjectMappers.writeValueAsString(MAPPER, job)));
+        this.serializedTasks = new ArrayList<>();
+        cell.getTasks().forEach(task -> serializedTasks.add(ObjectMappers.writeValueAsString(MAPPER, task)));
+    }
+
+    @Benchmark
+    public List<Object> load() {
+        return load(null);
+    }
+
+    @Benchmark
+    public List<Object> loadInterned() {
+        return load(new JobModelInterner(new DefaultRegistry()));
+    }
+
+    private List<Object> load(JobModelInterner interner) {
+        List<Object> result = new ArrayList<>(serializedJobs.size() + serializedTasks.size());
+        for (String value : serializedJobs) {
+            Job<?> job = ObjectMappers.readValue(MAPPER, value, Job.class);
+            result.add(interner == null ? job : interner.intern(job));
+        }
+        for (String value : serializedTasks) {
+            Task task = ObjectMappers.readValue(MAPPER, value, Task.class);
+            result.add(interner == null ? task : interner.intern(task));
+        }
+        return result;
+    }
+
+    public static void main(String[] args) {
+        JobModelInternerBenchmark benchmark = new JobModelInternerBenchmark();
+        benchmark.taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        benchmark.setUp();
+
+        long baseline = usedHeap();
+        List<Object> plain = benchmark.load();
+        long plainSize = usedHeap() - baseline;
+        plain.clear();
+
+        baseline = usedHeap();
+        DefaultRegistry registry = new DefaultRegistry();
+        List<Object> interned = benchmark.load(new JobModelInterner(registry));
+        long internedSize = usedHeap() - baseline;
+
+        System.out.printf("Tasks: %d%n", benchmark.taskCount);
+        System.out.printf("Retained heap without interning: %,d bytes%n", plainSize);
+        System.out.printf("Retained heap with interning:    %,d bytes (%d entities)%n", internedSize, interned.size());
+        System.out.printf("Estimated savings reported by the interner metric: %,d bytes%n",
+                registry.counter("titus.jobManager.interner.savedBytes").count()
+        );
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.json.ObjectMappers;
+import com.netflix.titus.benchmark.CellData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Serialization cost of job/task entities with the object mapper used by the store layer, and of the field
+ * projections used by the REST layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectMappersBenchmark {
+
+    private static final ObjectMapper STORE_MAPPER = ObjectMappers.storeMapper();
+
+    private static final List<String> TASK_FIELDS = Arrays.asList("id", "jobId", "status.state", "status.timestamp");
+
+    @Param({"10000", "200000"})
+    public int taskCount;
+
+    private List<Job<?>> jobs;
+    private List<Task> tasks;
+    private List<String> serializedTasks;
+    private int nextJobIdx;
+    private int nextTaskIdx;
+
+    @Setup
+    public void setUp() {
+        CellData cell = CellData.newCell(taskCount);
+        this.jobs = cell.getJobs();
+        this.tasks = cell.getTasks();
+        this.serializedTasks = new ArrayList<>();
+        tasks.forEach(task -> serializedTasks.add(ObjectMappers.writeValueAsString(STORE_MAPPER, task)));
+    }
+
+    @Benchmark
+    public String writeJob() {
+        Job<?> job = jobs.get(nextJobIdx);
+        nextJobIdx = (nextJobIdx + 1) % jobs.size();
+        return ObjectMappers.writeValueAsString(STORE_MAPPER, job);
+    }
+
+    @Benchmark
+    public String writeTask() {
+        Task task = tasks.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % tasks.size();
+        return ObjectMappers.writeValueAsString(STORE_MAPPER, task);
+    }
+
+    @Benchmark
+    public String writeTaskWithFieldsFilterMapper() throws JsonProcessingException {
+        Task task = tasks.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % tasks.size();
+        return ObjectMappers.applyFieldsFilter(STORE_MAPPER, TASK_FIELDS).writeValueAsString(task);
+    }
+
+    @Benchmark
+    public String writeTaskWithFieldsFilterWriter() throws JsonProcessingException {
+        Task task = tasks.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % tasks.size();
+        return ObjectMappers.fieldsFilterWriter(STORE_MAPPER, TASK_FIELDS).writeValueAsString(task);
+    }
+
+    @Benchmark
+    public Task readTask() {
+        String serialized = serializedTasks.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % serializedTasks.size();
+        return ObjectMappers.readValue(STORE_MAPPER, serialized, Task.class);
+    }
+}
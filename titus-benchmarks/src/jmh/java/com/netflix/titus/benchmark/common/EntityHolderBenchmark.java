@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.common;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.ServiceJobTask;
+import com.netflix.titus.api.jobmanager.model.job.ext.ServiceJobExt;
+import com.netflix.titus.common.framework.reconciler.EntityHolder;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of a single task update in a service job holder (a job root with one child per task), as done by the job
+ * reconciliation engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntityHolderBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int taskCount;
+
+    private EntityHolder root;
+    private EntityHolder[] updatedChildren;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Job<ServiceJobExt> job = JobGenerator.serviceJobs(
+                JobFunctions.changeServiceJobCapacity(JobDescriptorGenerator.oneTaskServiceJobDescriptor(), taskCount)
+        ).getValue();
+        List<ServiceJobTask> tasks = JobGenerator.serviceTasks(job).getValues(taskCount);
+
+        EntityHolder root = EntityHolder.newRoot(job.getId(), job);
+        this.updatedChildren = new EntityHolder[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            ServiceJobTask task = tasks.get(i);
+            root = root.addChild(EntityHolder.newRoot(task.getId(), task));
+            updatedChildren[i] = EntityHolder.newRoot(task.getId(), task.toBuilder().withResubmitNumber(task.getResubmitNumber() + 1).build());
+        }
+        this.root = root;
+    }
+
+    @Benchmark
+    public EntityHolder updateChild() {
+        return root.addChild(nextChild());
+    }
+
+    @Benchmark
+    public List<EntityHolder> updateChildAndGetChildren() {
+        return root.addChild(nextChild()).getChildren();
+    }
+
+    @Benchmark
+    public EntityHolder removeChild() {
+        return root.removeChild(nextChild().getId()).getLeft();
+    }
+
+    private EntityHolder nextChild() {
+        EntityHolder child = updatedChildren[next];
+        next = (next + 1) % updatedChildren.length;
+        return child;
+    }
+}
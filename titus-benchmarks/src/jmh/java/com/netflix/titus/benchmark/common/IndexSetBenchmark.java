@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.common;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.benchmark.CellData;
+import com.netflix.titus.common.framework.reconciler.EntityHolder;
+import com.netflix.titus.common.framework.reconciler.internal.IndexSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IndexSetBenchmark {
+
+    private static final String BY_ID = "byId";
+    private static final String BY_TIMESTAMP = "byTimestamp";
+
+    @Param({"10000", "50000", "200000"})
+    public int taskCount;
+
+    private List<EntityHolder> holders;
+    private IndexSet<EntityHolder> indexSet;
+
+    @Setup
+    public void setUp() {
+        CellData cell = CellData.newCell(taskCount);
+        this.holders = new ArrayList<>();
+        cell.getTasks().forEach(task -> holders.add(EntityHolder.newRoot(task.getId(), task)));
+
+        this.indexSet = IndexSet.newIndexSet(ImmutableMap.<Object, Comparator<EntityHolder>>of(
+                BY_ID, Comparator.comparing(EntityHolder::getId),
+                BY_TIMESTAMP, Comparator.comparingLong((EntityHolder holder) -> holder.<Task>getEntity().getStatus().getTimestamp())
+        )).apply(holders);
+    }
+
+    @Benchmark
+    public List<EntityHolder> applyAll() {
+        // Indexes are built lazily, so read one to include the sorting cost.
+        return indexSet.apply(holders).getOrdered(BY_ID);
+    }
+
+    @Benchmark
+    public List<EntityHolder> getOrdered() {
+        return indexSet.getOrdered(BY_ID);
+    }
+}
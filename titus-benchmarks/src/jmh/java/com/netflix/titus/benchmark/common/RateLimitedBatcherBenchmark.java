@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.common;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.benchmark.CellData;
+import com.netflix.titus.common.util.limiter.Limiters;
+import com.netflix.titus.common.util.rx.batch.Batchable;
+import com.netflix.titus.common.util.rx.batch.LargestPerTimeBucket;
+import com.netflix.titus.common.util.rx.batch.Priority;
+import com.netflix.titus.common.util.rx.batch.RateLimitedBatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+/**
+ * Measures the time to batch (indexed by job id) and emit two updates per task, where the second update for a task
+ * replaces the first one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RateLimitedBatcherBenchmark {
+
+    @Param({"10000", "50000", "200000"})
+    public int taskCount;
+
+    private List<TaskUpdate> updates;
+
+    @Setup
+    public void setUp() {
+        this.updates = new ArrayList<>();
+        List<Task> tasks = CellData.newCell(taskCount).getTasks();
+        tasks.forEach(task -> updates.add(new TaskUpdate(task, "registered", Instant.ofEpochMilli(0))));
+        tasks.forEach(task -> updates.add(new TaskUpdate(task, "deregistered", Instant.ofEpochMilli(1))));
+    }
+
+    @Benchmark
+    public int batchAndEmit() {
+        TestScheduler testScheduler = Schedulers.test();
+        testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        RateLimitedBatcher<TaskUpdate, String> batcher = RateLimitedBatcher.create(
+                Limiters.createFixedIntervalTokenBucket("benchmark", Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 1, TimeUnit.SECONDS),
+                1,
+                1_000,
+                TaskUpdate::getJobId,
+                new LargestPerTimeBucket(0, 60_000, testScheduler),
+                "titus.benchmark.batcher",
+                new DefaultRegistry(),
+                testScheduler
+        );
+
+        AtomicInteger emitted = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        Observable.from(updates).lift(batcher).subscribe(
+                batch -> emitted.addAndGet(batch.getItems().size()),
+                error -> done.set(true),
+                () -> done.set(true)
+        );
+        while (!done.get()) {
+            testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        }
+        return emitted.get();
+    }
+
+    private static class TaskUpdate implements Batchable<String> {
+
+        private final String taskId;
+        private final String jobId;
+        private final String state;
+        private final Instant timestamp;
+
+        private TaskUpdate(Task task, String state, Instant timestamp) {
+            this.taskId = task.getId();
+            this.jobId = task.getJobId();
+            this.state = state;
+            this.timestamp = timestamp;
+        }
+
+        private String getJobId() {
+            return jobId;
+        }
+
+        @Override
+        public String getIdentifier() {
+            return taskId;
+        }
+
+        @Override
+        public Priority getPriority() {
+            return Priority.Low;
+        }
+
+        @Override
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public boolean isEquivalent(Batchable<?> other) {
+            if (!(other instanceof TaskUpdate)) {
+                return false;
+            }
+            TaskUpdate otherUpdate = (TaskUpdate) other;
+            return taskId.equals(otherUpdate.taskId) && state.equals(otherUpdate.state);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.benchmark.CellData;
+import com.netflix.titus.common.framework.reconciler.ChangeAction;
+import com.netflix.titus.common.framework.reconciler.EntityHolder;
+import com.netflix.titus.common.framework.reconciler.ModelActionHolder;
+import com.netflix.titus.common.framework.reconciler.ReconcileEventFactory;
+import com.netflix.titus.common.framework.reconciler.ReconciliationEngine;
+import com.netflix.titus.common.framework.reconciler.internal.DefaultReconciliationEngine;
+import com.netflix.titus.common.framework.reconciler.internal.DefaultReconciliationFramework;
+import com.netflix.titus.common.framework.reconciler.internal.InternalReconciliationEngine;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+/**
+ * Measures the cost of the reconciliation loop with one engine per job (and its tasks as children), both when the
+ * engines are idle, and when a single task is updated in each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReconciliationFrameworkBenchmark {
+
+    private static final long IDLE_TIMEOUT_MS = 100;
+    private static final long ACTIVE_TIMEOUT_MS = 20;
+
+    private static final String BY_ID = "byId";
+
+    private static final Map<Object, Comparator<EntityHolder>> INDEX_COMPARATORS = ImmutableMap.<Object, Comparator<EntityHolder>>of(
+            BY_ID, Comparator.comparing(EntityHolder::getId)
+    );
+
+    @Param({"10000", "50000", "200000"})
+    public int taskCount;
+
+    private TestScheduler testScheduler;
+    private DefaultReconciliationFramework<String> framework;
+    private List<InternalReconciliationEngine<String>> engines;
+    private List<Task> tasks;
+    private int nextTaskIdx;
+
+    @Setup
+    public void setUp() {
+        CellData cell = CellData.newCell(taskCount);
+
+        this.testScheduler = Schedulers.test();
+        TitusRuntime titusRuntime = TitusRuntimes.test(testScheduler);
+
+        this.engines = new ArrayList<>();
+        for (Job<?> job : cell.getJobs()) {
+            EntityHolder root = EntityHolder.newRoot(job.getId(), job);
+            for (Task task : cell.getTasksByJobId().get(job.getId())) {
+                root = root.addChild(EntityHolder.newRoot(task.getId(), task));
+            }
+            engines.add(newEngine(root, titusRuntime));
+        }
+        this.tasks = cell.getTasks();
+
+        this.framework = new DefaultReconciliationFramework<>(
+                engines,
+                bootstrapModel -> newEngine(bootstrapModel, titusRuntime),
+                IDLE_TIMEOUT_MS,
+                ACTIVE_TIMEOUT_MS,
+                INDEX_COMPARATORS,
+                titusRuntime.getRegistry(),
+                Optional.of(testScheduler)
+        );
+        framework.start();
+        testScheduler.triggerActions();
+    }
+
+    @TearDown
+    public void tearDown() {
+        framework.stop(0);
+    }
+
+    @Benchmark
+    public List<EntityHolder> idleIteration() {
+        testScheduler.advanceTimeBy(IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        return framework.orderedView(BY_ID);
+    }
+
+    @Benchmark
+    public List<EntityHolder> taskUpdateIteration() {
+        Task task = tasks.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % tasks.size();
+
+        ReconciliationEngine<String> engine = framework.findEngineByRootId(task.getJobId()).get();
+        engine.changeReferenceModel(newTaskUpdateAction(task)).subscribe();
+
+        // The first iteration starts the transaction, and the next one applies its model updates.
+        testScheduler.advanceTimeBy(ACTIVE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        testScheduler.advanceTimeBy(ACTIVE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        return framework.orderedView(BY_ID);
+    }
+
+    private ChangeAction newTaskUpdateAction(Task task) {
+        return () -> Observable.just(ModelActionHolder.referenceList(rootHolder ->
+                rootHolder.findChildById(task.getId()).map(child -> {
+                    Task current = child.getEntity();
+                    TaskState newState = current.getStatus().getState() == TaskState.Started ? TaskState.Launched : TaskState.Started;
+                    EntityHolder updated = child.setEntity(JobFunctions.changeTaskStatus(current, newState, "benchmark", "benchmark"));
+                    return Pair.of(rootHolder.addChild(updated), updated);
+                })
+        ));
+    }
+
+    private static InternalReconciliationEngine<String> newEngine(EntityHolder bootstrapModel, TitusRuntime titusRuntime) {
+        return new DefaultReconciliationEngine<>(
+                bootstrapModel,
+                false,
+                engine -> Collections.emptyList(),
+                INDEX_COMPARATORS,
+                new StringEventFactory(),
+                changeAction -> Collections.emptyList(),
+                event -> Collections.emptyList(),
+                titusRuntime
+        );
+    }
+
+    private static class StringEventFactory implements ReconcileEventFactory<String> {
+
+        @Override
+        public String newBeforeChangeEvent(ReconciliationEngine<String> engine, ChangeAction changeAction, String transactionId) {
+            return "beforeChange";
+        }
+
+        @Override
+        public String newAfterChangeEvent(ReconciliationEngine<String> engine, ChangeAction changeAction, long waitTimeMs, long executionTimeMs, String transactionId) {
+            return "afterChange";
+        }
+
+        @Override
+        public String newChangeErrorEvent(ReconciliationEngine<String> engine, ChangeAction changeAction, Throwable error, long waitTimeMs, long executionTimeMs, String transactionId) {
+            return "changeError";
+        }
+
+        @Override
+        public String newModelEvent(ReconciliationEngine<String> engine, EntityHolder newRoot) {
+            return "model";
+        }
+
+        @Override
+        public String newModelUpdateEvent(ReconciliationEngine<String> engine, ChangeAction changeAction, ModelActionHolder modelActionHolder, EntityHolder changedEntityHolder, Optional<EntityHolder> previousEntityHolder, String transactionId) {
+            return "modelUpdate";
+        }
+
+        @Override
+        public String newModelUpdateErrorEvent(ReconciliationEngine<String> engine, ChangeAction changeAction, ModelActionHolder modelActionHolder, EntityHolder previousEntityHolder, Throwable error, String transactionId) {
+            return "modelUpdateError";
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.ext;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.json.ObjectMappers;
+import com.netflix.titus.benchmark.CellData;
+import com.netflix.titus.ext.cassandra.store.JobStoreCheckpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Master startup job store load from the serialized store records (the per-record Cassandra read path, without
+ * the network cost), compared with the {@link JobStoreCheckpoint} load and write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JobStoreCheckpointBenchmark {
+
+    private static final ObjectMapper MAPPER = ObjectMappers.storeMapper();
+
+    @Param({"10000", "300000"})
+    public int taskCount;
+
+    private CellData cell;
+    private List<String> serializedJobs;
+    private List<String> serializedTasks;
+    private File checkpointFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.cell = CellData.newCell(taskCount);
+        this.serializedJobs = new ArrayList<>();
+        cell.getJobs().forEach(job -> serializedJobs.add(ObjectMappers.writeValueAsString(MAPPER, job)));
+        this.serializedTasks = new ArrayList<>();
+        cell.getTasks().forEach(task -> serializedTasks.add(ObjectMappers.writeValueAsString(MAPPER, task)));
+
+        this.checkpointFile = File.createTempFile("titusJobStore", ".checkpoint");
+        JobStoreCheckpoint.write(checkpointFile, System.currentTimeMillis(), cell.getJobs(), cell.getTasks(), MAPPER);
+    }
+
+    @TearDown
+    public void tearDown() {
+        checkpointFile.delete();
+    }
+
+    @Benchmark
+    public List<Object> loadStoreRecords() {
+        List<Object> result = new ArrayList<>(serializedJobs.size() + serializedTasks.size());
+        for (String value : serializedJobs) {
+            result.add(ObjectMappers.readValue(MAPPER, value, Job.class));
+        }
+        for (String value : serializedTasks) {
+            result.add(ObjectMappers.readValue(MAPPER, value, Task.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Optional<JobStoreCheckpoint> loadCheckpoint() {
+        return JobStoreCheckpoint.load(checkpointFile, MAPPER);
+    }
+
+    @Benchmark
+    public File writeCheckpoint() throws IOException {
+        JobStoreCheckpoint.write(checkpointFile, System.currentTimeMillis(), cell.getJobs(), cell.getTasks(), MAPPER);
+        return checkpointFile;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.master;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.fenzo.ConstraintEvaluator;
+import com.netflix.fenzo.TaskTrackerState;
+import com.netflix.fenzo.VirtualMachineCurrentState;
+import com.netflix.fenzo.VirtualMachineLease;
+import com.netflix.fenzo.queues.QAttributes;
+import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.agent.service.AgentManagementService;
+import com.netflix.titus.api.agent.service.AgentStatusMonitor;
+import com.netflix.titus.api.model.Tier;
+import com.netflix.titus.common.aws.AwsInstanceType;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
+import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.constraint.AgentManagementConstraint;
+import com.netflix.titus.testkit.model.agent.AgentGenerator;
+import org.apache.mesos.Protos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures {@link AgentManagementConstraint} evaluation of a task against all agents, with and without the eligibility
+ * table prepared, and the cost of preparing the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AgentManagementConstraintBenchmark {
+
+    private static final String INSTANCE_GROUP_ATTRIBUTE = "asg";
+    private static final String INSTANCE_ATTRIBUTE = "id";
+    private static final int INSTANCE_GROUP_SIZE = 100;
+
+    @Param({"1000", "10000"})
+    public int agentCount;
+
+    private V3QueueableTask taskRequest;
+    private List<VirtualMachineCurrentState> agents;
+    private final TaskTrackerState taskTrackerState = mock(TaskTrackerState.class);
+
+    private AgentManagementConstraint preparedConstraint;
+    private AgentManagementConstraint unpreparedConstraint;
+
+    @Setup
+    public void setUp() {
+        SchedulerConfiguration configuration = mock(SchedulerConfiguration.class);
+        when(configuration.getInstanceGroupAttributeName()).thenReturn(INSTANCE_GROUP_ATTRIBUTE);
+        when(configuration.getInstanceAttributeName()).thenReturn(INSTANCE_ATTRIBUTE);
+
+        Map<String, AgentInstanceGroup> instanceGroupsById = new HashMap<>();
+        Map<String, AgentInstance> instancesById = new HashMap<>();
+        List<Pair<AgentInstanceGroup, List<AgentInstance>>> allInstances = new ArrayList<>();
+        this.agents = new ArrayList<>();
+        for (int i = 0; i < agentCount / INSTANCE_GROUP_SIZE; i++) {
+            AgentInstanceGroup instanceGroup = AgentGenerator.agentServerGroup("instanceGroup" + i, Tier.Flex, INSTANCE_GROUP_SIZE, AwsInstanceType.M4_4XLarge);
+            List<AgentInstance> instances = AgentGenerator.agentInstances(instanceGroup).getValues(INSTANCE_GROUP_SIZE);
+            instanceGroupsById.put(instanceGroup.getId(), instanceGroup);
+            instances.forEach(instance -> {
+                instancesById.put(instance.getId(), instance);
+                agents.add(newAgent(instanceGroup.getId(), instance.getId()));
+            });
+            allInstances.add(Pair.of(instanceGroup, instances));
+        }
+
+        AgentManagementService agentManagementService = mock(AgentManagementService.class);
+        when(agentManagementService.getInstanceGroups()).thenReturn(new ArrayList<>(instanceGroupsById.values()));
+        when(agentManagementService.findAgentInstances(any())).thenReturn(allInstances);
+        when(agentManagementService.findInstanceGroup(anyString())).then(invocation -> Optional.ofNullable(instanceGroupsById.get(invocation.getArgument(0))));
+        when(agentManagementService.findAgentInstance(anyString())).then(invocation -> Optional.ofNullable(instancesById.get(invocation.getArgument(0))));
+
+        AgentStatusMonitor agentStatusMonitor = mock(AgentStatusMonitor.class);
+        when(agentStatusMonitor.isHealthy(anyString())).thenReturn(true);
+
+        this.preparedConstraint = new AgentManagementConstraint(configuration, agentManagementService, agentStatusMonitor, TitusRuntimes.internal());
+        preparedConstraint.prepare();
+        this.unpreparedConstraint = new AgentManagementConstraint(configuration, agentManagementService, agentStatusMonitor, TitusRuntimes.internal());
+
+        this.taskRequest = mock(V3QueueableTask.class);
+        QAttributes qAttributes = mock(QAttributes.class);
+        when(qAttributes.getTierNumber()).thenReturn(1);
+        when(taskRequest.getQAttributes()).thenReturn(qAttributes);
+        when(taskRequest.getScalarRequests()).thenReturn(Collections.emptyMap());
+    }
+
+    @Benchmark
+    public int evaluateWithEligibilityTable() {
+        return evaluateAll(preparedConstraint);
+    }
+
+    @Benchmark
+    public int evaluateWithoutEligibilityTable() {
+        return evaluateAll(unpreparedConstraint);
+    }
+
+    @Benchmark
+    public AgentManagementConstraint prepareEligibilityTable() {
+        preparedConstraint.prepare();
+        return preparedConstraint;
+    }
+
+    private int evaluateAll(AgentManagementConstraint constraint) {
+        int accepted = 0;
+        for (VirtualMachineCurrentState agent : agents) {
+            ConstraintEvaluator.Result result = constraint.evaluate(taskRequest, agent, taskTrackerState);
+            if (result.isSuccessful()) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private VirtualMachineCurrentState newAgent(String instanceGroupId, String instanceId) {
+        Map<String, Protos.Attribute> attributes = new HashMap<>();
+        attributes.put(INSTANCE_GROUP_ATTRIBUTE, newAttribute(INSTANCE_GROUP_ATTRIBUTE, instanceGroupId));
+        attributes.put(INSTANCE_ATTRIBUTE, newAttribute(INSTANCE_ATTRIBUTE, instanceId));
+
+        VirtualMachineLease lease = mock(VirtualMachineLease.class);
+        when(lease.getAttributeMap()).thenReturn(attributes);
+
+        VirtualMachineCurrentState agent = mock(VirtualMachineCurrentState.class);
+        when(agent.getCurrAvailableResources()).thenReturn(lease);
+        return agent;
+    }
+
+    private Protos.Attribute newAttribute(String name, String value) {
+        return Protos.Attribute.newBuilder()
+                .setName(name)
+                .setType(Protos.Value.Type.TEXT)
+                .setText(Protos.Value.Text.newBuilder().setValue(value))
+                .build();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.master;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.fenzo.TaskRequest;
+import com.netflix.fenzo.TaskTrackerState;
+import com.netflix.fenzo.VirtualMachineCurrentState;
+import com.netflix.fenzo.VirtualMachineLease;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.agent.service.AgentManagementService;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.model.Tier;
+import com.netflix.titus.benchmark.CellData;
+import com.netflix.titus.common.aws.AwsInstanceType;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
+import com.netflix.titus.master.scheduler.AgentQualityTracker;
+import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.constraint.ConstraintEvaluatorTransformer;
+import com.netflix.titus.master.scheduler.constraint.SystemHardConstraint;
+import com.netflix.titus.master.scheduler.constraint.SystemSoftConstraint;
+import com.netflix.titus.master.scheduler.fitness.AgentManagementFitnessCalculator;
+import com.netflix.titus.master.scheduler.fitness.TitusFitnessCalculator;
+import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
+import com.netflix.titus.testkit.model.agent.AgentGenerator;
+import org.apache.mesos.Protos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures {@link TitusFitnessCalculator} cost for a single (task, agent) pair, and for finding the best agent
+ * for a task in a cell where all tasks are already running, {@link #TASKS_PER_AGENT} per agent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class TitusFitnessCalculatorBenchmark {
+
+    private static final int TASKS_PER_AGENT = 20;
+
+    private static final String INSTANCE_GROUP_ATTRIBUTE = "asg";
+    private static final String INSTANCE_GROUP_ID = "instanceGroup1";
+
+    @Param({"10000", "50000", "200000"})
+    public int taskCount;
+
+    @Param({"Flex", "Critical"})
+    public Tier tier;
+
+    private TitusFitnessCalculator fitnessCalculator;
+    private List<TaskRequest> taskRequests;
+    private List<VirtualMachineCurrentState> agents;
+    private final TaskTrackerState taskTrackerState = mock(TaskTrackerState.class);
+
+    private int nextTaskIdx;
+    private int nextAgentIdx;
+
+    @Setup
+    public void setUp() {
+        SchedulerConfiguration configuration = mock(SchedulerConfiguration.class);
+        when(configuration.getInstanceGroupAttributeName()).thenReturn(INSTANCE_GROUP_ATTRIBUTE);
+
+        AgentInstanceGroup instanceGroup = AgentGenerator.agentServerGroup(INSTANCE_GROUP_ID, tier, taskCount / TASKS_PER_AGENT, AwsInstanceType.M4_4XLarge);
+        AgentManagementService agentManagementService = mock(AgentManagementService.class);
+        when(agentManagementService.getInstanceGroup(anyString())).thenReturn(instanceGroup);
+
+        AgentQualityTracker agentQualityTracker = mock(AgentQualityTracker.class);
+        when(agentQualityTracker.qualityOf(anyString())).thenReturn(1.0);
+
+        this.fitnessCalculator = new TitusFitnessCalculator(
+                configuration,
+                new AgentManagementFitnessCalculator(configuration, agentManagementService, agentQualityTracker),
+                mock(AgentResourceCache.class)
+        );
+
+        CellData cell = CellData.newCell(taskCount);
+        Map<String, Job<?>> jobsById = cell.getJobsById();
+        ConstraintEvaluatorTransformer<Pair<String, String>> transformer = mock(ConstraintEvaluatorTransformer.class);
+        SystemSoftConstraint systemSoftConstraint = mock(SystemSoftConstraint.class);
+        SystemHardConstraint systemHardConstraint = mock(SystemHardConstraint.class);
+
+        this.taskRequests = new ArrayList<>();
+        for (Task task : cell.getTasks()) {
+            taskRequests.add(new V3QueueableTask(
+                    tier,
+                    null,
+                    jobsById.get(task.getJobId()),
+                    task,
+                    Collections::emptySet,
+                    transformer,
+                    systemSoftConstraint,
+                    systemHardConstraint
+            ));
+        }
+
+        // Interleave tasks of different jobs on the agents.
+        Collections.shuffle(taskRequests, new Random(0));
+        this.agents = new ArrayList<>();
+        for (int i = 0; i < taskRequests.size(); i += TASKS_PER_AGENT) {
+            List<TaskRequest> running = taskRequests.subList(i, Math.min(i + TASKS_PER_AGENT, taskRequests.size()));
+            agents.add(newAgent("agent" + agents.size(), running));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double singleFitness() {
+        TaskRequest taskRequest = taskRequests.get(nextTaskIdx);
+        VirtualMachineCurrentState agent = agents.get(nextAgentIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % taskRequests.size();
+        nextAgentIdx = (nextAgentIdx + 1) % agents.size();
+        return fitnessCalculator.calculateFitness(taskRequest, agent, taskTrackerState);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public VirtualMachineCurrentState bestFitAgent() {
+        TaskRequest taskRequest = taskRequests.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % taskRequests.size();
+
+        VirtualMachineCurrentState best = null;
+        double bestFitness = -1;
+        for (VirtualMachineCurrentState agent : agents) {
+            double fitness = fitnessCalculator.calculateFitness(taskRequest, agent, taskTrackerState);
+            if (fitness > bestFitness) {
+                best = agent;
+                bestFitness = fitness;
+            }
+        }
+        return best;
+    }
+
+    private VirtualMachineCurrentState newAgent(String hostname, List<TaskRequest> runningTasks) {
+        Map<String, Protos.Attribute> attributes = new HashMap<>();
+        attributes.put(INSTANCE_GROUP_ATTRIBUTE, Protos.Attribute.newBuilder()
+                .setName(INSTANCE_GROUP_ATTRIBUTE)
+                .setType(Protos.Value.Type.TEXT)
+                .setText(Protos.Value.Text.newBuilder().setValue(INSTANCE_GROUP_ID))
+                .build()
+        );
+        VirtualMachineLease lease = mock(VirtualMachineLease.class);
+        when(lease.hostname()).thenReturn(hostname);
+        when(lease.cpuCores()).thenReturn(16.0);
+        when(lease.memoryMB()).thenReturn(64.0 * 1024);
+        when(lease.getAttributeMap()).thenReturn(attributes);
+
+        VirtualMachineCurrentState agent = mock(VirtualMachineCurrentState.class);
+        when(agent.getHostname()).thenReturn(hostname);
+        when(agent.getCurrAvailableResources()).thenReturn(lease);
+        when(agent.getRunningTasks()).thenReturn(new ArrayList<>(runningTasks));
+        when(agent.getTasksCurrentlyAssigned()).thenReturn(Collections.emptyList());
+        return agent;
+    }
+}
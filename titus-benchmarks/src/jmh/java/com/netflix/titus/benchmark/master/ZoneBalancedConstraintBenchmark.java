@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.master;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.fenzo.TaskTracker;
+import com.netflix.fenzo.TaskTrackerState;
+import com.netflix.fenzo.VirtualMachineCurrentState;
+import com.netflix.fenzo.VirtualMachineLease;
+import com.netflix.titus.api.jobmanager.TaskAttributes;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.ServiceJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.ServiceJobExt;
+import com.netflix.titus.api.jobmanager.service.V3JobOperations;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
+import com.netflix.titus.master.scheduler.constraint.TaskCache;
+import com.netflix.titus.master.scheduler.constraint.V3ZoneBalancedFitnessCalculator;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.apache.mesos.Protos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the zone balancing cost of a single scheduling iteration, which places all tasks of a large service job
+ * scale up. Each task is evaluated against all agents, and assigned to the best fitting one, so the number of
+ * tasks assigned in the iteration grows as the iteration progresses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ZoneBalancedConstraintBenchmark {
+
+    private static final String ZONE_ATTRIBUTE = "zone";
+    private static final String[] ZONES = {"zoneA", "zoneB", "zoneC"};
+    private static final int AGENTS_PER_ZONE = 10;
+
+    @Param({"1000", "5000"})
+    public int taskCount;
+
+    private final Map<String, TaskTracker.ActiveTask> assignedTasks = new HashMap<>();
+    private final TaskTrackerState taskTrackerState = mock(TaskTrackerState.class);
+
+    private TaskCache taskCache;
+    private V3ZoneBalancedFitnessCalculator fitnessCalculator;
+    private V3QueueableTask taskRequest;
+    private List<VirtualMachineCurrentState> agents;
+    private Map<String, TaskTracker.ActiveTask> activeTaskByZoneId;
+    private List<String> taskIds;
+
+    @Setup
+    public void setUp() {
+        Job<ServiceJobExt> job = JobGenerator.serviceJobs(JobDescriptorGenerator.oneTaskServiceJobDescriptor()).getValue();
+
+        // Running tasks of the job, evenly spread across the zones.
+        List<Task> runningTasks = new ArrayList<>();
+        List<ServiceJobTask> tasks = JobGenerator.serviceTasks(job).getValues(taskCount);
+        for (int i = 0; i < tasks.size(); i++) {
+            runningTasks.add(tasks.get(i).toBuilder()
+                    .addToTaskContext(TaskAttributes.TASK_ATTRIBUTES_AGENT_ZONE, ZONES[i % ZONES.length])
+                    .build()
+            );
+        }
+        V3JobOperations v3JobOperations = mock(V3JobOperations.class);
+        List<Pair<Job, List<Task>>> jobsAndTasks = Collections.singletonList(Pair.<Job, List<Task>>of(job, runningTasks));
+        when(v3JobOperations.getJobsAndTasks()).thenReturn(jobsAndTasks);
+        when(taskTrackerState.getAllCurrentlyAssignedTasks()).thenReturn(assignedTasks);
+
+        this.taskCache = new TaskCache(v3JobOperations);
+        this.fitnessCalculator = new V3ZoneBalancedFitnessCalculator(taskCache, ZONES.length, ZONE_ATTRIBUTE);
+
+        this.taskRequest = mock(V3QueueableTask.class);
+        when(taskRequest.getJob()).thenReturn(job);
+
+        this.agents = new ArrayList<>();
+        this.activeTaskByZoneId = new HashMap<>();
+        for (String zoneId : ZONES) {
+            VirtualMachineLease lease = newLease(zoneId);
+            for (int i = 0; i < AGENTS_PER_ZONE; i++) {
+                VirtualMachineCurrentState agent = mock(VirtualMachineCurrentState.class);
+                when(agent.getCurrAvailableResources()).thenReturn(lease);
+                agents.add(agent);
+            }
+            TaskTracker.ActiveTask activeTask = mock(TaskTracker.ActiveTask.class);
+            when(activeTask.getTaskRequest()).thenReturn(taskRequest);
+            when(activeTask.getTotalLease()).thenReturn(lease);
+            activeTaskByZoneId.put(zoneId, activeTask);
+        }
+
+        this.taskIds = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            taskIds.add("newTask" + i);
+        }
+    }
+
+    @Benchmark
+    public int schedulingIteration() {
+        assignedTasks.clear();
+        taskCache.prepare();
+
+        for (String taskId : taskIds) {
+            String bestZoneId = null;
+            double bestFitness = -1;
+            for (VirtualMachineCurrentState agent : agents) {
+                double fitness = fitnessCalculator.calculateFitness(taskRequest, agent, taskTrackerState);
+                if (fitness > bestFitness) {
+                    bestZoneId = agent.getCurrAvailableResources().getAttributeMap().get(ZONE_ATTRIBUTE).getText().getValue();
+                    bestFitness = fitness;
+                }
+            }
+            assignedTasks.put(taskId, activeTaskByZoneId.get(bestZoneId));
+        }
+        return assignedTasks.size();
+    }
+
+    private VirtualMachineLease newLease(String zoneId) {
+        Map<String, Protos.Attribute> attributes = Collections.singletonMap(ZONE_ATTRIBUTE, Protos.Attribute.newBuilder()
+                .setName(ZONE_ATTRIBUTE)
+                .setType(Protos.Value.Type.TEXT)
+                .setText(Protos.Value.Text.newBuilder().setValue(zoneId))
+                .build()
+        );
+        VirtualMachineLease lease = mock(VirtualMachineLease.class);
+        when(lease.getAttributeMap()).thenReturn(attributes);
+        return lease;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.archaius.ConfigProxyFactory;
+import com.netflix.archaius.config.MapConfig;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.benchmark.CellData;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
+import com.netflix.titus.runtime.endpoint.v3.grpc.GrpcObjectsCache;
+import com.netflix.titus.runtime.endpoint.v3.grpc.GrpcObjectsCacheConfiguration;
+import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Conversion of all tasks of a cell to the GRPC model, as done by a findTasks sweep or a job event stream snapshot,
+ * with and without {@link GrpcObjectsCache}. In the cached variant the tasks do not change between sweeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GrpcObjectsCacheBenchmark {
+
+    private static final LogStorageInfo<Task> LOG_STORAGE_INFO = new EmptyLogStorageInfo<>();
+
+    @Param({"100000"})
+    public int taskCount;
+
+    private List<Task> tasks;
+    private GrpcObjectsCache cache;
+
+    @Setup
+    public void setUp() {
+        this.tasks = CellData.newCell(taskCount).getTasks();
+
+        GrpcObjectsCacheConfiguration configuration = new ConfigProxyFactory(MapConfig.from(Collections.emptyMap()))
+                .newProxy(GrpcObjectsCacheConfiguration.class);
+        this.cache = new GrpcObjectsCache(configuration, LOG_STORAGE_INFO, TitusRuntimes.internal());
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Benchmark
+    public List<com.netflix.titus.grpc.protogen.Task> sweepUncached() {
+        List<com.netflix.titus.grpc.protogen.Task> result = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> result.add(V3GrpcModelConverters.toGrpcTask(task, LOG_STORAGE_INFO)));
+        return result;
+    }
+
+    @Benchmark
+    public List<com.netflix.titus.grpc.protogen.Task> sweepCached() {
+        List<com.netflix.titus.grpc.protogen.Task> result = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> result.add(cache.getTask(task)));
+        return result;
+    }
+}
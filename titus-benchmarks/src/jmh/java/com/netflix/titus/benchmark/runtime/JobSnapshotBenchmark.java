@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.TaskState;
+import com.netflix.titus.benchmark.CellData;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.runtime.connector.jobmanager.JobSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JobSnapshotBenchmark {
+
+    @Param({"10000", "50000", "200000"})
+    public int taskCount;
+
+    private CellData cell;
+    private JobSnapshot snapshot;
+    private List<Task> updatedTasks;
+    private int nextTaskIdx;
+
+    @Setup
+    public void setUp() {
+        this.cell = CellData.newCell(taskCount);
+        this.snapshot = JobSnapshot.newInstance("benchmark", cell.getJobsById(), cell.getTasksByJobId());
+        this.updatedTasks = new ArrayList<>();
+        cell.getTasks().forEach(task -> updatedTasks.add(JobFunctions.changeTaskStatus(task, TaskState.Started, "benchmark", "benchmark")));
+    }
+
+    @Benchmark
+    public JobSnapshot newInstance() {
+        return JobSnapshot.newInstance("benchmark", cell.getJobsById(), cell.getTasksByJobId());
+    }
+
+    @Benchmark
+    public Optional<JobSnapshot> updateTask() {
+        Task task = updatedTasks.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % updatedTasks.size();
+        return snapshot.updateTask(task, false);
+    }
+
+    @Benchmark
+    public Optional<Pair<Job<?>, Task>> findTaskById() {
+        Task task = updatedTasks.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % updatedTasks.size();
+        return snapshot.findTaskById(task.getId());
+    }
+
+    @Benchmark
+    public List<Task> getTasks() {
+        return snapshot.getTasks();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.benchmark.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.benchmark.CellData;
+import com.netflix.titus.common.util.CollectionsExt;
+import com.netflix.titus.common.util.ProtobufExt;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
+import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcFieldsProjection;
+import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class V3GrpcModelConvertersBenchmark {
+
+    private static final LogStorageInfo<Task> LOG_STORAGE_INFO = new EmptyLogStorageInfo<>();
+
+    /**
+     * Typical dashboard projection.
+     */
+    private static final Set<String> TASK_FIELDS = CollectionsExt.asSet("id", "status", "jobId");
+
+    @Param({"10000", "50000", "200000"})
+    public int taskCount;
+
+    private CellData cell;
+    private Map<String, Job<?>> jobsById;
+    private List<com.netflix.titus.grpc.protogen.Task> grpcTasks;
+    private int nextTaskIdx;
+
+    @Setup
+    public void setUp() {
+        this.cell = CellData.newCell(taskCount);
+        this.jobsById = cell.getJobsById();
+        this.grpcTasks = new ArrayList<>();
+        cell.getTasks().forEach(task -> grpcTasks.add(V3GrpcModelConverters.toGrpcTask(task, LOG_STORAGE_INFO)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public com.netflix.titus.grpc.protogen.Task toGrpcTask() {
+        Task task = cell.getTasks().get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % taskCount();
+        return V3GrpcModelConverters.toGrpcTask(task, LOG_STORAGE_INFO);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public com.netflix.titus.grpc.protogen.Task toGrpcTaskWithCopyProjection() {
+        Task task = cell.getTasks().get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % taskCount();
+        return ProtobufExt.copy(V3GrpcModelConverters.toGrpcTask(task, LOG_STORAGE_INFO), TASK_FIELDS);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public com.netflix.titus.grpc.protogen.Task toGrpcTaskWithFieldsProjection() {
+        Task task = cell.getTasks().get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % taskCount();
+        return V3GrpcFieldsProjection.of(TASK_FIELDS).toGrpcTask(task, LOG_STORAGE_INFO);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Task toCoreTask() {
+        com.netflix.titus.grpc.protogen.Task grpcTask = grpcTasks.get(nextTaskIdx);
+        nextTaskIdx = (nextTaskIdx + 1) % taskCount();
+        return V3GrpcModelConverters.toCoreTask(jobsById.get(grpcTask.getJobId()), grpcTask);
+    }
+
+    /**
+     * Conversion of the whole cell, as done when a client queries all jobs and tasks, or subscribes to the job event
+     * stream with the snapshot option.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Object> toGrpcAll() {
+        List<Object> result = new ArrayList<>(cell.getJobs().size() + cell.getTasks().size());
+        cell.getJobs().forEach(job -> result.add(V3GrpcModelConverters.toGrpcJob(job)));
+        cell.getTasks().forEach(task -> result.add(V3GrpcModelConverters.toGrpcTask(task, LOG_STORAGE_INFO)));
+        return result;
+    }
+
+    private int taskCount() {
+        return cell.getTasks().size();
+    }
+}
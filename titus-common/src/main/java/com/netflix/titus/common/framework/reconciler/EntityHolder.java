@@ -16,7 +16,6 @@
 
 package com.netflix.titus.common.framework.reconciler;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -24,27 +23,40 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
+import com.netflix.titus.common.util.collections.PersistentHashMap;
 import com.netflix.titus.common.util.tuple.Pair;
 
 /**
  * Composite entity hierarchy. The parent-child association runs from parent to child only. {@link EntityHolder} instances
  * are immutable, thus each change produces a new version of an entity. Also each child update requires update of a parent
  * entity, when the reference to the child changes (a new version is created).
+ * <p>
+ * Children are kept in a {@link PersistentHashMap}, so adding, updating or removing a child does not copy the collection
+ * of all children. The list returned by {@link #getChildren()} is created on first access.
  */
 public class EntityHolder {
 
     private final String id;
     private final Object entity;
 
-    private final List<EntityHolder> children;
-    private final Map<String, EntityHolder> childrenById;
+    private final PersistentHashMap<String, EntityHolder> childrenById;
     private final Map<String, Object> attributes;
 
-    private EntityHolder(String id, Object entity, Map<String, EntityHolder> childrenById, Map<String, Object> attributes) {
+    private volatile List<EntityHolder> children;
+
+    private EntityHolder(String id, Object entity, PersistentHashMap<String, EntityHolder> childrenById, Map<String, Object> attributes) {
+        this(id, entity, childrenById, null, attributes);
+    }
+
+    private EntityHolder(String id,
+                         Object entity,
+                         PersistentHashMap<String, EntityHolder> childrenById,
+                         List<EntityHolder> children,
+                         Map<String, Object> attributes) {
         this.id = id;
         this.entity = entity;
         this.childrenById = childrenById;
-        this.children = new ArrayList<>(childrenById.values());
+        this.children = children;
         this.attributes = attributes;
     }
 
@@ -57,6 +69,10 @@ public class EntityHolder {
     }
 
     public List<EntityHolder> getChildren() {
+        // Benign race: concurrent readers may build the list more than once, but the result is always the same.
+        if (children == null) {
+            children = childrenById.values();
+        }
         return children;
     }
 
@@ -72,14 +88,14 @@ public class EntityHolder {
     }
 
     public Optional<EntityHolder> findChildById(String childId) {
-        if (children.isEmpty()) {
+        if (childrenById.isEmpty()) {
             return Optional.empty();
         }
         EntityHolder entityHolder = childrenById.get(childId);
         if (entityHolder != null) {
             return Optional.of(entityHolder);
         }
-        for (EntityHolder child : children) {
+        for (EntityHolder child : getChildren()) {
             Optional<EntityHolder> result = child.findChildById(childId);
             if (result.isPresent()) {
                 return result;
@@ -89,26 +105,22 @@ public class EntityHolder {
     }
 
     public EntityHolder addChild(EntityHolder child) {
-        Map<String, EntityHolder> newChildrenById = new HashMap<>(childrenById);
-        newChildrenById.put(child.getId(), child);
-        return new EntityHolder(id, entity, newChildrenById, attributes);
+        return new EntityHolder(id, entity, childrenById.put(child.getId(), child), attributes);
     }
 
     public Pair<EntityHolder, Optional<EntityHolder>> removeChild(String id) {
-        if (!childrenById.containsKey(id)) {
+        EntityHolder removedChild = childrenById.get(id);
+        if (removedChild == null) {
             return Pair.of(this, Optional.empty());
         }
-        Map<String, EntityHolder> newChildrenById = new HashMap<>(childrenById);
-        EntityHolder removedChild = newChildrenById.remove(id);
-
-        EntityHolder newRoot = new EntityHolder(this.id, this.entity, newChildrenById, this.attributes);
+        EntityHolder newRoot = new EntityHolder(this.id, this.entity, childrenById.remove(id), this.attributes);
         return Pair.of(newRoot, Optional.of(removedChild));
     }
 
     public EntityHolder addTag(String tagName, Object tagValue) {
         Map<String, Object> newTags = new HashMap<>(attributes);
         newTags.put(tagName, tagValue);
-        return new EntityHolder(id, entity, childrenById, newTags);
+        return new EntityHolder(id, entity, childrenById, children, newTags);
     }
 
     public EntityHolder removeTag(String tagName) {
@@ -117,19 +129,19 @@ public class EntityHolder {
         }
         Map<String, Object> newTags = new HashMap<>(attributes);
         newTags.remove(tagName);
-        return new EntityHolder(id, entity, childrenById, newTags);
+        return new EntityHolder(id, entity, childrenById, children, newTags);
     }
 
     public <E> EntityHolder setEntity(E entity) {
-        return new EntityHolder(id, entity, childrenById, attributes);
+        return new EntityHolder(id, entity, childrenById, children, attributes);
     }
 
     public void visit(Consumer<EntityHolder> visitor) {
         visitor.accept(this);
-        children.forEach(c -> c.visit(visitor));
+        getChildren().forEach(c -> c.visit(visitor));
     }
 
     public static <E> EntityHolder newRoot(String id, E entity) {
-        return new EntityHolder(id, entity, Collections.emptyMap(), Collections.emptyMap());
+        return new EntityHolder(id, entity, PersistentHashMap.empty(), Collections.emptyMap());
     }
 }
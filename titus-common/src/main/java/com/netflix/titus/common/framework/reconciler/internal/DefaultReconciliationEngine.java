@@ -17,7 +17,9 @@
 package com.netflix.titus.common.framework.reconciler.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +27,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import com.netflix.spectator.api.Tag;
 import com.netflix.titus.common.framework.reconciler.ChangeAction;
@@ -39,10 +42,24 @@ import rx.Observable;
 import rx.Subscriber;
 import rx.subjects.PublishSubject;
 
+/**
+ * By default an engine runs one transaction at a time. All queued reference change actions with non-overlapping change
+ * points are started together, and the next batch starts only after all of them complete. In the pipelined mode,
+ * a reference change action is started as soon as its change point does not overlap with the change points of
+ * the transactions in flight, so for example store updates of independent tasks can run concurrently. Actions are
+ * still started in the order of arrival, and reconciler actions still run exclusively. To run the difference resolver,
+ * which also requires no transactions in flight, new reference change actions are held back if the resolver was not
+ * evaluated for {@link #MAX_DIFFERENCE_RESOLVER_DELAY_MS}.
+ */
 public class DefaultReconciliationEngine<EVENT> implements InternalReconciliationEngine<EVENT> {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultReconciliationEngine.class);
 
+    /**
+     * Maximum time between two difference resolver evaluations in the pipelined mode.
+     */
+    static final long MAX_DIFFERENCE_RESOLVER_DELAY_MS = 1_000;
+
     private final AtomicLong nextTransactionId = new AtomicLong();
 
     private final DifferenceResolver<EVENT> runningDifferenceResolver;
@@ -55,15 +72,29 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
     private final ReconciliationEngineMetrics<EVENT> metrics;
     private final TitusRuntime titusRuntime;
     private final Clock clock;
+    private final boolean pipelinedTransactions;
 
     private IndexSet<EntityHolder> indexSet;
 
-    private Transaction pendingTransaction = EmptyTransaction.EMPTY;
+    private final List<PendingTransaction> pendingTransactions = new ArrayList<>();
 
     private final PublishSubject<EVENT> eventSubject = PublishSubject.create();
     private final Observable<EVENT> eventObservable;
 
     private boolean firstTrigger;
+    private long lastDifferenceResolverTimestamp;
+
+    public DefaultReconciliationEngine(EntityHolder bootstrapModel,
+                                       boolean newlyCreated,
+                                       DifferenceResolver<EVENT> runningDifferenceResolver,
+                                       Map<Object, Comparator<EntityHolder>> indexComparators,
+                                       ReconcileEventFactory<EVENT> eventFactory,
+                                       Function<ChangeAction, List<Tag>> extraChangeActionTags,
+                                       Function<EVENT, List<Tag>> extraModelActionTags,
+                                       TitusRuntime titusRuntime) {
+        this(bootstrapModel, newlyCreated, runningDifferenceResolver, indexComparators, eventFactory, extraChangeActionTags,
+                extraModelActionTags, false, titusRuntime);
+    }
 
     public DefaultReconciliationEngine(EntityHolder bootstrapModel,
                                        boolean newlyCreated,
@@ -72,36 +103,44 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
                                        ReconcileEventFactory<EVENT> eventFactory,
                                        Function<ChangeAction, List<Tag>> extraChangeActionTags,
                                        Function<EVENT, List<Tag>> extraModelActionTags,
+                                       boolean pipelinedTransactions,
                                        TitusRuntime titusRuntime) {
         this.runningDifferenceResolver = runningDifferenceResolver;
         this.eventFactory = eventFactory;
         this.indexSet = IndexSet.newIndexSet(indexComparators);
         this.titusRuntime = titusRuntime;
         this.clock = titusRuntime.getClock();
+        this.pipelinedTransactions = pipelinedTransactions;
         this.eventObservable = ObservableExt.protectFromMissingExceptionHandlers(eventSubject, logger);
         this.modelHolder = new ModelHolder(bootstrapModel, bootstrapModel, bootstrapModel);
         this.firstTrigger = newlyCreated;
+        this.lastDifferenceResolverTimestamp = clock.wallTime();
         this.metrics = new ReconciliationEngineMetrics<>(extraChangeActionTags, extraModelActionTags, titusRuntime.getRegistry(), clock);
         indexEntityHolder(bootstrapModel);
     }
 
     @Override
     public boolean applyModelUpdates() {
-        return pendingTransaction.applyModelUpdates(modelHolder)
-                .map(newModelHolder -> {
-                    boolean isReferenceModelChanged = newModelHolder != modelHolder && newModelHolder.getReference() != modelHolder.getReference();
-                    this.modelHolder = newModelHolder;
-                    if (isReferenceModelChanged) {
-                        indexEntityHolder(modelHolder.getReference());
-                    }
-                    return isReferenceModelChanged;
-                })
-                .orElse(false);
+        ModelHolder newModelHolder = modelHolder;
+        for (PendingTransaction pending : pendingTransactions) {
+            newModelHolder = pending.getTransaction().applyModelUpdates(newModelHolder).orElse(newModelHolder);
+        }
+        boolean isReferenceModelChanged = newModelHolder != modelHolder && newModelHolder.getReference() != modelHolder.getReference();
+        this.modelHolder = newModelHolder;
+        if (isReferenceModelChanged) {
+            indexEntityHolder(modelHolder.getReference());
+        }
+        return isReferenceModelChanged;
     }
 
     @Override
     public boolean hasPendingTransactions() {
-        return !pendingTransaction.isClosed() || !referenceChangeActions.isEmpty();
+        for (PendingTransaction pending : pendingTransactions) {
+            if (!pending.getTransaction().isClosed()) {
+                return true;
+            }
+        }
+        return !referenceChangeActions.isEmpty();
     }
 
     @Override
@@ -122,35 +161,48 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
             eventsToEmit.forEach(this::emitEvent);
         }
 
-        pendingTransaction.emitEvents();
+        pendingTransactions.forEach(pending -> pending.getTransaction().emitEvents());
     }
 
     @Override
     public boolean closeFinishedTransactions() {
-        return pendingTransaction.completeSubscribers();
+        boolean anyChange = false;
+        for (PendingTransaction pending : pendingTransactions) {
+            anyChange = pending.getTransaction().completeSubscribers() | anyChange;
+        }
+        removeClosedTransactions();
+        return anyChange;
     }
 
     @Override
     public boolean triggerActions() {
-        if (!pendingTransaction.isClosed()) {
+        removeClosedTransactions();
+        if (!pendingTransactions.isEmpty() && (!pipelinedTransactions || isReconcileTransactionPending())) {
             return true;
         }
 
         long startTimeNs = clock.nanoTime();
         try {
-            // Start next reference change action, if present and exit.
-            if (startNextReferenceChangeAction()) {
+            // Start next reference change action, if present and exit. If the difference resolver is overdue, no new
+            // actions are started, so the ones in flight can complete.
+            boolean differenceResolverOverdue = isDifferenceResolverOverdue();
+            if (!differenceResolverOverdue && startNextReferenceChangeAction()) {
+                return true;
+            }
+            // In the pipelined mode we get here with reference change actions still in flight.
+            if (!pendingTransactions.isEmpty()) {
                 return true;
             }
 
             // Compute the current difference between the reference and persistent/runtime models, and create a list
             // of actions to correct that. The returned action set can be run in parallel.
+            lastDifferenceResolverTimestamp = clock.wallTime();
             List<ChangeAction> reconcileActions = runningDifferenceResolver.apply(this);
             if (!reconcileActions.isEmpty()) {
                 startReconcileAction(reconcileActions);
                 return true;
             }
-            return false;
+            return differenceResolverOverdue && startNextReferenceChangeAction();
         } catch (Exception e) {
             metrics.evaluated(clock.nanoTime() - startTimeNs, e);
             titusRuntime.getCodeInvariants().unexpectedError("Unexpected error in ReconciliationEngine", e);
@@ -201,7 +253,7 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
     }
 
     void shutdown() {
-        pendingTransaction.close();
+        pendingTransactions.forEach(pending -> pending.getTransaction().close());
         eventSubject.onCompleted();
         metrics.shutdown();
     }
@@ -226,7 +278,7 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
         try {
             ChangeActionHolder actionHolder;
             List<Transaction> transactions = new ArrayList<>();
-            List<EntityHolder> changePoints = new ArrayList<>();
+            List<EntityHolder> changePoints = findInFlightChangePoints();
             while ((actionHolder = referenceChangeActions.peek()) != null) {
                 // Ignore all unsubscribed actions
                 Subscriber<Void> subscriber = actionHolder.getSubscriber();
@@ -239,7 +291,11 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
                 Optional<EntityHolder> changePointOpt = modelHolder.getReference().findById(actionHolder.getEntityHolderId());
                 if (!changePointOpt.isPresent()) {
                     referenceChangeActions.poll();
-                    transactions.add(new FailedTransaction<>(this, actionHolder, new IllegalStateException("Entity holder not found: id=" + actionHolder.getEntityHolderId())));
+                    Transaction transaction = new FailedTransaction<>(this, actionHolder, new IllegalStateException("Entity holder not found: id=" + actionHolder.getEntityHolderId()));
+                    if (pipelinedTransactions) {
+                        pendingTransactions.add(new PendingTransaction(transaction, Collections.emptyList(), false, clock.wallTime()));
+                    }
+                    transactions.add(transaction);
                     continue;
                 }
 
@@ -257,21 +313,73 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
                 } catch (Exception e) {
                     transaction = new FailedTransaction<>(this, actionHolder, e);
                 }
-                transactions.add(transaction);
                 referenceChangeActions.poll();
+
+                if (pipelinedTransactions) {
+                    pendingTransactions.add(new PendingTransaction(transaction, Collections.singletonList(changePoint.getId()), false, clock.wallTime()));
+                }
+                transactions.add(transaction);
             }
 
             if (transactions.isEmpty()) {
                 return false;
             }
 
-            pendingTransaction = transactions.size() == 1 ? transactions.get(0) : new CompositeTransaction(transactions);
+            if (!pipelinedTransactions) {
+                Transaction transaction = transactions.size() == 1 ? transactions.get(0) : new CompositeTransaction(transactions);
+                List<String> changePointIds = changePoints.stream().map(EntityHolder::getId).collect(Collectors.toList());
+                pendingTransactions.add(new PendingTransaction(transaction, changePointIds, false, clock.wallTime()));
+            }
             return true;
         } finally {
             metrics.updateChangeActionQueueSize(referenceChangeActions.size());
         }
     }
 
+    /**
+     * Change points of the reference change actions in flight, resolved against the current reference model, so
+     * children added after a transaction started are taken into account.
+     */
+    private List<EntityHolder> findInFlightChangePoints() {
+        List<EntityHolder> changePoints = new ArrayList<>();
+        EntityHolder reference = modelHolder.getReference();
+        for (PendingTransaction pending : pendingTransactions) {
+            for (String changePointId : pending.getChangePointIds()) {
+                reference.findById(changePointId).ifPresent(changePoints::add);
+            }
+        }
+        return changePoints;
+    }
+
+    /**
+     * In the pipelined mode, as long as new reference change actions arrive, some of them are always in flight, and
+     * the difference resolver would never run. To prevent that, it is run at least every
+     * {@link #MAX_DIFFERENCE_RESOLVER_DELAY_MS}.
+     */
+    private boolean isDifferenceResolverOverdue() {
+        return pipelinedTransactions && clock.wallTime() - lastDifferenceResolverTimestamp >= MAX_DIFFERENCE_RESOLVER_DELAY_MS;
+    }
+
+    private boolean isReconcileTransactionPending() {
+        for (PendingTransaction pending : pendingTransactions) {
+            if (pending.isByReconciler()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeClosedTransactions() {
+        Iterator<PendingTransaction> it = pendingTransactions.iterator();
+        while (it.hasNext()) {
+            PendingTransaction pending = it.next();
+            if (pending.getTransaction().isClosed()) {
+                metrics.transactionFinished(clock.wallTime() - pending.getStartTimestamp(), pending.isByReconciler());
+                it.remove();
+            }
+        }
+    }
+
     private boolean isOverlapping(EntityHolder changePoint, List<EntityHolder> changePoints) {
         for (EntityHolder next : changePoints) {
             if (next.findById(changePoint.getId()).isPresent()) {
@@ -301,11 +409,12 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
             transactions.add(new SingleTransaction<>(this, changeAction, now, Optional.empty(), compositeTransactionId, true));
         }
 
-        pendingTransaction = transactions.size() == 1 ? transactions.get(0) : new CompositeTransaction(transactions);
+        Transaction transaction = transactions.size() == 1 ? transactions.get(0) : new CompositeTransaction(transactions);
+        pendingTransactions.add(new PendingTransaction(transaction, Collections.emptyList(), true, now));
     }
 
     private void indexEntityHolder(EntityHolder entityHolder) {
-        indexSet = indexSet.apply(entityHolder.getChildren());
+        indexSet = indexSet.apply(entityHolder::getChildren);
     }
 
     void emitEvent(EVENT event) {
@@ -318,4 +427,35 @@ public class DefaultReconciliationEngine<EVENT> implements InternalReconciliatio
             logger.error("Bad subscriber", e);
         }
     }
+
+    private static class PendingTransaction {
+
+        private final Transaction transaction;
+        private final List<String> changePointIds;
+        private final boolean byReconciler;
+        private final long startTimestamp;
+
+        private PendingTransaction(Transaction transaction, List<String> changePointIds, boolean byReconciler, long startTimestamp) {
+            this.transaction = transaction;
+            this.changePointIds = changePointIds;
+            this.byReconciler = byReconciler;
+            this.startTimestamp = startTimestamp;
+        }
+
+        private Transaction getTransaction() {
+            return transaction;
+        }
+
+        private List<String> getChangePointIds() {
+            return changePointIds;
+        }
+
+        private boolean isByReconciler() {
+            return byReconciler;
+        }
+
+        private long getStartTimestamp() {
+            return startTimestamp;
+        }
+    }
 }
@@ -23,9 +23,11 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
- * TODO Optimize. This is expensive and inefficient implementation.
+ * A set of indexes, each ordering the same collection of items with a different comparator. The ordered lists are
+ * computed on first access, so applying a new collection version that is never read costs nothing.
  */
 public class IndexSet<T> {
 
@@ -38,8 +40,15 @@ public class IndexSet<T> {
     }
 
     public IndexSet<T> apply(Collection<T> added) {
+        return apply(() -> added);
+    }
+
+    /**
+     * Variant of {@link #apply(Collection)}, which defers getting the collection until one of the indexes is read.
+     */
+    public IndexSet<T> apply(Supplier<? extends Collection<T>> addedSupplier) {
         Map<Object, Index<T>> copy = new HashMap<>();
-        indexes.forEach((k, v) -> copy.put(k, v.apply(added)));
+        indexes.forEach((k, v) -> copy.put(k, v.apply(addedSupplier)));
         return new IndexSet<>(copy);
     }
 
@@ -64,25 +73,31 @@ public class IndexSet<T> {
     static class Index<T> {
 
         private final Comparator<T> comparator;
-        private final List<T> ordered;
+        private final Supplier<? extends Collection<T>> source;
+
+        private volatile List<T> ordered;
 
-        private Index(Comparator<T> comparator, List<T> ordered) {
+        private Index(Comparator<T> comparator, Supplier<? extends Collection<T>> source) {
             this.comparator = comparator;
-            this.ordered = ordered;
+            this.source = source;
         }
 
-        Index<T> apply(Collection<T> added) {
-            List<T> copy = new ArrayList<>(added);
-            copy.sort(comparator);
-            return new Index<>(comparator, copy);
+        Index<T> apply(Supplier<? extends Collection<T>> addedSupplier) {
+            return new Index<>(comparator, addedSupplier);
         }
 
         List<T> getOrdered() {
+            // Benign race: the list may be sorted more than once by concurrent readers, with the same result.
+            if (ordered == null) {
+                List<T> copy = new ArrayList<>(source.get());
+                copy.sort(comparator);
+                ordered = copy;
+            }
             return ordered;
         }
 
         static <T> Index<T> newIndex(Comparator<T> comparator) {
-            return new Index<>(comparator, Collections.emptyList());
+            return new Index<>(comparator, Collections::emptyList);
         }
     }
 }
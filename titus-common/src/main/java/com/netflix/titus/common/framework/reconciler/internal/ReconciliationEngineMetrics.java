@@ -38,6 +38,7 @@ class ReconciliationEngineMetrics<EVENT> {
     private static final String STARTED_CHANGE_ACTIONS = ROOT_NAME + "startedChangeActions";
     private static final String FINISHED_CHANGE_ACTIONS = ROOT_NAME + "finishedChangeActions";
     private static final String EMITTED_EVENTS = ROOT_NAME + "emittedEvents";
+    private static final String TRANSACTION_EXECUTION_TIME = ROOT_NAME + "transactionExecutionTime";
 
     private final Function<ChangeAction, List<Tag>> extraChangeActionTags;
     private final Function<EVENT, List<Tag>> extraModelActionTags;
@@ -48,6 +49,7 @@ class ReconciliationEngineMetrics<EVENT> {
     private final Id startedChangeActionsId;
     private final Id finishedChangeActionId;
     private final Id emittedEventId;
+    private final Id transactionExecutionTimeId;
 
     private final AtomicLong pendingChangeActions = new AtomicLong();
     private final Gauge changeActionQueueSize;
@@ -66,6 +68,7 @@ class ReconciliationEngineMetrics<EVENT> {
         this.startedChangeActionsId = registry.createId(STARTED_CHANGE_ACTIONS, commonTags);
         this.finishedChangeActionId = registry.createId(FINISHED_CHANGE_ACTIONS, commonTags);
         this.emittedEventId = registry.createId(EMITTED_EVENTS, commonTags);
+        this.transactionExecutionTimeId = registry.createId(TRANSACTION_EXECUTION_TIME, commonTags);
 
         this.changeActionQueueSize = registry.gauge(registry.createId(ROOT_NAME + "changeActionQueueSize", commonTags));
         PolledMeter.using(registry).withName(PENDING_CHANGE_ACTIONS).withTags(commonTags).monitorValue(pendingChangeActions);
@@ -114,6 +117,13 @@ class ReconciliationEngineMetrics<EVENT> {
         ).record(executionTimeNs, TimeUnit.NANOSECONDS);
     }
 
+    /**
+     * Time from a transaction start until all its subscribers are completed.
+     */
+    void transactionFinished(long executionTimeMs, boolean byReconciler) {
+        registry.timer(transactionExecutionTimeId.withTag("actionType", toActionType(byReconciler))).record(executionTimeMs, TimeUnit.MILLISECONDS);
+    }
+
     void emittedEvent(EVENT event, long latencyNs) {
         registry.timer(emittedEventId
                 .withTags(extraModelActionTags.apply(event))
@@ -19,13 +19,18 @@ package com.netflix.titus.common.network.reverseproxy.grpc;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import com.google.common.base.Preconditions;
 import com.google.common.io.ByteStreams;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
 import io.grpc.MethodDescriptor;
 
 /**
- * TODO Do not use byte array, but InputStream (see ServerInterceptors#useInputStreamMessages).
+ * Marshaller for proxied messages, which are forwarded as opaque byte arrays. To avoid intermediate buffer copies
+ * the serialized form is exposed to the transport as a {@link Drainable} stream (written directly from the backing array),
+ * and the parser reads frames with a known length into a single, exactly sized array.
  */
 class ByteArrayMarshaller implements MethodDescriptor.Marshaller<Object> {
 
@@ -34,15 +39,36 @@ class ByteArrayMarshaller implements MethodDescriptor.Marshaller<Object> {
     @Override
     public InputStream stream(Object value) {
         Preconditions.checkArgument(value instanceof byte[], "byte[] type expected");
-        return new ByteArrayInputStream((byte[]) value);
+        return new DrainableByteArrayInputStream((byte[]) value);
     }
 
     @Override
     public Object parse(InputStream stream) {
         try {
+            if (stream instanceof KnownLength) {
+                int size = stream.available();
+                byte[] buffer = new byte[size];
+                ByteStreams.readFully(stream, buffer);
+                return buffer;
+            }
             return ByteStreams.toByteArray(stream);
         } catch (IOException e) {
             throw new IllegalStateException("Cannot read from input stream", e);
         }
     }
+
+    private static class DrainableByteArrayInputStream extends ByteArrayInputStream implements Drainable, KnownLength {
+
+        private DrainableByteArrayInputStream(byte[] buf) {
+            super(buf);
+        }
+
+        @Override
+        public synchronized int drainTo(OutputStream target) throws IOException {
+            int length = count - pos;
+            target.write(buf, pos, length);
+            pos = count;
+            return length;
+        }
+    }
 }
@@ -23,6 +23,7 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.StringExt;
 import io.grpc.HandlerRegistry;
 import io.grpc.MethodDescriptor;
@@ -35,20 +36,26 @@ public class RemoteHandlerRegistry extends HandlerRegistry {
     private static final String REVERSE_PROXY_SERVICE_NAME = "reverseProxy";
     private static final String REVERSE_PROXY_METHOD_NAME = REVERSE_PROXY_SERVICE_NAME + "/doForward";
 
+    /**
+     * Proxied methods are registered as bidirectional streams, which is the most generic call type, and covers unary
+     * and streaming calls alike.
+     */
     private static final MethodDescriptor<Object, Object> STREAMING_METHOD_DESCRIPTOR = MethodDescriptor.newBuilder()
-            .setType(MethodDescriptor.MethodType.SERVER_STREAMING)
+            .setType(MethodDescriptor.MethodType.BIDI_STREAMING)
             .setRequestMarshaller(ByteArrayMarshaller.INSTANCE)
             .setResponseMarshaller(ByteArrayMarshaller.INSTANCE)
             .setFullMethodName(REVERSE_PROXY_METHOD_NAME)
             .build();
 
     private final ManagedChannelFactory managedChannelFactory;
+    private final ReverseProxyMetrics metrics;
 
     private final ConcurrentMap<String, ServerMethodDefinition<?, ?>> cache = new ConcurrentHashMap<>();
 
     @Inject
-    public RemoteHandlerRegistry(ManagedChannelFactory managedChannelFactory) {
+    public RemoteHandlerRegistry(ManagedChannelFactory managedChannelFactory, TitusRuntime titusRuntime) {
         this.managedChannelFactory = managedChannelFactory;
+        this.metrics = new ReverseProxyMetrics(titusRuntime.getRegistry());
     }
 
     @Nullable
@@ -67,16 +74,17 @@ public class RemoteHandlerRegistry extends HandlerRegistry {
     private Optional<ServerMethodDefinition> newServerMethodDefinition(String methodName) {
         return managedChannelFactory.newManagedChannel(StringExt.takeUntil(methodName, "/"))
                 .map(c -> {
+                    ReverseProxyServerCallHandler callHandler = new ReverseProxyServerCallHandler(c, methodName, metrics);
                     ServerMethodDefinition<Object, Object> methodDefinition = ServerMethodDefinition.create(
                             STREAMING_METHOD_DESCRIPTOR,
-                            new ReverseProxyServerCallHandler(c, methodName)
+                            callHandler
                     );
                     ServerMethodDefinition serverMethodDefinition = ServerServiceDefinition.builder(REVERSE_PROXY_SERVICE_NAME)
                             .addMethod(methodDefinition)
                             .build()
                             .getMethod(REVERSE_PROXY_METHOD_NAME);
 
-                    return serverMethodDefinition.withServerCallHandler(new ReverseProxyServerCallHandler(c, methodName));
+                    return serverMethodDefinition.withServerCallHandler(callHandler);
                 });
     }
 }
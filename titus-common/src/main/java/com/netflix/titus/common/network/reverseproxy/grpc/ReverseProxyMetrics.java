@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.network.reverseproxy.grpc;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import io.grpc.Status;
+
+/**
+ * Per method metrics of the gRPC reverse proxy.
+ */
+class ReverseProxyMetrics {
+
+    private static final String ROOT_NAME = "titus.reverseProxy.grpc.";
+
+    private final Registry registry;
+
+    private final ConcurrentMap<String, MethodMetrics> methodMetrics = new ConcurrentHashMap<>();
+
+    ReverseProxyMetrics(Registry registry) {
+        this.registry = registry;
+    }
+
+    MethodMetrics getMethodMetrics(String methodName) {
+        return methodMetrics.computeIfAbsent(methodName, MethodMetrics::new);
+    }
+
+    class MethodMetrics {
+
+        private final Id latencyId;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter requestMessages;
+        private final Counter responseMessages;
+
+        private MethodMetrics(String methodName) {
+            this.latencyId = registry.createId(ROOT_NAME + "latency", "method", methodName);
+            this.requestMessages = registry.counter(ROOT_NAME + "messages", "method", methodName, "direction", "request");
+            this.responseMessages = registry.counter(ROOT_NAME + "messages", "method", methodName, "direction", "response");
+            PolledMeter.using(registry)
+                    .withId(registry.createId(ROOT_NAME + "inFlight", "method", methodName))
+                    .monitorValue(inFlight);
+        }
+
+        long onStart() {
+            inFlight.incrementAndGet();
+            return registry.clock().monotonicTime();
+        }
+
+        void onRequestMessage() {
+            requestMessages.increment();
+        }
+
+        void onResponseMessage() {
+            responseMessages.increment();
+        }
+
+        void onFinished(long startTime, Status status) {
+            inFlight.decrementAndGet();
+            registry.timer(latencyId.withTag("status", status.getCode().name()))
+                    .record(registry.clock().monotonicTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+
+        int getInFlight() {
+            return inFlight.get();
+        }
+    }
+}
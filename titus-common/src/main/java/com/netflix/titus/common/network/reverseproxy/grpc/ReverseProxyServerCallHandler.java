@@ -16,8 +16,12 @@
 
 package com.netflix.titus.common.network.reverseproxy.grpc;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import io.grpc.CallOptions;
 import io.grpc.ClientCall;
+import io.grpc.Context;
+import io.grpc.Deadline;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
@@ -27,80 +31,107 @@ import io.grpc.Status;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Forwards a call of any type (unary, client/server streaming or bidirectional) to a remote service. Messages are
+ * passed through as raw bytes, and the flow control is propagated end-to-end: a next message is requested from
+ * one side only when the other side is ready to accept it. The deadline of the inbound call is propagated to the
+ * forwarded one, so a forwarded call does not outlive its caller.
+ */
 class ReverseProxyServerCallHandler implements ServerCallHandler<Object, Object> {
 
     private static final Logger logger = LoggerFactory.getLogger(ReverseProxyServerCallHandler.class);
 
     private final ManagedChannel channel;
-    private final String methodName;
+    private final MethodDescriptor<Object, Object> methodDescriptor;
+    private final ReverseProxyMetrics.MethodMetrics metrics;
 
-    ReverseProxyServerCallHandler(ManagedChannel channel, String methodName) {
+    ReverseProxyServerCallHandler(ManagedChannel channel, String methodName, ReverseProxyMetrics metrics) {
         this.channel = channel;
-        this.methodName = methodName;
+        this.methodDescriptor = newMethodDescriptorBuilder()
+                .setType(MethodDescriptor.MethodType.BIDI_STREAMING)
+                .setFullMethodName(methodName)
+                .build();
+        this.metrics = metrics.getMethodMetrics(methodName);
     }
 
     @Override
     public ServerCall.Listener<Object> startCall(ServerCall<Object, Object> serverCall, Metadata headers) {
-        ClientCall<Object, Object> forwardedCall = channel.newCall(
-                newMethodDescriptorBuilder()
-                        .setType(MethodDescriptor.MethodType.UNARY)
-                        .setFullMethodName(methodName)
-                        .build(),
-                CallOptions.DEFAULT
-        );
-
-        ClientCall.Listener<Object> clientCallListener = new ClientCall.Listener<Object>() {
-            @Override
-            public void onHeaders(Metadata headers) {
-                serverCall.sendHeaders(headers);
-            }
+        ClientCall<Object, Object> forwardedCall = channel.newCall(methodDescriptor, newCallOptions());
+        CallProxy callProxy = new CallProxy(serverCall, forwardedCall);
 
-            @Override
-            public void onMessage(Object message) {
-                serverCall.sendMessage(message);
-            }
+        forwardedCall.start(callProxy.responseProxy, headers);
+        serverCall.request(1);
+        forwardedCall.request(1);
 
-            @Override
-            public void onClose(Status status, Metadata trailers) {
-                serverCall.close(status, trailers);
-            }
+        return callProxy.requestProxy;
+    }
 
-            @Override
-            public void onReady() {
-                serverCall.request(1);
+    private static CallOptions newCallOptions() {
+        Deadline deadline = Context.current().getDeadline();
+        return deadline == null ? CallOptions.DEFAULT : CallOptions.DEFAULT.withDeadline(deadline);
+    }
+
+    private class CallProxy {
+
+        private final ServerCall<Object, Object> serverCall;
+        private final ClientCall<Object, Object> forwardedCall;
+
+        private final RequestProxy requestProxy = new RequestProxy();
+        private final ResponseProxy responseProxy = new ResponseProxy();
+
+        private final long startTime;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private CallProxy(ServerCall<Object, Object> serverCall, ClientCall<Object, Object> forwardedCall) {
+            this.serverCall = serverCall;
+            this.forwardedCall = forwardedCall;
+            this.startTime = metrics.onStart();
+        }
+
+        private void finish(Status status) {
+            if (finished.compareAndSet(false, true)) {
+                metrics.onFinished(startTime, status);
             }
-        };
+        }
 
-        ServerCall.Listener<Object> serverCallListener = new ServerCall.Listener<Object>() {
+        /**
+         * Forwards messages received from the proxy client to the remote service.
+         */
+        private class RequestProxy extends ServerCall.Listener<Object> {
 
-            private volatile boolean halfClosed = false;
+            // Guarded by 'this'
+            private boolean needToRequest;
 
             @Override
             public void onMessage(Object message) {
-                forwardedCall.request(2);
-
+                metrics.onRequestMessage();
                 try {
                     forwardedCall.sendMessage(message);
                 } catch (RuntimeException | Error e) {
                     throw cancelThrow(forwardedCall, e);
                 }
-                onHalfClose();
+                synchronized (this) {
+                    if (forwardedCall.isReady()) {
+                        serverCall.request(1);
+                    } else {
+                        // Wait for the remote service to catch up, before requesting more from the client.
+                        needToRequest = true;
+                    }
+                }
             }
 
             @Override
             public void onHalfClose() {
-                if (!halfClosed) {
-                    halfClosed = true;
-                    try {
-                        forwardedCall.halfClose();
-                    } catch (RuntimeException | Error e) {
-                        throw cancelThrow(forwardedCall, e);
-                    }
+                try {
+                    forwardedCall.halfClose();
+                } catch (RuntimeException | Error e) {
+                    throw cancelThrow(forwardedCall, e);
                 }
             }
 
             @Override
             public void onCancel() {
+                finish(Status.CANCELLED);
                 try {
                     forwardedCall.cancel("Client request cancelled", null);
                 } catch (RuntimeException | Error e) {
@@ -109,24 +140,69 @@ class ReverseProxyServerCallHandler implements ServerCallHandler<Object, Object>
             }
 
             @Override
-            public void onComplete() {
-                onHalfClose();
+            public void onReady() {
+                responseProxy.onServerCallReady();
+            }
+
+            /**
+             * Called when the remote service is ready to accept more messages.
+             */
+            private synchronized void onForwardedCallReady() {
+                if (needToRequest) {
+                    needToRequest = false;
+                    serverCall.request(1);
+                }
             }
+        }
+
+        /**
+         * Forwards messages received from the remote service to the proxy client.
+         */
+        private class ResponseProxy extends ClientCall.Listener<Object> {
+
+            // Guarded by 'this'
+            private boolean needToRequest;
 
             @Override
-            public void onReady() {
-                try {
-                    forwardedCall.request(1);
-                } catch (RuntimeException | Error e) {
-                    throw cancelThrow(forwardedCall, e);
+            public void onHeaders(Metadata headers) {
+                serverCall.sendHeaders(headers);
+            }
+
+            @Override
+            public void onMessage(Object message) {
+                metrics.onResponseMessage();
+                serverCall.sendMessage(message);
+                synchronized (this) {
+                    if (serverCall.isReady()) {
+                        forwardedCall.request(1);
+                    } else {
+                        // Wait for the client to catch up, before requesting more from the remote service.
+                        needToRequest = true;
+                    }
                 }
             }
-        };
 
-        forwardedCall.start(clientCallListener, new Metadata());
-        serverCall.request(2);
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                finish(status);
+                serverCall.close(status, trailers);
+            }
+
+            @Override
+            public void onReady() {
+                requestProxy.onForwardedCallReady();
+            }
 
-        return serverCallListener;
+            /**
+             * Called when the proxy client is ready to accept more messages.
+             */
+            private synchronized void onServerCallReady() {
+                if (needToRequest) {
+                    needToRequest = false;
+                    forwardedCall.request(1);
+                }
+            }
+        }
     }
 
     /**
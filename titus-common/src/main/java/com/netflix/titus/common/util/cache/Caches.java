@@ -28,4 +28,17 @@ public class Caches {
                 .build();
         return new InstrumentedCache<>(metricNameRoot, cache, registry);
     }
+
+    /**
+     * Cache with weakly referenced keys, compared by identity. Suitable for memoizing values derived from
+     * immutable objects, as an entry is removed once its key is garbage collected, or when the size limit is exceeded.
+     */
+    public static <K, V> Cache<K, V> instrumentedIdentityCacheWithMaxSize(long maxSize, String metricNameRoot, Registry registry) {
+        com.github.benmanes.caffeine.cache.Cache<K, V> cache = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        return new InstrumentedCache<>(metricNameRoot, cache, registry);
+    }
 }
@@ -47,6 +47,7 @@ public class InstrumentedCache<K, V> implements com.netflix.titus.common.util.ca
     private final Gauge requestCountGauge;
     private final Gauge hitCountGauge;
     private final Gauge missCountGauge;
+    private final Gauge hitRatioGauge;
     private final Gauge loadSuccessCountGauge;
     private final Gauge loadFailureCountGauge;
     private final Gauge totalLoadTimeGauge;
@@ -66,6 +67,7 @@ public class InstrumentedCache<K, V> implements com.netflix.titus.common.util.ca
         requestCountGauge = registry.gauge(metricPrefix + "requestCount");
         hitCountGauge = registry.gauge(metricPrefix + "hitCount");
         missCountGauge = registry.gauge(metricPrefix + "missCount");
+        hitRatioGauge = registry.gauge(metricPrefix + "hitRatio");
         loadSuccessCountGauge = registry.gauge(metricPrefix + "loadSuccessCount");
         loadFailureCountGauge = registry.gauge(metricPrefix + "loadFailureCount");
         totalLoadTimeGauge = registry.gauge(metricPrefix + "totalLoadTime");
@@ -160,6 +162,7 @@ public class InstrumentedCache<K, V> implements com.netflix.titus.common.util.ca
             requestCountGauge.set(statsDifference.requestCount());
             hitCountGauge.set(statsDifference.hitCount());
             missCountGauge.set(statsDifference.missCount());
+            hitRatioGauge.set(statsDifference.hitRate());
             loadSuccessCountGauge.set(statsDifference.loadSuccessCount());
             loadFailureCountGauge.set(statsDifference.loadFailureCount());
             totalLoadTimeGauge.set(statsDifference.totalLoadTime());
@@ -19,6 +19,7 @@ package com.netflix.titus.common.util.limiter;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Ticker;
 import com.netflix.titus.common.util.limiter.tokenbucket.RefillStrategy;
 import com.netflix.titus.common.util.limiter.tokenbucket.TokenBucket;
 import com.netflix.titus.common.util.limiter.tokenbucket.internal.DefaultTokenBucket;
@@ -41,4 +42,16 @@ public class Limiters {
         return tokenBucket;
     }
 
+    /**
+     * Create a {@link TokenBucket} with a fixed interval {@link RefillStrategy}, which measures time with the given
+     * {@link Ticker}.
+     */
+    public static TokenBucket createFixedIntervalTokenBucket(String name, long capacity, long initialNumberOfTokens,
+                                                             long numberOfTokensPerInterval, long interval, TimeUnit unit,
+                                                             Ticker ticker) {
+        RefillStrategy refillStrategy = new FixedIntervalRefillStrategy(Stopwatch.createStarted(ticker),
+                numberOfTokensPerInterval, interval, unit);
+        return new DefaultTokenBucket(name, capacity, refillStrategy, initialNumberOfTokens);
+    }
+
 }
@@ -26,6 +26,7 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.ImmutableMap;
@@ -35,6 +36,7 @@ import com.netflix.titus.common.framework.reconciler.ModelAction;
 import com.netflix.titus.common.framework.reconciler.ModelActionHolder;
 import com.netflix.titus.common.framework.reconciler.ReconciliationEngine;
 import com.netflix.titus.common.framework.reconciler.internal.SimpleReconcilerEvent.EventType;
+import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.runtime.TitusRuntimes;
 import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.testkit.rx.ExtTestSubscriber;
@@ -57,6 +59,8 @@ public class DefaultReconciliationEngineTest {
             .put("descending", Comparator.<EntityHolder, String>comparing(EntityHolder::getEntity).reversed())
             .build();
 
+    private final TitusRuntime titusRuntime = TitusRuntimes.test(testScheduler);
+
     private final DefaultReconciliationEngine<SimpleReconcilerEvent> engine = new DefaultReconciliationEngine<>(
             EntityHolder.newRoot("myRoot", "rootInitial"),
             true,
@@ -65,13 +69,27 @@ public class DefaultReconciliationEngineTest {
             new SimpleReconcilerEventFactory(),
             changeAction -> Collections.emptyList(),
             event -> Collections.emptyList(),
-            TitusRuntimes.test(testScheduler)
+            titusRuntime
+    );
+
+    private final DefaultReconciliationEngine<SimpleReconcilerEvent> pipelinedEngine = new DefaultReconciliationEngine<>(
+            EntityHolder.newRoot("myRoot", "rootInitial"),
+            true,
+            this::difference,
+            indexComparators,
+            new SimpleReconcilerEventFactory(),
+            changeAction -> Collections.emptyList(),
+            event -> Collections.emptyList(),
+            true,
+            titusRuntime
     );
 
     private final ExtTestSubscriber<SimpleReconcilerEvent> eventSubscriber = new ExtTestSubscriber<>();
 
     private final Queue<List<ChangeAction>> runtimeReconcileActions = new LinkedBlockingQueue<>();
 
+    private final AtomicInteger differenceResolverInvocations = new AtomicInteger();
+
     @Before
     public void setUp() {
         engine.events().cast(SimpleReconcilerEvent.class).subscribe(eventSubscriber);
@@ -293,6 +311,96 @@ public class DefaultReconciliationEngineTest {
         assertThat(engine.getReferenceView().findChildById("child2").get().<String>getEntity()).isEqualTo("update2");
     }
 
+    @Test
+    public void testPipelinedExecutionOfNonOverlappingTasks() {
+        addChild(pipelinedEngine, "child1");
+        addChild(pipelinedEngine, "child2");
+
+        ExtTestSubscriber<Void> child1Subscriber = new ExtTestSubscriber<>();
+        ExtTestSubscriber<Void> child2Subscriber = new ExtTestSubscriber<>();
+        ExtTestSubscriber<Void> rootSubscriber = new ExtTestSubscriber<>();
+
+        // Child 1 started
+        pipelinedEngine.changeReferenceModel(new SlowUpdateChildAction("child1", "update1"), "child1").subscribe(child1Subscriber);
+        assertThat(pipelinedEngine.triggerActions()).isTrue();
+        testScheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        // Child 2 started, while child 1 is still in flight. Root change overlaps with both, so it must wait.
+        pipelinedEngine.changeReferenceModel(new SlowUpdateChildAction("child2", "update2"), "child2").subscribe(child2Subscriber);
+        pipelinedEngine.changeReferenceModel(new RootChangeAction("rootUpdate")).subscribe(rootSubscriber);
+        assertThat(pipelinedEngine.triggerActions()).isTrue();
+
+        // Child 1 completes
+        testScheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        assertThat(pipelinedEngine.applyModelUpdates()).isTrue();
+        pipelinedEngine.emitEvents();
+        assertThat(pipelinedEngine.closeFinishedTransactions()).isTrue();
+        child1Subscriber.assertOnCompleted();
+        child2Subscriber.assertOpen();
+
+        assertThat(pipelinedEngine.triggerActions()).isTrue();
+        rootSubscriber.assertOpen();
+
+        // Child 2 completes
+        testScheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        assertThat(pipelinedEngine.applyModelUpdates()).isTrue();
+        pipelinedEngine.emitEvents();
+        assertThat(pipelinedEngine.closeFinishedTransactions()).isTrue();
+        child2Subscriber.assertOnCompleted();
+        rootSubscriber.assertOpen();
+
+        // Root
+        assertThat(pipelinedEngine.triggerActions()).isTrue();
+        assertThat(pipelinedEngine.applyModelUpdates()).isTrue();
+        pipelinedEngine.emitEvents();
+        assertThat(pipelinedEngine.closeFinishedTransactions()).isTrue();
+        rootSubscriber.assertOnCompleted();
+
+        assertThat(pipelinedEngine.getReferenceView().<String>getEntity()).isEqualTo("rootUpdate");
+        assertThat(pipelinedEngine.getReferenceView().findChildById("child1").get().<String>getEntity()).isEqualTo("update1");
+        assertThat(pipelinedEngine.getReferenceView().findChildById("child2").get().<String>getEntity()).isEqualTo("update2");
+        assertThat(pipelinedEngine.hasPendingTransactions()).isFalse();
+    }
+
+    @Test
+    public void testPipelinedModeRunsDifferenceResolverWhenOverdue() {
+        addChild(pipelinedEngine, "child1");
+        addChild(pipelinedEngine, "child2");
+
+        // Child 1 and child 2 in flight.
+        ExtTestSubscriber<Void> child1Subscriber = new ExtTestSubscriber<>();
+        pipelinedEngine.changeReferenceModel(new SlowUpdateChildAction("child1", "update1"), "child1").subscribe(child1Subscriber);
+        assertThat(pipelinedEngine.triggerActions()).isTrue();
+        testScheduler.advanceTimeBy(600, TimeUnit.MILLISECONDS);
+
+        ExtTestSubscriber<Void> child2Subscriber = new ExtTestSubscriber<>();
+        pipelinedEngine.changeReferenceModel(new SlowUpdateChildAction("child2", "update2"), "child2").subscribe(child2Subscriber);
+        assertThat(pipelinedEngine.triggerActions()).isTrue();
+
+        // Child 1 completes, and the difference resolver is overdue, so the next child 1 update is held back.
+        testScheduler.advanceTimeBy(400, TimeUnit.MILLISECONDS);
+        completeTransactions(pipelinedEngine);
+        child1Subscriber.assertOnCompleted();
+
+        ExtTestSubscriber<Void> nextChild1Subscriber = new ExtTestSubscriber<>();
+        pipelinedEngine.changeReferenceModel(new SlowUpdateChildAction("child1", "nextUpdate1"), "child1").subscribe(nextChild1Subscriber);
+        assertThat(pipelinedEngine.triggerActions()).isTrue();
+        assertThat(differenceResolverInvocations.get()).isZero();
+
+        // Child 2 completes, the difference resolver runs, and next the held back action is started.
+        testScheduler.advanceTimeBy(600, TimeUnit.MILLISECONDS);
+        completeTransactions(pipelinedEngine);
+        child2Subscriber.assertOnCompleted();
+
+        assertThat(pipelinedEngine.triggerActions()).isTrue();
+        assertThat(differenceResolverInvocations.get()).isEqualTo(1);
+
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        completeTransactions(pipelinedEngine);
+        nextChild1Subscriber.assertOnCompleted();
+        assertThat(pipelinedEngine.getReferenceView().findChildById("child1").get().<String>getEntity()).isEqualTo("nextUpdate1");
+    }
+
     @Test
     public void testReconciliationActions() {
         Subscription setupSubscription = engine.changeReferenceModel(new RootChangeAction("rootValue")).subscribe();
@@ -370,13 +478,23 @@ public class DefaultReconciliationEngineTest {
     }
 
     private void addChild(String childId) {
-        engine.changeReferenceModel(new AddChildAction(childId)).subscribe();
-        engine.triggerActions();
+        addChild(engine, childId);
+    }
 
-        assertThat(engine.applyModelUpdates()).isTrue();
+    private void addChild(DefaultReconciliationEngine<SimpleReconcilerEvent> target, String childId) {
+        target.changeReferenceModel(new AddChildAction(childId)).subscribe();
+        target.triggerActions();
 
-        engine.emitEvents();
-        engine.closeFinishedTransactions();
+        assertThat(target.applyModelUpdates()).isTrue();
+
+        target.emitEvents();
+        target.closeFinishedTransactions();
+    }
+
+    private void completeTransactions(DefaultReconciliationEngine<SimpleReconcilerEvent> target) {
+        assertThat(target.applyModelUpdates()).isTrue();
+        target.emitEvents();
+        assertThat(target.closeFinishedTransactions()).isTrue();
     }
 
     private void removeChild(String childId) {
@@ -390,6 +508,7 @@ public class DefaultReconciliationEngineTest {
     }
 
     private List<ChangeAction> difference(ReconciliationEngine<SimpleReconcilerEvent> engine) {
+        differenceResolverInvocations.incrementAndGet();
         List<ChangeAction> next = runtimeReconcileActions.poll();
         return next == null ? Collections.emptyList() : next;
     }
@@ -471,4 +590,23 @@ public class DefaultReconciliationEngineTest {
             return Observable.just(ModelActionHolder.referenceList(updateAction));
         }
     }
-}
\ No newline at end of file
+
+    class SlowUpdateChildAction implements ChangeAction {
+
+        private final String childId;
+        private final String value;
+
+        SlowUpdateChildAction(String childId, String value) {
+            this.childId = childId;
+            this.value = value;
+        }
+
+        @Override
+        public Observable<List<ModelActionHolder>> apply() {
+            return Observable.timer(1, TimeUnit.SECONDS, testScheduler).map(tick -> {
+                SimpleModelUpdateAction updateAction = new SimpleModelUpdateAction(EntityHolder.newRoot(childId, value), false);
+                return ModelActionHolder.referenceList(updateAction);
+            });
+        }
+    }
+}
@@ -21,6 +21,9 @@ import java.util.Iterator;
 import java.util.Optional;
 
 import com.google.protobuf.Empty;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
 import com.netflix.titus.common.util.Evaluators;
 import com.netflix.titus.testing.SampleGrpcService.SampleContainer;
 import com.netflix.titus.testing.SampleServiceGrpc;
@@ -42,6 +45,8 @@ public class RemoteHandlerRegistryTest {
     private static final int ITEMS_IN_STREAM = 3;
     private static final String HELLO = "HELLO";
 
+    private final TitusRuntime titusRuntime = TitusRuntimes.internal();
+
     private int serverPort;
     private int proxyPort;
 
@@ -85,6 +90,22 @@ public class RemoteHandlerRegistryTest {
         assertThat(count).isEqualTo(ITEMS_IN_STREAM);
     }
 
+    @Test
+    public void testMetrics() {
+        SampleServiceGrpc.newBlockingStub(proxyChannel).getOneValue(Empty.getDefaultInstance());
+        Iterator<SampleContainer> resultIt = SampleServiceGrpc.newBlockingStub(proxyChannel).stream(Empty.getDefaultInstance());
+        resultIt.forEachRemaining(next -> {
+        });
+
+        Registry registry = titusRuntime.getRegistry();
+        assertThat(registry.timer(
+                "titus.reverseProxy.grpc.latency", "method", "com.netflix.titus.testing.SampleService/GetOneValue", "status", "OK"
+        ).count()).isEqualTo(1);
+        assertThat(registry.counter(
+                "titus.reverseProxy.grpc.messages", "method", "com.netflix.titus.testing.SampleService/Stream", "direction", "response"
+        ).count()).isEqualTo(ITEMS_IN_STREAM);
+    }
+
     private Server newServer() throws IOException {
         Server server = NettyServerBuilder.forPort(0)
                 .addService(ServerInterceptors.intercept(
@@ -123,7 +144,7 @@ public class RemoteHandlerRegistryTest {
     }
 
     private Server newProxy() throws IOException {
-        RemoteHandlerRegistry registry = new RemoteHandlerRegistry(n -> Optional.of(serverChannel));
+        RemoteHandlerRegistry registry = new RemoteHandlerRegistry(n -> Optional.of(serverChannel), titusRuntime);
 
         Server server = NettyServerBuilder.forPort(0)
                 .fallbackHandlerRegistry(registry)
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.network.reverseproxy.grpc;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.protobuf.Empty;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.Evaluators;
+import com.netflix.titus.testing.SampleGrpcService.SampleContainer;
+import com.netflix.titus.testing.SampleServiceGrpc;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NegotiationType;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class ReverseProxyServerCallHandlerTest {
+
+    private static final String HELLO = "HELLO";
+
+    private final AtomicReference<SampleContainer> receivedValue = new AtomicReference<>();
+    private final AtomicReference<Deadline> receivedDeadline = new AtomicReference<>();
+    private final AtomicReference<Status> errorStatus = new AtomicReference<>();
+    private final CountDownLatch streamStarted = new CountDownLatch(1);
+    private final CountDownLatch streamCancelled = new CountDownLatch(1);
+
+    private Server server;
+    private Server proxy;
+
+    private ManagedChannel serverChannel;
+    private ManagedChannel proxyChannel;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = newServer();
+        this.serverChannel = newClient(server.getPort());
+        this.proxy = newProxy();
+        this.proxyChannel = newClient(proxy.getPort());
+    }
+
+    @After
+    public void tearDown() {
+        Evaluators.acceptNotNull(serverChannel, ManagedChannel::shutdownNow);
+        Evaluators.acceptNotNull(server, Server::shutdownNow);
+        Evaluators.acceptNotNull(proxyChannel, ManagedChannel::shutdownNow);
+        Evaluators.acceptNotNull(proxy, Server::shutdownNow);
+    }
+
+    @Test
+    public void testPayloadIsForwarded() {
+        SampleContainer value = SampleContainer.newBuilder().setStringValue("forwarded").build();
+        SampleServiceGrpc.newBlockingStub(proxyChannel).setOneValue(value);
+        assertThat(receivedValue.get()).isEqualTo(value);
+
+        SampleContainer result = SampleServiceGrpc.newBlockingStub(proxyChannel).getOneValue(Empty.getDefaultInstance());
+        assertThat(result.getStringValue()).isEqualTo(HELLO);
+    }
+
+    @Test
+    public void testErrorStatusIsForwarded() {
+        errorStatus.set(Status.NOT_FOUND.withDescription("simulated error"));
+        try {
+            SampleServiceGrpc.newBlockingStub(proxyChannel).getOneValue(Empty.getDefaultInstance());
+            fail("Expected the forwarded call to fail");
+        } catch (StatusRuntimeException e) {
+            assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND);
+            assertThat(e.getStatus().getDescription()).isEqualTo("simulated error");
+        }
+    }
+
+    @Test
+    public void testDeadlineIsPropagated() {
+        SampleServiceGrpc.newBlockingStub(proxyChannel)
+                .withDeadlineAfter(30, TimeUnit.SECONDS)
+                .getOneValue(Empty.getDefaultInstance());
+
+        Deadline deadline = receivedDeadline.get();
+        assertThat(deadline).isNotNull();
+        assertThat(deadline.timeRemaining(TimeUnit.SECONDS)).isLessThanOrEqualTo(30);
+    }
+
+    @Test
+    public void testNoDeadlineIsSetIfCallerHasNone() {
+        SampleServiceGrpc.newBlockingStub(proxyChannel).getOneValue(Empty.getDefaultInstance());
+        assertThat(receivedDeadline.get()).isNull();
+    }
+
+    @Test
+    public void testCancellationIsPropagated() throws Exception {
+        Context.CancellableContext context = Context.current().withCancellation();
+        context.run(() -> SampleServiceGrpc.newStub(proxyChannel).stream(Empty.getDefaultInstance(), new StreamObserver<SampleContainer>() {
+            @Override
+            public void onNext(SampleContainer value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        }));
+
+        assertThat(streamStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        context.cancel(null);
+        assertThat(streamCancelled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private Server newServer() throws IOException {
+        return NettyServerBuilder.forPort(0)
+                .addService(new SampleServiceGrpc.SampleServiceImplBase() {
+                    @Override
+                    public void getOneValue(Empty request, StreamObserver<SampleContainer> responseObserver) {
+                        receivedDeadline.set(Context.current().getDeadline());
+                        Status status = errorStatus.get();
+                        if (status != null) {
+                            responseObserver.onError(status.asRuntimeException());
+                            return;
+                        }
+                        responseObserver.onNext(SampleContainer.newBuilder().setStringValue(HELLO).build());
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public void setOneValue(SampleContainer request, StreamObserver<Empty> responseObserver) {
+                        receivedValue.set(request);
+                        responseObserver.onNext(Empty.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public void stream(Empty request, StreamObserver<SampleContainer> responseObserver) {
+                        // Never completes, so it can only be terminated by the client.
+                        ((ServerCallStreamObserver<SampleContainer>) responseObserver).setOnCancelHandler(streamCancelled::countDown);
+                        responseObserver.onNext(SampleContainer.newBuilder().setStringValue(HELLO).build());
+                        streamStarted.countDown();
+                    }
+                })
+                .build()
+                .start();
+    }
+
+    private Server newProxy() throws IOException {
+        RemoteHandlerRegistry registry = new RemoteHandlerRegistry(n -> Optional.of(serverChannel), TitusRuntimes.internal());
+        return NettyServerBuilder.forPort(0)
+                .fallbackHandlerRegistry(registry)
+                .build()
+                .start();
+    }
+
+    private ManagedChannel newClient(int port) {
+        return NettyChannelBuilder.forTarget("localhost:" + port)
+                .negotiationType(NegotiationType.PLAINTEXT)
+                .build();
+    }
+}
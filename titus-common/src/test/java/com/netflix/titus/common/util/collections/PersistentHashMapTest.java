@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.common.util.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistentHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        PersistentHashMap<String, String> empty = PersistentHashMap.empty();
+        PersistentHashMap<String, String> v1 = empty.put("a", "1").put("b", "2");
+        PersistentHashMap<String, String> v2 = v1.put("a", "1_v2");
+        PersistentHashMap<String, String> v3 = v2.remove("b");
+
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(v1.size()).isEqualTo(2);
+        assertThat(v1.get("a")).isEqualTo("1");
+        assertThat(v2.size()).isEqualTo(2);
+        assertThat(v2.get("a")).isEqualTo("1_v2");
+        assertThat(v3.size()).isEqualTo(1);
+        assertThat(v3.containsKey("b")).isFalse();
+        assertThat(v3.remove("a").isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testNoOpChangesReturnSameInstance() {
+        String value = "1";
+        PersistentHashMap<String, String> map = PersistentHashMap.<String, String>empty().put("a", value);
+
+        assertThat(map.put("a", value)).isSameAs(map);
+        assertThat(map.remove("b")).isSameAs(map);
+    }
+
+    @Test
+    public void testHashCollisions() {
+        PersistentHashMap<CollidingKey, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.put(new CollidingKey(i), i);
+        }
+        // A key with a different hash added to a collision node
+        map = map.put(new CollidingKey(100, 1), 100);
+
+        assertThat(map.size()).isEqualTo(11);
+        for (int i = 0; i < 10; i++) {
+            assertThat(map.get(new CollidingKey(i))).isEqualTo(i);
+        }
+        assertThat(map.get(new CollidingKey(100, 1))).isEqualTo(100);
+
+        for (int i = 0; i < 10; i++) {
+            map = map.remove(new CollidingKey(i));
+        }
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.values()).containsExactly(100);
+    }
+
+    @Test
+    public void testRandomOperationsAgainstHashMap() {
+        Random random = new Random(123);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentHashMap<Integer, Integer> map = PersistentHashMap.empty();
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(10_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        assertThat(map.toMap()).isEqualTo(expected);
+        assertThat(map.values()).hasSize(expected.size());
+    }
+
+    private static class CollidingKey {
+
+        private final int id;
+        private final int hash;
+
+        private CollidingKey(int id) {
+            this(id, 0);
+        }
+
+        private CollidingKey(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
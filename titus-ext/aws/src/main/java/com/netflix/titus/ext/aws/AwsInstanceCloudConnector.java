@@ -18,9 +18,12 @@ package com.netflix.titus.ext.aws;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
@@ -94,6 +97,8 @@ public class AwsInstanceCloudConnector implements InstanceCloudConnector {
     static final int AWS_PAGE_MAX = 100;
     static final int AWS_INSTANCE_ID_MAX = 50;
     static final int AWS_PARALLELISM = 5;
+    static final int AWS_FILTER_VALUES_MAX = 200;
+    static final int AWS_INSTANCE_PAGE_MAX = 1000;
 
     static final int AWS_MAX_INSTANCE_DETACH = 20;
     static final long AWS_OPERATION_DELAY_MS = 500;
@@ -246,6 +251,53 @@ public class AwsInstanceCloudConnector implements InstanceCloudConnector {
                 .timeout(configuration.getInstancesByInstanceGroupIdFetchTimeoutMs(), TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Fetches instances of all requested instance groups with a single filter per {@link #AWS_FILTER_VALUES_MAX}
+     * instance groups, using the largest page size allowed, instead of a separate query per instance group.
+     */
+    @Override
+    public Observable<List<Instance>> getInstancesByInstanceGroupIds(List<String> instanceGroupIds) {
+        if (instanceGroupIds.isEmpty()) {
+            return Observable.just(Collections.emptyList());
+        }
+        Set<String> requestedIds = new HashSet<>(instanceGroupIds);
+        List<Observable<List<Instance>>> chunkObservables = CollectionsExt.chop(instanceGroupIds, AWS_FILTER_VALUES_MAX).stream()
+                .map(chunk -> {
+                    PageCollector<DescribeInstancesRequest, com.amazonaws.services.ec2.model.Instance> pageCollector = new PageCollector<>(
+                            token -> new DescribeInstancesRequest()
+                                    .withFilters(new Filter().withName(TAG_ASG_FILTER_NAME).withValues(chunk))
+                                    .withMaxResults(AWS_INSTANCE_PAGE_MAX)
+                                    .withNextToken(token),
+                            request -> {
+                                Observable<DescribeInstancesResult> observable = toObservable(request, ec2Client::describeInstancesAsync);
+                                return observable.map(result -> {
+                                    List<com.amazonaws.services.ec2.model.Instance> instances = result.getReservations().stream()
+                                            .flatMap(r -> r.getInstances().stream().filter(instance -> !isTerminal(instance.getState())))
+                                            .collect(Collectors.toList());
+                                    return Pair.of(instances, result.getNextToken());
+                                });
+                            }
+                    );
+                    return pageCollector.getAll().map(instances -> instances.stream()
+                            .map(instance -> instance.getTags().stream()
+                                    .filter(tag -> tag.getKey().equals(TAG_ASG_NAME) && requestedIds.contains(tag.getValue()))
+                                    .findFirst()
+                                    .map(tag -> toInstance(instance, tag.getValue()))
+                                    .orElse(null)
+                            )
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList())
+                    );
+                })
+                .collect(Collectors.toList());
+        return Observable.merge(chunkObservables, AWS_PARALLELISM)
+                .timeout(configuration.getInstancesByInstanceGroupIdFetchTimeoutMs(), TimeUnit.MILLISECONDS)
+                .reduce(new ArrayList<>(), (acc, result) -> {
+                    acc.addAll(result);
+                    return acc;
+                });
+    }
+
     @Override
     public Completable updateCapacity(String instanceGroupId, Optional<Integer> min, Optional<Integer> desired) {
         Supplier<UpdateAutoScalingGroupRequest> supplier = () -> {
@@ -17,6 +17,8 @@
 package com.netflix.titus.ext.aws.loadbalancer;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
@@ -31,6 +33,7 @@ import com.amazonaws.services.elasticloadbalancingv2.model.DescribeTargetHealthR
 import com.amazonaws.services.elasticloadbalancingv2.model.RegisterTargetsRequest;
 import com.amazonaws.services.elasticloadbalancingv2.model.TargetDescription;
 import com.amazonaws.services.elasticloadbalancingv2.model.TargetGroupNotFoundException;
+import com.amazonaws.services.elasticloadbalancingv2.model.TargetHealthStateEnum;
 import com.netflix.spectator.api.Registry;
 import com.netflix.titus.api.connector.cloud.CloudConnectorException;
 import com.netflix.titus.api.connector.cloud.LoadBalancer;
@@ -53,6 +56,11 @@ public class AwsLoadBalancerConnector implements LoadBalancerConnector {
     private static final Logger logger = LoggerFactory.getLogger(AwsLoadBalancerConnector.class);
     private static final String AWS_IP_TARGET_TYPE = "ip";
 
+    /**
+     * Number of targets sent in a single register/deregister/describe request. Larger sets are split into pages.
+     */
+    private static final int MAX_TARGETS_PER_REQUEST = 100;
+
     private final AmazonElasticLoadBalancingAsync client;
     private final Registry registry;
     private final Scheduler scheduler;
@@ -81,9 +89,12 @@ public class AwsLoadBalancerConnector implements LoadBalancerConnector {
         // TODO: handle partial failures in the batch
         // TODO: timeouts
 
-        final Set<TargetDescription> targetDescriptions = ipAddresses.stream().map(
-                ipAddress -> new TargetDescription().withId(ipAddress)
-        ).collect(Collectors.toSet());
+        List<List<TargetDescription>> pages = toTargetPages(ipAddresses);
+        connectorMetrics.pages(AwsLoadBalancerConnectorMetrics.AwsLoadBalancerMethods.RegisterTargets, pages.size());
+        return Completable.concat(pages.stream().map(page -> registerPage(loadBalancerId, page)).collect(Collectors.toList()));
+    }
+
+    private Completable registerPage(String loadBalancerId, List<TargetDescription> targetDescriptions) {
         final RegisterTargetsRequest request = new RegisterTargetsRequest()
                 .withTargetGroupArn(loadBalancerId)
                 .withTargets(targetDescriptions);
@@ -112,11 +123,15 @@ public class AwsLoadBalancerConnector implements LoadBalancerConnector {
         // TODO: handle partial failures in the batch
         // TODO: timeouts
 
+        List<List<TargetDescription>> pages = toTargetPages(ipAddresses);
+        connectorMetrics.pages(AwsLoadBalancerConnectorMetrics.AwsLoadBalancerMethods.DeregisterTargets, pages.size());
+        return Completable.concat(pages.stream().map(page -> deregisterPage(loadBalancerId, page)).collect(Collectors.toList()));
+    }
+
+    private Completable deregisterPage(String loadBalancerId, List<TargetDescription> targetDescriptions) {
         final DeregisterTargetsRequest request = new DeregisterTargetsRequest()
                 .withTargetGroupArn(loadBalancerId)
-                .withTargets(ipAddresses.stream().map(
-                        ipAddress -> new TargetDescription().withId(ipAddress)
-                ).collect(Collectors.toSet()));
+                .withTargets(targetDescriptions);
 
         long startTime = registry.clock().wallTime();
         // force observeOn(scheduler) since the callback will be called from the AWS SDK threadpool
@@ -183,4 +198,60 @@ public class AwsLoadBalancerConnector implements LoadBalancerConnector {
                     return Single.error(throwable);
                 });
     }
+
+    /**
+     * Describes the health of the given targets only. AWS reports targets that are not registered in the target group
+     * with the 'unused' state, so they are filtered out. A target group that does not exist is reported in
+     * the {@link LoadBalancer.State#REMOVED} state, as in {@link #getLoadBalancer(String)}.
+     */
+    @Override
+    public Single<LoadBalancer> getLoadBalancer(String loadBalancerId, Set<String> ipAddresses) {
+        if (CollectionsExt.isNullOrEmpty(ipAddresses)) {
+            return Single.just(new LoadBalancer(loadBalancerId, LoadBalancer.State.ACTIVE, Collections.emptySet()));
+        }
+
+        List<List<TargetDescription>> pages = toTargetPages(ipAddresses);
+        connectorMetrics.pages(AwsLoadBalancerConnectorMetrics.AwsLoadBalancerMethods.DescribeTargetHealth, pages.size());
+        return Observable.from(pages)
+                .concatMap(page -> describeTargetHealthPage(loadBalancerId, page).toObservable())
+                .collect(() -> new HashSet<String>(), Set::addAll)
+                .map(registeredIps -> new LoadBalancer(loadBalancerId, LoadBalancer.State.ACTIVE, Collections.unmodifiableSet(registeredIps)))
+                .toSingle()
+                .onErrorResumeNext(throwable -> {
+                    if (throwable instanceof TargetGroupNotFoundException) {
+                        return Single.just(new LoadBalancer(loadBalancerId, LoadBalancer.State.REMOVED, Collections.emptySet()));
+                    }
+                    return Single.error(throwable);
+                });
+    }
+
+    private Single<Set<String>> describeTargetHealthPage(String loadBalancerId, List<TargetDescription> targetDescriptions) {
+        final DescribeTargetHealthRequest request = new DescribeTargetHealthRequest()
+                .withTargetGroupArn(loadBalancerId)
+                .withTargets(targetDescriptions);
+
+        long startTime = registry.clock().wallTime();
+        Single<DescribeTargetHealthResult> asyncResult = AwsObservableExt.asyncActionSingle(
+                factory -> client.describeTargetHealthAsync(request, factory.handler())
+        );
+
+        return asyncResult
+                .observeOn(scheduler)
+                .<Set<String>>map(result -> {
+                    connectorMetrics.success(AwsLoadBalancerConnectorMetrics.AwsLoadBalancerMethods.DescribeTargetHealth, startTime);
+                    return result.getTargetHealthDescriptions().stream()
+                            .filter(description -> description.getTargetHealth() == null
+                                    || !TargetHealthStateEnum.Unused.toString().equals(description.getTargetHealth().getState()))
+                            .map(description -> description.getTarget().getId())
+                            .collect(Collectors.toSet());
+                })
+                .doOnError(throwable -> connectorMetrics.failure(AwsLoadBalancerConnectorMetrics.AwsLoadBalancerMethods.DescribeTargetHealth, throwable, startTime));
+    }
+
+    private static List<List<TargetDescription>> toTargetPages(Set<String> ipAddresses) {
+        List<TargetDescription> targetDescriptions = ipAddresses.stream()
+                .map(ipAddress -> new TargetDescription().withId(ipAddress))
+                .collect(Collectors.toList());
+        return CollectionsExt.chop(targetDescriptions, MAX_TARGETS_PER_REQUEST);
+    }
 }
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.netflix.spectator.api.BasicTag;
+import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Tag;
 import com.netflix.titus.common.util.spectator.ExecutionMetrics;
@@ -42,10 +43,12 @@ public class AwsLoadBalancerConnectorMetrics {
 
     private final Registry registry;
     private final Map<String, ExecutionMetrics> methodMetricsMap;
+    private final Id pagesId;
 
     public AwsLoadBalancerConnectorMetrics(Registry registry) {
         this.registry = registry;
         methodMetricsMap = new ConcurrentHashMap<>();
+        pagesId = registry.createId(METRICS_ROOT + ".pages");
 
         for (AwsLoadBalancerMethods methodName : AwsLoadBalancerMethods.values()) {
             // Create ExecutionMetrics that are preconfigured with the appropriate tags. This
@@ -62,6 +65,13 @@ public class AwsLoadBalancerConnectorMetrics {
         getOrCreateMetrics(method).success(startTime);
     }
 
+    /**
+     * Records the number of AWS requests a single connector call was split into.
+     */
+    public void pages(AwsLoadBalancerMethods method, int count) {
+        registry.counter(pagesId.withTag("method", method.name())).increment(count);
+    }
+
     public void failure(AwsLoadBalancerMethods method, Throwable error, long startTime) {
         if (error.getMessage().contains("Rate exceeded")) {
             error = new AwsLoadBalancerRateLimitException(error);
@@ -16,13 +16,31 @@
 
 package com.netflix.titus.ext.aws;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.amazonaws.auth.profile.ProfileCredentialsProvider;
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.elasticloadbalancingv2.AmazonElasticLoadBalancingAsync;
 import com.amazonaws.services.elasticloadbalancingv2.AmazonElasticLoadBalancingAsyncClientBuilder;
+import com.amazonaws.services.elasticloadbalancingv2.model.DeregisterTargetsRequest;
+import com.amazonaws.services.elasticloadbalancingv2.model.DeregisterTargetsResult;
+import com.amazonaws.services.elasticloadbalancingv2.model.DescribeTargetHealthRequest;
+import com.amazonaws.services.elasticloadbalancingv2.model.DescribeTargetHealthResult;
+import com.amazonaws.services.elasticloadbalancingv2.model.RegisterTargetsRequest;
+import com.amazonaws.services.elasticloadbalancingv2.model.RegisterTargetsResult;
+import com.amazonaws.services.elasticloadbalancingv2.model.TargetDescription;
 import com.amazonaws.services.elasticloadbalancingv2.model.TargetGroupAssociationLimitException;
 import com.amazonaws.services.elasticloadbalancingv2.model.TargetGroupNotFoundException;
+import com.amazonaws.services.elasticloadbalancingv2.model.TargetHealth;
+import com.amazonaws.services.elasticloadbalancingv2.model.TargetHealthDescription;
+import com.amazonaws.services.elasticloadbalancingv2.model.TargetHealthStateEnum;
 import com.netflix.spectator.api.DefaultRegistry;
 import com.netflix.titus.api.connector.cloud.CloudConnectorException;
 import com.netflix.titus.api.connector.cloud.LoadBalancer;
@@ -51,6 +69,7 @@ import static org.mockito.Mockito.when;
  */
 public class AwsLoadBalancerConnectorTest {
     private static final String REGION = "us-east-1";
+    private static final String TARGET_GROUP = "targetGroup";
     private LoadBalancerConnector awsLoadBalancerConnector;
 
     private final String validIpTargetGroup = System.getenv("validTargetGroup");
@@ -151,4 +170,104 @@ public class AwsLoadBalancerConnectorTest {
         assertFalse(throwable instanceof LoadBalancerException);
         assertTrue(throwable instanceof TargetGroupAssociationLimitException);
     }
+
+    @Test
+    public void registerAllIsSplitIntoPages() {
+        List<RegisterTargetsRequest> requests = new CopyOnWriteArrayList<>();
+        AmazonElasticLoadBalancingAsync albClient = mock(AmazonElasticLoadBalancingAsync.class);
+        when(albClient.registerTargetsAsync(any(), any())).thenAnswer(invocation -> {
+            RegisterTargetsRequest request = invocation.getArgument(0);
+            AsyncHandler<RegisterTargetsRequest, RegisterTargetsResult> handler = invocation.getArgument(1);
+            requests.add(request);
+            handler.onSuccess(request, new RegisterTargetsResult());
+            return CompletableFuture.completedFuture(new RegisterTargetsResult());
+        });
+
+        awsLoadBalancerConnector = new AwsLoadBalancerConnector(albClient, new DefaultRegistry());
+        Set<String> ipAddresses = newIpAddresses(250);
+        assertTrue(awsLoadBalancerConnector.registerAll(TARGET_GROUP, ipAddresses).await(5, TimeUnit.SECONDS));
+
+        assertThat(requests).hasSize(3);
+        assertThat(requests.stream().map(request -> request.getTargets().size())).containsExactly(100, 100, 50);
+        assertThat(requests.stream().flatMap(request -> targetIds(request.getTargets()).stream())).containsOnlyElementsOf(ipAddresses).hasSize(250);
+    }
+
+    @Test
+    public void deregisterAllIsSplitIntoPages() {
+        List<DeregisterTargetsRequest> requests = new CopyOnWriteArrayList<>();
+        AmazonElasticLoadBalancingAsync albClient = mock(AmazonElasticLoadBalancingAsync.class);
+        when(albClient.deregisterTargetsAsync(any(), any())).thenAnswer(invocation -> {
+            DeregisterTargetsRequest request = invocation.getArgument(0);
+            AsyncHandler<DeregisterTargetsRequest, DeregisterTargetsResult> handler = invocation.getArgument(1);
+            requests.add(request);
+            handler.onSuccess(request, new DeregisterTargetsResult());
+            return CompletableFuture.completedFuture(new DeregisterTargetsResult());
+        });
+
+        awsLoadBalancerConnector = new AwsLoadBalancerConnector(albClient, new DefaultRegistry());
+        Set<String> ipAddresses = newIpAddresses(100);
+        assertTrue(awsLoadBalancerConnector.deregisterAll(TARGET_GROUP, ipAddresses).await(5, TimeUnit.SECONDS));
+        assertTrue(awsLoadBalancerConnector.deregisterAll(TARGET_GROUP, new HashSet<>()).await(5, TimeUnit.SECONDS));
+
+        assertThat(requests).hasSize(1);
+        assertThat(targetIds(requests.get(0).getTargets())).isEqualTo(ipAddresses);
+    }
+
+    @Test
+    public void incrementalGetLoadBalancerDescribesOnlyGivenTargets() {
+        Set<String> ipAddresses = newIpAddresses(150);
+        Set<String> unusedIps = ipAddresses.stream().limit(20).collect(Collectors.toSet());
+
+        List<DescribeTargetHealthRequest> requests = new CopyOnWriteArrayList<>();
+        AmazonElasticLoadBalancingAsync albClient = mock(AmazonElasticLoadBalancingAsync.class);
+        when(albClient.describeTargetHealthAsync(any(), any())).thenAnswer(invocation -> {
+            DescribeTargetHealthRequest request = invocation.getArgument(0);
+            AsyncHandler<DescribeTargetHealthRequest, DescribeTargetHealthResult> handler = invocation.getArgument(1);
+            requests.add(request);
+            // AWS reports targets which are not registered in the target group with the 'unused' state
+            DescribeTargetHealthResult result = new DescribeTargetHealthResult().withTargetHealthDescriptions(
+                    request.getTargets().stream()
+                            .map(target -> new TargetHealthDescription()
+                                    .withTarget(target)
+                                    .withTargetHealth(new TargetHealth().withState(
+                                            unusedIps.contains(target.getId()) ? TargetHealthStateEnum.Unused : TargetHealthStateEnum.Healthy
+                                    ))
+                            )
+                            .collect(Collectors.toList())
+            );
+            handler.onSuccess(request, result);
+            return CompletableFuture.completedFuture(result);
+        });
+
+        awsLoadBalancerConnector = new AwsLoadBalancerConnector(albClient, new DefaultRegistry());
+        LoadBalancer loadBalancer = awsLoadBalancerConnector.getLoadBalancer(TARGET_GROUP, ipAddresses).toBlocking().value();
+        Set<String> registeredIps = loadBalancer.getRegisteredIps();
+
+        assertThat(requests).hasSize(2);
+        requests.forEach(request -> assertThat(request.getTargets().size()).isLessThanOrEqualTo(100));
+        assertThat(loadBalancer.getState()).isEqualTo(LoadBalancer.State.ACTIVE);
+        assertThat(registeredIps).hasSize(130).doesNotContainAnyElementsOf(unusedIps);
+        assertThat(ipAddresses).containsAll(registeredIps);
+    }
+
+    @Test
+    public void incrementalGetLoadBalancerReportsRemovedTargetGroup() {
+        AmazonElasticLoadBalancingAsync albClient = mock(AmazonElasticLoadBalancingAsync.class);
+        when(albClient.describeTargetHealthAsync(any(), any())).thenThrow(TargetGroupNotFoundException.class);
+
+        awsLoadBalancerConnector = new AwsLoadBalancerConnector(albClient, new DefaultRegistry());
+        LoadBalancer loadBalancer = awsLoadBalancerConnector.getLoadBalancer(TARGET_GROUP, newIpAddresses(10)).toBlocking().value();
+        assertThat(loadBalancer.getState()).isEqualTo(LoadBalancer.State.REMOVED);
+        assertThat(loadBalancer.getRegisteredIps()).isEmpty();
+    }
+
+    private static Set<String> newIpAddresses(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> String.format("10.0.%d.%d", i / 256, i % 256))
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> targetIds(List<TargetDescription> targets) {
+        return targets.stream().map(TargetDescription::getId).collect(Collectors.toSet());
+    }
 }
@@ -18,7 +18,6 @@ package com.netflix.titus.ext.cassandra.testkit.store;
 
 import java.io.File;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import com.datastax.driver.core.Session;
 import com.google.common.base.Preconditions;
@@ -26,7 +25,6 @@ import com.google.common.io.Files;
 import com.netflix.titus.api.jobmanager.store.JobStore;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.runtime.TitusRuntimes;
-import com.netflix.titus.common.util.CollectionsExt;
 import com.netflix.titus.ext.cassandra.store.CassandraJobStore;
 import com.netflix.titus.ext.cassandra.store.CassandraStoreConfiguration;
 import com.netflix.titus.ext.cassandra.tool.snapshot.JobSnapshotLoader;
@@ -34,8 +32,6 @@ import org.cassandraunit.CQLDataLoader;
 import org.cassandraunit.dataset.cql.ClassPathCQLDataSet;
 import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
 
-import static com.netflix.titus.ext.cassandra.tool.CassandraSchemas.JOB_ACTIVE_TABLES;
-
 public class EmbeddedCassandraStoreFactory {
 
     private static final long STARTUP_TIMEOUT = 30_000;
@@ -70,6 +66,36 @@ public class EmbeddedCassandraStoreFactory {
         public boolean isTracingEnabled() {
             return false;
         }
+
+        @Override
+        public boolean isJobStoreCheckpointEnabled() {
+            return false;
+        }
+
+        @Override
+        public String getJobStoreCheckpointFile() {
+            return "";
+        }
+
+        @Override
+        public long getJobStoreCheckpointIntervalMs() {
+            return 0;
+        }
+
+        @Override
+        public long getJobStoreCheckpointSafetyMarginMs() {
+            return 0;
+        }
+
+        @Override
+        public boolean isJobStoreStandbyReplicationEnabled() {
+            return false;
+        }
+
+        @Override
+        public long getJobStoreStandbyReplicationIntervalMs() {
+            return 0;
+        }
     };
 
     private final Session session;
@@ -106,11 +132,9 @@ public class EmbeddedCassandraStoreFactory {
             Preconditions.checkArgument(folder.exists(), "%s not found", folder);
             Preconditions.checkArgument(folder.isDirectory(), "%s is not directory", folder);
 
-            Set<String> expectedFiles = JOB_ACTIVE_TABLES.stream().map(t -> t + ".json").collect(Collectors.toSet());
-            Set<String> foundFiles = expectedFiles.stream().filter(f -> new File(folder, f).exists()).collect(Collectors.toSet());
-            if (foundFiles.size() != JOB_ACTIVE_TABLES.size()) {
-                Set<String> missingFiles = CollectionsExt.copyAndRemove(expectedFiles, foundFiles);
-                throw new IllegalArgumentException("Incomplete set of job files. Missing files: " + missingFiles);
+            Set<String> missingTables = JobSnapshotLoader.findMissingTables(folder);
+            if (!missingTables.isEmpty()) {
+                throw new IllegalArgumentException("Incomplete set of job files. Missing tables: " + missingTables);
             }
 
             this.jobInputFolder = folder;
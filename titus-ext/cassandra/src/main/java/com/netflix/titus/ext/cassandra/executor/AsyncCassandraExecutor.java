@@ -16,6 +16,7 @@
 
 package com.netflix.titus.ext.cassandra.executor;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
@@ -23,6 +24,7 @@ import java.util.function.Function;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TokenRange;
 import com.netflix.titus.common.util.tuple.Pair;
 import rx.Observable;
 
@@ -47,6 +49,13 @@ public class AsyncCassandraExecutor {
         return context.getSession();
     }
 
+    /**
+     * Returns token ranges, each split into the number of sub-ranges configured for this executor.
+     */
+    public List<TokenRange> getTokenRanges() {
+        return context.getTokenRanges();
+    }
+
     public Observable<Void> executeUpdate(BoundStatement statement) {
         return updateOperations.executeUpdate(statement);
     }
@@ -90,6 +99,13 @@ public class AsyncCassandraExecutor {
         return queryOperations.executeRawRangeQuery2(keyName, valueName, statement, Optional.empty());
     }
 
+    /**
+     * Reads { primary_key, value } entries from a single token range. The value is not deserialized.
+     */
+    public Observable<Pair<Object, Object>> rawRangeQuery2(String keyName, String valueName, PreparedStatement statement, TokenRange range) {
+        return queryOperations.executeRawRangeQuery2(keyName, valueName, statement, range, Optional.empty());
+    }
+
     /**
      * Reads { rowId, columnId, value } entries from Cassandra.
      */
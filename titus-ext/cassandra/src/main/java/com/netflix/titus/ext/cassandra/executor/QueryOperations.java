@@ -100,12 +100,16 @@ class QueryOperations {
 
     public Observable<Pair<Object, Object>> executeRawRangeQuery2(String keyName, String valueName, PreparedStatement statement, Optional<Class<?>> entityType) {
         List<Observable<Pair<Object, Object>>> allQueries = tokenRanges.stream()
-                .map(range -> statement.bind().setToken("min", range.getStart()).setToken("max", range.getEnd()))
-                .map(boundStatement -> executeQueryInternal2(keyName, valueName, boundStatement, entityType).onBackpressureBuffer())
+                .map(range -> executeRawRangeQuery2(keyName, valueName, statement, range, entityType))
                 .collect(Collectors.toList());
         return Observable.merge(allQueries);
     }
 
+    public Observable<Pair<Object, Object>> executeRawRangeQuery2(String keyName, String valueName, PreparedStatement statement, TokenRange range, Optional<Class<?>> entityType) {
+        BoundStatement boundStatement = statement.bind().setToken("min", range.getStart()).setToken("max", range.getEnd());
+        return executeQueryInternal2(keyName, valueName, boundStatement, entityType).onBackpressureBuffer();
+    }
+
     public Observable<Map<String, Map<String, Object>>> executeRangeQuery(PreparedStatement statement, Function<String, Class<?>> entityTypeResolver) {
         return executeRawRangeQuery(statement, entityTypeResolver).toList()
                 .map(all -> {
@@ -17,15 +17,24 @@
 package com.netflix.titus.ext.cassandra.store;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -47,6 +56,7 @@ import com.netflix.titus.api.FeatureRolloutPlans;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
 import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.JobModelInterner;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.api.jobmanager.model.job.TaskState;
 import com.netflix.titus.api.jobmanager.model.job.disruptionbudget.DisruptionBudget;
@@ -61,6 +71,7 @@ import com.netflix.titus.api.json.ObjectMappers;
 import com.netflix.titus.common.framework.fit.FitFramework;
 import com.netflix.titus.common.framework.fit.FitInjection;
 import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.CollectionsExt;
 import com.netflix.titus.common.util.guice.annotation.ProxyConfiguration;
 import com.netflix.titus.common.util.tuple.Either;
 import com.netflix.titus.common.util.tuple.Pair;
@@ -70,6 +81,7 @@ import rx.Completable;
 import rx.Emitter;
 import rx.Observable;
 import rx.exceptions.Exceptions;
+import rx.schedulers.Schedulers;
 
 import static com.netflix.titus.common.util.guice.ProxyType.Logging;
 import static com.netflix.titus.common.util.guice.ProxyType.Spectator;
@@ -94,6 +106,12 @@ public class CassandraJobStore implements JobStore {
     private static final String RETRIEVE_ARCHIVED_TASK_IDS_FOR_JOB_STRING = "SELECT task_id FROM archived_task_ids WHERE job_id = ?;";
     private static final String RETRIEVE_ACTIVE_TASK_STRING = "SELECT value FROM active_tasks WHERE task_id = ?;";
     private static final String RETRIEVE_ARCHIVED_TASK_STRING = "SELECT value FROM archived_tasks WHERE task_id = ?;";
+    private static final String RETRIEVE_ACTIVE_JOB_WRITE_TIMES_STRING = "SELECT job_id, WRITETIME(value) FROM active_jobs WHERE job_id IN ?;";
+    private static final String RETRIEVE_ACTIVE_TASK_WRITE_TIMES_STRING = "SELECT task_id, WRITETIME(value) FROM active_tasks WHERE task_id IN ?;";
+    private static final String RETRIEVE_ACTIVE_JOB_WITH_WRITE_TIME_STRING = "SELECT value, WRITETIME(value) FROM active_jobs WHERE job_id = ?;";
+    private static final String RETRIEVE_ACTIVE_TASK_WITH_WRITE_TIME_STRING = "SELECT value, WRITETIME(value) FROM active_tasks WHERE task_id = ?;";
+
+    private static final int WRITE_TIME_QUERY_BATCH_SIZE = 100;
 
     private final PreparedStatement retrieveActiveJobIdBucketsStatement;
     private final PreparedStatement retrieveActiveJobIdsStatement;
@@ -103,6 +121,10 @@ public class CassandraJobStore implements JobStore {
     private final PreparedStatement retrieveArchivedTaskIdsForJobStatement;
     private final PreparedStatement retrieveActiveTaskStatement;
     private final PreparedStatement retrieveArchivedTaskStatement;
+    private final PreparedStatement retrieveActiveJobWriteTimesStatement;
+    private final PreparedStatement retrieveActiveTaskWriteTimesStatement;
+    private final PreparedStatement retrieveActiveJobWithWriteTimeStatement;
+    private final PreparedStatement retrieveActiveTaskWithWriteTimeStatement;
 
     // INSERT Queries
     private static final String INSERT_ACTIVE_JOB_ID_STRING = "INSERT INTO active_job_ids (bucket, job_id) VALUES (?, ?);";
@@ -139,6 +161,9 @@ public class CassandraJobStore implements JobStore {
     private final CassandraStoreConfiguration configuration;
     private final Optional<FitInjection> fitDriverInjection;
     private final Optional<FitInjection> fitBadDataInjection;
+    private final JobModelInterner interner;
+    private final Optional<JobStoreCheckpointManager> checkpointManager;
+    private final Optional<JobStoreStandbyReplica> standbyReplica;
 
     private final Predicate<Job> disruptionBudgetEnabledPredicate;
 
@@ -183,7 +208,15 @@ public class CassandraJobStore implements JobStore {
         }
 
         this.mapper = mapper;
+        this.interner = new JobModelInterner(titusRuntime.getRegistry());
         this.activeJobIdsBucketManager = new BalancedBucketManager<>(initialBucketCount, maxBucketSize, METRIC_NAME_ROOT, titusRuntime.getRegistry());
+        this.checkpointManager = configuration.isJobStoreCheckpointEnabled()
+                ? Optional.of(new JobStoreCheckpointManager(configuration, mapper, titusRuntime, Schedulers.io()))
+                : Optional.empty();
+        // Records loaded with the data corruption FIT injection enabled must always come from Cassandra.
+        this.standbyReplica = configuration.isJobStoreStandbyReplicationEnabled() && !fitBadDataInjection.isPresent()
+                ? Optional.of(new JobStoreStandbyReplica(titusRuntime))
+                : Optional.empty();
 
         retrieveActiveJobIdBucketsStatement = session.prepare(RETRIEVE_ACTIVE_JOB_ID_BUCKETS_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         retrieveActiveJobIdsStatement = session.prepare(RETRIEVE_ACTIVE_JOB_IDS_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
@@ -193,6 +226,10 @@ public class CassandraJobStore implements JobStore {
         retrieveArchivedTaskIdsForJobStatement = session.prepare(RETRIEVE_ARCHIVED_TASK_IDS_FOR_JOB_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         retrieveActiveTaskStatement = session.prepare(RETRIEVE_ACTIVE_TASK_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         retrieveArchivedTaskStatement = session.prepare(RETRIEVE_ARCHIVED_TASK_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        retrieveActiveJobWriteTimesStatement = session.prepare(RETRIEVE_ACTIVE_JOB_WRITE_TIMES_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        retrieveActiveTaskWriteTimesStatement = session.prepare(RETRIEVE_ACTIVE_TASK_WRITE_TIMES_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        retrieveActiveJobWithWriteTimeStatement = session.prepare(RETRIEVE_ACTIVE_JOB_WITH_WRITE_TIME_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+        retrieveActiveTaskWithWriteTimeStatement = session.prepare(RETRIEVE_ACTIVE_TASK_WITH_WRITE_TIME_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
 
         insertActiveJobStatement = session.prepare(INSERT_ACTIVE_JOB_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         insertActiveJobIdStatement = session.prepare(INSERT_ACTIVE_JOB_ID_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
@@ -206,11 +243,27 @@ public class CassandraJobStore implements JobStore {
         deleteActiveJobStatement = session.prepare(DELETE_ACTIVE_JOB_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         deleteActiveTaskIdStatement = session.prepare(DELETE_ACTIVE_TASK_ID_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
         deleteActiveTaskStatement = session.prepare(DELETE_ACTIVE_TASK_STRING).setConsistencyLevel(ConsistencyLevel.LOCAL_QUORUM);
+
+        standbyReplica.ifPresent(replica -> replica.start(
+                Completable.defer(() -> replicate(replica)),
+                configuration.getJobStoreStandbyReplicationIntervalMs(),
+                Schedulers.io()
+        ));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpointManager.ifPresent(JobStoreCheckpointManager::shutdown);
+        standbyReplica.ifPresent(JobStoreStandbyReplica::release);
     }
 
     @Override
     public Completable init() {
-        return Observable.fromCallable(() -> retrieveActiveJobIdBucketsStatement.bind().setFetchSize(Integer.MAX_VALUE))
+        return Observable.fromCallable(() -> {
+            // The store is initialized when this master becomes the leader, so the standby replication is not needed anymore.
+            standbyReplica.ifPresent(JobStoreStandbyReplica::promote);
+            return retrieveActiveJobIdBucketsStatement.bind().setFetchSize(Integer.MAX_VALUE);
+        })
                 .flatMap(statement -> execute(statement).flatMap(resultSet -> {
                     List<Completable> completables = new ArrayList<>();
                     for (Row row : resultSet.all()) {
@@ -246,74 +299,127 @@ public class CassandraJobStore implements JobStore {
 
     @Override
     public Observable<Pair<List<Job<?>>, Integer>> retrieveJobs() {
-        Observable result = Observable.fromCallable(() -> {
-            List<String> jobIds = activeJobIdsBucketManager.getItems();
-            return jobIds.stream().map(retrieveActiveJobStatement::bind).map(this::execute).collect(Collectors.toList());
-        }).flatMap(observables -> Observable.merge(observables, getConcurrencyLimit()).flatMapIterable(resultSet -> {
+        return Observable.fromCallable(activeJobIdsBucketManager::getItems)
+                .flatMap(jobIds -> {
+                    Optional<JobStoreStandbyReplica> replica = getPromotedReplica();
+                    if (replica.isPresent()) {
+                        return retrieveActiveJobsUsingReplica(jobIds, replica.get());
+                    }
+                    Optional<JobStoreCheckpoint> checkpoint = getCheckpoint();
+                    return checkpoint.isPresent()
+                            ? retrieveActiveJobsUsingCheckpoint(jobIds, checkpoint.get())
+                            : retrieveActiveJobs(jobIds);
+                })
+                .toList()
+                .map(everything -> {
+                    List<Job<?>> goodJobs = everything.stream().filter(Either::hasValue).map(Either::getValue).collect(Collectors.toList());
+                    int errors = everything.size() - goodJobs.size();
+                    goodJobs.forEach(job -> checkpointManager.ifPresent(manager -> manager.jobLoaded(job)));
+                    return Pair.of(goodJobs, errors);
+                });
+    }
+
+    private Observable<Either<Job<?>, Throwable>> retrieveActiveJobs(List<String> jobIds) {
+        List<Observable<ResultSet>> observables = jobIds.stream().map(retrieveActiveJobStatement::bind).map(this::execute).collect(Collectors.toList());
+        return Observable.merge(observables, getConcurrencyLimit()).flatMapIterable(resultSet -> {
             List<Row> allRows = resultSet.all();
             if (allRows.isEmpty()) {
                 logger.debug("Job id with no record");
                 return Collections.emptyList();
             }
             return allRows.stream()
-                    .map(row -> row.getString(0))
-                    .map(value -> {
-                        String effectiveValue;
-                        if (fitBadDataInjection.isPresent()) {
-                            effectiveValue = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedRawJobRecords.name(), value);
-                        } else {
-                            effectiveValue = value;
-                        }
+                    .map(row -> deserializeJobRecord(row.getString(0)))
+                    .collect(Collectors.toList());
+        });
+    }
 
-                        Job<?> job;
-                        try {
-                            job = ObjectMappers.readValue(mapper, effectiveValue, Job.class);
-                        } catch (Exception e) {
-                            logger.error("Cannot map serialized job data to Job class: {}", effectiveValue, e);
-                            return Either.ofError(e);
-                        }
+    /**
+     * Takes the jobs that were not modified after the checkpoint was taken from the checkpoint, and reads the remaining
+     * ones from Cassandra.
+     */
+    private Observable<Either<Job<?>, Throwable>> retrieveActiveJobsUsingCheckpoint(List<String> jobIds, JobStoreCheckpoint checkpoint) {
+        return retrieveUnchangedIds(retrieveActiveJobWriteTimesStatement, jobIds, checkpoint.getJobs().keySet(),
+                (jobId, writeTime) -> checkpointManager.get().isUnchanged(checkpoint, writeTime))
+                .flatMap(unchangedIds -> {
+                    List<String> changedIds = jobIds.stream().filter(id -> !unchangedIds.contains(id)).collect(Collectors.toList());
+                    checkpointManager.get().recordsReused(unchangedIds.size());
+                    checkpointManager.get().recordsFetched(changedIds.size());
+
+                    Observable<Either<Job<?>, Throwable>> unchangedJobs = Observable.from(unchangedIds)
+                            .map(id -> Either.<Job<?>, Throwable>ofValue(interner.intern(checkpoint.getJobs().get(id))));
+                    return Observable.merge(unchangedJobs, retrieveActiveJobs(changedIds));
+                });
+    }
 
-                        if (job.getJobDescriptor().getDisruptionBudget() == null) {
-                            if (disruptionBudgetEnabledPredicate.test(job)) {
-                                titusRuntime.getCodeInvariants().inconsistent("jobWithNoDisruptionBudget: jobId=%s", job.getId());
-                            }
-                            job = JobFunctions.changeDisruptionBudget(job, DisruptionBudget.none());
-                        } else if (!disruptionBudgetEnabledPredicate.test(job)) {
-                            if (!DisruptionBudgetFunctions.isLegacyJob(job)) {
-                                logger.warn("Loaded job from store with disruption budget not enabled; resetting it to none: jobId={}", job.getId());
-                            }
-                            job = JobFunctions.changeDisruptionBudget(job, DisruptionBudget.none());
-                        }
+    /**
+     * Takes the jobs with the same write time as when they were replicated from the standby replica, and reads
+     * the remaining ones from Cassandra.
+     */
+    private Observable<Either<Job<?>, Throwable>> retrieveActiveJobsUsingReplica(List<String> jobIds, JobStoreStandbyReplica replica) {
+        return retrieveWriteTimes(retrieveActiveJobWriteTimesStatement, jobIds.stream().filter(replica.getJobIds()::contains).collect(Collectors.toList()))
+                .flatMap(writeTimes -> {
+                    List<Job<?>> unchangedJobs = new ArrayList<>();
+                    writeTimes.forEach((jobId, writeTime) -> replica.findJob(jobId, writeTime).ifPresent(unchangedJobs::add));
+                    Set<String> unchangedIds = unchangedJobs.stream().map(Job::getId).collect(Collectors.toSet());
+                    List<String> changedIds = jobIds.stream().filter(id -> !unchangedIds.contains(id)).collect(Collectors.toList());
+                    replica.recordsReused(unchangedIds.size());
+                    replica.recordsFetched(changedIds.size());
+
+                    return Observable.merge(
+                            Observable.from(unchangedJobs).map(job -> Either.<Job<?>, Throwable>ofValue(job)),
+                            retrieveActiveJobs(changedIds)
+                    );
+                });
+    }
 
-                        // TODO Remove this code when there are no more jobs with missing migration data (caused by a bug in ServiceJobExt builder).
-                        if (job.getJobDescriptor().getExtensions() instanceof ServiceJobExt) {
-                            Job<ServiceJobExt> serviceJob = (Job<ServiceJobExt>) job;
-                            ServiceJobExt ext = serviceJob.getJobDescriptor().getExtensions();
-                            if (ext.getMigrationPolicy() == null) {
-                                titusRuntime.getCodePointTracker().markReachable("Corrupted task migration record in Cassandra: " + job.getId());
-                                ServiceJobExt fixedExt = ext.toBuilder().withMigrationPolicy(SystemDefaultMigrationPolicy.newBuilder().build()).build();
-                                logger.warn("Service job with no migration policy defined. Setting system default: {}", job.getId());
-                                job = serviceJob.toBuilder().withJobDescriptor(
-                                        serviceJob.getJobDescriptor().toBuilder().withExtensions(fixedExt).build()
-                                ).build();
-                            }
-                        }
+    private Either<Job<?>, Throwable> deserializeJobRecord(String value) {
+        String effectiveValue;
+        if (fitBadDataInjection.isPresent()) {
+            effectiveValue = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedRawJobRecords.name(), value);
+        } else {
+            effectiveValue = value;
+        }
 
-                        if (!fitBadDataInjection.isPresent()) {
-                            return Either.ofValue(job);
-                        }
+        Job<?> job;
+        try {
+            job = interner.intern(ObjectMappers.readValue(mapper, effectiveValue, Job.class));
+        } catch (Exception e) {
+            logger.error("Cannot map serialized job data to Job class: {}", effectiveValue, e);
+            return Either.ofError(e);
+        }
 
-                        Job<?> effectiveJob = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedJobRecords.name(), job);
-                        return Either.ofValue(effectiveJob);
-                    })
-                    .collect(Collectors.toList());
-        })).toList().map(everything -> {
-            List<Job> goodJobs = (List<Job>) everything.stream().filter(Either::hasValue).map(Either::getValue).collect(Collectors.toList());
-            int errors = everything.size() - goodJobs.size();
-            return Pair.of(goodJobs, errors);
-        });
+        if (job.getJobDescriptor().getDisruptionBudget() == null) {
+            if (disruptionBudgetEnabledPredicate.test(job)) {
+                titusRuntime.getCodeInvariants().inconsistent("jobWithNoDisruptionBudget: jobId=%s", job.getId());
+            }
+            job = JobFunctions.changeDisruptionBudget(job, DisruptionBudget.none());
+        } else if (!disruptionBudgetEnabledPredicate.test(job)) {
+            if (!DisruptionBudgetFunctions.isLegacyJob(job)) {
+                logger.warn("Loaded job from store with disruption budget not enabled; resetting it to none: jobId={}", job.getId());
+            }
+            job = JobFunctions.changeDisruptionBudget(job, DisruptionBudget.none());
+        }
+
+        // TODO Remove this code when there are no more jobs with missing migration data (caused by a bug in ServiceJobExt builder).
+        if (job.getJobDescriptor().getExtensions() instanceof ServiceJobExt) {
+            Job<ServiceJobExt> serviceJob = (Job<ServiceJobExt>) job;
+            ServiceJobExt ext = serviceJob.getJobDescriptor().getExtensions();
+            if (ext.getMigrationPolicy() == null) {
+                titusRuntime.getCodePointTracker().markReachable("Corrupted task migration record in Cassandra: " + job.getId());
+                ServiceJobExt fixedExt = ext.toBuilder().withMigrationPolicy(SystemDefaultMigrationPolicy.newBuilder().build()).build();
+                logger.warn("Service job with no migration policy defined. Setting system default: {}", job.getId());
+                job = serviceJob.toBuilder().withJobDescriptor(
+                        serviceJob.getJobDescriptor().toBuilder().withExtensions(fixedExt).build()
+                ).build();
+            }
+        }
+
+        if (!fitBadDataInjection.isPresent()) {
+            return Either.ofValue(job);
+        }
 
-        return result;
+        Job<?> effectiveJob = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedJobRecords.name(), job);
+        return Either.ofValue(effectiveJob);
     }
 
     @Override
@@ -327,7 +433,7 @@ public class CassandraJobStore implements JobStore {
                 throw JobStoreException.jobDoesNotExist(jobId);
             }
             String value = row.getString(0);
-            return (Job<?>) ObjectMappers.readValue(mapper, value, Job.class);
+            return (Job<?>) interner.intern(ObjectMappers.readValue(mapper, value, Job.class));
         }));
     }
 
@@ -353,7 +459,8 @@ public class CassandraJobStore implements JobStore {
 
                     return batchStatement;
                 })
-                .flatMap(statement -> execute(statement)
+                .flatMap(statement -> executeWithCheckpoint(statement, Collections.singletonList(job.getId()), Collections.emptyList(),
+                        (manager, writeId) -> manager.jobUpdated(job, writeId))
                         .doOnNext(rs -> transactionLogger().logAfterCreate(insertActiveJobStatement, "storeJob", job))
                         .doOnError(throwable -> activeJobIdsBucketManager.deleteItem(job.getId()))
                 )
@@ -385,7 +492,9 @@ public class CassandraJobStore implements JobStore {
                     return insertActiveJobStatement.bind(jobId, jobJsonString);
                 })
                 .flatMap(statement ->
-                        execute(statement).doOnNext(rs -> transactionLogger().logAfterUpdate(insertActiveJobStatement, "updateJob", job))
+                        executeWithCheckpoint(statement, Collections.singletonList(job.getId()), Collections.emptyList(),
+                                (manager, writeId) -> manager.jobUpdated(job, writeId)
+                        ).doOnNext(rs -> transactionLogger().logAfterUpdate(insertActiveJobStatement, "updateJob", job))
                 )
                 .toCompletable();
     }
@@ -412,7 +521,9 @@ public class CassandraJobStore implements JobStore {
 
             transactionLogger().logBeforeDelete(deleteActiveJobStatement, "deleteJob", job);
 
-            return execute(statement).doOnNext(rs -> transactionLogger().logAfterDelete(deleteActiveJobStatement, "deleteJob", job));
+            return executeWithCheckpoint(statement, Collections.singletonList(job.getId()), Collections.emptyList(),
+                    (manager, writeId) -> manager.jobRemoved(job.getId(), writeId)
+            ).doOnNext(rs -> transactionLogger().logAfterDelete(deleteActiveJobStatement, "deleteJob", job));
         }).flatMap(ignored -> {
             activeJobIdsBucketManager.deleteItem(job.getId());
             return Observable.empty();
@@ -459,48 +570,238 @@ public class CassandraJobStore implements JobStore {
                     })
                     .collect(Collectors.toList());
 
-            List<Observable<ResultSet>> observables = taskIds.stream().map(retrieveActiveTaskStatement::bind).map(this::execute).collect(Collectors.toList());
+            Optional<JobStoreStandbyReplica> replica = getPromotedReplica();
+            if (replica.isPresent()) {
+                return retrieveActiveTasksUsingReplica(taskIds, replica.get());
+            }
+            Optional<JobStoreCheckpoint> checkpoint = getCheckpoint();
+            return checkpoint.isPresent()
+                    ? retrieveActiveTasksUsingCheckpoint(taskIds, checkpoint.get())
+                    : retrieveActiveTasks(taskIds);
+        })).toList().map(taskErrorPairs -> {
+            List<Task> tasks = taskErrorPairs.stream().filter(Either::hasValue).map(Either::getValue).collect(Collectors.toList());
+            int errors = (int) taskErrorPairs.stream().filter(Either::hasError).count();
+            tasks.forEach(task -> checkpointManager.ifPresent(manager -> manager.taskLoaded(task)));
+            return Pair.of(tasks, errors);
+        });
+    }
 
-            return Observable.merge(observables, getConcurrencyLimit()).flatMapIterable(tasksResultSet -> {
-                List<Either<Task, Throwable>> tasks = new ArrayList<>();
-                for (Row row : tasksResultSet.all()) {
-                    String value = row.getString(0);
+    private Observable<Either<Task, Throwable>> retrieveActiveTasks(List<String> taskIds) {
+        List<Observable<ResultSet>> observables = taskIds.stream().map(retrieveActiveTaskStatement::bind).map(this::execute).collect(Collectors.toList());
 
-                    String effectiveValue;
-                    if (fitBadDataInjection.isPresent()) {
-                        effectiveValue = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedRawTaskRecords.name(), value);
-                    } else {
-                        effectiveValue = value;
-                    }
+        return Observable.merge(observables, getConcurrencyLimit()).flatMapIterable(tasksResultSet -> {
+            List<Either<Task, Throwable>> tasks = new ArrayList<>();
+            for (Row row : tasksResultSet.all()) {
+                String value = row.getString(0);
 
-                    Task task;
-                    try {
-                        task = deserializeTask(effectiveValue);
-
-                        if (!fitBadDataInjection.isPresent()) {
-                            tasks.add(Either.ofValue(task));
-                        } else {
-                            Task effectiveTask = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedTaskRecords.name(), task);
-                            effectiveTask = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.DuplicatedEni.name(), effectiveTask);
-                            effectiveTask = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedTaskPlacementData.name(), effectiveTask);
-                            tasks.add(Either.ofValue(effectiveTask));
-                        }
+                String effectiveValue;
+                if (fitBadDataInjection.isPresent()) {
+                    effectiveValue = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedRawTaskRecords.name(), value);
+                } else {
+                    effectiveValue = value;
+                }
+
+                Task task;
+                try {
+                    task = deserializeTask(effectiveValue);
 
-                        transactionLogger().logAfterRead(retrieveActiveTaskStatement, "retrieveTasksForJob", task);
-                    } catch (Exception e) {
-                        logger.error("Cannot map serialized task data to Task class: {}", effectiveValue, e);
-                        tasks.add(Either.ofError(e));
+                    if (!fitBadDataInjection.isPresent()) {
+                        tasks.add(Either.ofValue(task));
+                    } else {
+                        Task effectiveTask = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedTaskRecords.name(), task);
+                        effectiveTask = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.DuplicatedEni.name(), effectiveTask);
+                        effectiveTask = fitBadDataInjection.get().afterImmediate(JobStoreFitAction.ErrorKind.CorruptedTaskPlacementData.name(), effectiveTask);
+                        tasks.add(Either.ofValue(effectiveTask));
                     }
+
+                    transactionLogger().logAfterRead(retrieveActiveTaskStatement, "retrieveTasksForJob", task);
+                } catch (Exception e) {
+                    logger.error("Cannot map serialized task data to Task class: {}", effectiveValue, e);
+                    tasks.add(Either.ofError(e));
                 }
-                return tasks;
+            }
+            return tasks;
+        });
+    }
+
+    /**
+     * Takes the tasks that were not modified after the checkpoint was taken from the checkpoint, and reads the remaining
+     * ones from Cassandra.
+     */
+    private Observable<Either<Task, Throwable>> retrieveActiveTasksUsingCheckpoint(List<String> taskIds, JobStoreCheckpoint checkpoint) {
+        return retrieveUnchangedIds(retrieveActiveTaskWriteTimesStatement, taskIds, checkpoint.getTasks().keySet(),
+                (taskId, writeTime) -> checkpointManager.get().isUnchanged(checkpoint, writeTime))
+                .flatMap(unchangedIds -> {
+                    List<String> changedIds = taskIds.stream().filter(id -> !unchangedIds.contains(id)).collect(Collectors.toList());
+                    checkpointManager.get().recordsReused(unchangedIds.size());
+                    checkpointManager.get().recordsFetched(changedIds.size());
+
+                    Observable<Either<Task, Throwable>> unchangedTasks = Observable.from(unchangedIds)
+                            .map(id -> Either.<Task, Throwable>ofValue(interner.intern(checkpoint.getTasks().get(id))));
+                    return Observable.merge(unchangedTasks, retrieveActiveTasks(changedIds));
+                });
+    }
+
+    /**
+     * Takes the tasks with the same write time as when they were replicated from the standby replica, and reads
+     * the remaining ones from Cassandra.
+     */
+    private Observable<Either<Task, Throwable>> retrieveActiveTasksUsingReplica(List<String> taskIds, JobStoreStandbyReplica replica) {
+        return retrieveWriteTimes(retrieveActiveTaskWriteTimesStatement, taskIds.stream().filter(replica.getTaskIds()::contains).collect(Collectors.toList()))
+                .flatMap(writeTimes -> {
+                    List<Task> unchangedTasks = new ArrayList<>();
+                    writeTimes.forEach((taskId, writeTime) -> replica.findTask(taskId, writeTime).ifPresent(unchangedTasks::add));
+                    Set<String> unchangedIds = unchangedTasks.stream().map(Task::getId).collect(Collectors.toSet());
+                    List<String> changedIds = taskIds.stream().filter(id -> !unchangedIds.contains(id)).collect(Collectors.toList());
+                    replica.recordsReused(unchangedIds.size());
+                    replica.recordsFetched(changedIds.size());
+
+                    return Observable.merge(
+                            Observable.from(unchangedTasks).map(task -> Either.<Task, Throwable>ofValue(task)),
+                            retrieveActiveTasks(changedIds)
+                    );
+                });
+    }
+
+    /**
+     * Reads the write times of the given records in batches, and returns the ids of the records present in
+     * the given in-memory set, which were not modified after they were captured.
+     */
+    private Observable<Set<String>> retrieveUnchangedIds(PreparedStatement writeTimesStatement,
+                                                         List<String> ids,
+                                                         Set<String> capturedIds,
+                                                         BiPredicate<String, Long> unchanged) {
+        List<String> candidateIds = ids.stream().filter(capturedIds::contains).collect(Collectors.toList());
+        return retrieveWriteTimes(writeTimesStatement, candidateIds).map(writeTimes -> writeTimes.entrySet().stream()
+                .filter(entry -> unchanged.test(entry.getKey(), entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet())
+        );
+    }
+
+    /**
+     * Reads the write times (in microseconds) of the given records in batches. Records that do not exist are not
+     * included in the result.
+     */
+    private Observable<Map<String, Long>> retrieveWriteTimes(PreparedStatement writeTimesStatement, List<String> ids) {
+        if (ids.isEmpty()) {
+            return Observable.just(Collections.<String, Long>emptyMap());
+        }
+        List<Observable<ResultSet>> observables = CollectionsExt.chop(ids, WRITE_TIME_QUERY_BATCH_SIZE).stream()
+                .map(chunk -> execute(writeTimesStatement.bind(new ArrayList<>(chunk))))
+                .collect(Collectors.toList());
+        return Observable.merge(observables, getConcurrencyLimit())
+                .flatMapIterable(ResultSet::all)
+                .filter(row -> !row.isNull(1))
+                .collect(() -> new HashMap<String, Long>(), (writeTimes, row) -> writeTimes.put(row.getString(0), row.getLong(1)))
+                .map(writeTimes -> (Map<String, Long>) writeTimes);
+    }
+
+    /* Visible for testing */
+    Completable replicateStandby() {
+        return standbyReplica.map(replica -> Completable.defer(() -> replicate(replica))).orElse(Completable.complete());
+    }
+
+    private Optional<JobStoreStandbyReplica> getPromotedReplica() {
+        return standbyReplica.filter(JobStoreStandbyReplica::isLoadable);
+    }
+
+    /**
+     * Runs one standby replication round. The job and task ids are read directly from Cassandra, leaving the job id
+     * bucket state alone until {@link #init()} is called on promotion. Only the records with a write time different
+     * from the replicated one are fetched.
+     */
+    private Completable replicate(JobStoreStandbyReplica replica) {
+        long roundStartTime = titusRuntime.getClock().wallTime();
+        return retrieveActiveJobIdsForReplica().flatMap(jobIds -> {
+            replica.retainJobs(jobIds);
+            Observable<Integer> jobsFetched = replicateRecords(
+                    retrieveActiveJobWriteTimesStatement, retrieveActiveJobWithWriteTimeStatement, jobIds,
+                    replica::findJob,
+                    value -> {
+                        Either<Job<?>, Throwable> jobOrError = deserializeJobRecord(value);
+                        if (jobOrError.hasError()) {
+                            throw new IllegalStateException(jobOrError.getError());
+                        }
+                        return jobOrError.getValue();
+                    },
+                    replica::jobReplicated
+            );
+            Observable<Integer> tasksFetched = retrieveActiveTaskIdsForReplica(jobIds).flatMap(taskIds -> {
+                replica.retainTasks(taskIds);
+                return replicateRecords(
+                        retrieveActiveTaskWriteTimesStatement, retrieveActiveTaskWithWriteTimeStatement, taskIds,
+                        replica::findTask,
+                        value -> interner.intern(deserializeTask(value)),
+                        replica::taskReplicated
+                );
             });
-        })).toList().map(taskErrorPairs -> {
-            List<Task> tasks = taskErrorPairs.stream().filter(Either::hasValue).map(Either::getValue).collect(Collectors.toList());
-            int errors = (int) taskErrorPairs.stream().filter(Either::hasError).count();
-            return Pair.of(tasks, errors);
+            return Observable.concat(jobsFetched, tasksFetched).reduce(0, Integer::sum);
+        }).doOnNext(fetched -> replica.replicationRoundCompleted(roundStartTime, fetched)).toCompletable();
+    }
+
+    private Observable<List<String>> retrieveActiveJobIdsForReplica() {
+        return execute(retrieveActiveJobIdBucketsStatement.bind().setFetchSize(Integer.MAX_VALUE))
+                .flatMap(bucketsResultSet -> {
+                    List<Observable<ResultSet>> observables = bucketsResultSet.all().stream()
+                            .map(row -> retrieveActiveJobIdsStatement.bind(row.getInt(0)).setFetchSize(Integer.MAX_VALUE))
+                            .map(this::execute)
+                            .collect(Collectors.toList());
+                    return Observable.merge(observables, getConcurrencyLimit());
+                })
+                .flatMapIterable(ResultSet::all)
+                .map(row -> row.getString(0))
+                .toList();
+    }
+
+    private Observable<List<String>> retrieveActiveTaskIdsForReplica(List<String> jobIds) {
+        List<Observable<ResultSet>> observables = jobIds.stream()
+                .map(jobId -> retrieveActiveTaskIdsForJobStatement.bind(jobId).setFetchSize(Integer.MAX_VALUE))
+                .map(this::execute)
+                .collect(Collectors.toList());
+        return Observable.merge(observables, getConcurrencyLimit())
+                .flatMapIterable(ResultSet::all)
+                .map(row -> row.getString(0))
+                .toList();
+    }
+
+    /**
+     * Fetches the records with a write time different from the replicated one, and returns the number of fetched
+     * records. A record that cannot be deserialized is left out of the replica, so it is read again on promotion.
+     */
+    private <T> Observable<Integer> replicateRecords(PreparedStatement writeTimesStatement,
+                                                     PreparedStatement retrieveWithWriteTimeStatement,
+                                                     List<String> ids,
+                                                     BiFunction<String, Long, Optional<T>> replicatedRecordFinder,
+                                                     Function<String, T> deserializer,
+                                                     BiConsumer<T, Long> replicatedRecordConsumer) {
+        return retrieveWriteTimes(writeTimesStatement, ids).flatMap(writeTimes -> {
+            List<Observable<ResultSet>> observables = writeTimes.entrySet().stream()
+                    .filter(entry -> !replicatedRecordFinder.apply(entry.getKey(), entry.getValue()).isPresent())
+                    .map(entry -> execute(retrieveWithWriteTimeStatement.bind(entry.getKey())))
+                    .collect(Collectors.toList());
+            return Observable.merge(observables, getConcurrencyLimit())
+                    .flatMapIterable(ResultSet::all)
+                    .filter(row -> !row.isNull(0) && !row.isNull(1))
+                    .doOnNext(row -> {
+                        try {
+                            replicatedRecordConsumer.accept(deserializer.apply(row.getString(0)), row.getLong(1));
+                        } catch (Exception e) {
+                            logger.warn("Cannot replicate job store record: {}", e.getMessage());
+                        }
+                    })
+                    .count();
         });
     }
 
+    private Optional<JobStoreCheckpoint> getCheckpoint() {
+        // Records loaded with the data corruption FIT injection enabled must always come from Cassandra.
+        if (fitBadDataInjection.isPresent()) {
+            return Optional.empty();
+        }
+        return checkpointManager.flatMap(JobStoreCheckpointManager::getLoaded);
+    }
+
     @Override
     public Observable<Task> retrieveTask(String taskId) {
         return Observable
@@ -541,7 +842,9 @@ public class CassandraJobStore implements JobStore {
 
             return batchStatement;
         }).flatMap(statement ->
-                execute(statement).doOnNext(rs -> transactionLogger().logAfterCreate(insertActiveTaskStatement, "storeTask", task))
+                executeWithCheckpoint(statement, Collections.emptyList(), Collections.singletonList(task.getId()),
+                        (manager, writeId) -> manager.taskUpdated(task, writeId)
+                ).doOnNext(rs -> transactionLogger().logAfterCreate(insertActiveTaskStatement, "storeTask", task))
         ).toCompletable();
     }
 
@@ -558,7 +861,9 @@ public class CassandraJobStore implements JobStore {
             return insertActiveTaskStatement.bind(taskId, taskJsonString);
         }).flatMap(statement -> {
                     transactionLogger().logAfterUpdate(insertActiveTaskStatement, "updateTask", task);
-                    return execute(statement);
+                    return executeWithCheckpoint(statement, Collections.emptyList(), Collections.singletonList(task.getId()),
+                            (manager, writeId) -> manager.taskUpdated(task, writeId)
+                    );
                 }
         ).toCompletable();
     }
@@ -580,7 +885,12 @@ public class CassandraJobStore implements JobStore {
             batchStatement.add(insertTaskIdStatement);
 
             return batchStatement;
-        }).flatMap(this::execute).toCompletable();
+        }).flatMap(statement -> executeWithCheckpoint(statement, Collections.emptyList(), Arrays.asList(oldTask.getId(), newTask.getId()),
+                (manager, writeId) -> {
+                    manager.taskRemoved(oldTask.getId(), writeId);
+                    manager.taskUpdated(newTask, writeId);
+                }
+        )).toCompletable();
     }
 
     /**
@@ -610,7 +920,13 @@ public class CassandraJobStore implements JobStore {
             batchStatement.add(insertActiveTaskIdStatement.bind(jobTo.getId(), taskAfter.getId()));
 
             return batchStatement;
-        }).flatMap(this::execute).toCompletable().doOnCompleted(() -> transactionLogger().logAfterUpdate(insertActiveTaskStatement, "moveTask", taskAfter));
+        }).flatMap(statement -> executeWithCheckpoint(statement, Arrays.asList(jobFrom.getId(), jobTo.getId()), Collections.singletonList(taskAfter.getId()),
+                (manager, writeId) -> {
+                    manager.jobUpdated(jobFrom, writeId);
+                    manager.jobUpdated(jobTo, writeId);
+                    manager.taskUpdated(taskAfter, writeId);
+                }
+        )).toCompletable().doOnCompleted(() -> transactionLogger().logAfterUpdate(insertActiveTaskStatement, "moveTask", taskAfter));
     }
 
     @Override
@@ -624,7 +940,9 @@ public class CassandraJobStore implements JobStore {
             return getArchiveTaskBatchStatement(task);
         }).flatMap(statement -> {
                     transactionLogger().logAfterDelete(deleteActiveTaskStatement, "deleteTask", task);
-                    return execute(statement);
+                    return executeWithCheckpoint(statement, Collections.emptyList(), Collections.singletonList(task.getId()),
+                            (manager, writeId) -> manager.taskRemoved(task.getId(), writeId)
+                    );
                 }
         ).toCompletable();
     }
@@ -638,7 +956,7 @@ public class CassandraJobStore implements JobStore {
                         throw JobStoreException.jobDoesNotExist(jobId);
                     }
                     String value = row.getString(0);
-                    return (Job<?>) ObjectMappers.readValue(mapper, value, Job.class);
+                    return (Job<?>) interner.intern(ObjectMappers.readValue(mapper, value, Job.class));
                 }));
     }
 
@@ -678,7 +996,7 @@ public class CassandraJobStore implements JobStore {
             task = task.toBuilder().withAttributes(Collections.emptyMap()).build();
         }
 
-        return task;
+        return interner.intern(task);
     }
 
     private boolean isJobActive(String jobId) {
@@ -721,6 +1039,30 @@ public class CassandraJobStore implements JobStore {
         return batchStatement;
     }
 
+    /**
+     * Executes a statement writing the given jobs and tasks. They are removed from the checkpoint before the write,
+     * and the success callback adds them back, only if no newer write was started in the meantime. On error,
+     * the records are left out of the checkpoint, as the write might still be applied by Cassandra.
+     */
+    private Observable<ResultSet> executeWithCheckpoint(Statement statement,
+                                                        List<String> jobIds,
+                                                        List<String> taskIds,
+                                                        BiConsumer<JobStoreCheckpointManager, Long> onSuccess) {
+        // The standby replica is only used by the initial load after the promotion, which completes before any write.
+        standbyReplica.ifPresent(JobStoreStandbyReplica::release);
+        if (!checkpointManager.isPresent()) {
+            return execute(statement);
+        }
+        JobStoreCheckpointManager manager = checkpointManager.get();
+        return Observable.defer(() -> {
+            manager.start();
+            long writeId = manager.invalidate(jobIds, taskIds);
+            return execute(statement)
+                    .doOnNext(rs -> onSuccess.accept(manager, writeId))
+                    .doOnError(error -> manager.writeFailed(writeId, jobIds, taskIds));
+        });
+    }
+
     private Observable<ResultSet> execute(Statement statement) {
         return Observable.<ResultSet>create(
                 emitter -> {
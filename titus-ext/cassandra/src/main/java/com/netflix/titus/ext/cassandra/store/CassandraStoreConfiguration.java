@@ -47,4 +47,35 @@ public interface CassandraStoreConfiguration {
      */
     @DefaultValue("false")
     boolean isTracingEnabled();
+
+    /**
+     * If enabled, the active jobs and tasks are periodically saved in a local checkpoint file. On restart, only
+     * the records modified after the checkpoint was taken are read from Cassandra.
+     */
+    @DefaultValue("false")
+    boolean isJobStoreCheckpointEnabled();
+
+    @DefaultValue("/var/tmp/titusJobStore.checkpoint")
+    String getJobStoreCheckpointFile();
+
+    @DefaultValue("300000")
+    long getJobStoreCheckpointIntervalMs();
+
+    /**
+     * Records written to Cassandra less than this amount of time before the checkpoint was taken are always
+     * read from Cassandra, to account for clock skew and writes in flight.
+     */
+    @DefaultValue("60000")
+    long getJobStoreCheckpointSafetyMarginMs();
+
+    /**
+     * If enabled, a TitusMaster that is not the leader keeps a warm copy of the active jobs and tasks, fetching
+     * periodically only the records written since they were last replicated. On promotion, only the records modified
+     * after they were replicated are read from Cassandra.
+     */
+    @DefaultValue("false")
+    boolean isJobStoreStandbyReplicationEnabled();
+
+    @DefaultValue("30000")
+    long getJobStoreStandbyReplicationIntervalMs();
 }
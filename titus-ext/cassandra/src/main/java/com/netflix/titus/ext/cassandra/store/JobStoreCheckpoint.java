@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.cassandra.store;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local file snapshot of the active jobs and tasks, used to avoid reading all records from Cassandra on restart.
+ * The file layout is:
+ * <ul>
+ * <li>header: magic number (int), format version (int), watermark (long), job count (int), task count (int)</li>
+ * <li>records: payload length (int) followed by the store JSON encoding of a job or task; jobs first</li>
+ * <li>trailer: CRC32 of the header and the records (long)</li>
+ * </ul>
+ * The watermark is the wall clock time at which the snapshot was taken. Records that were not modified in Cassandra
+ * after that time can be taken from the checkpoint. The records are memory mapped, and deserialized in parallel.
+ */
+public class JobStoreCheckpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobStoreCheckpoint.class);
+
+    private static final int MAGIC = 0x54495443; // 'TITC'
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+    private static final int TRAILER_SIZE = 8;
+
+    private final long watermark;
+    private final Map<String, Job<?>> jobs;
+    private final Map<String, Task> tasks;
+
+    private JobStoreCheckpoint(long watermark, Map<String, Job<?>> jobs, Map<String, Task> tasks) {
+        this.watermark = watermark;
+        this.jobs = Collections.unmodifiableMap(jobs);
+        this.tasks = Collections.unmodifiableMap(tasks);
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public Map<String, Job<?>> getJobs() {
+        return jobs;
+    }
+
+    public Map<String, Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file first, which is next atomically moved to the target location, so
+     * a reader never sees a partially written file.
+     */
+    public static void write(File file, long watermark, Collection<Job<?>> jobs, Collection<Task> tasks, ObjectMapper mapper) throws IOException {
+        File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)), crc))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(watermark);
+            output.writeInt(jobs.size());
+            output.writeInt(tasks.size());
+            for (Job<?> job : jobs) {
+                writeRecord(output, mapper.writeValueAsBytes(job));
+            }
+            for (Task task : tasks) {
+                writeRecord(output, mapper.writeValueAsBytes(task));
+            }
+            // The trailer is not covered by the CRC.
+            output.writeLong(crc.getValue());
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the checkpoint file. Returns {@link Optional#empty()} if the file does not exist, is corrupted, or was
+     * written in a different format version.
+     */
+    public static Optional<JobStoreCheckpoint> load(File file, ObjectMapper mapper) {
+        if (!file.exists()) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                logger.warn("Ignoring job store checkpoint file with invalid size: file={}, size={}", file, size);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            ByteBuffer content = buffer.duplicate();
+            content.limit((int) size - TRAILER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            if (crc.getValue() != buffer.getLong((int) size - TRAILER_SIZE)) {
+                logger.warn("Ignoring job store checkpoint file with CRC mismatch: {}", file);
+                return Optional.empty();
+            }
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("Ignoring job store checkpoint file with unknown format: {}", file);
+                return Optional.empty();
+            }
+            long watermark = buffer.getLong();
+            int jobCount = buffer.getInt();
+            int taskCount = buffer.getInt();
+
+            // Record offsets are found by a sequential scan, which only reads the length fields.
+            int[] offsets = new int[jobCount + taskCount];
+            int[] lengths = new int[jobCount + taskCount];
+            int position = HEADER_SIZE;
+            for (int i = 0; i < offsets.length; i++) {
+                lengths[i] = buffer.getInt(position);
+                offsets[i] = position + 4;
+                position = offsets[i] + lengths[i];
+            }
+            if (position != size - TRAILER_SIZE) {
+                logger.warn("Ignoring job store checkpoint file with inconsistent record layout: {}", file);
+                return Optional.empty();
+            }
+
+            Map<String, Job<?>> jobs = new ConcurrentHashMap<>();
+            Map<String, Task> tasks = new ConcurrentHashMap<>();
+            IntStream.range(0, offsets.length).parallel().forEach(i -> {
+                byte[] bytes = new byte[lengths[i]];
+                ByteBuffer record = buffer.duplicate();
+                record.position(offsets[i]);
+                record.get(bytes);
+                try {
+                    if (i < jobCount) {
+                        Job<?> job = mapper.readValue(bytes, Job.class);
+                        jobs.put(job.getId(), job);
+                    } else {
+                        Task task = mapper.readValue(bytes, Task.class);
+                        tasks.put(task.getId(), task);
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot deserialize checkpoint record", e);
+                }
+            });
+
+            return Optional.of(new JobStoreCheckpoint(watermark, jobs, tasks));
+        } catch (Exception e) {
+            logger.warn("Cannot load job store checkpoint file: {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private static void writeRecord(DataOutputStream output, byte[] payload) throws IOException {
+        output.writeInt(payload.length);
+        output.write(payload);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.cassandra.store;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Gauge;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.rx.ObservableExt;
+import com.netflix.titus.common.util.time.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Completable;
+import rx.Scheduler;
+import rx.Subscription;
+
+/**
+ * Tracks the active jobs and tasks passing through {@link CassandraJobStore}, and periodically saves them in
+ * a {@link JobStoreCheckpoint}. The checkpoint found on startup is kept until the first new checkpoint is written,
+ * so it can be used during the initial job store load.
+ * <p>
+ * A store write that fails on the client side (for example with a timeout) may still be applied, with a write time
+ * older than the next checkpoint watermark. To never keep a stale record in the checkpoint, records are removed from
+ * it before each write (see {@link #invalidate(List, List)}), and added back only when the last write started for
+ * them succeeds.
+ */
+class JobStoreCheckpointManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobStoreCheckpointManager.class);
+
+    private static final String METRIC_ROOT = "titusMaster.jobManager.cassandra.checkpoint.";
+
+    private final CassandraStoreConfiguration configuration;
+    private final ObjectMapper mapper;
+    private final Clock clock;
+    private final Registry registry;
+    private final Scheduler scheduler;
+    private final File file;
+
+    private final ConcurrentMap<String, Job<?>> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Task> tasks = new ConcurrentHashMap<>();
+
+    private final AtomicLong writeIdSequence = new AtomicLong();
+    private final ConcurrentMap<String, Long> pendingJobWrites = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> pendingTaskWrites = new ConcurrentHashMap<>();
+
+    private volatile Optional<JobStoreCheckpoint> loaded;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile Subscription writerSubscription;
+
+    private final Gauge loadTimeMsGauge;
+    private final Gauge writeTimeMsGauge;
+    private final Counter reusedRecordsCounter;
+    private final Counter fetchedRecordsCounter;
+
+    JobStoreCheckpointManager(CassandraStoreConfiguration configuration, ObjectMapper mapper, TitusRuntime titusRuntime, Scheduler scheduler) {
+        this.configuration = configuration;
+        this.mapper = mapper;
+        this.clock = titusRuntime.getClock();
+        this.registry = titusRuntime.getRegistry();
+        this.scheduler = scheduler;
+        this.file = new File(configuration.getJobStoreCheckpointFile());
+
+        this.loadTimeMsGauge = registry.gauge(METRIC_ROOT + "loadTimeMs");
+        this.writeTimeMsGauge = registry.gauge(METRIC_ROOT + "writeTimeMs");
+        this.reusedRecordsCounter = registry.counter(METRIC_ROOT + "reusedRecords");
+        this.fetchedRecordsCounter = registry.counter(METRIC_ROOT + "fetchedRecords");
+
+        long startTime = clock.wallTime();
+        this.loaded = JobStoreCheckpoint.load(file, mapper);
+        loadTimeMsGauge.set(clock.wallTime() - startTime);
+        loaded.ifPresent(checkpoint -> logger.info("Loaded job store checkpoint in {}ms: file={}, watermark={}, jobs={}, tasks={}",
+                clock.wallTime() - startTime, file, checkpoint.getWatermark(), checkpoint.getJobs().size(), checkpoint.getTasks().size()
+        ));
+    }
+
+    /**
+     * Returns the checkpoint loaded on startup, if it is still available.
+     */
+    Optional<JobStoreCheckpoint> getLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns true if a record with the given store write time (in microseconds) did not change after the checkpoint
+     * was taken.
+     */
+    boolean isUnchanged(JobStoreCheckpoint checkpoint, long writeTimeMicros) {
+        return writeTimeMicros / 1000 < checkpoint.getWatermark() - configuration.getJobStoreCheckpointSafetyMarginMs();
+    }
+
+    void recordsReused(int count) {
+        reusedRecordsCounter.increment(count);
+    }
+
+    void recordsFetched(int count) {
+        fetchedRecordsCounter.increment(count);
+    }
+
+    /**
+     * Starts the periodic checkpoint writer. Called on the first store write, so it is never started on masters
+     * that only read the store.
+     */
+    void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        long intervalMs = configuration.getJobStoreCheckpointIntervalMs();
+        this.writerSubscription = ObservableExt.schedule(
+                METRIC_ROOT,
+                registry,
+                "checkpointWriter",
+                Completable.fromAction(this::writeCheckpoint),
+                intervalMs,
+                intervalMs,
+                TimeUnit.MILLISECONDS,
+                scheduler
+        ).subscribe(
+                next -> next.ifPresent(error -> logger.warn("Job store checkpoint write failed", error)),
+                e -> logger.error("Job store checkpoint writer terminated with an error", e),
+                () -> logger.info("Job store checkpoint writer completed")
+        );
+    }
+
+    void shutdown() {
+        ObservableExt.safeUnsubscribe(writerSubscription);
+    }
+
+    /**
+     * Records a job loaded from the store, unless it is being written.
+     */
+    void jobLoaded(Job<?> job) {
+        if (!pendingJobWrites.containsKey(job.getId())) {
+            jobs.put(job.getId(), job);
+        }
+    }
+
+    /**
+     * Records a task loaded from the store, unless it is being written.
+     */
+    void taskLoaded(Task task) {
+        if (!pendingTaskWrites.containsKey(task.getId())) {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    /**
+     * Removes the given jobs and tasks from the checkpoint before they are written to the store.
+     *
+     * @return write id, which must be passed to the methods called when the write completes
+     */
+    long invalidate(List<String> jobIds, List<String> taskIds) {
+        long writeId = writeIdSequence.incrementAndGet();
+        jobIds.forEach(jobId -> {
+            pendingJobWrites.put(jobId, writeId);
+            jobs.remove(jobId);
+        });
+        taskIds.forEach(taskId -> {
+            pendingTaskWrites.put(taskId, writeId);
+            tasks.remove(taskId);
+        });
+        return writeId;
+    }
+
+    void jobUpdated(Job<?> job, long writeId) {
+        if (pendingJobWrites.remove(job.getId(), writeId)) {
+            jobs.put(job.getId(), job);
+        }
+    }
+
+    void jobRemoved(String jobId, long writeId) {
+        pendingJobWrites.remove(jobId, writeId);
+    }
+
+    void taskUpdated(Task task, long writeId) {
+        if (pendingTaskWrites.remove(task.getId(), writeId)) {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    void taskRemoved(String taskId, long writeId) {
+        pendingTaskWrites.remove(taskId, writeId);
+    }
+
+    /**
+     * Called when a write fails. The records stay out of the checkpoint, so they are read from the store on
+     * the next startup.
+     */
+    void writeFailed(long writeId, List<String> jobIds, List<String> taskIds) {
+        jobIds.forEach(jobId -> pendingJobWrites.remove(jobId, writeId));
+        taskIds.forEach(taskId -> pendingTaskWrites.remove(taskId, writeId));
+    }
+
+    private void writeCheckpoint() {
+        // The watermark must be taken before the snapshot, so updates made while the snapshot is being built are
+        // re-read from the store on the next startup.
+        long watermark = clock.wallTime();
+        try {
+            JobStoreCheckpoint.write(file, watermark, new ArrayList<>(jobs.values()), new ArrayList<>(tasks.values()), mapper);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot write job store checkpoint file " + file, e);
+        }
+        writeTimeMsGauge.set(clock.wallTime() - watermark);
+        loaded = Optional.empty();
+        logger.info("Job store checkpoint written in {}ms: jobs={}, tasks={}", clock.wallTime() - watermark, jobs.size(), tasks.size());
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.cassandra.store;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Gauge;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.rx.ObservableExt;
+import com.netflix.titus.common.util.time.Clock;
+import com.netflix.titus.common.util.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Completable;
+import rx.Scheduler;
+import rx.Subscription;
+
+/**
+ * Warm copy of the active jobs and tasks, kept by a TitusMaster that is not the leader. {@link CassandraJobStore}
+ * periodically reads the write times of the active records, and fetches only those written after they were last
+ * replicated. Each record is kept together with its Cassandra write time, so when this master becomes the leader,
+ * a record is taken from the replica if its write time in the store did not change, and only the remaining ones are
+ * read from Cassandra.
+ * <p>
+ * The start time of the last completed replication round is the replica watermark. Records written before it are
+ * either replicated, or detected as changed during the promotion. The replica is released on the first store write,
+ * as it is not needed once the initial load is done.
+ */
+class JobStoreStandbyReplica {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobStoreStandbyReplica.class);
+
+    private static final String METRIC_ROOT = "titusMaster.jobManager.cassandra.standby.";
+
+    private final Clock clock;
+    private final Registry registry;
+    private final long startTime;
+
+    private final ConcurrentMap<String, Pair<Job<?>, Long>> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Pair<Task, Long>> tasks = new ConcurrentHashMap<>();
+
+    private volatile long watermark = -1;
+    private volatile boolean promoted;
+    private volatile boolean released;
+    private volatile Subscription replicationSubscription;
+
+    private final Gauge replicationTimeMsGauge;
+    private final Counter reusedRecordsCounter;
+    private final Counter fetchedRecordsCounter;
+
+    JobStoreStandbyReplica(TitusRuntime titusRuntime) {
+        this.clock = titusRuntime.getClock();
+        this.registry = titusRuntime.getRegistry();
+        this.startTime = clock.wallTime();
+
+        this.replicationTimeMsGauge = registry.gauge(METRIC_ROOT + "replicationTimeMs");
+        this.reusedRecordsCounter = registry.counter(METRIC_ROOT + "reusedRecords");
+        this.fetchedRecordsCounter = registry.counter(METRIC_ROOT + "fetchedRecords");
+
+        PolledMeter.using(registry)
+                .withName(METRIC_ROOT + "replicationLagMs")
+                .monitorValue(this, JobStoreStandbyReplica::getReplicationLagMs);
+        PolledMeter.using(registry)
+                .withName(METRIC_ROOT + "replicatedJobs")
+                .monitorValue(this, self -> self.jobs.size());
+        PolledMeter.using(registry)
+                .withName(METRIC_ROOT + "replicatedTasks")
+                .monitorValue(this, self -> self.tasks.size());
+    }
+
+    /**
+     * Starts the periodic replication. The first round is delayed by the replication interval, so a master elected
+     * on startup does not replicate the store while it is loading it.
+     */
+    void start(Completable replicationRound, long intervalMs, Scheduler scheduler) {
+        this.replicationSubscription = ObservableExt.schedule(
+                METRIC_ROOT,
+                registry,
+                "standbyReplication",
+                replicationRound,
+                intervalMs,
+                intervalMs,
+                TimeUnit.MILLISECONDS,
+                scheduler
+        ).subscribe(
+                next -> next.ifPresent(error -> logger.warn("Standby job store replication round failed", error)),
+                e -> logger.error("Standby job store replication terminated with an error", e),
+                () -> logger.info("Standby job store replication completed")
+        );
+    }
+
+    /**
+     * Returns true if the replica was promoted and not released yet, so it can be used by the initial store load.
+     */
+    boolean isLoadable() {
+        return promoted && !released;
+    }
+
+    /**
+     * Stops the replication, without waiting for the round in progress. Each record is replicated together with
+     * its write time, so a partially completed round leaves the replica consistent.
+     */
+    void promote() {
+        if (promoted) {
+            return;
+        }
+        promoted = true;
+        ObservableExt.safeUnsubscribe(replicationSubscription);
+        logger.info("Promoting standby job store replica: jobs={}, tasks={}, replicationLagMs={}", jobs.size(), tasks.size(), getReplicationLagMs());
+    }
+
+    /**
+     * Stops the replication, and releases the replicated records. Called on the first store write, after the initial
+     * load is done, or on shutdown.
+     */
+    void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        promoted = true;
+        ObservableExt.safeUnsubscribe(replicationSubscription);
+        logger.info("Releasing standby job store replica");
+        jobs.clear();
+        tasks.clear();
+    }
+
+    Set<String> getJobIds() {
+        return jobs.keySet();
+    }
+
+    Set<String> getTaskIds() {
+        return tasks.keySet();
+    }
+
+    /**
+     * Returns the replicated job, if its store write time (in microseconds) is the same as when it was replicated.
+     */
+    Optional<Job<?>> findJob(String jobId, long writeTimeMicros) {
+        return findRecord(jobs, jobId, writeTimeMicros);
+    }
+
+    /**
+     * Returns the replicated task, if its store write time (in microseconds) is the same as when it was replicated.
+     */
+    Optional<Task> findTask(String taskId, long writeTimeMicros) {
+        return findRecord(tasks, taskId, writeTimeMicros);
+    }
+
+    void jobReplicated(Job<?> job, long writeTimeMicros) {
+        if (!promoted) {
+            jobs.put(job.getId(), Pair.of(job, writeTimeMicros));
+        }
+    }
+
+    void taskReplicated(Task task, long writeTimeMicros) {
+        if (!promoted) {
+            tasks.put(task.getId(), Pair.of(task, writeTimeMicros));
+        }
+    }
+
+    /**
+     * Removes the jobs that are no longer active.
+     */
+    void retainJobs(Collection<String> activeJobIds) {
+        if (!promoted) {
+            jobs.keySet().retainAll(new HashSet<>(activeJobIds));
+        }
+    }
+
+    /**
+     * Removes the tasks that are no longer active.
+     */
+    void retainTasks(Collection<String> activeTaskIds) {
+        if (!promoted) {
+            tasks.keySet().retainAll(new HashSet<>(activeTaskIds));
+        }
+    }
+
+    void replicationRoundCompleted(long roundStartTime, int fetchedRecords) {
+        this.watermark = roundStartTime;
+        replicationTimeMsGauge.set(clock.wallTime() - roundStartTime);
+        logger.debug("Standby job store replication round completed in {}ms: jobs={}, tasks={}, fetchedRecords={}",
+                clock.wallTime() - roundStartTime, jobs.size(), tasks.size(), fetchedRecords
+        );
+    }
+
+    void recordsReused(int count) {
+        reusedRecordsCounter.increment(count);
+    }
+
+    void recordsFetched(int count) {
+        fetchedRecordsCounter.increment(count);
+    }
+
+    /**
+     * Time elapsed since the watermark of the last completed replication round, or since the replica was created
+     * if no round completed yet. Zero after the promotion.
+     */
+    private long getReplicationLagMs() {
+        if (promoted) {
+            return 0;
+        }
+        return clock.wallTime() - (watermark < 0 ? startTime : watermark);
+    }
+
+    private static <T> Optional<T> findRecord(ConcurrentMap<String, Pair<T, Long>> records, String id, long writeTimeMicros) {
+        Pair<T, Long> record = records.get(id);
+        if (record == null || record.getRight() != writeTimeMicros) {
+            return Optional.empty();
+        }
+        return Optional.of(record.getLeft());
+    }
+}
@@ -16,16 +16,20 @@
 
 package com.netflix.titus.ext.cassandra.tool;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ColumnMetadata;
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.TokenRange;
 import com.datastax.driver.core.exceptions.TruncateException;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
 import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.ext.cassandra.executor.AsyncCassandraExecutor;
 import org.slf4j.Logger;
@@ -94,25 +98,46 @@ public class CassandraUtils {
 
     public static Observable<Pair<Object, Object>> readTwoColumnTable(Session sourceSession, String table) {
         Pair<String, String> columnNames = resolveColumnNamesInTwoColumnTable(sourceSession, table);
-        String primaryKey = columnNames.getLeft();
-        String valueColumn = columnNames.getRight();
+        PreparedStatement queryAllStatement = prepareTokenRangeQuery(sourceSession, table, columnNames.getLeft());
+        AsyncCassandraExecutor executor = new AsyncCassandraExecutor(sourceSession, PAGE_SIZE, SPLIT);
+        return executor.rawRangeQuery2(columnNames.getLeft(), columnNames.getRight(), queryAllStatement);
+    }
 
-        PreparedStatement queryAllStatement = sourceSession.prepare(
+    /**
+     * Prepares a query reading all rows within a token range, with the range bounds bound to 'min' and 'max' parameters.
+     */
+    public static PreparedStatement prepareTokenRangeQuery(Session session, String table, String primaryKey) {
+        return session.prepare(
                 String.format("SELECT * FROM %s WHERE token(%s) > :min AND token(%s) <= :max", table, primaryKey, primaryKey)
         );
-        AsyncCassandraExecutor executor = new AsyncCassandraExecutor(sourceSession, PAGE_SIZE, SPLIT);
-        return executor.rawRangeQuery2(primaryKey, valueColumn, queryAllStatement);
     }
 
-    public static long writeIntoTwoColumnTable(Session targetSession, String table, Observable<Pair<Object, Object>> sourceData) {
-        Pair<String, String> columnNames = resolveColumnNamesInTwoColumnTable(targetSession, table);
-        String primaryKey = columnNames.getLeft();
-        String valueColumn = columnNames.getRight();
+    /**
+     * Reads all rows within a token range, using a query created by {@link #prepareTokenRangeQuery(Session, String, String)}.
+     * Unlike {@link AsyncCassandraExecutor#rawRangeQuery2(String, String, PreparedStatement, TokenRange)}, which fetches
+     * all pages eagerly into an unbounded buffer, the next page is fetched only after the rows of the current one are
+     * consumed. The read rate is thus bounded by the consumer (for example the transfer rate limit), and only one page
+     * is kept in memory.
+     */
+    public static Iterator<Pair<Object, Object>> readTokenRange(Session session,
+                                                                PreparedStatement queryStatement,
+                                                                Pair<String, String> columnNames,
+                                                                TokenRange range) {
+        BoundStatement boundStatement = queryStatement.bind().setToken("min", range.getStart()).setToken("max", range.getEnd());
+        boundStatement.setFetchSize(PAGE_SIZE);
+        Iterator<Row> rows = session.execute(boundStatement).iterator();
+        return Iterators.transform(rows, row -> Pair.of(row.getObject(columnNames.getLeft()), row.getString(columnNames.getRight())));
+    }
 
-        PreparedStatement insertStatement = targetSession.prepare(
-                String.format("INSERT INTO %s (%s, %s) VALUES (?, ?)", table, primaryKey, valueColumn)
+    public static PreparedStatement prepareTwoColumnInsert(Session session, String table) {
+        Pair<String, String> columnNames = resolveColumnNamesInTwoColumnTable(session, table);
+        return session.prepare(
+                String.format("INSERT INTO %s (%s, %s) VALUES (?, ?)", table, columnNames.getLeft(), columnNames.getRight())
         );
+    }
 
+    public static long writeIntoTwoColumnTable(Session targetSession, String table, Observable<Pair<Object, Object>> sourceData) {
+        PreparedStatement insertStatement = prepareTwoColumnInsert(targetSession, table);
         AsyncCassandraExecutor executor = new AsyncCassandraExecutor(targetSession, PAGE_SIZE, SPLIT);
 
         long recordCount = sourceData
@@ -130,11 +155,26 @@ public class CassandraUtils {
     }
 
     public static void copyTable(CommandContext context, String table) {
-        long recordCount = writeIntoTwoColumnTable(
-                context.getTargetSession(),
-                table,
-                readTwoColumnTable(context.getSourceSession(), table)
-        );
+        copyTable(context, table, ParallelTransfer.defaultTransfer());
+    }
+
+    /**
+     * Copies a table by scanning the source token ranges in parallel, and writing the rows in batches into the target.
+     * The source pages are read only as fast as the rows are written, so the transfer rate limit applies to both.
+     */
+    public static void copyTable(CommandContext context, String table, ParallelTransfer transfer) {
+        Session sourceSession = context.getSourceSession();
+        Pair<String, String> columnNames = resolveColumnNamesInTwoColumnTable(sourceSession, table);
+        PreparedStatement queryStatement = prepareTokenRangeQuery(sourceSession, table, columnNames.getLeft());
+        PreparedStatement insertStatement = prepareTwoColumnInsert(context.getTargetSession(), table);
+
+        AsyncCassandraExecutor sourceExecutor = new AsyncCassandraExecutor(sourceSession, PAGE_SIZE, SPLIT);
+        AsyncCassandraExecutor targetExecutor = new AsyncCassandraExecutor(context.getTargetSession(), PAGE_SIZE, SPLIT);
+
+        long recordCount = transfer.execute("Copying table " + table, sourceExecutor.getTokenRanges(), range -> {
+            Iterator<Pair<Object, Object>> rows = readTokenRange(sourceSession, queryStatement, columnNames, range);
+            return transfer.writeBatched(targetExecutor, insertStatement, rows);
+        });
         logger.info("Copied {} records from table {}.{} to {}.{}", recordCount,
                 context.getSourceKeySpace(), table,
                 context.getTargetKeySpace(), table
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.cassandra.tool;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.titus.common.util.limiter.Limiters;
+import com.netflix.titus.common.util.limiter.tokenbucket.TokenBucket;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.ext.cassandra.executor.AsyncCassandraExecutor;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import rx.Observable;
+
+/**
+ * Executes a table transfer split into work items (token ranges, snapshot chunks), with a bounded number of
+ * work items processed concurrently, and an optional limit on the number of rows transferred per second.
+ * Rows are written in batches of concurrently executed asynchronous updates. The rate limit is applied to the written
+ * rows, so the sources must be read lazily (see {@link CassandraUtils#readTokenRange}), for it to bound the read rate
+ * as well.
+ */
+public class ParallelTransfer {
+
+    public static final int DEFAULT_CONCURRENCY = 8;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    public interface WorkItemProcessor<T> {
+        /**
+         * Processes a single work item, and returns the number of rows transferred.
+         */
+        long process(T item) throws Exception;
+    }
+
+    private final int concurrency;
+    private final int batchSize;
+    private final Optional<TokenBucket> throttle;
+
+    public ParallelTransfer(int concurrency, int batchSize, long maxRowsPerSecond) {
+        Preconditions.checkArgument(concurrency > 0, "Concurrency level must be > 0: %s", concurrency);
+        Preconditions.checkArgument(batchSize > 0, "Batch size must be > 0: %s", batchSize);
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.throttle = maxRowsPerSecond > 0
+                ? Optional.of(Limiters.createFixedIntervalTokenBucket("cassToolTransfer", maxRowsPerSecond, maxRowsPerSecond, maxRowsPerSecond, 1, TimeUnit.SECONDS))
+                : Optional.empty();
+    }
+
+    public static ParallelTransfer defaultTransfer() {
+        return new ParallelTransfer(DEFAULT_CONCURRENCY, DEFAULT_BATCH_SIZE, 0);
+    }
+
+    public static void appendOptions(Options options) {
+        options.addOption(Option.builder("w")
+                .longOpt("workers")
+                .hasArg()
+                .desc("Number of token ranges/chunks processed concurrently (default " + DEFAULT_CONCURRENCY + ')')
+                .build()
+        );
+        options.addOption(Option.builder("b")
+                .longOpt("batch")
+                .hasArg()
+                .desc("Number of rows written concurrently by a single worker (default " + DEFAULT_BATCH_SIZE + ')')
+                .build()
+        );
+        options.addOption(Option.builder("r")
+                .longOpt("rate")
+                .hasArg()
+                .desc("Maximum number of rows transferred per second (default unlimited)")
+                .build()
+        );
+    }
+
+    public static ParallelTransfer fromCommandLine(CommandLine commandLine) {
+        return new ParallelTransfer(
+                Integer.parseInt(commandLine.getOptionValue('w', Integer.toString(DEFAULT_CONCURRENCY))),
+                Integer.parseInt(commandLine.getOptionValue('b', Integer.toString(DEFAULT_BATCH_SIZE))),
+                Long.parseLong(commandLine.getOptionValue('r', "0"))
+        );
+    }
+
+    /**
+     * Processes all work items, and returns the total number of rows transferred. The first failure aborts
+     * the whole transfer.
+     */
+    public <T> long execute(String description, List<T> workItems, WorkItemProcessor<T> processor) {
+        ExecutorService executorService = Executors.newFixedThreadPool(
+                Math.min(concurrency, Math.max(1, workItems.size())),
+                new ThreadFactoryBuilder().setNameFormat("cassTool-transfer-%d").setDaemon(true).build()
+        );
+        AtomicInteger completed = new AtomicInteger();
+        AtomicLong rows = new AtomicLong();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (T workItem : workItems) {
+                futures.add(executorService.submit(() -> {
+                    long count = processor.process(workItem);
+                    long total = rows.addAndGet(count);
+                    System.out.println(String.format("%s: completed %s of %s work items (%s rows)",
+                            description, completed.incrementAndGet(), workItems.size(), total
+                    ));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(description + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(description + " interrupted", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        return rows.get();
+    }
+
+    /**
+     * Blocks until the given number of rows can be transferred within the configured rate limit.
+     */
+    public void acquire(long rowCount) {
+        if (!throttle.isPresent()) {
+            return;
+        }
+        TokenBucket tokenBucket = throttle.get();
+        long remaining = rowCount;
+        while (remaining > 0) {
+            long next = Math.min(remaining, tokenBucket.getCapacity());
+            tokenBucket.take(next);
+            remaining -= next;
+        }
+    }
+
+    /**
+     * Writes all rows using the given insert statement with two parameters (primary key and value). Up to batch
+     * size updates are executed concurrently, and the next batch is started when all of them complete.
+     */
+    public long writeBatched(AsyncCassandraExecutor executor, PreparedStatement insertStatement, Iterator<Pair<Object, Object>> rows) {
+        long written = 0;
+        List<Observable<Void>> batch = new ArrayList<>(batchSize);
+        while (rows.hasNext()) {
+            Pair<Object, Object> row = rows.next();
+            batch.add(executor.executeUpdate(insertStatement.bind(row.getLeft(), row.getRight())));
+            if (batch.size() >= batchSize) {
+                written += flush(batch);
+            }
+        }
+        return written + flush(batch);
+    }
+
+    private long flush(List<Observable<Void>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        acquire(size);
+        Observable.merge(batch).toBlocking().lastOrDefault(null);
+        batch.clear();
+        return size;
+    }
+}
@@ -23,6 +23,7 @@ import com.netflix.titus.ext.cassandra.tool.CassandraSchemas;
 import com.netflix.titus.ext.cassandra.tool.CassandraUtils;
 import com.netflix.titus.ext.cassandra.tool.Command;
 import com.netflix.titus.ext.cassandra.tool.CommandContext;
+import com.netflix.titus.ext.cassandra.tool.ParallelTransfer;
 import com.netflix.titus.ext.cassandra.tool.StorePreconditions;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
@@ -44,6 +45,7 @@ public class JobCopyCommand implements Command {
         Options options = new Options();
         options.addOption(Option.builder("a").longOpt("archive").desc("Copy archive tables").build());
         options.addOption(Option.builder("d").longOpt("clean").desc("Remove the original table content before copy").build());
+        ParallelTransfer.appendOptions(options);
         return options;
     }
 
@@ -57,12 +59,13 @@ public class JobCopyCommand implements Command {
         );
 
         boolean includeArchive = context.getCommandLine().hasOption('a');
-        boolean clean = context.getCommandLine().hasOption('c');
+        boolean clean = context.getCommandLine().hasOption('d');
+        ParallelTransfer transfer = ParallelTransfer.fromCommandLine(context.getCommandLine());
 
         List<String> titusTables = includeArchive ? CassandraSchemas.JOB_TABLES : CassandraSchemas.JOB_ACTIVE_TABLES;
         if (clean) {
             titusTables.forEach(table -> CassandraUtils.truncateTable(context, table));
         }
-        titusTables.forEach(table -> CassandraUtils.copyTable(context, table));
+        titusTables.forEach(table -> CassandraUtils.copyTable(context, table, transfer));
     }
 }
@@ -20,6 +20,7 @@ import java.io.File;
 
 import com.netflix.titus.ext.cassandra.tool.Command;
 import com.netflix.titus.ext.cassandra.tool.CommandContext;
+import com.netflix.titus.ext.cassandra.tool.ParallelTransfer;
 import com.netflix.titus.ext.cassandra.tool.snapshot.JobSnapshotDownloader;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
@@ -28,7 +29,7 @@ public class JobSnapshotDownloadCommand implements Command {
 
     @Override
     public String getDescription() {
-        return "Save job tables content to a disk in JSON format";
+        return "Save job tables content to a disk as compressed JSON chunk files";
     }
 
     @Override
@@ -47,6 +48,8 @@ public class JobSnapshotDownloadCommand implements Command {
                 .desc("Output folder for snapshot files")
                 .build()
         );
+        options.addOption(Option.builder("c").longOpt("resume").desc("Keep the already downloaded chunks, and download the remaining ones only").build());
+        ParallelTransfer.appendOptions(options);
         return options;
     }
 
@@ -54,7 +57,9 @@ public class JobSnapshotDownloadCommand implements Command {
     public void execute(CommandContext context) {
         File output = new File(context.getCommandLine().getOptionValue('o'));
         boolean includeArchived = context.getCommandLine().hasOption('a');
-        JobSnapshotDownloader downloader = new JobSnapshotDownloader(context.getTargetSession(), includeArchived, output);
+        boolean resume = context.getCommandLine().hasOption('c');
+        ParallelTransfer transfer = ParallelTransfer.fromCommandLine(context.getCommandLine());
+        JobSnapshotDownloader downloader = new JobSnapshotDownloader(context.getTargetSession(), includeArchived, output, transfer, resume);
         downloader.download();
     }
 }
@@ -20,6 +20,7 @@ import java.io.File;
 
 import com.netflix.titus.ext.cassandra.tool.Command;
 import com.netflix.titus.ext.cassandra.tool.CommandContext;
+import com.netflix.titus.ext.cassandra.tool.ParallelTransfer;
 import com.netflix.titus.ext.cassandra.tool.snapshot.JobSnapshotLoader;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
@@ -46,13 +47,17 @@ public class JobSnapshotUploadCommand implements Command {
                 .desc("Input folder containing snapshot files")
                 .build()
         );
+        options.addOption(Option.builder("c").longOpt("resume").desc("Skip the chunks recorded as loaded by a previous run").build());
+        ParallelTransfer.appendOptions(options);
         return options;
     }
 
     @Override
     public void execute(CommandContext context) {
         File output = new File(context.getCommandLine().getOptionValue('i'));
-        JobSnapshotLoader downloader = new JobSnapshotLoader(context.getTargetSession(), output);
+        boolean resume = context.getCommandLine().hasOption('c');
+        ParallelTransfer transfer = ParallelTransfer.fromCommandLine(context.getCommandLine());
+        JobSnapshotLoader downloader = new JobSnapshotLoader(context.getTargetSession(), output, transfer, resume);
         downloader.load();
     }
 }
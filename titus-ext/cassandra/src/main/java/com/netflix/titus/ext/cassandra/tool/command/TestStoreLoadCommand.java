@@ -73,6 +73,36 @@ public class TestStoreLoadCommand implements Command {
         public boolean isTracingEnabled() {
             return false;
         }
+
+        @Override
+        public boolean isJobStoreCheckpointEnabled() {
+            return false;
+        }
+
+        @Override
+        public String getJobStoreCheckpointFile() {
+            return "";
+        }
+
+        @Override
+        public long getJobStoreCheckpointIntervalMs() {
+            return 0;
+        }
+
+        @Override
+        public long getJobStoreCheckpointSafetyMarginMs() {
+            return 0;
+        }
+
+        @Override
+        public boolean isJobStoreStandbyReplicationEnabled() {
+            return false;
+        }
+
+        @Override
+        public long getJobStoreStandbyReplicationIntervalMs() {
+            return 0;
+        }
     };
 
     @Override
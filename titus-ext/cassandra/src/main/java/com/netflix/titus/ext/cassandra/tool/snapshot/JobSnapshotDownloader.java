@@ -16,125 +16,142 @@
 
 package com.netflix.titus.ext.cassandra.tool.snapshot;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.datastax.driver.core.TokenRange;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
 import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.ext.cassandra.executor.AsyncCassandraExecutor;
 import com.netflix.titus.ext.cassandra.tool.CassandraSchemas;
 import com.netflix.titus.ext.cassandra.tool.CassandraUtils;
-import rx.Observable;
+import com.netflix.titus.ext.cassandra.tool.ParallelTransfer;
 
 /**
  * Downloads jobs active data from Cassandra database into set of files. A snapshot can be loaded back into
  * Cassandra using {@link JobSnapshotLoader}.
+ * <p>
+ * Token ranges of each table are scanned in parallel, and each range is written into a separate compressed chunk
+ * file (see {@link SnapshotChunks}). A chunk file is created atomically once the whole range is read, so in
+ * the resume mode the ranges with an existing chunk are not read again.
  */
 public class JobSnapshotDownloader {
 
-    private static final ObjectMapper MAPPER;
-
-    static {
-        MAPPER = new ObjectMapper();
-        MAPPER.enable(SerializationFeature.INDENT_OUTPUT);
-    }
+    private static final ObjectMapper MAPPER = new ObjectMapper();
 
     private final Session session;
     private final boolean includeArchived;
     private final File outputFolder;
+    private final ParallelTransfer transfer;
+    private final boolean resume;
 
     public JobSnapshotDownloader(Session session, boolean includeArchived, File output) {
+        this(session, includeArchived, output, ParallelTransfer.defaultTransfer(), false);
+    }
+
+    public JobSnapshotDownloader(Session session, boolean includeArchived, File output, ParallelTransfer transfer, boolean resume) {
         this.session = session;
         this.includeArchived = includeArchived;
-        Preconditions.checkArgument(!output.exists() || output.isDirectory(), "% exists and is not a directory", output);
+        Preconditions.checkArgument(!output.exists() || output.isDirectory(), "%s exists and is not a directory", output);
         this.outputFolder = output;
+        this.transfer = transfer;
+        this.resume = resume;
     }
 
     public void download() {
         if (!outputFolder.exists()) {
             Preconditions.checkState(outputFolder.mkdirs(), "Cannot create output folder: %s", outputFolder.getAbsolutePath());
         }
-        writeIdBuckets(CassandraSchemas.ACTIVE_JOB_IDS_TABLE);
-        writeDataTable(CassandraSchemas.ACTIVE_JOBS_TABLE);
-        writeIdMappingTable(CassandraSchemas.ACTIVE_TASK_IDS_TABLE);
-        writeDataTable(CassandraSchemas.ACTIVE_TASKS_TABLE);
-
-        if (includeArchived) {
-            writeDataTable(CassandraSchemas.ARCHIVED_JOBS_TABLE);
-            writeIdMappingTable(CassandraSchemas.ARCHIVED_TASK_IDS_TABLE);
-            writeDataTable(CassandraSchemas.ARCHIVED_TASKS_TABLE);
-        }
+        List<String> tables = includeArchived ? CassandraSchemas.JOB_TABLES : CassandraSchemas.JOB_ACTIVE_TABLES;
+        tables.forEach(this::writeTable);
     }
 
-    private void writeDataTable(String table) {
-        File output = new File(outputFolder, table + ".json");
-
-        List<JsonNode> allItems = CassandraUtils.readTwoColumnTable(session, table)
-                .flatMap(p -> {
-                    try {
-                        return Observable.just(MAPPER.readTree((String) p.getRight()));
-                    } catch (IOException e) {
-                        return Observable.error(e);
-                    }
-                })
-                .toList()
-                .toBlocking().first();
-
-        System.out.println(String.format("Writing %s rows from table %s to file: %s...", allItems.size(), table, output));
-        try {
-            MAPPER.writeValue(output, allItems);
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
+    private void writeTable(String table) {
+        File tableFolder = SnapshotChunks.getTableFolder(outputFolder, table);
+        if (tableFolder.exists() && !resume) {
+            deleteFolderContent(tableFolder);
+        }
+        if (!tableFolder.exists()) {
+            Preconditions.checkState(tableFolder.mkdirs(), "Cannot create table folder: %s", tableFolder.getAbsolutePath());
         }
-    }
 
-    /**
-     * A table holding buckets, where a key is bucket id of type int, and the value is a string.
-     */
-    private void writeIdBuckets(String table) {
-        writeMapping(table, allItems -> {
-            Map<Integer, List<String>> buckets = new HashMap<>();
-            allItems.forEach(pair ->
-                    buckets.computeIfAbsent((Integer) pair.getLeft(), b -> new ArrayList<>()).add((String) pair.getRight())
-            );
-            return buckets;
+        Pair<String, String> columnNames = CassandraUtils.resolveColumnNamesInTwoColumnTable(session, table);
+        PreparedStatement queryStatement = CassandraUtils.prepareTokenRangeQuery(session, table, columnNames.getLeft());
+        AsyncCassandraExecutor executor = new AsyncCassandraExecutor(session, CassandraUtils.PAGE_SIZE, CassandraUtils.SPLIT);
+
+        // Chunks of ranges not in the current range set (for example after the cluster topology change) would duplicate data.
+        List<TokenRange> allRanges = executor.getTokenRanges();
+        Set<String> chunkNames = allRanges.stream().map(SnapshotChunks::getChunkName).collect(Collectors.toSet());
+        List<File> staleChunks = SnapshotChunks.listChunks(tableFolder).stream()
+                .filter(chunk -> !chunkNames.contains(chunk.getName()))
+                .collect(Collectors.toList());
+        staleChunks.forEach(chunk -> Preconditions.checkState(chunk.delete(), "Cannot remove stale chunk file: %s", chunk));
+
+        List<TokenRange> remainingRanges = new ArrayList<>();
+        allRanges.forEach(range -> {
+            if (!new File(tableFolder, SnapshotChunks.getChunkName(range)).exists()) {
+                remainingRanges.add(range);
+            }
         });
-    }
 
-    /**
-     * A table holding ids has two columns of string type. We encode these values as map entries in output JSON document.
-     */
-    private void writeIdMappingTable(String table) {
-        writeMapping(table, allItems -> {
-            Map<String, List<String>> jobTaskMap = new HashMap<>();
-            allItems.forEach(pair ->
-                    jobTaskMap.computeIfAbsent((String) pair.getLeft(), b -> new ArrayList<>()).add((String) pair.getRight())
-            );
-            return jobTaskMap;
+        // The table content is rewritten, so the progress of any earlier load of this folder is no longer valid.
+        if (!staleChunks.isEmpty() || !remainingRanges.isEmpty()) {
+            SnapshotChunks.clearLoadProgress(tableFolder);
+        }
+
+        System.out.println(String.format("Downloading table %s into folder %s (%s of %s token ranges remaining)...",
+                table, tableFolder, remainingRanges.size(), allRanges.size()
+        ));
+        long rowCount = transfer.execute("Downloading table " + table, remainingRanges, range -> {
+            Iterator<Pair<Object, Object>> rows = CassandraUtils.readTokenRange(session, queryStatement, columnNames, range);
+            return writeChunk(new File(tableFolder, SnapshotChunks.getChunkName(range)), rows);
         });
+        System.out.println(String.format("Written %s rows from table %s", rowCount, table));
     }
 
-    private void writeMapping(String table, Function<List<Pair<Object, Object>>, Map<?, ?>> mapper) {
-        File output = new File(outputFolder, table + ".json");
-
-        List<Pair<Object, Object>> allItems = CassandraUtils.readTwoColumnTable(session, table)
-                .toList()
-                .toBlocking().first();
-
-        System.out.println(String.format("Writing %s rows from table %s to file: %s...", allItems.size(), table, output));
+    private long writeChunk(File chunkFile, Iterator<Pair<Object, Object>> rows) throws IOException {
+        File tmpFile = new File(chunkFile.getParentFile(), chunkFile.getName() + ".tmp");
+        long rowCount = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tmpFile)), StandardCharsets.UTF_8))) {
+            while (rows.hasNext()) {
+                Pair<Object, Object> row = rows.next();
+                transfer.acquire(1);
+
+                ObjectNode line = MAPPER.createObjectNode();
+                line.set(SnapshotChunks.KEY_FIELD, MAPPER.valueToTree(row.getLeft()));
+                line.set(SnapshotChunks.VALUE_FIELD, MAPPER.valueToTree(row.getRight()));
+                writer.write(MAPPER.writeValueAsString(line));
+                writer.write('\n');
+                rowCount++;
+            }
+        }
+        Files.move(tmpFile.toPath(), chunkFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        return rowCount;
+    }
 
-        try {
-            MAPPER.writeValue(output, mapper.apply(allItems));
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
+    private void deleteFolderContent(File folder) {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Preconditions.checkState(file.delete(), "Cannot remove file: %s", file);
+            }
         }
     }
 }
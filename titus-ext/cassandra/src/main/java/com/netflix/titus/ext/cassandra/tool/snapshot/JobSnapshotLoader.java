@@ -16,10 +16,25 @@
 
 package com.netflix.titus.ext.cassandra.tool.snapshot;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -28,13 +43,19 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.ext.cassandra.executor.AsyncCassandraExecutor;
 import com.netflix.titus.ext.cassandra.tool.CassandraSchemas;
 import com.netflix.titus.ext.cassandra.tool.CassandraUtils;
-import rx.Observable;
+import com.netflix.titus.ext.cassandra.tool.ParallelTransfer;
 
 /**
  * Loads jobs active data from files into Cassandra database. A snapshot can be created using {@link JobSnapshotDownloader}.
+ * <p>
+ * Chunk files of a table are loaded in parallel. The loaded chunks are recorded in the table folder, and in the resume
+ * mode skipped when the load is repeated. A load without the resume mode starts with a clean progress record. Snapshots in the older format, with a single JSON
+ * file per table, are supported as well.
  */
 public class JobSnapshotLoader {
 
@@ -45,30 +66,133 @@ public class JobSnapshotLoader {
         MAPPER.enable(SerializationFeature.INDENT_OUTPUT);
     }
 
+    /**
+     * Number of rows from a single JSON file snapshot processed as one work item.
+     */
+    private static final int LEGACY_WORK_ITEM_SIZE = 1000;
+
     private final Session session;
     private final File inputFolder;
+    private final ParallelTransfer transfer;
+    private final boolean resume;
+    private final AsyncCassandraExecutor executor;
 
     public JobSnapshotLoader(Session session, File inputFolder) {
+        this(session, inputFolder, ParallelTransfer.defaultTransfer(), false);
+    }
+
+    public JobSnapshotLoader(Session session, File inputFolder, ParallelTransfer transfer, boolean resume) {
         checkAllFilesExist(inputFolder);
         this.session = session;
         this.inputFolder = inputFolder;
+        this.transfer = transfer;
+        this.resume = resume;
+        this.executor = new AsyncCassandraExecutor(session, CassandraUtils.PAGE_SIZE, CassandraUtils.SPLIT);
+    }
+
+    /**
+     * Returns names of active job tables, for which there is no data in the given snapshot folder.
+     */
+    public static Set<String> findMissingTables(File inputFolder) {
+        return CassandraSchemas.JOB_ACTIVE_TABLES.stream()
+                .filter(table -> !SnapshotChunks.hasTable(inputFolder, table))
+                .collect(Collectors.toSet());
     }
 
     private void checkAllFilesExist(File inputFolder) {
-        CassandraSchemas.JOB_ACTIVE_TABLES.forEach(table -> {
-            File input = new File(inputFolder, table + ".json");
-            Preconditions.checkArgument(input.isFile(), "File not found: %s", input);
-        });
+        Set<String> missingTables = findMissingTables(inputFolder);
+        Preconditions.checkArgument(missingTables.isEmpty(), "Snapshot data not found in %s for tables: %s", inputFolder, missingTables);
     }
 
     public void load() {
-        readIdBuckets(CassandraSchemas.ACTIVE_JOB_IDS_TABLE);
-        readDataTable(CassandraSchemas.ACTIVE_JOBS_TABLE);
-        readIdMappingTable(CassandraSchemas.ACTIVE_TASK_IDS_TABLE);
-        readDataTable(CassandraSchemas.ACTIVE_TASKS_TABLE);
+        loadTable(CassandraSchemas.ACTIVE_JOB_IDS_TABLE, this::readIdBuckets);
+        loadTable(CassandraSchemas.ACTIVE_JOBS_TABLE, this::readDataTable);
+        loadTable(CassandraSchemas.ACTIVE_TASK_IDS_TABLE, this::readIdMappingTable);
+        loadTable(CassandraSchemas.ACTIVE_TASKS_TABLE, this::readDataTable);
     }
 
-    private void readDataTable(String table) {
+    private void loadTable(String table, Function<String, List<Pair<Object, Object>>> legacyReader) {
+        PreparedStatement insertStatement = CassandraUtils.prepareTwoColumnInsert(session, table);
+        long written;
+        if (SnapshotChunks.getTableFolder(inputFolder, table).isDirectory()) {
+            written = loadChunks(table, insertStatement);
+        } else {
+            written = transfer.execute(
+                    "Loading table " + table,
+                    Lists.partition(legacyReader.apply(table), LEGACY_WORK_ITEM_SIZE),
+                    items -> transfer.writeBatched(executor, insertStatement, items.iterator())
+            );
+        }
+        System.out.println(String.format("Successfully writen %s entries into table %s", written, table));
+    }
+
+    private long loadChunks(String table, PreparedStatement insertStatement) {
+        File tableFolder = SnapshotChunks.getTableFolder(inputFolder, table);
+        File progressFile = new File(tableFolder, SnapshotChunks.LOAD_PROGRESS_FILE);
+        Set<String> loadedChunks;
+        if (resume) {
+            loadedChunks = readLoadProgress(progressFile);
+        } else {
+            SnapshotChunks.clearLoadProgress(tableFolder);
+            loadedChunks = Collections.emptySet();
+        }
+
+        List<File> allChunks = SnapshotChunks.listChunks(tableFolder);
+        List<File> remainingChunks = allChunks.stream()
+                .filter(chunk -> !loadedChunks.contains(chunk.getName()))
+                .collect(Collectors.toList());
+
+        System.out.println(String.format("Loading table %s from folder %s (%s of %s chunks remaining)...",
+                table, tableFolder, remainingChunks.size(), allChunks.size()
+        ));
+        return transfer.execute("Loading table " + table, remainingChunks, chunk -> {
+            long written = loadChunk(chunk, insertStatement);
+            recordLoadProgress(progressFile, chunk);
+            return written;
+        });
+    }
+
+    private long loadChunk(File chunk, PreparedStatement insertStatement) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(chunk)), StandardCharsets.UTF_8))) {
+            Iterator<Pair<Object, Object>> rows = reader.lines()
+                    .filter(line -> !line.isEmpty())
+                    .map(this::parseChunkLine)
+                    .iterator();
+            return transfer.writeBatched(executor, insertStatement, rows);
+        }
+    }
+
+    private Pair<Object, Object> parseChunkLine(String line) {
+        try {
+            JsonNode jsonNode = MAPPER.readTree(line);
+            JsonNode keyNode = jsonNode.get(SnapshotChunks.KEY_FIELD);
+            Object key = keyNode.isInt() ? (Object) keyNode.intValue() : keyNode.textValue();
+            return Pair.of(key, jsonNode.get(SnapshotChunks.VALUE_FIELD).textValue());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot parse snapshot row: " + line, e);
+        }
+    }
+
+    private Set<String> readLoadProgress(File progressFile) {
+        if (!progressFile.isFile()) {
+            return Collections.emptySet();
+        }
+        try {
+            return new HashSet<>(Files.readAllLines(progressFile.toPath(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read load progress file: " + progressFile, e);
+        }
+    }
+
+    private synchronized void recordLoadProgress(File progressFile, File chunk) throws IOException {
+        Files.write(
+                progressFile.toPath(),
+                (chunk.getName() + '\n').getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND
+        );
+    }
+
+    private List<Pair<Object, Object>> readDataTable(String table) {
         ArrayNode jsonTree = (ArrayNode) readJsonTree(table);
         List<Pair<Object, Object>> items = new ArrayList<>();
         jsonTree.forEach(item -> {
@@ -78,14 +202,13 @@ public class JobSnapshotLoader {
                 throw new IllegalStateException(e);
             }
         });
-        long written = CassandraUtils.writeIntoTwoColumnTable(session, table, Observable.from(items));
-        System.out.println(String.format("Successfully writen %s entries into table %s", written, table));
+        return items;
     }
 
     /**
      * A table holding buckets, where a key is bucket id of type int, and the value is a string.
      */
-    private void readIdBuckets(String table) {
+    private List<Pair<Object, Object>> readIdBuckets(String table) {
         ObjectNode jsonTree = (ObjectNode) readJsonTree(table);
         List<Pair<Object, Object>> items = new ArrayList<>();
         jsonTree.fieldNames().forEachRemaining(key -> {
@@ -95,26 +218,24 @@ public class JobSnapshotLoader {
                 items.add(Pair.of(bucketId, value.asText()));
             });
         });
-        long written = CassandraUtils.writeIntoTwoColumnTable(session, table, Observable.from(items));
-        System.out.println(String.format("Successfully writen %s entries into table %s", written, table));
+        return items;
     }
 
     /**
      * A table holding ids has two columns of string type. We encode these values as map entries in output JSON document.
      */
-    private void readIdMappingTable(String table) {
+    private List<Pair<Object, Object>> readIdMappingTable(String table) {
         ObjectNode jsonTree = (ObjectNode) readJsonTree(table);
         List<Pair<Object, Object>> items = new ArrayList<>();
         jsonTree.fieldNames().forEachRemaining(key -> {
             ArrayNode values = (ArrayNode) jsonTree.get(key);
             values.forEach(value -> items.add(Pair.of(key, value.asText())));
         });
-        long written = CassandraUtils.writeIntoTwoColumnTable(session, table, Observable.from(items));
-        System.out.println(String.format("Successfully writen %s entries into table %s", written, table));
+        return items;
     }
 
     private JsonNode readJsonTree(String table) {
-        File input = new File(inputFolder, table + ".json");
+        File input = SnapshotChunks.getLegacyTableFile(inputFolder, table);
         try {
             JsonNode jsonTree = MAPPER.readTree(input);
             System.out.println(String.format("Loading %s rows into table %s to file: %s...", jsonTree.size(), table, input));
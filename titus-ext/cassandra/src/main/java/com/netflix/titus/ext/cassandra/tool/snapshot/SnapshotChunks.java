@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.cassandra.tool.snapshot;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.datastax.driver.core.TokenRange;
+import com.google.common.base.Preconditions;
+
+/**
+ * Snapshot layout, where each table is stored in its own folder, with one gzip compressed file per token range.
+ * Each line of a chunk file is a JSON document { "key": primary key, "value": value column }.
+ */
+final class SnapshotChunks {
+
+    static final String KEY_FIELD = "key";
+    static final String VALUE_FIELD = "value";
+
+    /**
+     * File in a table folder listing the chunks already written into Cassandra by {@link JobSnapshotLoader}. It is
+     * only valid for the current chunk set, so it is removed whenever the table folder content changes.
+     */
+    static final String LOAD_PROGRESS_FILE = "loaded.txt";
+
+    private static final String CHUNK_PREFIX = "chunk_";
+    private static final String CHUNK_SUFFIX = ".json.gz";
+
+    private SnapshotChunks() {
+    }
+
+    static File getTableFolder(File snapshotFolder, String table) {
+        return new File(snapshotFolder, table);
+    }
+
+    static File getLegacyTableFile(File snapshotFolder, String table) {
+        return new File(snapshotFolder, table + ".json");
+    }
+
+    static boolean hasTable(File snapshotFolder, String table) {
+        return getTableFolder(snapshotFolder, table).isDirectory() || getLegacyTableFile(snapshotFolder, table).isFile();
+    }
+
+    static String getChunkName(TokenRange range) {
+        return CHUNK_PREFIX + range.getStart().getValue() + '_' + range.getEnd().getValue() + CHUNK_SUFFIX;
+    }
+
+    static void clearLoadProgress(File tableFolder) {
+        File progressFile = new File(tableFolder, LOAD_PROGRESS_FILE);
+        Preconditions.checkState(!progressFile.exists() || progressFile.delete(), "Cannot remove load progress file: %s", progressFile);
+    }
+
+    static List<File> listChunks(File tableFolder) {
+        File[] files = tableFolder.listFiles((dir, name) -> name.startsWith(CHUNK_PREFIX) && name.endsWith(CHUNK_SUFFIX));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(files).sorted().collect(Collectors.toList());
+    }
+}
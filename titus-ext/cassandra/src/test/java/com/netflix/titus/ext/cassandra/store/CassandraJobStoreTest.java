@@ -22,6 +22,7 @@ import java.util.UUID;
 
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Session;
+import com.netflix.spectator.api.Registry;
 import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
@@ -38,6 +39,7 @@ import com.netflix.titus.api.jobmanager.model.job.ext.ServiceJobExt;
 import com.netflix.titus.api.jobmanager.model.job.retry.ExponentialBackoffRetryPolicy;
 import com.netflix.titus.api.jobmanager.store.JobStore;
 import com.netflix.titus.api.json.ObjectMappers;
+import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.runtime.TitusRuntimes;
 import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.testkit.junit.category.IntegrationNotParallelizableTest;
@@ -52,6 +54,8 @@ import rx.Completable;
 import rx.Observable;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @Category(IntegrationNotParallelizableTest.class)
 public class CassandraJobStoreTest {
@@ -99,6 +103,36 @@ public class CassandraJobStoreTest {
         public boolean isTracingEnabled() {
             return false;
         }
+
+        @Override
+        public boolean isJobStoreCheckpointEnabled() {
+            return false;
+        }
+
+        @Override
+        public String getJobStoreCheckpointFile() {
+            return "";
+        }
+
+        @Override
+        public long getJobStoreCheckpointIntervalMs() {
+            return 0;
+        }
+
+        @Override
+        public long getJobStoreCheckpointSafetyMarginMs() {
+            return 0;
+        }
+
+        @Override
+        public boolean isJobStoreStandbyReplicationEnabled() {
+            return false;
+        }
+
+        @Override
+        public long getJobStoreStandbyReplicationIntervalMs() {
+            return 0;
+        }
     };
 
     @Test
@@ -401,6 +435,40 @@ public class CassandraJobStoreTest {
         jobToTasksLoaded.getLeft().forEach(t -> assertThat(t.getJobId()).isEqualTo(jobTo.getId()));
     }
 
+    @Test
+    public void testStandbyReplicaIsUsedOnPromotion() {
+        Session session = cassandraCqlUnit.getSession();
+        JobStore leaderStore = getJobStore(session);
+        leaderStore.init().await();
+        Job<BatchJobExt> job = createBatchJobObject();
+        leaderStore.storeJob(job).await();
+        Task task = createTaskObject(job);
+        leaderStore.storeTask(task).await();
+
+        CassandraStoreConfiguration standbyConfiguration = mock(CassandraStoreConfiguration.class);
+        when(standbyConfiguration.getConcurrencyLimit()).thenReturn(MAX_CONCURRENCY);
+        when(standbyConfiguration.isJobStoreStandbyReplicationEnabled()).thenReturn(true);
+        when(standbyConfiguration.getJobStoreStandbyReplicationIntervalMs()).thenReturn(3_600_000L);
+        TitusRuntime standbyRuntime = TitusRuntimes.internal();
+        CassandraJobStore standbyStore = new CassandraJobStore(standbyConfiguration, j -> true, session, standbyRuntime,
+                ObjectMappers.storeMapper(), INITIAL_BUCKET_COUNT, MAX_BUCKET_SIZE);
+        standbyStore.replicateStandby().await();
+
+        // Modified after the replication round, so it must be read from Cassandra on promotion.
+        Task updatedTask = task.toBuilder().withStatus(TaskStatus.newBuilder().withState(TaskState.Launched).build()).build();
+        leaderStore.updateTask(updatedTask).await();
+
+        standbyStore.init().await();
+        Pair<List<Job<?>>, Integer> jobsAndErrors = standbyStore.retrieveJobs().toBlocking().first();
+        assertThat(jobsAndErrors.getLeft()).containsExactly(job);
+        Pair<List<Task>, Integer> tasksAndErrors = standbyStore.retrieveTasksForJob(job.getId()).toBlocking().first();
+        assertThat(tasksAndErrors.getLeft()).containsExactly(updatedTask);
+
+        Registry registry = standbyRuntime.getRegistry();
+        assertThat(registry.counter("titusMaster.jobManager.cassandra.standby.reusedRecords").count()).isEqualTo(1);
+        assertThat(registry.counter("titusMaster.jobManager.cassandra.standby.fetchedRecords").count()).isEqualTo(1);
+    }
+
     private JobStore getJobStore() {
         return getJobStore(null);
     }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.cassandra.store;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.json.ObjectMappers;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import rx.schedulers.TestScheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JobStoreCheckpointManagerTest {
+
+    private static final ObjectMapper MAPPER = ObjectMappers.storeMapper();
+
+    private static final long CHECKPOINT_INTERVAL_MS = 1_000;
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final TestScheduler testScheduler = new TestScheduler();
+    private final CassandraStoreConfiguration configuration = mock(CassandraStoreConfiguration.class);
+
+    private final Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+
+    private File file;
+    private JobStoreCheckpointManager manager;
+
+    @Before
+    public void setUp() {
+        this.file = new File(tempFolder.getRoot(), "titusJobStore.checkpoint");
+        when(configuration.getJobStoreCheckpointFile()).thenReturn(file.getAbsolutePath());
+        when(configuration.getJobStoreCheckpointIntervalMs()).thenReturn(CHECKPOINT_INTERVAL_MS);
+        this.manager = new JobStoreCheckpointManager(configuration, MAPPER, TitusRuntimes.test(testScheduler), testScheduler);
+        manager.start();
+    }
+
+    @After
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    public void testSuccessfulWriteIsCheckpointed() {
+        long writeId = manager.invalidate(Collections.singletonList(job.getId()), Collections.emptyList());
+        manager.jobUpdated(job, writeId);
+
+        assertThat(writeCheckpoint().getJobs()).containsOnlyKeys(job.getId());
+    }
+
+    @Test
+    public void testFailedWriteIsRemovedFromCheckpoint() {
+        manager.jobLoaded(job);
+        long writeId = manager.invalidate(Collections.singletonList(job.getId()), Collections.emptyList());
+        manager.writeFailed(writeId, Collections.singletonList(job.getId()), Collections.emptyList());
+
+        assertThat(writeCheckpoint().getJobs()).isEmpty();
+    }
+
+    @Test
+    public void testCompletionOfOlderWriteIsIgnored() {
+        long firstWriteId = manager.invalidate(Collections.singletonList(job.getId()), Collections.emptyList());
+        long secondWriteId = manager.invalidate(Collections.singletonList(job.getId()), Collections.emptyList());
+
+        manager.jobUpdated(job, firstWriteId);
+        assertThat(writeCheckpoint().getJobs()).isEmpty();
+
+        // A load of the record while a write is pending is not checkpointed either.
+        manager.jobLoaded(job);
+        assertThat(writeCheckpoint().getJobs()).isEmpty();
+
+        manager.jobUpdated(job, secondWriteId);
+        assertThat(writeCheckpoint().getJobs()).containsOnlyKeys(job.getId());
+    }
+
+    private JobStoreCheckpoint writeCheckpoint() {
+        testScheduler.advanceTimeBy(CHECKPOINT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return JobStoreCheckpoint.load(file, MAPPER).orElseThrow(() -> new IllegalStateException("Checkpoint not written"));
+    }
+}
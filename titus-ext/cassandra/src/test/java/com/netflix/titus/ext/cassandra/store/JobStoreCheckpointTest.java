@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.cassandra.store;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.json.ObjectMappers;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JobStoreCheckpointTest {
+
+    private static final ObjectMapper MAPPER = ObjectMappers.storeMapper();
+
+    private static final long WATERMARK = 123_456L;
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final Job<BatchJobExt> job = JobGenerator.batchJobsOfSize(2).getValue();
+    private final List<BatchJobTask> tasks = JobGenerator.batchTasks(job).getValues(2);
+
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        File file = writeCheckpoint();
+
+        Optional<JobStoreCheckpoint> loaded = JobStoreCheckpoint.load(file, MAPPER);
+        assertThat(loaded).isPresent();
+        assertThat(loaded.get().getWatermark()).isEqualTo(WATERMARK);
+        assertThat(loaded.get().getJobs()).containsOnlyKeys(job.getId());
+        assertThat(loaded.get().getJobs().get(job.getId())).isEqualTo(job);
+        assertThat(loaded.get().getTasks()).hasSize(2);
+        tasks.forEach(task -> assertThat(loaded.get().getTasks().get(task.getId())).isEqualTo(task));
+    }
+
+    @Test
+    public void testMissingFileIsIgnored() {
+        assertThat(JobStoreCheckpoint.load(new File(tempFolder.getRoot(), "missing"), MAPPER)).isEmpty();
+    }
+
+    @Test
+    public void testCorruptedFileIsIgnored() throws Exception {
+        File file = writeCheckpoint();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() / 2);
+            byte value = raf.readByte();
+            raf.seek(raf.length() / 2);
+            raf.writeByte(value ^ 0xFF);
+        }
+        assertThat(JobStoreCheckpoint.load(file, MAPPER)).isEmpty();
+    }
+
+    @Test
+    public void testTruncatedFileIsIgnored() throws Exception {
+        File file = writeCheckpoint();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        assertThat(JobStoreCheckpoint.load(file, MAPPER)).isEmpty();
+    }
+
+    private File writeCheckpoint() throws Exception {
+        File file = new File(tempFolder.getRoot(), "titusJobStore.checkpoint");
+        JobStoreCheckpoint.write(file, WATERMARK, Collections.<Job<?>>singletonList(job), new ArrayList<Task>(tasks), MAPPER);
+        return file;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.cassandra.tool.snapshot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.ext.cassandra.tool.CassandraSchemas;
+import com.netflix.titus.ext.cassandra.tool.CassandraUtils;
+import com.netflix.titus.ext.cassandra.tool.ParallelTransfer;
+import com.netflix.titus.testkit.junit.category.IntegrationNotParallelizableTest;
+import org.cassandraunit.CassandraCQLUnit;
+import org.cassandraunit.dataset.cql.ClassPathCQLDataSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Category(IntegrationNotParallelizableTest.class)
+public class JobSnapshotTransferTest {
+
+    private static final long STARTUP_TIMEOUT_MS = 30_000L;
+
+    /**
+     * As Cassandra uses memory mapped files there are sometimes issues with virtual disks storing the project files.
+     * To solve this issue, we relocate the default embedded Cassandra folder to /var/tmp/embeddedCassandra.
+     */
+    private static final String CONFIGURATION_FILE_NAME = "relocated-cassandra.yaml";
+
+    private static final int ROW_COUNT = 50;
+
+    @Rule
+    public CassandraCQLUnit cassandraCqlUnit = new CassandraCQLUnit(
+            new ClassPathCQLDataSet("tables.cql", "titus_integration_tests"),
+            CONFIGURATION_FILE_NAME,
+            STARTUP_TIMEOUT_MS
+    );
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final ParallelTransfer transfer = new ParallelTransfer(4, 10, 0);
+
+    private Session session;
+    private File snapshotFolder;
+    private Map<String, Set<Pair<Object, Object>>> expectedContent;
+
+    @Before
+    public void setUp() throws Exception {
+        this.session = cassandraCqlUnit.getSession();
+        this.snapshotFolder = tempFolder.newFolder("snapshot");
+        this.expectedContent = populateTables();
+    }
+
+    @Test
+    public void testDownloadAndLoad() {
+        new JobSnapshotDownloader(session, false, snapshotFolder, transfer, false).download();
+        CassandraSchemas.JOB_ACTIVE_TABLES.forEach(table -> assertThat(SnapshotChunks.listChunks(SnapshotChunks.getTableFolder(snapshotFolder, table))).isNotEmpty());
+
+        truncateTables();
+        new JobSnapshotLoader(session, snapshotFolder, transfer, false).load();
+
+        CassandraSchemas.JOB_ACTIVE_TABLES.forEach(table -> assertThat(readTable(table)).isEqualTo(expectedContent.get(table)));
+    }
+
+    @Test
+    public void testResumedDownloadReadsMissingChunksOnly() {
+        new JobSnapshotDownloader(session, false, snapshotFolder, transfer, false).download();
+
+        File tableFolder = SnapshotChunks.getTableFolder(snapshotFolder, CassandraSchemas.ACTIVE_JOBS_TABLE);
+        List<File> chunks = SnapshotChunks.listChunks(tableFolder);
+        chunks.forEach(chunk -> assertThat(chunk.setLastModified(0)).isTrue());
+        File removedChunk = chunks.get(0);
+        assertThat(removedChunk.delete()).isTrue();
+
+        new JobSnapshotDownloader(session, false, snapshotFolder, transfer, true).download();
+
+        assertThat(removedChunk).exists();
+        assertThat(removedChunk.lastModified()).isGreaterThan(0);
+        chunks.subList(1, chunks.size()).forEach(chunk -> assertThat(chunk.lastModified()).isEqualTo(0));
+
+        truncateTables();
+        new JobSnapshotLoader(session, snapshotFolder, transfer, false).load();
+        assertThat(readTable(CassandraSchemas.ACTIVE_JOBS_TABLE)).isEqualTo(expectedContent.get(CassandraSchemas.ACTIVE_JOBS_TABLE));
+    }
+
+    @Test
+    public void testResumedLoadSkipsLoadedChunks() throws Exception {
+        new JobSnapshotDownloader(session, false, snapshotFolder, transfer, false).download();
+
+        File tableFolder = SnapshotChunks.getTableFolder(snapshotFolder, CassandraSchemas.ACTIVE_JOBS_TABLE);
+        List<File> chunks = SnapshotChunks.listChunks(tableFolder);
+        File notLoadedChunk = chunks.stream().filter(chunk -> countRows(chunk) > 0).findFirst().get();
+        List<String> loadedChunks = chunks.stream()
+                .filter(chunk -> chunk != notLoadedChunk)
+                .map(File::getName)
+                .collect(Collectors.toList());
+        Files.write(new File(tableFolder, SnapshotChunks.LOAD_PROGRESS_FILE).toPath(), loadedChunks, StandardCharsets.UTF_8);
+
+        truncateTables();
+        new JobSnapshotLoader(session, snapshotFolder, transfer, true).load();
+
+        assertThat(readTable(CassandraSchemas.ACTIVE_JOBS_TABLE)).hasSize(countRows(notLoadedChunk));
+        assertThat(Files.readAllLines(new File(tableFolder, SnapshotChunks.LOAD_PROGRESS_FILE).toPath())).hasSize(chunks.size());
+    }
+
+    @Test
+    public void testLoadProgressIsClearedWhenSnapshotIsRewrittenOrLoadIsNotResumed() throws Exception {
+        new JobSnapshotDownloader(session, false, snapshotFolder, transfer, false).download();
+
+        File tableFolder = SnapshotChunks.getTableFolder(snapshotFolder, CassandraSchemas.ACTIVE_JOBS_TABLE);
+        File progressFile = new File(tableFolder, SnapshotChunks.LOAD_PROGRESS_FILE);
+        List<File> chunks = SnapshotChunks.listChunks(tableFolder);
+
+        // Progress of a load of an earlier snapshot must not survive the chunk rewrite.
+        Files.write(progressFile.toPath(), chunks.stream().map(File::getName).collect(Collectors.toList()), StandardCharsets.UTF_8);
+        assertThat(chunks.get(0).delete()).isTrue();
+        new JobSnapshotDownloader(session, false, snapshotFolder, transfer, true).download();
+        assertThat(progressFile).doesNotExist();
+
+        // A load without the resume mode starts from scratch, and a resumed one after it does not load anything.
+        Files.write(progressFile.toPath(), chunks.stream().map(File::getName).collect(Collectors.toList()), StandardCharsets.UTF_8);
+        truncateTables();
+        new JobSnapshotLoader(session, snapshotFolder, transfer, false).load();
+        assertThat(readTable(CassandraSchemas.ACTIVE_JOBS_TABLE)).isEqualTo(expectedContent.get(CassandraSchemas.ACTIVE_JOBS_TABLE));
+
+        truncateTables();
+        new JobSnapshotLoader(session, snapshotFolder, transfer, true).load();
+        assertThat(readTable(CassandraSchemas.ACTIVE_JOBS_TABLE)).isEmpty();
+    }
+
+    private Map<String, Set<Pair<Object, Object>>> populateTables() {
+        Map<String, Set<Pair<Object, Object>>> content = new HashMap<>();
+        for (String table : CassandraSchemas.JOB_ACTIVE_TABLES) {
+            Set<Pair<Object, Object>> rows = new HashSet<>();
+            for (int i = 0; i < ROW_COUNT; i++) {
+                Object key = table.equals(CassandraSchemas.ACTIVE_JOB_IDS_TABLE) ? (Object) (i % 5) : table + "_key#" + i;
+                rows.add(Pair.of(key, table + "_value#" + i));
+            }
+            PreparedStatement insertStatement = CassandraUtils.prepareTwoColumnInsert(session, table);
+            rows.forEach(row -> session.execute(insertStatement.bind(row.getLeft(), row.getRight())));
+            content.put(table, rows);
+        }
+        return content;
+    }
+
+    private void truncateTables() {
+        CassandraSchemas.JOB_ACTIVE_TABLES.forEach(table -> session.execute("TRUNCATE \"" + table + '"'));
+    }
+
+    private Set<Pair<Object, Object>> readTable(String table) {
+        return new HashSet<>(CassandraUtils.readTwoColumnTable(session, table).toList().toBlocking().first());
+    }
+
+    private int countRows(File chunk) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(chunk)), StandardCharsets.UTF_8))) {
+            return (int) reader.lines().count();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.elasticsearch;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Computes the size (in bytes) of the next bulk request, based on the latency of the completed ones. The size is
+ * increased by a quarter of its current value while bulks complete within the target latency, and it is halved when
+ * they are slower, or when a bulk request fails.
+ */
+class AdaptiveBulkSizer {
+
+    private static final double INCREASE_FACTOR = 0.25;
+
+    private final long minSizeBytes;
+    private final long maxSizeBytes;
+    private final long targetLatencyMs;
+
+    private volatile long bulkSizeBytes;
+
+    AdaptiveBulkSizer(long minSizeBytes, long maxSizeBytes, long targetLatencyMs) {
+        Preconditions.checkArgument(minSizeBytes > 0, "Min bulk size must be > 0: %s", minSizeBytes);
+        Preconditions.checkArgument(maxSizeBytes >= minSizeBytes, "Max bulk size %s must be >= min bulk size %s", maxSizeBytes, minSizeBytes);
+        this.minSizeBytes = minSizeBytes;
+        this.maxSizeBytes = maxSizeBytes;
+        this.targetLatencyMs = targetLatencyMs;
+        this.bulkSizeBytes = minSizeBytes;
+    }
+
+    long getBulkSizeBytes() {
+        return bulkSizeBytes;
+    }
+
+    /**
+     * Adjusts the bulk size given the outcome of a completed bulk request.
+     *
+     * @param sizeBytes size of the completed bulk request
+     * @param latencyMs time it took to execute the bulk request
+     * @param failed    true if the whole bulk request failed
+     */
+    synchronized void onBulkCompleted(long sizeBytes, long latencyMs, boolean failed) {
+        if (failed || latencyMs > targetLatencyMs) {
+            bulkSizeBytes = Math.max(minSizeBytes, bulkSizeBytes / 2);
+        } else if (sizeBytes >= bulkSizeBytes / 2) {
+            // Grow only if the bulk was large enough to tell anything about the current limit.
+            bulkSizeBytes = Math.min(maxSizeBytes, bulkSizeBytes + (long) (bulkSizeBytes * INCREASE_FACTOR));
+        }
+    }
+}
@@ -36,4 +36,46 @@ public interface ElasticsearchConfiguration {
 
     @DefaultValue("yyyyMM")
     String getTaskDocumentEsIndexDateSuffixPattern();
+
+    /**
+     * Interval at which pending task documents are published.
+     */
+    @DefaultValue("1000")
+    long getPublishIntervalMs();
+
+    /**
+     * Maximum number of bulk requests executed concurrently.
+     */
+    @DefaultValue("2")
+    int getMaxInFlightBulks();
+
+    /**
+     * Lower bound for the adaptively computed bulk request size.
+     */
+    @DefaultValue("262144")
+    long getBulkMinSizeBytes();
+
+    /**
+     * Upper bound for the adaptively computed bulk request size.
+     */
+    @DefaultValue("10485760")
+    long getBulkMaxSizeBytes();
+
+    /**
+     * Bulk requests taking longer than this are considered too large, and the bulk size is reduced.
+     */
+    @DefaultValue("2000")
+    long getBulkTargetLatencyMs();
+
+    /**
+     * Maximum number of distinct tasks with pending document updates. Updates of tasks beyond this limit are dropped.
+     */
+    @DefaultValue("200000")
+    int getMaxPendingDocuments();
+
+    /**
+     * Number of times a document that failed to be indexed is retried.
+     */
+    @DefaultValue("3")
+    int getMaxDocumentRetries();
 }
@@ -17,12 +17,17 @@
 package com.netflix.titus.ext.elasticsearch;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -33,9 +38,12 @@ import javax.inject.Singleton;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.DistributionSummary;
 import com.netflix.spectator.api.Functions;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import com.netflix.spectator.api.patterns.PolledMeter;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.Task;
@@ -43,27 +51,32 @@ import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
 import com.netflix.titus.api.jobmanager.service.V3JobOperations;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.guice.annotation.Activator;
-import com.netflix.titus.common.util.rx.ObservableExt;
 import com.netflix.titus.master.MetricConstants;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
-import org.elasticsearch.action.index.IndexRequestBuilder;
 import org.elasticsearch.client.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
+import rx.Subscription;
 import rx.schedulers.Schedulers;
 
 import static com.netflix.titus.ext.elasticsearch.ElasticsearchModule.TASK_DOCUMENT_CONTEXT;
 
+/**
+ * Publishes task documents to Elasticsearch. Task updates are coalesced by task id, so only the latest task state
+ * is indexed, and the task document is built just before it is sent. Pending documents are sent in bulk requests,
+ * which size (in bytes) is adjusted to the observed indexing latency (see {@link AdaptiveBulkSizer}), and the number
+ * of concurrently executing bulk requests is capped. Only documents that failed to be indexed are retried.
+ * A task is never included in a bulk request while another bulk request with its document is in flight, so an older
+ * document version cannot overwrite a newer one.
+ */
 @Singleton
 public class ElasticsearchTaskDocumentPublisher {
     private static final Logger logger = LoggerFactory.getLogger(ElasticsearchTaskDocumentPublisher.class);
 
-    private static final int TIME_TO_BUFFER_MS = 10_000;
-    private static final int COUNT_TO_BUFFER = 1_000;
     private static final String DEFAULT_DOC_TYPE = "default";
 
     private final ElasticsearchConfiguration configuration;
@@ -75,6 +88,22 @@ public class ElasticsearchTaskDocumentPublisher {
     private final ObjectMapper objectMapper;
     private final SimpleDateFormat indexDateFormat;
     private final SimpleDateFormat taskDateFormat;
+    private final AdaptiveBulkSizer bulkSizer;
+
+    /**
+     * Latest update of each task, waiting to be published.
+     */
+    private final ConcurrentMap<String, PendingDocument> pendingDocuments = new ConcurrentHashMap<>();
+    /**
+     * Task ids in the order in which they were added to {@link #pendingDocuments}.
+     */
+    private final Queue<String> pendingOrder = new ConcurrentLinkedQueue<>();
+    /**
+     * Task ids with documents in the bulk requests being executed.
+     */
+    private final Set<String> inFlightTaskIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlightBulks = new AtomicInteger();
+
     private final AtomicInteger docsToBePublished = new AtomicInteger(0);
     private final AtomicInteger docsPublished = new AtomicInteger(0);
     private final AtomicInteger errorJsonConversion = new AtomicInteger(0);
@@ -86,7 +115,20 @@ public class ElasticsearchTaskDocumentPublisher {
     private final Id errorJsonConversionMeterId;
     private final Id errorEsClientMeterId;
     private final Id errorInPublishingMeterId;
-    private AtomicLong lastPublishedTimestamp;
+    private final Id pendingDocumentsMeterId;
+    private final Id inFlightBulksMeterId;
+    private final Id bulkSizeLimitMeterId;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+    private final Counter retriedCounter;
+    private final DistributionSummary bulkSizeBytesSummary;
+    private final DistributionSummary bulkSizeDocsSummary;
+    private final Timer bulkLatencyTimer;
+    private final Timer indexingLagTimer;
+    private AtomicLong lastPublishedTimestamp = new AtomicLong();
+
+    private Subscription taskEventSubscription;
+    private Subscription publisherSubscription;
 
     @Inject
     public ElasticsearchTaskDocumentPublisher(ElasticsearchConfiguration configuration,
@@ -108,6 +150,11 @@ public class ElasticsearchTaskDocumentPublisher {
         this.indexDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
         this.taskDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
         this.taskDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        this.bulkSizer = new AdaptiveBulkSizer(
+                configuration.getBulkMinSizeBytes(),
+                configuration.getBulkMaxSizeBytes(),
+                configuration.getBulkTargetLatencyMs()
+        );
 
         PolledMeter.using(registry).withName(MetricConstants.METRIC_ES_PUBLISHER + "docsToBePublished").monitorValue(docsToBePublished);
         PolledMeter.using(registry).withName(MetricConstants.METRIC_ES_PUBLISHER + "docsPublished").monitorValue(docsPublished);
@@ -121,6 +168,17 @@ public class ElasticsearchTaskDocumentPublisher {
         errorJsonConversionMeterId = registry.createId(MetricConstants.METRIC_ES_PUBLISHER + "errorJsonConversion");
         errorEsClientMeterId = registry.createId(MetricConstants.METRIC_ES_PUBLISHER + "errorEsClient");
         errorInPublishingMeterId = registry.createId(MetricConstants.METRIC_ES_PUBLISHER + "errorInPublishing");
+        pendingDocumentsMeterId = registry.createId(MetricConstants.METRIC_ES_PUBLISHER + "pendingDocuments");
+        inFlightBulksMeterId = registry.createId(MetricConstants.METRIC_ES_PUBLISHER + "inFlightBulks");
+        bulkSizeLimitMeterId = registry.createId(MetricConstants.METRIC_ES_PUBLISHER + "bulkSizeLimitBytes");
+
+        coalescedCounter = registry.counter(MetricConstants.METRIC_ES_PUBLISHER + "coalescedDocs");
+        droppedCounter = registry.counter(MetricConstants.METRIC_ES_PUBLISHER + "droppedDocs");
+        retriedCounter = registry.counter(MetricConstants.METRIC_ES_PUBLISHER + "retriedDocs");
+        bulkSizeBytesSummary = registry.distributionSummary(MetricConstants.METRIC_ES_PUBLISHER + "bulkSizeBytes");
+        bulkSizeDocsSummary = registry.distributionSummary(MetricConstants.METRIC_ES_PUBLISHER + "bulkSizeDocs");
+        bulkLatencyTimer = registry.timer(MetricConstants.METRIC_ES_PUBLISHER + "bulkLatency");
+        indexingLagTimer = registry.timer(MetricConstants.METRIC_ES_PUBLISHER + "indexingLag");
     }
 
 
@@ -131,14 +189,17 @@ public class ElasticsearchTaskDocumentPublisher {
         PolledMeter.using(registry).withId(errorJsonConversionMeterId).monitorValue(errorJsonConversion);
         PolledMeter.using(registry).withId(errorEsClientMeterId).monitorValue(errorEsClient);
         PolledMeter.using(registry).withId(errorInPublishingMeterId).monitorValue(errorInPublishing);
+        PolledMeter.using(registry).withId(pendingDocumentsMeterId).monitorSize(pendingDocuments);
+        PolledMeter.using(registry).withId(inFlightBulksMeterId).monitorValue(inFlightBulks);
+        PolledMeter.using(registry).withId(bulkSizeLimitMeterId).monitorValue(bulkSizer, AdaptiveBulkSizer::getBulkSizeBytes);
         lastPublishedTimestamp = PolledMeter.using(registry)
                 .withId(timeSinceLastPublishedMeterId)
                 .monitorValue(new AtomicLong(registry.clock().wallTime()), Functions.AGE);
 
         logger.info("Starting the task streams to publish task documents to elasticsearch");
-        v3TasksStream()
+        this.taskEventSubscription = v3TasksStream()
                 .subscribe(
-                        this::publishTaskDocuments,
+                        this::addPendingDocument,
                         e -> {
                             errorInPublishing.incrementAndGet();
                             logger.error("Unable to publish task documents to elasticsearch: ", e);
@@ -147,103 +208,271 @@ public class ElasticsearchTaskDocumentPublisher {
                             logger.info("Finished publishing task documents to elasticsearch");
                         }
                 );
+        this.publisherSubscription = Observable.interval(configuration.getPublishIntervalMs(), TimeUnit.MILLISECONDS, Schedulers.io())
+                .subscribe(
+                        tick -> publishPendingDocuments(),
+                        e -> logger.error("Task document publisher terminated with an error: ", e)
+                );
     }
 
     @PreDestroy
     public void shutdown() {
+        if (taskEventSubscription != null) {
+            taskEventSubscription.unsubscribe();
+        }
+        if (publisherSubscription != null) {
+            publisherSubscription.unsubscribe();
+        }
         PolledMeter.remove(registry, timeSinceLastPublishedMeterId);
         PolledMeter.remove(registry, docsToBePublishedMeterId);
         PolledMeter.remove(registry, docsPublishedMeterId);
         PolledMeter.remove(registry, errorJsonConversionMeterId);
         PolledMeter.remove(registry, errorEsClientMeterId);
         PolledMeter.remove(registry, errorInPublishingMeterId);
+        PolledMeter.remove(registry, pendingDocumentsMeterId);
+        PolledMeter.remove(registry, inFlightBulksMeterId);
+        PolledMeter.remove(registry, bulkSizeLimitMeterId);
     }
 
-    private Observable<List<TaskDocument>> v3TasksStream() {
-        Observable<Optional<TaskDocument>> optionalTaskDocuments = v3JobOperations.observeJobs()
-                .filter(event -> event instanceof TaskUpdateEvent)
-                .cast(TaskUpdateEvent.class)
-                .map(event -> {
-                    Task task = event.getCurrentTask();
-                    Job<?> job = event.getCurrentJob();
-                    TaskDocument taskDocument = TaskDocument.fromV3Task(task, job, taskDateFormat, taskDocumentContext);
-                    return Optional.of(taskDocument);
-                });
-        final Observable<List<TaskDocument>> taskDocumentsObservable = ObservableExt.fromOptionalObservable(optionalTaskDocuments)
-                .buffer(TIME_TO_BUFFER_MS, TimeUnit.MILLISECONDS, COUNT_TO_BUFFER).observeOn(Schedulers.io());
-
-        return titusRuntime.persistentStream(taskDocumentsObservable);
+    private Observable<TaskUpdateEvent> v3TasksStream() {
+        return titusRuntime.persistentStream(
+                v3JobOperations.observeJobs()
+                        .filter(event -> event instanceof TaskUpdateEvent)
+                        .cast(TaskUpdateEvent.class)
+        );
     }
 
-    private void publishTaskDocuments(List<TaskDocument> taskDocuments) {
+    void addPendingDocument(TaskUpdateEvent event) {
+        Task task = event.getCurrentTask();
+        Job<?> job = event.getCurrentJob();
+        String taskId = task.getId();
+
+        if (!pendingDocuments.containsKey(taskId) && pendingDocuments.size() >= configuration.getMaxPendingDocuments()) {
+            droppedCounter.increment();
+            return;
+        }
+
+        long now = registry.clock().wallTime();
+        boolean[] added = new boolean[1];
+        pendingDocuments.compute(taskId, (id, previous) -> {
+            if (previous == null) {
+                added[0] = true;
+                return new PendingDocument(task, job, now, 0);
+            }
+            return previous.update(task, job);
+        });
+        if (added[0]) {
+            pendingOrder.add(taskId);
+        } else {
+            coalescedCounter.increment();
+        }
+    }
+
+    /**
+     * Sends bulk requests with the pending documents, until there is nothing more to send, or the in-flight bulk
+     * request limit is reached. Invoked periodically, and on each bulk request completion.
+     */
+    synchronized void publishPendingDocuments() {
         lastPublishedTimestamp.set(registry.clock().wallTime());
         try {
-            if (configuration.isEnabled() && !taskDocuments.isEmpty()) {
-                Map<String, String> documentsToIndex = new HashMap<>();
-                for (TaskDocument taskDocument : taskDocuments) {
-                    String documentId = taskDocument.getInstanceId();
-                    try {
-                        String documentAsJson = objectMapper.writeValueAsString(taskDocument);
-                        documentsToIndex.put(documentId, documentAsJson);
-                    } catch (Exception e) {
-                        errorJsonConversion.incrementAndGet();
-                        errorInPublishing.incrementAndGet();
-                        logger.warn("Unable to convert document with id: {} to json with error: ", documentId, e);
-                    }
+            if (!configuration.isEnabled()) {
+                pendingDocuments.clear();
+                pendingOrder.clear();
+                return;
+            }
+            while (!pendingOrder.isEmpty() && inFlightBulks.get() < configuration.getMaxInFlightBulks()) {
+                Map<String, PendingDocument> bulk = new HashMap<>();
+                long bulkSizeBytes = takeNextBulk(bulk);
+                if (bulk.isEmpty()) {
+                    break;
                 }
+                sendBulk(bulk, bulkSizeBytes);
+            }
+        } catch (Exception e) {
+            errorInPublishing.incrementAndGet();
+            logger.error("Exception in ElasticsearchTaskDocumentPublisher - ", e);
+        }
+    }
 
-                if (!documentsToIndex.isEmpty()) {
-                    logger.info("Attempting to index {} task documents to elasticsearch", documentsToIndex.size());
-                    docsToBePublished.addAndGet(documentsToIndex.size());
-                    BulkRequestBuilder bulkRequestBuilder = client.prepareBulk();
-                    for (Map.Entry<String, String> entry : documentsToIndex.entrySet()) {
-                        String documentId = entry.getKey();
-                        String documentJson = entry.getValue();
-                        IndexRequestBuilder indexRequestBuilder = client.prepareIndex(getEsIndexName(), DEFAULT_DOC_TYPE, documentId)
-                                .setSource(documentJson);
-                        bulkRequestBuilder.add(indexRequestBuilder);
-                        logger.debug("Indexing task document with id: {} and json: {}", documentId, documentJson);
-                    }
+    private long takeNextBulk(Map<String, PendingDocument> bulk) {
+        long sizeLimit = bulkSizer.getBulkSizeBytes();
+        long sizeBytes = 0;
+        List<String> heldBack = new ArrayList<>();
+        String taskId;
+        while (sizeBytes < sizeLimit && (taskId = pendingOrder.poll()) != null) {
+            if (inFlightTaskIds.contains(taskId)) {
+                // Sent when the bulk request with the previous version of the document completes.
+                heldBack.add(taskId);
+                continue;
+            }
+            PendingDocument document = pendingDocuments.remove(taskId);
+            if (document == null) {
+                continue;
+            }
+            try {
+                TaskDocument taskDocument = TaskDocument.fromV3Task(document.getTask(), document.getJob(), taskDateFormat, taskDocumentContext);
+                document.setJson(objectMapper.writeValueAsString(taskDocument));
+                bulk.put(taskId, document);
+                sizeBytes += document.getJson().length();
+            } catch (Exception e) {
+                errorJsonConversion.incrementAndGet();
+                errorInPublishing.incrementAndGet();
+                logger.warn("Unable to convert document with id: {} to json with error: ", taskId, e);
+            }
+        }
+        pendingOrder.addAll(heldBack);
+        return sizeBytes;
+    }
+
+    private void sendBulk(Map<String, PendingDocument> bulk, long bulkSizeBytes) {
+        logger.info("Attempting to index {} task documents ({} bytes) to elasticsearch", bulk.size(), bulkSizeBytes);
+        docsToBePublished.addAndGet(bulk.size());
+        bulkSizeDocsSummary.record(bulk.size());
+        bulkSizeBytesSummary.record(bulkSizeBytes);
+
+        Map<String, String> documents = new HashMap<>();
+        bulk.forEach((documentId, document) -> documents.put(documentId, document.getJson()));
 
-                    bulkRequestBuilder.execute(new ActionListener<BulkResponse>() {
-                        @Override
-                        public void onResponse(BulkResponse bulkItemResponses) {
-                            BulkItemResponse[] items = bulkItemResponses.getItems();
-                            if (items != null) {
-                                int successCount = 0;
-                                for (BulkItemResponse bulkItemResponse : items) {
-                                    if (!bulkItemResponse.isFailed()) {
-                                        String documentJson = documentsToIndex.get(bulkItemResponse.getId());
-                                        logger.debug("Successfully indexed task document with id: {} and json: {}", bulkItemResponse.getId(), documentJson);
-                                        successCount++;
-                                    }
-                                }
-                                logger.info("Successfully indexed {} out of {} task documents", successCount, items.length);
-                                docsPublished.addAndGet(successCount);
+        long startTime = registry.clock().wallTime();
+        inFlightBulks.incrementAndGet();
+        inFlightTaskIds.addAll(bulk.keySet());
+        executeBulk(getEsIndexName(), documents, new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse bulkItemResponses) {
+                long now = registry.clock().wallTime();
+                onBulkCompleted(startTime, now, bulkSizeBytes, false);
+
+                BulkItemResponse[] items = bulkItemResponses.getItems();
+                if (items != null) {
+                    int successCount = 0;
+                    for (BulkItemResponse bulkItemResponse : items) {
+                        PendingDocument document = bulk.get(bulkItemResponse.getId());
+                        if (bulkItemResponse.isFailed()) {
+                            if (document != null) {
+                                retry(bulkItemResponse.getId(), document);
                             }
-                            if (bulkItemResponses.hasFailures()) {
-                                errorEsClient.incrementAndGet();
-                                errorInPublishing.incrementAndGet();
-                                logger.error(bulkItemResponses.buildFailureMessage());
+                        } else {
+                            if (document != null) {
+                                logger.debug("Successfully indexed task document with id: {} and json: {}", bulkItemResponse.getId(), document.getJson());
+                                indexingLagTimer.record(now - document.getFirstUpdateTimestamp(), TimeUnit.MILLISECONDS);
                             }
+                            successCount++;
                         }
-
-                        @Override
-                        public void onFailure(Throwable e) {
-                            logger.error("Error in indexing task documents with error: ", e);
-                            errorEsClient.incrementAndGet();
-                            errorInPublishing.incrementAndGet();
-                        }
-                    });
+                    }
+                    logger.info("Successfully indexed {} out of {} task documents", successCount, items.length);
+                    docsPublished.addAndGet(successCount);
+                }
+                if (bulkItemResponses.hasFailures()) {
+                    errorEsClient.incrementAndGet();
+                    errorInPublishing.incrementAndGet();
+                    logger.error(bulkItemResponses.buildFailureMessage());
                 }
+                // Released after the retries are queued, so a newer document cannot be sent before a retried one.
+                inFlightTaskIds.removeAll(bulk.keySet());
+                publishPendingDocuments();
             }
-        } catch (Exception e) {
-            errorInPublishing.incrementAndGet();
-            logger.error("Exception in ElasticsearchTaskDocumentPublisher - ", e);
+
+            @Override
+            public void onFailure(Throwable e) {
+                logger.error("Error in indexing task documents with error: ", e);
+                errorEsClient.incrementAndGet();
+                errorInPublishing.incrementAndGet();
+
+                onBulkCompleted(startTime, registry.clock().wallTime(), bulkSizeBytes, true);
+                bulk.forEach(ElasticsearchTaskDocumentPublisher.this::retry);
+                inFlightTaskIds.removeAll(bulk.keySet());
+                publishPendingDocuments();
+            }
+        });
+    }
+
+    /**
+     * Sends a bulk request with the given documents (document id to JSON mapping) to Elasticsearch.
+     */
+    void executeBulk(String indexName, Map<String, String> documents, ActionListener<BulkResponse> listener) {
+        BulkRequestBuilder bulkRequestBuilder = client.prepareBulk();
+        documents.forEach((documentId, json) -> {
+            bulkRequestBuilder.add(client.prepareIndex(indexName, DEFAULT_DOC_TYPE, documentId).setSource(json));
+            logger.debug("Indexing task document with id: {} and json: {}", documentId, json);
+        });
+        bulkRequestBuilder.execute(listener);
+    }
+
+    private void onBulkCompleted(long startTime, long endTime, long bulkSizeBytes, boolean failed) {
+        inFlightBulks.decrementAndGet();
+        long latencyMs = endTime - startTime;
+        bulkLatencyTimer.record(latencyMs, TimeUnit.MILLISECONDS);
+        bulkSizer.onBulkCompleted(bulkSizeBytes, latencyMs, failed);
+    }
+
+    /**
+     * Puts a document that failed to be indexed back to the pending queue, unless a newer version of it was already added.
+     */
+    private void retry(String taskId, PendingDocument document) {
+        if (document.getAttempt() >= configuration.getMaxDocumentRetries()) {
+            droppedCounter.increment();
+            return;
+        }
+        boolean[] added = new boolean[1];
+        pendingDocuments.computeIfAbsent(taskId, id -> {
+            added[0] = true;
+            return document.nextAttempt();
+        });
+        if (added[0]) {
+            retriedCounter.increment();
+            pendingOrder.add(taskId);
         }
     }
 
     private String getEsIndexName() {
         return configuration.getTaskDocumentEsIndexName() + indexDateFormat.format(new Date());
     }
+
+    private static class PendingDocument {
+
+        private final Task task;
+        private final Job<?> job;
+        private final long firstUpdateTimestamp;
+        private final int attempt;
+        private volatile String json;
+
+        private PendingDocument(Task task, Job<?> job, long firstUpdateTimestamp, int attempt) {
+            this.task = task;
+            this.job = job;
+            this.firstUpdateTimestamp = firstUpdateTimestamp;
+            this.attempt = attempt;
+        }
+
+        private Task getTask() {
+            return task;
+        }
+
+        private Job<?> getJob() {
+            return job;
+        }
+
+        private long getFirstUpdateTimestamp() {
+            return firstUpdateTimestamp;
+        }
+
+        private int getAttempt() {
+            return attempt;
+        }
+
+        private String getJson() {
+            return json;
+        }
+
+        private void setJson(String json) {
+            this.json = json;
+        }
+
+        private PendingDocument update(Task task, Job<?> job) {
+            return new PendingDocument(task, job, firstUpdateTimestamp, 0);
+        }
+
+        private PendingDocument nextAttempt() {
+            return new PendingDocument(task, job, firstUpdateTimestamp, attempt + 1);
+        }
+    }
 }
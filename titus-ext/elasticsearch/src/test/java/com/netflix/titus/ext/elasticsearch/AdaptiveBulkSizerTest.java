@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.elasticsearch;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveBulkSizerTest {
+
+    private static final long MIN_SIZE = 1_000;
+    private static final long MAX_SIZE = 10_000;
+    private static final long TARGET_LATENCY_MS = 100;
+
+    private final AdaptiveBulkSizer sizer = new AdaptiveBulkSizer(MIN_SIZE, MAX_SIZE, TARGET_LATENCY_MS);
+
+    @Test
+    public void testSizeGrowsWhenBulksAreFast() {
+        for (int i = 0; i < 100; i++) {
+            sizer.onBulkCompleted(sizer.getBulkSizeBytes(), TARGET_LATENCY_MS / 2, false);
+        }
+        assertThat(sizer.getBulkSizeBytes()).isEqualTo(MAX_SIZE);
+    }
+
+    @Test
+    public void testSizeDoesNotGrowForSmallBulks() {
+        sizer.onBulkCompleted(10, TARGET_LATENCY_MS / 2, false);
+        assertThat(sizer.getBulkSizeBytes()).isEqualTo(MIN_SIZE);
+    }
+
+    @Test
+    public void testSizeShrinksWhenBulksAreSlowOrFail() {
+        for (int i = 0; i < 100; i++) {
+            sizer.onBulkCompleted(sizer.getBulkSizeBytes(), TARGET_LATENCY_MS / 2, false);
+        }
+        sizer.onBulkCompleted(MAX_SIZE, TARGET_LATENCY_MS * 2, false);
+        assertThat(sizer.getBulkSizeBytes()).isEqualTo(MAX_SIZE / 2);
+
+        sizer.onBulkCompleted(MAX_SIZE / 2, 1, true);
+        assertThat(sizer.getBulkSizeBytes()).isEqualTo(MAX_SIZE / 4);
+
+        for (int i = 0; i < 10; i++) {
+            sizer.onBulkCompleted(MIN_SIZE, 1, true);
+        }
+        assertThat(sizer.getBulkSizeBytes()).isEqualTo(MIN_SIZE);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.ext.elasticsearch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.jobmanager.service.V3JobOperations;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.master.MetricConstants;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ElasticsearchTaskDocumentPublisherTest {
+
+    private final ElasticsearchConfiguration configuration = mock(ElasticsearchConfiguration.class);
+    private final Registry registry = new DefaultRegistry();
+
+    private final Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+    private final List<BatchJobTask> tasks = JobGenerator.batchTasks(job).getValues(3);
+
+    private final List<SentBulk> sentBulks = new ArrayList<>();
+
+    private ElasticsearchTaskDocumentPublisher publisher;
+
+    @Before
+    public void setUp() {
+        when(configuration.isEnabled()).thenReturn(true);
+        when(configuration.getTaskDocumentEsIndexName()).thenReturn("titustasks_");
+        when(configuration.getTaskDocumentEsIndexDateSuffixPattern()).thenReturn("yyyyMM");
+        when(configuration.getMaxInFlightBulks()).thenReturn(1);
+        when(configuration.getBulkMinSizeBytes()).thenReturn(1_000_000L);
+        when(configuration.getBulkMaxSizeBytes()).thenReturn(1_000_000L);
+        when(configuration.getBulkTargetLatencyMs()).thenReturn(60_000L);
+        when(configuration.getMaxPendingDocuments()).thenReturn(100);
+        when(configuration.getMaxDocumentRetries()).thenReturn(3);
+        createPublisher();
+    }
+
+    private void createPublisher() {
+        this.publisher = new ElasticsearchTaskDocumentPublisher(
+                configuration,
+                mock(V3JobOperations.class),
+                mock(Client.class),
+                Collections.emptyMap(),
+                TitusRuntimes.internal(),
+                registry
+        ) {
+            @Override
+            void executeBulk(String indexName, Map<String, String> documents, ActionListener<BulkResponse> listener) {
+                sentBulks.add(new SentBulk(documents, listener));
+            }
+        };
+    }
+
+    @Test
+    public void testUpdatesOfTheSameTaskAreCoalesced() {
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(0)));
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(0)));
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(1)));
+        publisher.publishPendingDocuments();
+
+        assertThat(sentBulks).hasSize(1);
+        assertThat(sentBulks.get(0).documents).containsOnlyKeys(tasks.get(0).getId(), tasks.get(1).getId());
+        assertThat(counter("coalescedDocs")).isEqualTo(1);
+    }
+
+    @Test
+    public void testOnlyFailedDocumentsAreRetried() {
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(0)));
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(1)));
+        publisher.publishPendingDocuments();
+
+        assertThat(sentBulks).hasSize(1);
+        sentBulks.get(0).complete(tasks.get(0).getId());
+
+        // Completion of a bulk request triggers the next one with the retried document.
+        assertThat(sentBulks).hasSize(2);
+        assertThat(sentBulks.get(1).documents).containsOnlyKeys(tasks.get(0).getId());
+        assertThat(counter("retriedDocs")).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailedDocumentIsNotRetriedIfNewerUpdateIsPending() {
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(0)));
+        publisher.publishPendingDocuments();
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(0)));
+
+        sentBulks.get(0).complete(tasks.get(0).getId());
+
+        assertThat(sentBulks).hasSize(2);
+        assertThat(sentBulks.get(1).documents).containsOnlyKeys(tasks.get(0).getId());
+        assertThat(counter("retriedDocs")).isEqualTo(0);
+    }
+
+    @Test
+    public void testDocumentIsDroppedAfterMaxRetries() {
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(0)));
+        publisher.publishPendingDocuments();
+
+        for (int i = 0; i < 3; i++) {
+            sentBulks.get(i).complete(tasks.get(0).getId());
+        }
+        assertThat(sentBulks).hasSize(4);
+        sentBulks.get(3).complete(tasks.get(0).getId());
+
+        assertThat(sentBulks).hasSize(4);
+        assertThat(counter("retriedDocs")).isEqualTo(3);
+        assertThat(counter("droppedDocs")).isEqualTo(1);
+    }
+
+    @Test
+    public void testInFlightBulksAreCapped() {
+        when(configuration.getBulkMinSizeBytes()).thenReturn(1L);
+        when(configuration.getBulkMaxSizeBytes()).thenReturn(1L);
+        createPublisher();
+
+        tasks.forEach(task -> publisher.addPendingDocument(TaskUpdateEvent.newTask(job, task)));
+        publisher.publishPendingDocuments();
+        assertThat(sentBulks).hasSize(1);
+
+        // Periodic publishing does not exceed the limit either.
+        publisher.publishPendingDocuments();
+        assertThat(sentBulks).hasSize(1);
+
+        sentBulks.get(0).complete();
+        assertThat(sentBulks).hasSize(2);
+        sentBulks.get(1).complete();
+        assertThat(sentBulks).hasSize(3);
+        sentBulks.get(2).complete();
+        assertThat(sentBulks).hasSize(3);
+
+        sentBulks.forEach(bulk -> assertThat(bulk.documents).hasSize(1));
+    }
+
+    @Test
+    public void testTaskWithInFlightDocumentIsHeldBack() {
+        when(configuration.getMaxInFlightBulks()).thenReturn(2);
+        createPublisher();
+
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(0)));
+        publisher.publishPendingDocuments();
+        assertThat(sentBulks).hasSize(1);
+
+        // The newer version of the task document is not sent concurrently with the older one.
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(0)));
+        publisher.addPendingDocument(TaskUpdateEvent.newTask(job, tasks.get(1)));
+        publisher.publishPendingDocuments();
+        assertThat(sentBulks).hasSize(2);
+        assertThat(sentBulks.get(1).documents).containsOnlyKeys(tasks.get(1).getId());
+
+        sentBulks.get(0).complete();
+        assertThat(sentBulks).hasSize(3);
+        assertThat(sentBulks.get(2).documents).containsOnlyKeys(tasks.get(0).getId());
+    }
+
+    private long counter(String name) {
+        return registry.counter(MetricConstants.METRIC_ES_PUBLISHER + name).count();
+    }
+
+    private static class SentBulk {
+
+        private final Map<String, String> documents;
+        private final ActionListener<BulkResponse> listener;
+
+        private SentBulk(Map<String, String> documents, ActionListener<BulkResponse> listener) {
+            this.documents = documents;
+            this.listener = listener;
+        }
+
+        /**
+         * Completes the bulk request, with the given documents failed, and the remaining ones indexed.
+         */
+        private void complete(String... failedIds) {
+            List<String> failed = Arrays.asList(failedIds);
+            BulkItemResponse[] items = documents.keySet().stream()
+                    .map(id -> {
+                        BulkItemResponse item = mock(BulkItemResponse.class);
+                        when(item.getId()).thenReturn(id);
+                        when(item.isFailed()).thenReturn(failed.contains(id));
+                        return item;
+                    })
+                    .toArray(BulkItemResponse[]::new);
+
+            BulkResponse response = mock(BulkResponse.class);
+            when(response.getItems()).thenReturn(items);
+            when(response.hasFailures()).thenReturn(!failed.isEmpty());
+            when(response.buildFailureMessage()).thenReturn("failure");
+            listener.onResponse(response);
+        }
+    }
+}
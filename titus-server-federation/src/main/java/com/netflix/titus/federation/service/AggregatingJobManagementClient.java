@@ -32,7 +32,6 @@ import com.google.protobuf.Empty;
 import com.netflix.titus.api.federation.model.Cell;
 import com.netflix.titus.api.service.TitusServiceException;
 import com.netflix.titus.common.util.CollectionsExt;
-import com.netflix.titus.common.util.ProtobufExt;
 import com.netflix.titus.common.util.StringExt;
 import com.netflix.titus.common.util.concurrency.CallbackCountDownLatch;
 import com.netflix.titus.common.util.rx.EmitterWithMultipleSubscriptions;
@@ -68,6 +67,7 @@ import com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil;
 import com.netflix.titus.runtime.endpoint.metadata.CallMetadata;
 import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
 import com.netflix.titus.runtime.endpoint.metadata.V3HeaderInterceptor;
+import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcFieldsProjection;
 import com.netflix.titus.runtime.jobmanager.JobManagerCursors;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
@@ -237,8 +237,9 @@ public class AggregatingJobManagementClient implements JobManagementClient {
                     );
 
                     if (!CollectionsExt.isNullOrEmpty(fields)) {
+                        V3GrpcFieldsProjection projection = V3GrpcFieldsProjection.of(fields);
                         combinedPage = combinedPage.mapLeft(jobs -> jobs.stream()
-                                .map(job -> ProtobufExt.copy(job, fields))
+                                .map(projection::apply)
                                 .collect(Collectors.toList())
                         );
                     }
@@ -359,8 +360,9 @@ public class AggregatingJobManagementClient implements JobManagementClient {
                     );
 
                     if (!CollectionsExt.isNullOrEmpty(fields)) {
+                        V3GrpcFieldsProjection projection = V3GrpcFieldsProjection.of(fields);
                         combinedPage = combinedPage.mapLeft(tasks -> tasks.stream()
-                                .map(task -> ProtobufExt.copy(task, fields))
+                                .map(projection::apply)
                                 .collect(Collectors.toList())
                         );
                     }
@@ -32,6 +32,7 @@ import com.netflix.titus.grpc.protogen.HealthGrpc;
 import com.netflix.titus.grpc.protogen.JobManagementServiceGrpc;
 import com.netflix.titus.grpc.protogen.LoadBalancerServiceGrpc;
 import com.netflix.titus.grpc.protogen.SchedulerServiceGrpc;
+import com.netflix.titus.runtime.endpoint.common.grpc.interceptor.GrpcConcurrencyLimitConfiguration;
 import com.netflix.titus.runtime.endpoint.v3.grpc.DefaultAutoScalingServiceGrpc;
 import com.netflix.titus.runtime.endpoint.v3.grpc.DefaultHealthServiceGrpc;
 import com.netflix.titus.runtime.endpoint.v3.grpc.DefaultJobManagementServiceGrpc;
@@ -57,4 +58,10 @@ public class GatewayGrpcModule extends AbstractModule {
     public GrpcEndpointConfiguration getGrpcEndpointConfiguration(ConfigProxyFactory factory) {
         return factory.newProxy(GrpcEndpointConfiguration.class);
     }
+
+    @Provides
+    @Singleton
+    public GrpcConcurrencyLimitConfiguration getGrpcConcurrencyLimitConfiguration(ConfigProxyFactory factory) {
+        return factory.newProxy(GrpcConcurrencyLimitConfiguration.class);
+    }
 }
@@ -40,6 +40,7 @@ import com.netflix.titus.grpc.protogen.LoadBalancerServiceGrpc;
 import com.netflix.titus.grpc.protogen.LoadBalancerServiceGrpc.LoadBalancerServiceImplBase;
 import com.netflix.titus.grpc.protogen.SchedulerServiceGrpc;
 import com.netflix.titus.grpc.protogen.SchedulerServiceGrpc.SchedulerServiceImplBase;
+import com.netflix.titus.runtime.endpoint.common.grpc.interceptor.AdaptiveConcurrencyLimitingServerInterceptor;
 import com.netflix.titus.runtime.endpoint.common.grpc.interceptor.ErrorCatchingServerInterceptor;
 import com.netflix.titus.runtime.endpoint.metadata.V3HeaderInterceptor;
 import io.grpc.Server;
@@ -63,6 +64,7 @@ public class TitusGatewayGrpcServer {
     private final LoadBalancerServiceImplBase loadBalancerService;
     private final SchedulerServiceImplBase schedulerService;
     private final GrpcEndpointConfiguration config;
+    private final AdaptiveConcurrencyLimitingServerInterceptor concurrencyLimitingInterceptor;
 
     private final AtomicBoolean started = new AtomicBoolean();
     private Server server;
@@ -77,7 +79,8 @@ public class TitusGatewayGrpcServer {
             AutoScalingServiceImplBase appAutoScalingService,
             LoadBalancerServiceImplBase loadBalancerService,
             SchedulerServiceImplBase schedulerService,
-            GrpcEndpointConfiguration config) {
+            GrpcEndpointConfiguration config,
+            AdaptiveConcurrencyLimitingServerInterceptor concurrencyLimitingInterceptor) {
         this.healthService = healthService;
         this.evictionService = evictionService;
         this.jobManagementService = jobManagementService;
@@ -86,6 +89,7 @@ public class TitusGatewayGrpcServer {
         this.loadBalancerService = loadBalancerService;
         this.schedulerService = schedulerService;
         this.config = config;
+        this.concurrencyLimitingInterceptor = concurrencyLimitingInterceptor;
     }
 
     public int getPort() {
@@ -165,6 +169,6 @@ public class TitusGatewayGrpcServer {
      * Override to add server side interceptors.
      */
     protected List<ServerInterceptor> createInterceptors(ServiceDescriptor serviceDescriptor) {
-        return Arrays.asList(new ErrorCatchingServerInterceptor(), new V3HeaderInterceptor());
+        return Arrays.asList(new ErrorCatchingServerInterceptor(), concurrencyLimitingInterceptor, new V3HeaderInterceptor());
     }
 }
@@ -39,13 +39,29 @@ public interface JobManagerConfiguration {
     int getMinDiskSizeMB();
 
     /**
-     * The task relocation service has lower availability than TitusMaster. In case if it is down or very latent,
-     * applying the regular request timeout might result in large latency increase for all client requests.
-     * Instead we set more aggressive timeout for the task relocation service, at the cost of not including the
-     * relocation data in the client response.
-     *o
-     * @return fraction of the GRPC request timeout set for the task relocation service requests
+     * The task relocation plans are replicated from the task relocation service, and merged into the task query
+     * results from the local copy. If the task relocation service is down, the local copy gets stale, and after
+     * crossing this threshold, is no longer used. The task query results are returned without the relocation data
+     * in such case.
+     *
+     * @return maximum staleness of the replicated task relocation plans, for which they are still merged into the task data
      */
-    @DefaultValue("0.1")
-    double getRelocationTimeoutCoefficient();
+    @DefaultValue("30000")
+    long getRelocationCacheMaxStalenessMs();
+
+    /**
+     * If set to true, the active job/task queries are served from the job snapshot replicated from TitusMaster,
+     * instead of being forwarded to TitusMaster. The replicator is created at the startup time, so enabling this
+     * property at runtime has no effect, unless it was enabled when the gateway was started.
+     */
+    @DefaultValue("false")
+    boolean isLocalCacheQueryEnabled();
+
+    /**
+     * @return maximum staleness of the replicated job snapshot for which the queries are served from the local cache.
+     * If the cache is more stale, the queries are forwarded to TitusMaster. Clients may request a lower bound with the
+     * {@link com.netflix.titus.runtime.endpoint.metadata.CallMetadataHeaders#MAX_STALENESS_HEADER} header.
+     */
+    @DefaultValue("5000")
+    long getLocalCacheMaxStalenessMs();
 }
@@ -20,6 +20,7 @@ package com.netflix.titus.gateway.service.v3.internal;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -54,6 +55,8 @@ import com.netflix.titus.grpc.protogen.Job;
 import com.netflix.titus.grpc.protogen.JobDescriptor;
 import com.netflix.titus.grpc.protogen.JobId;
 import com.netflix.titus.grpc.protogen.JobManagementServiceGrpc.JobManagementServiceStub;
+import com.netflix.titus.grpc.protogen.JobQuery;
+import com.netflix.titus.grpc.protogen.JobQueryResult;
 import com.netflix.titus.grpc.protogen.Page;
 import com.netflix.titus.grpc.protogen.Task;
 import com.netflix.titus.grpc.protogen.TaskId;
@@ -86,6 +89,7 @@ import static com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil.createWrap
 
 /**
  * {@link JobManagementClient} implementation merging the active and the archived data sets with extra validation rules.
+ * If enabled, the active data set queries are served from the local cache (see {@link LocalCacheQueryProcessor}).
  */
 @Singleton
 public class GatewayJobManagementClient extends JobManagementClientDelegate {
@@ -100,6 +104,7 @@ public class GatewayJobManagementClient extends JobManagementClientDelegate {
     private final JobStore store;
     private final LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo;
     private final TaskRelocationDataInjector taskRelocationDataInjector;
+    private final LocalCacheQueryProcessor localCacheQueryProcessor;
     private final EntityValidator<com.netflix.titus.api.jobmanager.model.job.JobDescriptor> validator;
     private final Registry spectatorRegistry;
     private final Clock clock;
@@ -112,6 +117,7 @@ public class GatewayJobManagementClient extends JobManagementClientDelegate {
                                       JobStore store,
                                       LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo,
                                       TaskRelocationDataInjector taskRelocationDataInjector,
+                                      LocalCacheQueryProcessor localCacheQueryProcessor,
                                       @Named(JOB_STRICT_SANITIZER) EntitySanitizer entitySanitizer,
                                       @Named(SECURITY_GROUPS_REQUIRED_FEATURE) Predicate<com.netflix.titus.api.jobmanager.model.job.JobDescriptor> securityGroupsRequiredPredicate,
                                       @Named(ENVIRONMENT_VARIABLE_NAMES_STRICT_VALIDATION_FEATURE) Predicate<com.netflix.titus.api.jobmanager.model.job.JobDescriptor> environmentVariableNamesStrictValidationPredicate,
@@ -133,6 +139,7 @@ public class GatewayJobManagementClient extends JobManagementClientDelegate {
         this.store = store;
         this.logStorageInfo = logStorageInfo;
         this.taskRelocationDataInjector = taskRelocationDataInjector;
+        this.localCacheQueryProcessor = localCacheQueryProcessor;
         this.validator = validator;
         this.spectatorRegistry = titusRuntime.getRegistry();
         this.clock = titusRuntime.getClock();
@@ -169,8 +176,23 @@ public class GatewayJobManagementClient extends JobManagementClientDelegate {
         return sanitizedCoreJobDescriptorObs.flatMap(scjd -> super.createJob(V3GrpcModelConverters.toGrpcJobDescriptor(scjd)));
     }
 
+    @Override
+    public Observable<JobQueryResult> findJobs(JobQuery jobQuery) {
+        if (localCacheQueryProcessor.canUseCache(jobQuery)) {
+            return Observable.fromCallable(() -> localCacheQueryProcessor.findJobs(jobQuery));
+        }
+        return super.findJobs(jobQuery);
+    }
+
     @Override
     public Observable<Job> findJob(String jobId) {
+        if (localCacheQueryProcessor.canUseCache("findJob")) {
+            Optional<Job> cachedJob = localCacheQueryProcessor.findJob(jobId);
+            if (cachedJob.isPresent()) {
+                return Observable.just(cachedJob.get());
+            }
+        }
+
         Observable<Job> observable = createRequestObservable(emitter -> {
             StreamObserver<Job> streamObserver = createSimpleClientResponseObserver(emitter);
             createWrappedStub(client, callMetadataResolver, configuration.getRequestTimeout()).findJob(JobId.newBuilder().setId(jobId).build(), streamObserver);
@@ -188,6 +210,13 @@ public class GatewayJobManagementClient extends JobManagementClientDelegate {
 
     @Override
     public Observable<Task> findTask(String taskId) {
+        if (localCacheQueryProcessor.canUseCache("findTask")) {
+            Optional<Task> cachedTask = localCacheQueryProcessor.findTask(taskId);
+            if (cachedTask.isPresent()) {
+                return taskRelocationDataInjector.injectIntoTask(taskId, Observable.just(cachedTask.get()));
+            }
+        }
+
         Observable<Task> observable = createRequestObservable(
                 emitter -> {
                     StreamObserver<Task> streamObserver = createSimpleClientResponseObserver(emitter);
@@ -248,6 +277,9 @@ public class GatewayJobManagementClient extends JobManagementClientDelegate {
     }
 
     private Observable<TaskQueryResult> newActiveTaskQueryAction(TaskQuery taskQuery) {
+        if (localCacheQueryProcessor.canUseCache(taskQuery)) {
+            return Observable.fromCallable(() -> localCacheQueryProcessor.findTasks(taskQuery));
+        }
         return createRequestObservable(emitter -> {
             StreamObserver<TaskQueryResult> streamObserver = createSimpleClientResponseObserver(emitter);
             createWrappedStub(client, callMetadataResolver, configuration.getRequestTimeout()).findTasks(taskQuery, streamObserver);
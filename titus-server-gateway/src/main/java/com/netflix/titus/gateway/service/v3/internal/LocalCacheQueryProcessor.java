@@ -0,0 +1,312 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.gateway.service.v3.internal;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.api.jobmanager.service.ReadOnlyJobOperations;
+import com.netflix.titus.api.model.Pagination;
+import com.netflix.titus.api.model.PaginationUtil;
+import com.netflix.titus.api.service.TitusServiceException;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.gateway.MetricConstants;
+import com.netflix.titus.gateway.service.v3.JobManagerConfiguration;
+import com.netflix.titus.grpc.protogen.Job;
+import com.netflix.titus.grpc.protogen.JobDescriptor;
+import com.netflix.titus.grpc.protogen.JobManagementServiceGrpc.JobManagementServiceStub;
+import com.netflix.titus.grpc.protogen.JobQuery;
+import com.netflix.titus.grpc.protogen.JobQueryResult;
+import com.netflix.titus.grpc.protogen.JobStatus;
+import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.Task;
+import com.netflix.titus.grpc.protogen.TaskQuery;
+import com.netflix.titus.grpc.protogen.TaskQueryResult;
+import com.netflix.titus.grpc.protogen.TaskStatus;
+import com.netflix.titus.runtime.connector.GrpcClientConfiguration;
+import com.netflix.titus.runtime.connector.common.replicator.NonBlockingDataReplicator;
+import com.netflix.titus.runtime.connector.jobmanager.CachedReadOnlyJobOperations;
+import com.netflix.titus.runtime.connector.jobmanager.JobDataReplicator;
+import com.netflix.titus.runtime.connector.jobmanager.client.GrpcJobManagementClient;
+import com.netflix.titus.runtime.connector.jobmanager.replicator.JobDataReplicatorProvider;
+import com.netflix.titus.runtime.endpoint.JobQueryCriteria;
+import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
+import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
+import com.netflix.titus.runtime.endpoint.metadata.V3HeaderInterceptor;
+import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcFieldsProjection;
+import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3JobQueryCriteriaEvaluator;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3TaskQueryCriteriaEvaluator;
+import com.netflix.titus.runtime.jobmanager.JobManagerCursors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.netflix.titus.runtime.connector.jobmanager.JobManagementClient.JOB_MINIMUM_FIELD_SET;
+import static com.netflix.titus.runtime.connector.jobmanager.JobManagementClient.TASK_MINIMUM_FIELD_SET;
+import static com.netflix.titus.runtime.endpoint.common.grpc.CommonGrpcModelConverters.toGrpcPagination;
+import static com.netflix.titus.runtime.endpoint.common.grpc.CommonGrpcModelConverters.toJobQueryCriteria;
+import static com.netflix.titus.runtime.endpoint.common.grpc.CommonGrpcModelConverters.toPage;
+
+/**
+ * Answers the active job/task queries from the job snapshot replicated from TitusMaster. The query evaluation,
+ * pagination and cursor format are the same as in TitusMaster, so a client cannot tell which one served a request,
+ * except for the data staleness. The local cache is used only if its staleness is within the configured limit, and
+ * within the limit requested by the client (if any). Otherwise the caller must forward the request to TitusMaster.
+ * The job snapshot does not include finished jobs and tasks, so the queries that may return them are always forwarded
+ * to TitusMaster as well.
+ */
+@Singleton
+class LocalCacheQueryProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalCacheQueryProcessor.class);
+
+    private static final String METRIC_ROOT = MetricConstants.METRIC_ROOT + "localCacheQuery.";
+
+    private final JobManagerConfiguration configuration;
+    private final Optional<JobDataReplicator> replicator;
+    private final Optional<ReadOnlyJobOperations> jobOperations;
+    private final LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo;
+    private final TitusRuntime titusRuntime;
+
+    private final Registry registry;
+    private final Id requestsId;
+
+    @Inject
+    LocalCacheQueryProcessor(JobManagerConfiguration configuration,
+                             GrpcClientConfiguration grpcClientConfiguration,
+                             JobManagementServiceStub client,
+                             CallMetadataResolver callMetadataResolver,
+                             LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo,
+                             TitusRuntime titusRuntime) {
+        this(configuration,
+                configuration.isLocalCacheQueryEnabled()
+                        ? Optional.of(newReplicator(grpcClientConfiguration, client, callMetadataResolver, titusRuntime))
+                        : Optional.empty(),
+                logStorageInfo,
+                titusRuntime
+        );
+    }
+
+    @VisibleForTesting
+    LocalCacheQueryProcessor(JobManagerConfiguration configuration,
+                             Optional<JobDataReplicator> replicator,
+                             LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo,
+                             TitusRuntime titusRuntime) {
+        this.configuration = configuration;
+        this.replicator = replicator;
+        this.jobOperations = replicator.map(CachedReadOnlyJobOperations::new);
+        this.logStorageInfo = logStorageInfo;
+        this.titusRuntime = titusRuntime;
+        this.registry = titusRuntime.getRegistry();
+        this.requestsId = registry.createId(METRIC_ROOT + "requests");
+    }
+
+    private static JobDataReplicator newReplicator(GrpcClientConfiguration grpcClientConfiguration,
+                                                   JobManagementServiceStub client,
+                                                   CallMetadataResolver callMetadataResolver,
+                                                   TitusRuntime titusRuntime) {
+        logger.info("Local cache query processing enabled; bootstrapping the job data replicator in the background");
+        // A direct GRPC client is used, as the gateway JobManagementClient depends on this class. The bootstrap does
+        // not block the injector. Until the first snapshot is loaded, the staleness is infinite, and all requests
+        // are forwarded to TitusMaster.
+        return JobDataReplicatorProvider.newNonBlockingJobDataReplicator(
+                new GrpcJobManagementClient(client, callMetadataResolver, grpcClientConfiguration),
+                titusRuntime
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replicator.ifPresent(r -> {
+            if (r instanceof NonBlockingDataReplicator) {
+                ((NonBlockingDataReplicator<?, ?>) r).shutdown();
+            }
+        });
+    }
+
+    /**
+     * Returns true if the request being processed in the current GRPC context can be answered from the local cache.
+     */
+    boolean canUseCache(String endpoint) {
+        return canUseCache(endpoint, true);
+    }
+
+    /**
+     * Returns true if the job query can be answered from the local cache. The query must select non-finished jobs
+     * only, and must not select jobs by finished tasks.
+     */
+    boolean canUseCache(JobQuery jobQuery) {
+        boolean activeOnly;
+        try {
+            JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> criteria = toJobQueryCriteria(jobQuery);
+            activeOnly = criteria.getJobState().isPresent()
+                    && criteria.getJobState().get() != JobStatus.JobState.Finished
+                    && !criteria.getTaskStates().contains(TaskStatus.TaskState.Finished);
+        } catch (Exception e) {
+            // Let TitusMaster report the invalid query.
+            activeOnly = false;
+        }
+        return canUseCache("findJobs", activeOnly);
+    }
+
+    /**
+     * Returns true if the task query can be answered from the local cache. The query must select non-finished tasks
+     * only.
+     */
+    boolean canUseCache(TaskQuery taskQuery) {
+        boolean activeOnly;
+        try {
+            Set<TaskStatus.TaskState> taskStates = toJobQueryCriteria(taskQuery).getTaskStates();
+            activeOnly = !taskStates.isEmpty() && !taskStates.contains(TaskStatus.TaskState.Finished);
+        } catch (Exception e) {
+            // Let TitusMaster report the invalid query.
+            activeOnly = false;
+        }
+        return canUseCache("findTasks", activeOnly);
+    }
+
+    private boolean canUseCache(String endpoint, boolean activeOnly) {
+        if (!replicator.isPresent() || !configuration.isLocalCacheQueryEnabled()) {
+            return false;
+        }
+        boolean useCache = false;
+        if (activeOnly) {
+            // A zero bound means that the client requires the current state, which only TitusMaster has.
+            long maxStalenessMs = getMaxStalenessMs();
+            useCache = maxStalenessMs > 0 && replicator.get().getStalenessMs() <= maxStalenessMs;
+        }
+        registry.counter(requestsId.withTag("endpoint", endpoint).withTag("source", useCache ? "cache" : "master")).increment();
+        return useCache;
+    }
+
+    JobQueryResult findJobs(JobQuery jobQuery) {
+        checkPageIsValid(jobQuery.getPage());
+
+        List<com.netflix.titus.api.jobmanager.model.job.Job<?>> allFilteredJobs = jobOperations.get().findJobs(
+                new V3JobQueryCriteriaEvaluator(toJobQueryCriteria(jobQuery), titusRuntime),
+                0,
+                Integer.MAX_VALUE / 2
+        );
+
+        Pair<List<com.netflix.titus.api.jobmanager.model.job.Job<?>>, Pagination> queryResult = PaginationUtil.takePageWithCursor(
+                toPage(jobQuery.getPage()),
+                allFilteredJobs,
+                JobManagerCursors.coreJobCursorOrderComparator(),
+                JobManagerCursors::coreJobIndexOf,
+                JobManagerCursors::newCoreCursorFrom
+        );
+
+        List<Job> grpcJobs;
+        if (jobQuery.getFieldsList().isEmpty()) {
+            grpcJobs = queryResult.getLeft().stream().map(V3GrpcModelConverters::toGrpcJob).collect(Collectors.toList());
+        } else {
+            Set<String> fields = new HashSet<>(jobQuery.getFieldsList());
+            fields.addAll(JOB_MINIMUM_FIELD_SET);
+            V3GrpcFieldsProjection projection = V3GrpcFieldsProjection.of(fields);
+            grpcJobs = queryResult.getLeft().stream().map(projection::toGrpcJob).collect(Collectors.toList());
+        }
+
+        return JobQueryResult.newBuilder()
+                .addAllItems(grpcJobs)
+                .setPagination(toGrpcPagination(queryResult.getRight()))
+                .build();
+    }
+
+    TaskQueryResult findTasks(TaskQuery taskQuery) {
+        checkPageIsValid(taskQuery.getPage());
+
+        List<com.netflix.titus.api.jobmanager.model.job.Task> allFilteredTasks = jobOperations.get().findTasks(
+                new V3TaskQueryCriteriaEvaluator(toJobQueryCriteria(taskQuery), titusRuntime),
+                0,
+                Integer.MAX_VALUE / 2
+        ).stream().map(Pair::getRight).collect(Collectors.toList());
+
+        Pair<List<com.netflix.titus.api.jobmanager.model.job.Task>, Pagination> queryResult = PaginationUtil.takePageWithCursor(
+                toPage(taskQuery.getPage()),
+                allFilteredTasks,
+                JobManagerCursors.coreTaskCursorOrderComparator(),
+                JobManagerCursors::coreTaskIndexOf,
+                JobManagerCursors::newCoreCursorFrom
+        );
+
+        List<Task> grpcTasks;
+        if (taskQuery.getFieldsList().isEmpty()) {
+            grpcTasks = queryResult.getLeft().stream()
+                    .map(task -> V3GrpcModelConverters.toGrpcTask(task, logStorageInfo))
+                    .collect(Collectors.toList());
+        } else {
+            Set<String> fields = new HashSet<>(taskQuery.getFieldsList());
+            fields.addAll(TASK_MINIMUM_FIELD_SET);
+            V3GrpcFieldsProjection projection = V3GrpcFieldsProjection.of(fields);
+            grpcTasks = queryResult.getLeft().stream()
+                    .map(task -> projection.toGrpcTask(task, logStorageInfo))
+                    .collect(Collectors.toList());
+        }
+
+        return TaskQueryResult.newBuilder()
+                .addAllItems(grpcTasks)
+                .setPagination(toGrpcPagination(queryResult.getRight()))
+                .build();
+    }
+
+    /**
+     * A job not found in the cache may be just created, so it is up to the caller to check it in TitusMaster.
+     */
+    Optional<Job> findJob(String jobId) {
+        return jobOperations.get().getJob(jobId).map(V3GrpcModelConverters::toGrpcJob);
+    }
+
+    /**
+     * A task not found in the cache may be just created, so it is up to the caller to check it in TitusMaster.
+     */
+    Optional<Task> findTask(String taskId) {
+        return jobOperations.get().findTaskById(taskId).map(jobAndTask -> V3GrpcModelConverters.toGrpcTask(jobAndTask.getRight(), logStorageInfo));
+    }
+
+    private long getMaxStalenessMs() {
+        long maxStalenessMs = configuration.getLocalCacheMaxStalenessMs();
+        String requested = V3HeaderInterceptor.MAX_STALENESS_CONTEXT_KEY.get();
+        if (requested != null) {
+            try {
+                maxStalenessMs = Math.min(maxStalenessMs, Long.parseLong(requested.trim()));
+            } catch (NumberFormatException e) {
+                // Ignore bad header value.
+                logger.debug("Invalid max staleness header value: {}", requested);
+            }
+        }
+        return maxStalenessMs;
+    }
+
+    private static void checkPageIsValid(Page page) {
+        if (page.getPageSize() <= 0) {
+            throw TitusServiceException.invalidArgument("Page size must be > 0 (is " + page.getPageSize() + ')');
+        }
+        if (page.getPageNumber() < 0) {
+            throw TitusServiceException.invalidArgument("Page number must be >= 0 (is " + page.getPageNumber() + ')');
+        }
+    }
+}
@@ -16,82 +16,68 @@
 
 package com.netflix.titus.gateway.service.v3.internal;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import com.google.common.annotations.VisibleForTesting;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
 import com.netflix.titus.api.FeatureActivationConfiguration;
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
-import com.netflix.titus.common.util.ExceptionExt;
-import com.netflix.titus.common.util.rx.ReactorExt;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.gateway.MetricConstants;
 import com.netflix.titus.gateway.service.v3.JobManagerConfiguration;
 import com.netflix.titus.grpc.protogen.MigrationDetails;
 import com.netflix.titus.grpc.protogen.Task;
 import com.netflix.titus.grpc.protogen.TaskQueryResult;
-import com.netflix.titus.runtime.connector.GrpcClientConfiguration;
-import com.netflix.titus.runtime.connector.relocation.RelocationServiceClient;
+import com.netflix.titus.runtime.connector.relocation.RelocationDataReplicator;
+import com.netflix.titus.runtime.connector.relocation.TaskRelocationSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
-import rx.Scheduler;
-import rx.schedulers.Schedulers;
 
+/**
+ * Merges the task relocation plans into the task data. The plans are read from the local copy maintained by
+ * {@link RelocationDataReplicator}, so no remote call is made on the query path. If the local copy is too stale,
+ * the task data is returned unchanged.
+ */
 @Singleton
 class TaskRelocationDataInjector {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskRelocationDataInjector.class);
 
-    private final GrpcClientConfiguration configuration;
+    private static final String METRIC_ROOT = MetricConstants.METRIC_ROOT + "relocationDataInjector.";
+
     private final JobManagerConfiguration jobManagerConfiguration;
     private final FeatureActivationConfiguration featureActivationConfiguration;
-    private final RelocationServiceClient relocationServiceClient;
-    private final Scheduler scheduler;
-
-    @Inject
-    TaskRelocationDataInjector(
-            GrpcClientConfiguration configuration,
-            JobManagerConfiguration jobManagerConfiguration,
-            FeatureActivationConfiguration featureActivationConfiguration,
-            RelocationServiceClient relocationServiceClient) {
-        this(configuration, jobManagerConfiguration, featureActivationConfiguration, relocationServiceClient, Schedulers.computation());
+    private final RelocationDataReplicator relocationDataReplicator;
 
-    }
+    private final Registry registry;
+    private final Id lookupsId;
 
-    @VisibleForTesting
+    @Inject
     TaskRelocationDataInjector(
-            GrpcClientConfiguration configuration,
             JobManagerConfiguration jobManagerConfiguration,
             FeatureActivationConfiguration featureActivationConfiguration,
-            RelocationServiceClient relocationServiceClient,
-            Scheduler scheduler) {
-        this.configuration = configuration;
+            RelocationDataReplicator relocationDataReplicator,
+            TitusRuntime titusRuntime) {
         this.jobManagerConfiguration = jobManagerConfiguration;
         this.featureActivationConfiguration = featureActivationConfiguration;
-        this.relocationServiceClient = relocationServiceClient;
-        this.scheduler = scheduler;
+        this.relocationDataReplicator = relocationDataReplicator;
+        this.registry = titusRuntime.getRegistry();
+        this.lookupsId = registry.createId(METRIC_ROOT + "lookups");
     }
 
     Observable<Task> injectIntoTask(String taskId, Observable<Task> taskObservable) {
         if (!featureActivationConfiguration.isMergingTaskMigrationPlanInGatewayEnabled()) {
             return taskObservable;
         }
-
-        Observable<Optional<TaskRelocationPlan>> relocationPlanResolver = ReactorExt.toObservable(relocationServiceClient.findTaskRelocationPlan(taskId))
-                .timeout(getTaskRelocationTimeout(), TimeUnit.MILLISECONDS, scheduler)
-                .doOnError(error -> logger.info("Could not resolve task relocation status for task: taskId={}, error={}", taskId, ExceptionExt.toMessageChain(error)))
-                .onErrorReturn(e -> Optional.empty());
-
-        return Observable.zip(
-                taskObservable,
-                relocationPlanResolver,
-                (task, planOpt) -> planOpt.map(plan -> newTaskWithRelocationPlan(task, plan)).orElse(task)
+        return taskObservable.map(task -> getFreshSnapshot(1)
+                .flatMap(snapshot -> findPlan(snapshot, taskId))
+                .map(plan -> newTaskWithRelocationPlan(task, plan))
+                .orElse(task)
         );
     }
 
@@ -99,32 +85,33 @@ class TaskRelocationDataInjector {
         if (!featureActivationConfiguration.isMergingTaskMigrationPlanInGatewayEnabled()) {
             return tasksObservable;
         }
-
-        return tasksObservable.flatMap(queryResult -> {
-            Set<String> taskIds = queryResult.getItemsList().stream().map(Task::getId).collect(Collectors.toSet());
-
-            return ReactorExt.toObservable(relocationServiceClient.findTaskRelocationPlans(taskIds))
-                    .timeout(getTaskRelocationTimeout(), TimeUnit.MILLISECONDS, scheduler)
-                    .doOnError(error -> logger.info("Could not resolve task relocation status for tasks: taskIds={}, error={}", taskIds, ExceptionExt.toMessageChain(error)))
-                    .onErrorReturn(e -> Collections.emptyList())
-                    .map(relocationPlans -> {
-                        Map<String, TaskRelocationPlan> plansById = relocationPlans.stream().collect(Collectors.toMap(TaskRelocationPlan::getTaskId, p -> p));
-                        if (plansById.isEmpty()) {
-                            return queryResult;
-                        }
-                        List<Task> newTaskList = queryResult.getItemsList().stream()
-                                .map(task -> {
-                                    TaskRelocationPlan plan = plansById.get(task.getId());
-                                    return plan != null ? newTaskWithRelocationPlan(task, plan) : task;
-                                })
-                                .collect(Collectors.toList());
-                        return queryResult.toBuilder().clearItems().addAllItems(newTaskList).build();
-                    });
+        return tasksObservable.map(queryResult -> {
+            Optional<TaskRelocationSnapshot> snapshotOpt = getFreshSnapshot(queryResult.getItemsCount());
+            if (!snapshotOpt.isPresent()) {
+                return queryResult;
+            }
+            TaskRelocationSnapshot snapshot = snapshotOpt.get();
+            List<Task> newTaskList = queryResult.getItemsList().stream()
+                    .map(task -> findPlan(snapshot, task.getId()).map(plan -> newTaskWithRelocationPlan(task, plan)).orElse(task))
+                    .collect(Collectors.toList());
+            return queryResult.toBuilder().clearItems().addAllItems(newTaskList).build();
         });
     }
 
-    private long getTaskRelocationTimeout() {
-        return (long) (configuration.getRequestTimeout() * jobManagerConfiguration.getRelocationTimeoutCoefficient());
+    private Optional<TaskRelocationSnapshot> getFreshSnapshot(int taskCount) {
+        long stalenessMs = relocationDataReplicator.getStalenessMs();
+        if (stalenessMs > jobManagerConfiguration.getRelocationCacheMaxStalenessMs()) {
+            logger.debug("Task relocation data too stale ({}ms); returning task data without relocation plans", stalenessMs);
+            registry.counter(lookupsId.withTag("result", "stale")).increment(taskCount);
+            return Optional.empty();
+        }
+        return Optional.of(relocationDataReplicator.getCurrent());
+    }
+
+    private Optional<TaskRelocationPlan> findPlan(TaskRelocationSnapshot snapshot, String taskId) {
+        Optional<TaskRelocationPlan> plan = snapshot.findPlan(taskId);
+        registry.counter(lookupsId.withTag("result", plan.isPresent() ? "hit" : "miss")).increment();
+        return plan;
     }
 
     private Task newTaskWithRelocationPlan(Task task, TaskRelocationPlan relocationPlan) {
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.gateway.service.v3.internal;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.gateway.service.v3.JobManagerConfiguration;
+import com.netflix.titus.grpc.protogen.JobQuery;
+import com.netflix.titus.grpc.protogen.JobQueryResult;
+import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.TaskQuery;
+import com.netflix.titus.grpc.protogen.TaskQueryResult;
+import com.netflix.titus.runtime.connector.jobmanager.JobDataReplicator;
+import com.netflix.titus.runtime.connector.jobmanager.JobSnapshot;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.runtime.endpoint.metadata.V3HeaderInterceptor;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import io.grpc.Context;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LocalCacheQueryProcessorTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    private final JobManagerConfiguration configuration = mock(JobManagerConfiguration.class);
+    private final JobDataReplicator replicator = mock(JobDataReplicator.class);
+
+    private final Job<BatchJobExt> job = JobGenerator.batchJobsOfSize(5).getValue();
+    private final List<Task> tasks = (List) JobGenerator.batchTasks(job).getValues(5);
+
+    private final LocalCacheQueryProcessor processor = new LocalCacheQueryProcessor(
+            configuration,
+            Optional.of(replicator),
+            EmptyLogStorageInfo.empty(),
+            TitusRuntimes.internal()
+    );
+
+    @Before
+    public void setUp() {
+        when(configuration.isLocalCacheQueryEnabled()).thenReturn(true);
+        when(configuration.getLocalCacheMaxStalenessMs()).thenReturn(1_000L);
+
+        JobSnapshot.Builder builder = JobSnapshot.newBuilder("test").addOrUpdateJob(job);
+        tasks.forEach(task -> builder.addOrUpdateTask(task, false));
+        when(replicator.getCurrent()).thenReturn(builder.build());
+    }
+
+    @Test
+    public void testStalenessBound() {
+        when(replicator.getStalenessMs()).thenReturn(500L);
+        assertThat(processor.canUseCache("test")).isTrue();
+
+        when(replicator.getStalenessMs()).thenReturn(2_000L);
+        assertThat(processor.canUseCache("test")).isFalse();
+    }
+
+    @Test
+    public void testNotBootstrappedReplicatorIsNotUsed() {
+        // Replicator reports infinite staleness until the first snapshot is loaded.
+        when(replicator.getStalenessMs()).thenReturn(Long.MAX_VALUE);
+        assertThat(processor.canUseCache("test")).isFalse();
+    }
+
+    @Test
+    public void testClientRequestedStalenessBound() throws Exception {
+        when(replicator.getStalenessMs()).thenReturn(500L);
+        boolean canUseCache = Context.current()
+                .withValue(V3HeaderInterceptor.MAX_STALENESS_CONTEXT_KEY, "100")
+                .call(() -> processor.canUseCache("test"));
+        assertThat(canUseCache).isFalse();
+    }
+
+    @Test
+    public void testZeroClientRequestedStalenessBound() throws Exception {
+        when(replicator.getStalenessMs()).thenReturn(0L);
+        boolean canUseCache = Context.current()
+                .withValue(V3HeaderInterceptor.MAX_STALENESS_CONTEXT_KEY, "0")
+                .call(() -> processor.canUseCache("test"));
+        assertThat(canUseCache).isFalse();
+    }
+
+    @Test
+    public void testQueriesIncludingFinishedStateAreNotAnsweredFromCache() {
+        when(replicator.getStalenessMs()).thenReturn(0L);
+
+        assertThat(processor.canUseCache(JobQuery.newBuilder().build())).isFalse();
+        assertThat(processor.canUseCache(JobQuery.newBuilder().putFilteringCriteria("jobState", "Finished").build())).isFalse();
+        assertThat(processor.canUseCache(JobQuery.newBuilder()
+                .putFilteringCriteria("jobState", "Accepted")
+                .putFilteringCriteria("taskStates", "Started,Finished")
+                .build()
+        )).isFalse();
+        assertThat(processor.canUseCache(JobQuery.newBuilder().putFilteringCriteria("jobState", "Accepted").build())).isTrue();
+
+        assertThat(processor.canUseCache(TaskQuery.newBuilder().build())).isFalse();
+        assertThat(processor.canUseCache(TaskQuery.newBuilder().putFilteringCriteria("taskStates", "any").build())).isFalse();
+        assertThat(processor.canUseCache(TaskQuery.newBuilder().putFilteringCriteria("taskStates", "Started,Finished").build())).isFalse();
+        assertThat(processor.canUseCache(TaskQuery.newBuilder().putFilteringCriteria("taskStates", "Launched,Started").build())).isTrue();
+    }
+
+    @Test
+    public void testDisabled() {
+        when(replicator.getStalenessMs()).thenReturn(0L);
+        when(configuration.isLocalCacheQueryEnabled()).thenReturn(false);
+        assertThat(processor.canUseCache("test")).isFalse();
+    }
+
+    @Test
+    public void testFindJobs() {
+        JobQueryResult result = processor.findJobs(JobQuery.newBuilder().setPage(Page.newBuilder().setPageSize(PAGE_SIZE)).build());
+        assertThat(result.getItemsList()).hasSize(1);
+        assertThat(result.getItems(0).getId()).isEqualTo(job.getId());
+    }
+
+    @Test
+    public void testFindTasksWithCursor() {
+        TaskQueryResult firstPage = processor.findTasks(TaskQuery.newBuilder().setPage(Page.newBuilder().setPageSize(PAGE_SIZE)).build());
+        assertThat(firstPage.getItemsList()).hasSize(PAGE_SIZE);
+        assertThat(firstPage.getPagination().getTotalItems()).isEqualTo(tasks.size());
+        assertThat(firstPage.getPagination().getHasMore()).isTrue();
+
+        TaskQueryResult secondPage = processor.findTasks(TaskQuery.newBuilder()
+                .setPage(Page.newBuilder().setPageSize(PAGE_SIZE).setCursor(firstPage.getPagination().getCursor()))
+                .build()
+        );
+        assertThat(secondPage.getItemsList()).hasSize(PAGE_SIZE);
+        assertThat(secondPage.getItems(0).getId()).isNotIn(firstPage.getItems(0).getId(), firstPage.getItems(1).getId());
+    }
+
+    @Test
+    public void testFindJobAndTask() {
+        assertThat(processor.findJob(job.getId())).isPresent();
+        assertThat(processor.findJob("missing")).isEmpty();
+        assertThat(processor.findTask(tasks.get(0).getId())).isPresent();
+        assertThat(processor.findTask("missing")).isEmpty();
+    }
+}
@@ -16,11 +16,8 @@
 
 package com.netflix.titus.gateway.service.v3.internal;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.netflix.titus.api.FeatureActivationConfiguration;
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
@@ -31,19 +28,14 @@ import com.netflix.titus.gateway.service.v3.JobManagerConfiguration;
 import com.netflix.titus.grpc.protogen.MigrationDetails;
 import com.netflix.titus.grpc.protogen.Task;
 import com.netflix.titus.grpc.protogen.TaskQueryResult;
-import com.netflix.titus.runtime.connector.GrpcClientConfiguration;
-import com.netflix.titus.runtime.connector.relocation.RelocationServiceClient;
+import com.netflix.titus.runtime.connector.relocation.RelocationDataReplicator;
+import com.netflix.titus.runtime.connector.relocation.TaskRelocationSnapshot;
 import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
 import com.netflix.titus.testkit.model.job.JobGenerator;
-import com.netflix.titus.testkit.rx.ExtTestSubscriber;
 import org.junit.Before;
 import org.junit.Test;
-import reactor.core.publisher.Mono;
 import rx.Observable;
-import rx.schedulers.Schedulers;
-import rx.schedulers.TestScheduler;
 
-import static com.netflix.titus.common.util.CollectionsExt.asSet;
 import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcTask;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -51,44 +43,37 @@ import static org.mockito.Mockito.when;
 
 public class TaskRelocationDataInjectorTest {
 
-    private static final long REQUEST_TIMEOUT_MS = 1_000L;
-    private static final long RELOCATION_TIMEOUT_MS = REQUEST_TIMEOUT_MS / 2;
+    private static final long MAX_STALENESS_MS = 1_000L;
 
-    private final TestScheduler testScheduler = Schedulers.test();
-
-    private final TitusRuntime titusRuntime = TitusRuntimes.test(testScheduler);
+    private final TitusRuntime titusRuntime = TitusRuntimes.internal();
 
     private static final Task TASK1 = toGrpcTask(JobGenerator.oneBatchTask().toBuilder().withId("task1").build(), EmptyLogStorageInfo.empty());
     private static final Task TASK2 = toGrpcTask(JobGenerator.oneBatchTask().toBuilder().withId("task2").build(), EmptyLogStorageInfo.empty());
 
-    private final GrpcClientConfiguration grpcConfiguration = mock(GrpcClientConfiguration.class);
     private final JobManagerConfiguration jobManagerConfiguration = mock(JobManagerConfiguration.class);
     private final FeatureActivationConfiguration featureActivationConfiguration = mock(FeatureActivationConfiguration.class);
 
-    private final RelocationServiceClient relocationServiceClient = mock(RelocationServiceClient.class);
+    private final RelocationDataReplicator relocationDataReplicator = mock(RelocationDataReplicator.class);
 
     private final TaskRelocationDataInjector taskRelocationDataInjector = new TaskRelocationDataInjector(
-            grpcConfiguration,
             jobManagerConfiguration,
             featureActivationConfiguration,
-            relocationServiceClient,
-            testScheduler
+            relocationDataReplicator,
+            titusRuntime
     );
 
     @Before
     public void setUp() {
-        when(grpcConfiguration.getRequestTimeout()).thenReturn(REQUEST_TIMEOUT_MS);
-        when(jobManagerConfiguration.getRelocationTimeoutCoefficient()).thenReturn(0.5);
+        when(jobManagerConfiguration.getRelocationCacheMaxStalenessMs()).thenReturn(MAX_STALENESS_MS);
         when(featureActivationConfiguration.isMergingTaskMigrationPlanInGatewayEnabled()).thenReturn(true);
+        when(relocationDataReplicator.getStalenessMs()).thenReturn(0L);
+        when(relocationDataReplicator.getCurrent()).thenReturn(TaskRelocationSnapshot.empty());
     }
 
     @Test
     public void testFindTaskWithRelocationDeadline() {
         long deadlineTimestamp = titusRuntime.getClock().wallTime() + 1_000;
-
-        when(relocationServiceClient.findTaskRelocationPlan(TASK1.getId())).thenReturn(
-                Mono.just(Optional.of(newRelocationPlan(TASK1, deadlineTimestamp)))
-        );
+        givenPlans(newRelocationPlan(TASK1, deadlineTimestamp));
 
         Task merged = taskRelocationDataInjector.injectIntoTask(TASK1.getId(), Observable.just(TASK1)).toBlocking().first();
         assertThat(merged.getMigrationDetails().getNeedsMigration()).isTrue();
@@ -97,7 +82,6 @@ public class TaskRelocationDataInjectorTest {
 
     @Test
     public void testFindTaskWithoutRelocationDeadline() {
-        when(relocationServiceClient.findTaskRelocationPlan(TASK1.getId())).thenReturn(Mono.just(Optional.empty()));
         Task merged = taskRelocationDataInjector.injectIntoTask(TASK1.getId(), Observable.just(TASK1)).toBlocking().first();
         assertThat(merged.getMigrationDetails().getNeedsMigration()).isFalse();
     }
@@ -107,24 +91,19 @@ public class TaskRelocationDataInjectorTest {
         long deadlineTimestamp = titusRuntime.getClock().wallTime() + 1_000;
 
         Task legacyTask = toLegacyTask(TASK1, deadlineTimestamp);
+        givenPlans(newRelocationPlan(TASK1, deadlineTimestamp + 1_000));
 
-        when(relocationServiceClient.findTaskRelocationPlan(TASK1.getId())).thenReturn(Mono.just(Optional.empty()));
-        taskRelocationDataInjector.injectIntoTask(legacyTask.getId(), Observable.just(legacyTask)).toBlocking().first();
-
-        assertThat(legacyTask).isEqualToComparingFieldByField(legacyTask);
+        Task merged = taskRelocationDataInjector.injectIntoTask(legacyTask.getId(), Observable.just(legacyTask)).toBlocking().first();
+        assertThat(merged).isEqualTo(legacyTask);
     }
 
     @Test
-    public void testFindTaskWithRelocationDataFetchTimeout() {
-        when(relocationServiceClient.findTaskRelocationPlan(TASK1.getId())).thenReturn(Mono.never());
+    public void testFindTaskWithStaleRelocationData() {
+        givenPlans(newRelocationPlan(TASK1, titusRuntime.getClock().wallTime() + 1_000));
+        when(relocationDataReplicator.getStalenessMs()).thenReturn(MAX_STALENESS_MS + 1);
 
-        ExtTestSubscriber<Task> testSubscriber = new ExtTestSubscriber<>();
-        taskRelocationDataInjector.injectIntoTask(TASK1.getId(), Observable.just(TASK1)).subscribe(testSubscriber);
-
-        testSubscriber.assertOpen();
-        testScheduler.advanceTimeBy(RELOCATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        assertThat(testSubscriber.takeNext()).isEqualTo(TASK1);
-        testSubscriber.assertOnCompleted();
+        Task merged = taskRelocationDataInjector.injectIntoTask(TASK1.getId(), Observable.just(TASK1)).toBlocking().first();
+        assertThat(merged).isEqualTo(TASK1);
     }
 
     @Test
@@ -136,11 +115,7 @@ public class TaskRelocationDataInjectorTest {
                 .addItems(TASK1)
                 .addItems(TASK2)
                 .build();
-        List<TaskRelocationPlan> relocationPlans = Arrays.asList(
-                newRelocationPlan(TASK1, deadline1),
-                newRelocationPlan(TASK2, deadline2)
-        );
-        when(relocationServiceClient.findTaskRelocationPlans(asSet(TASK1.getId(), TASK2.getId()))).thenReturn(Mono.just(relocationPlans));
+        givenPlans(newRelocationPlan(TASK1, deadline1), newRelocationPlan(TASK2, deadline2));
 
         TaskQueryResult merged = taskRelocationDataInjector.injectIntoTaskQueryResult(Observable.just(queryResult)).toBlocking().first();
 
@@ -159,9 +134,7 @@ public class TaskRelocationDataInjectorTest {
                 .addItems(TASK1)
                 .addItems(TASK2)
                 .build();
-        List<TaskRelocationPlan> relocationPlans = Collections.singletonList(newRelocationPlan(TASK1, deadline1));
-
-        when(relocationServiceClient.findTaskRelocationPlans(asSet(TASK1.getId(), TASK2.getId()))).thenReturn(Mono.just(relocationPlans));
+        givenPlans(newRelocationPlan(TASK1, deadline1));
 
         TaskQueryResult merged = taskRelocationDataInjector.injectIntoTaskQueryResult(Observable.just(queryResult)).toBlocking().first();
 
@@ -182,8 +155,7 @@ public class TaskRelocationDataInjectorTest {
                 .addItems(TASK1)
                 .addItems(legacyTask)
                 .build();
-        List<TaskRelocationPlan> relocationPlans = Collections.singletonList(newRelocationPlan(TASK1, deadline1));
-        when(relocationServiceClient.findTaskRelocationPlans(asSet(TASK1.getId(), TASK2.getId()))).thenReturn(Mono.just(relocationPlans));
+        givenPlans(newRelocationPlan(TASK1, deadline1), newRelocationPlan(TASK2, legacyDeadline2 + 1_000));
 
         TaskQueryResult merged = taskRelocationDataInjector.injectIntoTaskQueryResult(Observable.just(queryResult)).toBlocking().first();
 
@@ -194,23 +166,25 @@ public class TaskRelocationDataInjectorTest {
     }
 
     @Test
-    public void testFindTasksWithRelocationDataFetchTimeout() {
-        when(relocationServiceClient.findTaskRelocationPlans(asSet(TASK1.getId(), TASK2.getId()))).thenReturn(Mono.never());
+    public void testFindTasksWithStaleRelocationData() {
+        givenPlans(newRelocationPlan(TASK1, titusRuntime.getClock().wallTime() + 1_000));
+        when(relocationDataReplicator.getStalenessMs()).thenReturn(MAX_STALENESS_MS + 1);
 
         TaskQueryResult queryResult = TaskQueryResult.newBuilder()
                 .addItems(TASK1)
                 .addItems(TASK2)
                 .build();
 
-        ExtTestSubscriber<TaskQueryResult> testSubscriber = new ExtTestSubscriber<>();
-        taskRelocationDataInjector.injectIntoTaskQueryResult(Observable.just(queryResult)).subscribe(testSubscriber);
-
-        testSubscriber.assertOpen();
-        testScheduler.advanceTimeBy(RELOCATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        testSubscriber.assertOnCompleted();
+        TaskQueryResult merged = taskRelocationDataInjector.injectIntoTaskQueryResult(Observable.just(queryResult)).toBlocking().first();
+        assertThat(merged.getItemsList()).containsExactly(TASK1, TASK2);
+    }
 
-        TaskQueryResult result = testSubscriber.takeNext();
-        assertThat(result.getItemsList()).contains(TASK1, TASK2);
+    private void givenPlans(TaskRelocationPlan... plans) {
+        Map<String, TaskRelocationPlan> plansById = new HashMap<>();
+        for (TaskRelocationPlan plan : plans) {
+            plansById.put(plan.getTaskId(), plan);
+        }
+        when(relocationDataReplicator.getCurrent()).thenReturn(new TaskRelocationSnapshot("test", plansById));
     }
 
     private Task toLegacyTask(Task task, long deadlineTimestamp) {
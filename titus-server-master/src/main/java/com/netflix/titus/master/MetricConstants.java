@@ -54,4 +54,6 @@ public class MetricConstants {
     public static final String METRIC_LOADBALANCER = METRIC_ROOT + "loadBalancer.";
 
     public static final String METRIC_ES_PUBLISHER = METRIC_ROOT + "esPublisher.";
+
+    public static final String METRIC_AUDIT = METRIC_ROOT + "audit.";
 }
@@ -28,6 +28,27 @@ public interface AgentManagementConfiguration {
     @DefaultValue("120000")
     long getFullCacheRefreshIntervalMs();
 
+    /**
+     * If set to true, all known instance groups and their instances are refreshed together in each
+     * {@link #getCacheRefreshIntervalMs()} cycle with bulk cloud API calls, instead of running a separate
+     * refresh for each instance group. Read at the startup time only.
+     */
+    @DefaultValue("false")
+    boolean isConsolidatedCacheRefreshEnabled();
+
+    /**
+     * @return maximum number of cloud API calls that the consolidated cache refresh can make in a burst (each refresh
+     * costs two calls, so it must be at least 2)
+     */
+    @DefaultValue("10")
+    long getCacheRefreshApiBudget();
+
+    /**
+     * @return number of cloud API calls per second added to the consolidated cache refresh budget
+     */
+    @DefaultValue("1")
+    long getCacheRefreshApiBudgetRefillPerSec();
+
     @DefaultValue(".*")
     String getAgentInstanceGroupPattern();
 
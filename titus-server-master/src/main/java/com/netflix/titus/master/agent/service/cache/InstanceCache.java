@@ -30,6 +30,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
 import com.netflix.spectator.api.BasicTag;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Tag;
@@ -39,6 +40,8 @@ import com.netflix.titus.api.connector.cloud.InstanceCloudConnector;
 import com.netflix.titus.api.connector.cloud.InstanceGroup;
 import com.netflix.titus.api.connector.cloud.InstanceLaunchConfiguration;
 import com.netflix.titus.common.util.CollectionsExt;
+import com.netflix.titus.common.util.limiter.Limiters;
+import com.netflix.titus.common.util.limiter.tokenbucket.TokenBucket;
 import com.netflix.titus.common.util.rx.InstrumentedEventLoop;
 import com.netflix.titus.common.util.rx.ObservableExt;
 import com.netflix.titus.common.util.rx.RetryHandlerBuilder;
@@ -67,6 +70,12 @@ import static java.util.Collections.singletonList;
  * <li>Each known instance group (including instances) is refreshed every {@link AgentManagementConfiguration#getCacheRefreshIntervalMs()}</li>
  * <li>List of known instance groups is refreshed every {@link AgentManagementConfiguration#getFullCacheRefreshIntervalMs()} ()}</li>
  * </ul>
+ * <h1>Consolidated refresh</h1>
+ * If {@link AgentManagementConfiguration#isConsolidatedCacheRefreshEnabled()} is set, instead of refreshing each
+ * instance group separately, all known instance groups and their instances are fetched together once per
+ * refresh cycle, and compared with the current cache state. Events are emitted for the changed instance groups only.
+ * The consolidated refresh cycles and the on demand instance group refreshes share a token bucket limiting the number
+ * of cloud API calls. If the budget is exhausted, the refresh is skipped, and done in one of the next cycles.
  */
 class InstanceCache {
 
@@ -79,10 +88,18 @@ class InstanceCache {
     private static final long BOOT_RETRY_DELAYS_MS = 1_000;
     private static final long MAX_REFRESH_TIMEOUT = 600_000;
 
+    /**
+     * Both, the consolidated and single instance group refresh, make two cloud API calls: one to get the instance
+     * groups, and one to get their instances (each possibly paginated).
+     */
+    private static final long REFRESH_API_COST = 2;
+
     private final AgentManagementConfiguration configuration;
     private final InstanceCloudConnector connector;
     private final Registry registry;
     private final InstrumentedEventLoop eventLoop;
+    private final boolean consolidatedRefresh;
+    private final TokenBucket apiBudget;
 
     private volatile InstanceCacheDataSnapshot cacheSnapshot;
 
@@ -92,6 +109,7 @@ class InstanceCache {
     private final PublishSubject<CacheUpdateEvent> eventSubject = PublishSubject.create();
 
     private ContinuousSubscriptionMetrics fullInstanceGroupRefreshMetricsTransformer;
+    private ContinuousSubscriptionMetrics consolidatedRefreshMetricsTransformer;
     private Map<String, ContinuousSubscriptionMetrics> instanceGroupRefreshMetricsTransformers = new ConcurrentHashMap<>();
 
     private InstanceCache(AgentManagementConfiguration configuration,
@@ -106,9 +124,12 @@ class InstanceCache {
         this.registry = registry;
         this.cacheSnapshot = InstanceCacheDataSnapshot.empty();
         this.eventLoop = ObservableExt.createEventLoop(METRIC_AGENT_CACHE + "eventLoop", registry, scheduler);
+        this.consolidatedRefresh = configuration.isConsolidatedCacheRefreshEnabled();
+        this.apiBudget = consolidatedRefresh ? newApiBudget(configuration, scheduler) : null;
 
         List<Tag> tags = Collections.singletonList(new BasicTag("class", InstanceCache.class.getSimpleName()));
         fullInstanceGroupRefreshMetricsTransformer = continuousSubscriptionMetrics(METRIC_AGENT_CACHE + "fullInstanceGroupRefresh", tags, registry);
+        consolidatedRefreshMetricsTransformer = continuousSubscriptionMetrics(METRIC_AGENT_CACHE + "consolidatedRefresh", tags, registry);
 
         // Synchronously refresh information about the known instance groups
         List<Completable> initialRefresh = knownInstanceGroups.stream().map(this::doInstanceGroupRefresh).collect(Collectors.toList());
@@ -133,7 +154,9 @@ class InstanceCache {
         );
 
         this.instanceGroupRefreshSubscription = ObservableExt.schedule(
-                METRIC_AGENT_CACHE, registry, "doInstanceGroupRefresh", doInstanceGroupRefresh(),
+                METRIC_AGENT_CACHE, registry,
+                consolidatedRefresh ? "doConsolidatedRefresh" : "doInstanceGroupRefresh",
+                consolidatedRefresh ? doConsolidatedRefresh() : doInstanceGroupRefresh(),
                 0, configuration.getCacheRefreshIntervalMs(), TimeUnit.MILLISECONDS, scheduler
         ).subscribe(
                 next -> next.ifPresent(throwable -> logger.warn("Instance group refresh cycle failed with an error", throwable)),
@@ -148,6 +171,7 @@ class InstanceCache {
         fullInstanceGroupRefreshSubscription.unsubscribe();
         instanceGroupRefreshSubscription.unsubscribe();
         fullInstanceGroupRefreshMetricsTransformer.remove();
+        consolidatedRefreshMetricsTransformer.remove();
     }
 
     List<InstanceGroup> getInstanceGroups() {
@@ -168,7 +192,7 @@ class InstanceCache {
      */
     void refreshInstanceGroup(String instanceGroupId) {
         InstanceGroup instanceGroup = cacheSnapshot.getInstanceGroup(instanceGroupId);
-        if (instanceGroup != null) {
+        if (instanceGroup != null && tryTakeApiBudget("refreshInstanceGroup")) {
             doInstanceGroupRefresh(instanceGroup).subscribe();
         }
     }
@@ -271,6 +295,61 @@ class InstanceCache {
                 .toCompletable();
     }
 
+    /**
+     * Refreshes all known instance groups and their instances with two bulk cloud API calls.
+     */
+    private Completable doConsolidatedRefresh() {
+        Observable<Void> updateAction = Observable.defer(() -> {
+            List<String> instanceGroupIds = cacheSnapshot.getInstanceGroups().stream().map(InstanceGroup::getId).collect(Collectors.toList());
+            if (instanceGroupIds.isEmpty() || !tryTakeApiBudget("consolidatedRefresh")) {
+                return Observable.empty();
+            }
+            return Observable.zip(
+                    connector.getInstanceGroups(instanceGroupIds),
+                    connector.getInstancesByInstanceGroupIds(instanceGroupIds),
+                    Pair::of
+            ).doOnNext(result -> onEventLoop("consolidatedRefresh", () ->
+                    applyConsolidatedRefresh(instanceGroupIds, result.getLeft(), result.getRight())
+            )).ignoreElements().cast(Void.class);
+        });
+
+        return updateAction
+                .take(1)
+                .timeout(MAX_REFRESH_TIMEOUT, TimeUnit.MILLISECONDS)
+                .compose(consolidatedRefreshMetricsTransformer.asObservable())
+                .doOnError(error -> logger.warn("Consolidated instance group refresh error", error))
+                .toCompletable();
+    }
+
+    private void applyConsolidatedRefresh(List<String> requestedIds, List<InstanceGroup> instanceGroups, List<Instance> instances) {
+        Set<String> foundIds = instanceGroups.stream().map(InstanceGroup::getId).collect(Collectors.toSet());
+        for (String instanceGroupId : requestedIds) {
+            if (!foundIds.contains(instanceGroupId) && cacheSnapshot.getInstanceGroup(instanceGroupId) != null) {
+                removeInstanceGroup(instanceGroupId);
+                logger.info("Instance group: {} has been removed", instanceGroupId);
+            }
+        }
+
+        Map<String, List<Instance>> instancesByInstanceGroupId = instances.stream().collect(Collectors.groupingBy(Instance::getInstanceGroupId));
+        for (InstanceGroup instanceGroup : instanceGroups) {
+            List<Instance> updatedInstances = instancesByInstanceGroupId.getOrDefault(instanceGroup.getId(), Collections.emptyList());
+            List<String> instanceIds = updatedInstances.stream().map(Instance::getId).sorted().collect(Collectors.toList());
+            updateCache(instanceGroup.toBuilder().withInstanceIds(instanceIds).build(), updatedInstances);
+        }
+    }
+
+    /**
+     * The budget applies in the consolidated refresh mode only, to keep the original behavior unchanged.
+     */
+    private boolean tryTakeApiBudget(String action) {
+        if (!consolidatedRefresh || apiBudget.tryTake(REFRESH_API_COST)) {
+            return true;
+        }
+        logger.debug("Cloud API budget exhausted; skipping {}", action);
+        registry.counter(METRIC_AGENT_CACHE + "apiBudgetExhausted", "action", action).increment();
+        return false;
+    }
+
     private Completable doInstanceGroupRefresh(InstanceGroup instanceGroup) {
         return doInstanceGroupRefresh(instanceGroup.getId());
     }
@@ -387,6 +466,23 @@ class InstanceCache {
         });
     }
 
+    private static TokenBucket newApiBudget(AgentManagementConfiguration configuration, Scheduler scheduler) {
+        Ticker schedulerTicker = new Ticker() {
+            @Override
+            public long read() {
+                return TimeUnit.MILLISECONDS.toNanos(scheduler.now());
+            }
+        };
+        return Limiters.createFixedIntervalTokenBucket(
+                "instanceCacheRefresh",
+                configuration.getCacheRefreshApiBudget(),
+                configuration.getCacheRefreshApiBudget(),
+                configuration.getCacheRefreshApiBudgetRefillPerSec(),
+                1, TimeUnit.SECONDS,
+                schedulerTicker
+        );
+    }
+
     static InstanceCache newInstance(AgentManagementConfiguration configuration,
                                      InstanceCloudConnector connector,
                                      Set<String> knownInstanceGroups,
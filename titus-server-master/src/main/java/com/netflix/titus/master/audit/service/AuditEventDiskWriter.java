@@ -19,21 +19,21 @@ package com.netflix.titus.master.audit.service;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.Writer;
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import com.netflix.spectator.api.Registry;
 import com.netflix.titus.api.audit.model.AuditLogEvent;
 import com.netflix.titus.api.audit.service.AuditLogService;
 import com.netflix.titus.api.model.event.UserRequestEvent;
-import com.netflix.titus.common.util.DateTimeExt;
+import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.IOExt;
 import com.netflix.titus.common.util.rx.eventbus.RxEventBus;
+import com.netflix.titus.common.util.time.Clocks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
@@ -42,7 +42,8 @@ import rx.Subscription;
 import rx.schedulers.Schedulers;
 
 /**
- * Audit logging to a file.
+ * Audit logging to a file. Audit events are buffered in a bounded queue, and written to disk once a second either
+ * to a single text file, or in the binary format to rotated segment files (see {@link SegmentedAuditLogWriter}).
  */
 @Singleton
 public class AuditEventDiskWriter {
@@ -64,21 +65,30 @@ public class AuditEventDiskWriter {
     private final Subscription rxEventsSubscription;
     private final Subscription logWriterSubscription;
 
-    private final Queue<AuditLogEvent> eventQueue = new LinkedBlockingDeque<>();
-    private final Queue<UserRequestEvent> eventBusQueue = new LinkedBlockingQueue<>();
+    private final AuditLogConfiguration config;
+    private final Registry registry;
+    private final AuditRecordQueue eventQueue;
     private volatile Writer logWriter;
+    private volatile SegmentedAuditLogWriter segmentedLogWriter;
 
     @Inject
-    public AuditEventDiskWriter(AuditLogConfiguration config, AuditLogService auditLogService, RxEventBus rxEventBus) {
-        this(config, auditLogService, rxEventBus, Schedulers.io());
+    public AuditEventDiskWriter(AuditLogConfiguration config, AuditLogService auditLogService, RxEventBus rxEventBus, TitusRuntime titusRuntime) {
+        this(config, auditLogService, rxEventBus, titusRuntime.getRegistry(), Schedulers.io());
     }
 
-    public AuditEventDiskWriter(AuditLogConfiguration config, AuditLogService auditLogService, RxEventBus rxEventBus, Scheduler ioScheduler) {
+    public AuditEventDiskWriter(AuditLogConfiguration config,
+                                AuditLogService auditLogService,
+                                RxEventBus rxEventBus,
+                                Registry registry,
+                                Scheduler ioScheduler) {
+        this.config = config;
+        this.registry = registry;
         this.auditLogFolder = createAuditLogFolder(new File(config.getAuditLogFolder()));
         this.rxEventBus = rxEventBus;
         this.auditLogFile = new File(auditLogFolder, LOG_FILE_NAME);
         this.auditLogService = auditLogService;
         this.ioScheduler = ioScheduler;
+        this.eventQueue = new AuditRecordQueue(config.getAuditLogQueueSize(), resolveOverflowPolicy(config), registry);
         this.auditLogSubscription = enableLogging();
         this.rxEventsSubscription = enableRxEventBusLogging();
         this.logWriterSubscription = enableLogWriter();
@@ -95,18 +105,19 @@ public class AuditEventDiskWriter {
     private void shutdownInternal() {
         writeLog();
         IOExt.closeSilently(logWriter);
+        IOExt.closeSilently(segmentedLogWriter);
     }
 
     private Subscription enableLogging() {
         return auditLogService.auditLogEvents()
                 .doOnTerminate(() -> logger.info("Terminating audit log subscription"))
-                .subscribe(eventQueue::add);
+                .subscribe(event -> eventQueue.offer(AuditRecord.of(event)));
     }
 
     private Subscription enableRxEventBusLogging() {
         return rxEventBus.listen(getClass().getSimpleName(), UserRequestEvent.class)
                 .doOnTerminate(() -> logger.info("Terminating RxEventBus subscription"))
-                .subscribe(eventBusQueue::add);
+                .subscribe(event -> eventQueue.offer(AuditRecord.of(event)));
     }
 
     private Subscription enableLogWriter() {
@@ -120,25 +131,56 @@ public class AuditEventDiskWriter {
 
     private void writeLog() {
         try {
-            if (logWriter == null) {
-                createAuditLogFolder(auditLogFolder);
-                logWriter = new BufferedWriter(new FileWriter(auditLogFile, true));
+            if (config.isSegmentedAuditLogEnabled()) {
+                writeSegmentedLog();
+            } else {
+                writeTextLog();
             }
-            for (AuditLogEvent event = eventQueue.poll(); event != null; event = eventQueue.poll()) {
-                logWriter.write(formatEvent(event));
-                logWriter.write('\n');
-            }
-            for (UserRequestEvent event = eventBusQueue.poll(); event != null; event = eventBusQueue.poll()) {
-                logWriter.write(formatEvent(event));
-                logWriter.write('\n');
-            }
-
-            logWriter.flush();
         } catch (Exception e) {
             logger.warn("Audit log write to disk failure ({})", e.getMessage());
         }
     }
 
+    private void writeTextLog() throws IOException {
+        if (logWriter == null) {
+            createAuditLogFolder(auditLogFolder);
+            logWriter = new BufferedWriter(new FileWriter(auditLogFile, true));
+        }
+        for (AuditRecord record = eventQueue.poll(); record != null; record = eventQueue.poll()) {
+            logWriter.write(record.toText());
+            logWriter.write('\n');
+        }
+        logWriter.flush();
+    }
+
+    private void writeSegmentedLog() throws IOException {
+        if (segmentedLogWriter == null) {
+            createAuditLogFolder(auditLogFolder);
+            segmentedLogWriter = new SegmentedAuditLogWriter(
+                    auditLogFolder,
+                    config.getAuditLogSegmentMaxSizeBytes(),
+                    config.getAuditLogSegmentMaxDurationMs(),
+                    config.getAuditLogRetentionSegmentCount(),
+                    config.getAuditLogRetentionSizeBytes(),
+                    Clocks.scheduler(ioScheduler),
+                    registry
+            );
+        }
+        for (AuditRecord record = eventQueue.poll(); record != null; record = eventQueue.poll()) {
+            segmentedLogWriter.write(record);
+        }
+        segmentedLogWriter.flush();
+    }
+
+    private static AuditRecordQueue.OverflowPolicy resolveOverflowPolicy(AuditLogConfiguration config) {
+        try {
+            return AuditRecordQueue.OverflowPolicy.valueOf(config.getAuditLogQueueOverflowPolicy());
+        } catch (Exception e) {
+            logger.warn("Invalid audit log queue overflow policy {}; using {}", config.getAuditLogQueueOverflowPolicy(), AuditRecordQueue.OverflowPolicy.DropOldest);
+            return AuditRecordQueue.OverflowPolicy.DropOldest;
+        }
+    }
+
     private static File createAuditLogFolder(File logFolder) {
         if (!logFolder.exists()) {
             if (!logFolder.mkdirs()) {
@@ -152,28 +194,4 @@ public class AuditEventDiskWriter {
 
         return logFolder;
     }
-
-    private String formatEvent(AuditLogEvent event) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(DateTimeExt.toUtcDateTimeString(event.getTime()));
-        sb.append(",source=JobManager,");
-        sb.append(event.getType());
-        sb.append(',');
-        sb.append(event.getOperand());
-        sb.append(',');
-        sb.append(event.getData());
-        return sb.toString();
-    }
-
-    private String formatEvent(UserRequestEvent event) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(DateTimeExt.toUtcDateTimeString(event.getTimestamp()));
-        sb.append(",source=HTTP,");
-        sb.append(event.getOperation());
-        sb.append(",callerId=");
-        sb.append(event.getCallerId());
-        sb.append(',');
-        sb.append(event.getDetails());
-        return sb.toString();
-    }
 }
@@ -30,4 +30,47 @@ public interface AuditLogConfiguration {
      */
     @DefaultValue("/logs/titus-master")
     String getAuditLogFolder();
+
+    /**
+     * Maximum number of audit records buffered in memory, before they are written to disk.
+     */
+    @DefaultValue("50000")
+    int getAuditLogQueueSize();
+
+    /**
+     * What to do with a new audit record when the queue is full (see {@link AuditRecordQueue.OverflowPolicy}).
+     */
+    @DefaultValue("DropOldest")
+    String getAuditLogQueueOverflowPolicy();
+
+    /**
+     * If true, audit records are written in the binary format to a sequence of rotated segment files (see
+     * {@link SegmentedAuditLogWriter}). If false, a single text file is used.
+     */
+    @DefaultValue("false")
+    boolean isSegmentedAuditLogEnabled();
+
+    /**
+     * Maximum size of an audit log segment, after which a new one is started.
+     */
+    @DefaultValue("67108864")
+    long getAuditLogSegmentMaxSizeBytes();
+
+    /**
+     * Maximum time interval an audit log segment is written to, after which a new one is started.
+     */
+    @DefaultValue("3600000")
+    long getAuditLogSegmentMaxDurationMs();
+
+    /**
+     * Maximum number of audit log segments to keep on disk.
+     */
+    @DefaultValue("168")
+    int getAuditLogRetentionSegmentCount();
+
+    /**
+     * Maximum total size of audit log segments to keep on disk.
+     */
+    @DefaultValue("4294967296")
+    long getAuditLogRetentionSizeBytes();
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.audit.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads audit records written by {@link SegmentedAuditLogWriter}. Only segments whose time range (encoded in the file
+ * name) overlaps with the query range are opened, and they are memory mapped for reading.
+ * <p>
+ * The class can be also run from the command line:
+ * <pre>
+ * AuditLogReader &lt;auditLogFolder&gt; &lt;fromTime&gt; &lt;toTime&gt;
+ * </pre>
+ * where the time values are given either as ISO-8601 instants (for example 2018-06-01T10:00:00Z) or epoch milliseconds.
+ */
+public class AuditLogReader {
+
+    private final File folder;
+
+    public AuditLogReader(File folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Returns all records with timestamps within the given range (inclusive), ordered by their timestamps.
+     */
+    public List<AuditRecord> read(long fromTime, long toTime) throws IOException {
+        List<AuditRecord> result = new ArrayList<>();
+        for (AuditLogSegment segment : AuditLogSegment.listSegments(folder)) {
+            if (segment.overlaps(fromTime, toTime)) {
+                readSegment(segment, fromTime, toTime, result);
+            }
+        }
+        result.sort(Comparator.comparingLong(AuditRecord::getTimestamp));
+        return result;
+    }
+
+    private void readSegment(AuditLogSegment segment, long fromTime, long toTime, List<AuditRecord> result) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment.getFile().toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!AuditRecordCodec.isValidSegmentHeader(buffer)) {
+                return;
+            }
+            Optional<AuditRecord> next;
+            while ((next = AuditRecordCodec.decode(buffer)).isPresent()) {
+                long timestamp = next.get().getTimestamp();
+                if (timestamp >= fromTime && timestamp <= toTime) {
+                    result.add(next.get());
+                }
+            }
+        }
+    }
+
+    private static long parseTime(String value) {
+        if (value.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(value);
+        }
+        return Instant.parse(value).toEpochMilli();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: AuditLogReader <auditLogFolder> <fromTime> <toTime>");
+            System.exit(-1);
+        }
+        AuditLogReader reader = new AuditLogReader(new File(args[0]));
+        for (AuditRecord record : reader.read(parseTime(args[1]), parseTime(args[2]))) {
+            System.out.println(record.toText());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.audit.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Audit log segment file descriptor. The time range of records in a sealed segment is encoded in its file name
+ * (titus-audit-&lt;sequence&gt;-&lt;minTimestamp&gt;-&lt;maxTimestamp&gt;.seg), so the segments matching a time
+ * range query can be found without opening them. The segment being currently written to is named
+ * titus-audit-&lt;sequence&gt;.active.
+ */
+class AuditLogSegment {
+
+    private static final String PREFIX = "titus-audit-";
+    private static final String SEALED_SUFFIX = ".seg";
+    private static final String ACTIVE_SUFFIX = ".active";
+
+    private static final Pattern SEALED_PATTERN = Pattern.compile("titus-audit-(\\d+)-(\\d+)-(\\d+)\\.seg");
+    private static final Pattern ACTIVE_PATTERN = Pattern.compile("titus-audit-(\\d+)\\.active");
+
+    private final File file;
+    private final long sequence;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final boolean active;
+
+    private AuditLogSegment(File file, long sequence, long minTimestamp, long maxTimestamp, boolean active) {
+        this.file = file;
+        this.sequence = sequence;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.active = active;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Returns true if this segment may contain records from the given time range. The time range of an active
+     * segment is not known, so it always matches.
+     */
+    boolean overlaps(long fromTime, long toTime) {
+        return active || (minTimestamp <= toTime && maxTimestamp >= fromTime);
+    }
+
+    static File activeFile(File folder, long sequence) {
+        return new File(folder, String.format("%s%010d%s", PREFIX, sequence, ACTIVE_SUFFIX));
+    }
+
+    static File sealedFile(File folder, long sequence, long minTimestamp, long maxTimestamp) {
+        return new File(folder, String.format("%s%010d-%d-%d%s", PREFIX, sequence, minTimestamp, maxTimestamp, SEALED_SUFFIX));
+    }
+
+    static Optional<AuditLogSegment> parse(File file) {
+        String name = file.getName();
+        Matcher sealed = SEALED_PATTERN.matcher(name);
+        if (sealed.matches()) {
+            return Optional.of(new AuditLogSegment(
+                    file, Long.parseLong(sealed.group(1)), Long.parseLong(sealed.group(2)), Long.parseLong(sealed.group(3)), false
+            ));
+        }
+        Matcher active = ACTIVE_PATTERN.matcher(name);
+        if (active.matches()) {
+            return Optional.of(new AuditLogSegment(file, Long.parseLong(active.group(1)), -1, -1, true));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns all segments found in the given folder, ordered by their sequence number.
+     */
+    static List<AuditLogSegment> listSegments(File folder) {
+        List<AuditLogSegment> segments = new ArrayList<>();
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                parse(file).ifPresent(segments::add);
+            }
+        }
+        segments.sort(Comparator.comparingLong(AuditLogSegment::getSequence));
+        return segments;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.audit.service;
+
+import java.util.Objects;
+
+import com.netflix.titus.api.audit.model.AuditLogEvent;
+import com.netflix.titus.api.model.event.UserRequestEvent;
+import com.netflix.titus.common.util.DateTimeExt;
+
+/**
+ * A single entry in the audit log. Both {@link AuditLogEvent} and {@link UserRequestEvent} are mapped to this
+ * common representation, which is what is stored on disk.
+ */
+public class AuditRecord {
+
+    public enum Source {
+        JobManager,
+        HTTP
+    }
+
+    private final long timestamp;
+    private final Source source;
+    private final String action;
+    private final String subject;
+    private final String details;
+
+    public AuditRecord(long timestamp, Source source, String action, String subject, String details) {
+        this.timestamp = timestamp;
+        this.source = source;
+        this.action = action;
+        this.subject = subject;
+        this.details = details;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Audit event type, or HTTP operation.
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * Audit event operand, or HTTP caller id.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    /**
+     * Formats the record as a single text line (the format used by the plain text audit log).
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(DateTimeExt.toUtcDateTimeString(timestamp));
+        sb.append(",source=").append(source).append(',');
+        sb.append(action);
+        sb.append(source == Source.HTTP ? ",callerId=" : ",");
+        sb.append(subject);
+        sb.append(',');
+        sb.append(details);
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AuditRecord that = (AuditRecord) o;
+        return timestamp == that.timestamp &&
+                source == that.source &&
+                Objects.equals(action, that.action) &&
+                Objects.equals(subject, that.subject) &&
+                Objects.equals(details, that.details);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, source, action, subject, details);
+    }
+
+    @Override
+    public String toString() {
+        return "AuditRecord{" +
+                "timestamp=" + timestamp +
+                ", source=" + source +
+                ", action='" + action + '\'' +
+                ", subject='" + subject + '\'' +
+                ", details='" + details + '\'' +
+                '}';
+    }
+
+    public static AuditRecord of(AuditLogEvent event) {
+        return new AuditRecord(event.getTime(), Source.JobManager, String.valueOf(event.getType()), event.getOperand(), event.getData());
+    }
+
+    public static AuditRecord of(UserRequestEvent event) {
+        return new AuditRecord(event.getTimestamp(), Source.HTTP, event.getOperation(), event.getCallerId(), event.getDetails());
+    }
+}
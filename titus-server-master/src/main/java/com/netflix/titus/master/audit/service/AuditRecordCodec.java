@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.audit.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Binary, length prefixed encoding of {@link AuditRecord}s. Each record is stored as:
+ * <ul>
+ * <li>int - length of the remaining part of the record (including the checksum)</li>
+ * <li>long - timestamp</li>
+ * <li>byte - source</li>
+ * <li>3 x (int length + UTF-8 bytes) - action, subject and details (length -1 for null)</li>
+ * <li>int - CRC32 checksum of the record body</li>
+ * </ul>
+ * A record with a zero length prefix, or an invalid checksum marks the end of the readable data (for example
+ * a partially written record after a crash).
+ */
+final class AuditRecordCodec {
+
+    static final int SEGMENT_MAGIC = 0x54415544; // 'TAUD'
+    static final short SEGMENT_VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 4 + 2;
+
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int FIXED_BODY_SIZE = 8 + 1 + 3 * 4;
+
+    private static final AuditRecord.Source[] SOURCES = AuditRecord.Source.values();
+
+    private AuditRecordCodec() {
+    }
+
+    static void writeSegmentHeader(ByteBuffer buffer) {
+        buffer.putInt(SEGMENT_MAGIC);
+        buffer.putShort(SEGMENT_VERSION);
+    }
+
+    static boolean isValidSegmentHeader(ByteBuffer buffer) {
+        return buffer.remaining() >= SEGMENT_HEADER_SIZE
+                && buffer.getInt() == SEGMENT_MAGIC
+                && buffer.getShort() == SEGMENT_VERSION;
+    }
+
+    static byte[] encode(AuditRecord record) {
+        byte[] action = toBytes(record.getAction());
+        byte[] subject = toBytes(record.getSubject());
+        byte[] details = toBytes(record.getDetails());
+
+        int bodySize = FIXED_BODY_SIZE + length(action) + length(subject) + length(details);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + bodySize + CHECKSUM_SIZE);
+        buffer.putInt(bodySize + CHECKSUM_SIZE);
+        buffer.putLong(record.getTimestamp());
+        buffer.put((byte) record.getSource().ordinal());
+        putBytes(buffer, action);
+        putBytes(buffer, subject);
+        putBytes(buffer, details);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 4, bodySize);
+        buffer.putInt((int) crc.getValue());
+
+        return buffer.array();
+    }
+
+    /**
+     * Decodes next record from the buffer, advancing its position. Returns {@link Optional#empty()}, if there are no
+     * more complete and valid records in the buffer. In such case the buffer position is undefined.
+     */
+    static Optional<AuditRecord> decode(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return Optional.empty();
+        }
+        int recordSize = buffer.getInt();
+        if (recordSize < FIXED_BODY_SIZE + CHECKSUM_SIZE || recordSize > buffer.remaining()) {
+            return Optional.empty();
+        }
+
+        int bodyStart = buffer.position();
+        int bodySize = recordSize - CHECKSUM_SIZE;
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.limit(bodyStart + bodySize);
+        crc.update(body);
+        buffer.position(bodyStart + bodySize);
+        if (buffer.getInt() != (int) crc.getValue()) {
+            return Optional.empty();
+        }
+
+        buffer.position(bodyStart);
+        long timestamp = buffer.getLong();
+        int sourceIdx = buffer.get();
+        if (sourceIdx < 0 || sourceIdx >= SOURCES.length) {
+            return Optional.empty();
+        }
+        String action = getString(buffer);
+        String subject = getString(buffer);
+        String details = getString(buffer);
+        buffer.position(bodyStart + recordSize);
+
+        return Optional.of(new AuditRecord(timestamp, SOURCES[sourceIdx], action, subject, details));
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
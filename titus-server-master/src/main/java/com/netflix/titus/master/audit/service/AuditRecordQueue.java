@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.audit.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.titus.master.MetricConstants;
+
+/**
+ * Bounded, non-blocking queue of audit records. Audit events are emitted from the job management and HTTP request
+ * threads, which must never be blocked by the audit log writer. When the queue is full, records are dropped according
+ * to the configured {@link OverflowPolicy}, and the drop is recorded in the metrics.
+ */
+class AuditRecordQueue {
+
+    private static final String METRIC_ROOT = MetricConstants.METRIC_AUDIT + "queue.";
+
+    enum OverflowPolicy {
+        /**
+         * Reject the record being added, and keep the records already in the queue.
+         */
+        DropNewest,
+
+        /**
+         * Remove the oldest record in the queue, to make space for the record being added.
+         */
+        DropOldest
+    }
+
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Queue<AuditRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Counter droppedCounter;
+
+    AuditRecordQueue(int capacity, OverflowPolicy overflowPolicy, Registry registry) {
+        Preconditions.checkArgument(capacity > 0, "Queue capacity must be > 0: %s", capacity);
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.droppedCounter = registry.counter(METRIC_ROOT + "dropped", "policy", overflowPolicy.name());
+        PolledMeter.using(registry).withName(METRIC_ROOT + "size").monitorValue(size);
+    }
+
+    /**
+     * Adds a new record to the queue. Returns false, if the queue was full, and the record was not added. With
+     * the {@link OverflowPolicy#DropOldest} policy, the oldest records are dropped instead, and the record is added.
+     */
+    boolean offer(AuditRecord record) {
+        while (true) {
+            if (size.incrementAndGet() <= capacity) {
+                queue.add(record);
+                return true;
+            }
+            size.decrementAndGet();
+            droppedCounter.increment();
+
+            if (overflowPolicy != OverflowPolicy.DropOldest || poll() == null) {
+                return false;
+            }
+        }
+    }
+
+    AuditRecord poll() {
+        AuditRecord record = queue.poll();
+        if (record != null) {
+            size.decrementAndGet();
+        }
+        return record;
+    }
+
+    int size() {
+        return size.get();
+    }
+}
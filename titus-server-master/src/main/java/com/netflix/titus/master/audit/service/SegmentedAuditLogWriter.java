@@ -0,0 +1,284 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.audit.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.common.util.IOExt;
+import com.netflix.titus.common.util.time.Clock;
+import com.netflix.titus.master.MetricConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes audit records in the binary format (see {@link AuditRecordCodec}) to a sequence of segment files. A segment
+ * is sealed when it reaches the configured size or age, and the oldest segments are removed when the retention limits
+ * are exceeded. This class is not thread safe, and it is expected to be called from a single writer thread.
+ */
+class SegmentedAuditLogWriter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedAuditLogWriter.class);
+
+    private static final String METRIC_ROOT = MetricConstants.METRIC_AUDIT + "segment.";
+
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private final File folder;
+    private final long maxSegmentSizeBytes;
+    private final long maxSegmentDurationMs;
+    private final int retentionSegmentCount;
+    private final long retentionSizeBytes;
+    private final Clock clock;
+
+    private final Counter writtenRecordsCounter;
+    private final Counter writtenBytesCounter;
+    private final Counter rotationCounter;
+    private final Counter deletedSegmentsCounter;
+
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+    private long nextSequence;
+
+    private FileChannel activeChannel;
+    private File activeFile;
+    private long activeSequence;
+    private long activeCreationTime;
+    private long activeSize;
+    private long activeMinTimestamp;
+    private long activeMaxTimestamp;
+
+    SegmentedAuditLogWriter(File folder,
+                            long maxSegmentSizeBytes,
+                            long maxSegmentDurationMs,
+                            int retentionSegmentCount,
+                            long retentionSizeBytes,
+                            Clock clock,
+                            Registry registry) {
+        this.folder = folder;
+        this.maxSegmentSizeBytes = maxSegmentSizeBytes;
+        this.maxSegmentDurationMs = maxSegmentDurationMs;
+        this.retentionSegmentCount = retentionSegmentCount;
+        this.retentionSizeBytes = retentionSizeBytes;
+        this.clock = clock;
+
+        this.writtenRecordsCounter = registry.counter(METRIC_ROOT + "writtenRecords");
+        this.writtenBytesCounter = registry.counter(METRIC_ROOT + "writtenBytes");
+        this.rotationCounter = registry.counter(METRIC_ROOT + "rotations");
+        this.deletedSegmentsCounter = registry.counter(METRIC_ROOT + "deleted");
+
+        this.nextSequence = recoverSegments();
+    }
+
+    /**
+     * Appends a record to the write buffer. The buffer is written to disk when full, or when {@link #flush()} is called.
+     */
+    void write(AuditRecord record) throws IOException {
+        byte[] encoded = AuditRecordCodec.encode(record);
+
+        if (activeChannel != null && activeSize + writeBuffer.position() + encoded.length > maxSegmentSizeBytes) {
+            rotate();
+        }
+        if (activeChannel == null) {
+            openNewSegment();
+        }
+
+        if (encoded.length > writeBuffer.remaining()) {
+            flushBuffer();
+        }
+        if (encoded.length > writeBuffer.capacity()) {
+            writeFully(ByteBuffer.wrap(encoded));
+        } else {
+            writeBuffer.put(encoded);
+        }
+
+        activeMinTimestamp = Math.min(activeMinTimestamp, record.getTimestamp());
+        activeMaxTimestamp = Math.max(activeMaxTimestamp, record.getTimestamp());
+        writtenRecordsCounter.increment();
+        writtenBytesCounter.increment(encoded.length);
+    }
+
+    /**
+     * Writes all buffered records to the active segment, and rotates it if it is older than the configured limit.
+     */
+    void flush() throws IOException {
+        flushBuffer();
+        if (activeChannel != null && clock.wallTime() - activeCreationTime >= maxSegmentDurationMs) {
+            rotate();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (activeChannel != null) {
+            flushBuffer();
+            sealActiveSegment();
+            applyRetention();
+        }
+    }
+
+    private void openNewSegment() throws IOException {
+        activeSequence = nextSequence++;
+        activeFile = AuditLogSegment.activeFile(folder, activeSequence);
+        activeChannel = FileChannel.open(activeFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeCreationTime = clock.wallTime();
+        activeSize = 0;
+        activeMinTimestamp = Long.MAX_VALUE;
+        activeMaxTimestamp = Long.MIN_VALUE;
+
+        ByteBuffer header = ByteBuffer.allocate(AuditRecordCodec.SEGMENT_HEADER_SIZE);
+        AuditRecordCodec.writeSegmentHeader(header);
+        header.flip();
+        writeFully(header);
+    }
+
+    private void rotate() throws IOException {
+        flushBuffer();
+        sealActiveSegment();
+        rotationCounter.increment();
+        applyRetention();
+    }
+
+    private void sealActiveSegment() throws IOException {
+        try {
+            activeChannel.force(false);
+        } finally {
+            IOExt.closeSilently(activeChannel);
+            activeChannel = null;
+        }
+        seal(activeFile, activeSequence, activeMinTimestamp, activeMaxTimestamp);
+    }
+
+    private void flushBuffer() throws IOException {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        try {
+            writeFully(writeBuffer);
+        } finally {
+            writeBuffer.clear();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            activeSize += activeChannel.write(buffer);
+        }
+    }
+
+    private void applyRetention() {
+        List<AuditLogSegment> segments = AuditLogSegment.listSegments(folder);
+        long totalSize = 0;
+        int sealedCount = 0;
+        for (AuditLogSegment segment : segments) {
+            if (!segment.isActive()) {
+                totalSize += segment.getFile().length();
+                sealedCount++;
+            }
+        }
+        for (AuditLogSegment segment : segments) {
+            if (sealedCount <= retentionSegmentCount && totalSize <= retentionSizeBytes) {
+                break;
+            }
+            if (segment.isActive()) {
+                continue;
+            }
+            long size = segment.getFile().length();
+            if (segment.getFile().delete()) {
+                logger.info("Removed audit log segment {}", segment.getFile());
+                deletedSegmentsCounter.increment();
+            } else {
+                logger.warn("Cannot remove audit log segment {}", segment.getFile());
+            }
+            totalSize -= size;
+            sealedCount--;
+        }
+    }
+
+    /**
+     * Seals all active segments left over from a previous run, and returns the next available sequence number.
+     */
+    private long recoverSegments() {
+        long maxSequence = -1;
+        for (AuditLogSegment segment : AuditLogSegment.listSegments(folder)) {
+            maxSequence = Math.max(maxSequence, segment.getSequence());
+            if (segment.isActive()) {
+                try {
+                    recoverActiveSegment(segment);
+                } catch (IOException e) {
+                    logger.warn("Cannot recover audit log segment {} ({})", segment.getFile(), e.getMessage());
+                }
+            }
+        }
+        return maxSequence + 1;
+    }
+
+    private void recoverActiveSegment(AuditLogSegment segment) throws IOException {
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        long validSize;
+        try (FileChannel channel = FileChannel.open(segment.getFile().toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!AuditRecordCodec.isValidSegmentHeader(buffer)) {
+                validSize = 0;
+            } else {
+                validSize = buffer.position();
+                Optional<AuditRecord> next;
+                while ((next = AuditRecordCodec.decode(buffer)).isPresent()) {
+                    minTimestamp = Math.min(minTimestamp, next.get().getTimestamp());
+                    maxTimestamp = Math.max(maxTimestamp, next.get().getTimestamp());
+                    validSize = buffer.position();
+                }
+            }
+            if (validSize < channel.size()) {
+                logger.warn("Truncating audit log segment {} from {} to {} bytes", segment.getFile(), channel.size(), validSize);
+                channel.truncate(validSize);
+            }
+        }
+        if (minTimestamp == Long.MAX_VALUE) {
+            if (!segment.getFile().delete()) {
+                logger.warn("Cannot remove empty audit log segment {}", segment.getFile());
+            }
+            return;
+        }
+        seal(segment.getFile(), segment.getSequence(), minTimestamp, maxTimestamp);
+    }
+
+    private void seal(File file, long sequence, long minTimestamp, long maxTimestamp) throws IOException {
+        if (minTimestamp > maxTimestamp) {
+            // No records written
+            if (!file.delete()) {
+                throw new IOException("Cannot remove empty audit log segment " + file);
+            }
+            return;
+        }
+        File sealedFile = AuditLogSegment.sealedFile(folder, sequence, minTimestamp, maxTimestamp);
+        if (!file.renameTo(sealedFile)) {
+            throw new IOException("Cannot rename audit log segment " + file + " to " + sealedFile);
+        }
+    }
+}
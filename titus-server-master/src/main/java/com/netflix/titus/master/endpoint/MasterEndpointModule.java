@@ -24,6 +24,7 @@ import com.netflix.archaius.ConfigProxyFactory;
 import com.netflix.titus.master.endpoint.grpc.GrpcEndpointConfiguration;
 import com.netflix.titus.master.endpoint.grpc.TitusMasterGrpcServer;
 import com.netflix.titus.runtime.endpoint.authorization.AuthorizationServiceModule;
+import com.netflix.titus.runtime.endpoint.common.grpc.interceptor.GrpcConcurrencyLimitConfiguration;
 import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolveModule;
 
 public class MasterEndpointModule extends AbstractModule {
@@ -39,4 +40,10 @@ public class MasterEndpointModule extends AbstractModule {
     public GrpcEndpointConfiguration getGrpcEndpointConfiguration(ConfigProxyFactory factory) {
         return factory.newProxy(GrpcEndpointConfiguration.class);
     }
+
+    @Provides
+    @Singleton
+    public GrpcConcurrencyLimitConfiguration getGrpcConcurrencyLimitConfiguration(ConfigProxyFactory factory) {
+        return factory.newProxy(GrpcConcurrencyLimitConfiguration.class);
+    }
 }
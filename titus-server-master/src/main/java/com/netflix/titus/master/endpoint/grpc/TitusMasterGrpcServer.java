@@ -43,6 +43,7 @@ import com.netflix.titus.grpc.protogen.SchedulerServiceGrpc.SchedulerServiceImpl
 import com.netflix.titus.grpc.protogen.SupervisorServiceGrpc;
 import com.netflix.titus.grpc.protogen.SupervisorServiceGrpc.SupervisorServiceImplBase;
 import com.netflix.titus.master.endpoint.common.grpc.interceptor.LeaderServerInterceptor;
+import com.netflix.titus.runtime.endpoint.common.grpc.interceptor.AdaptiveConcurrencyLimitingServerInterceptor;
 import com.netflix.titus.runtime.endpoint.common.grpc.interceptor.ErrorCatchingServerInterceptor;
 import com.netflix.titus.runtime.endpoint.metadata.V3HeaderInterceptor;
 import io.grpc.Server;
@@ -68,6 +69,7 @@ public class TitusMasterGrpcServer {
     private final SchedulerServiceImplBase schedulerService;
     private final GrpcEndpointConfiguration config;
     private final LeaderServerInterceptor leaderServerInterceptor;
+    private final AdaptiveConcurrencyLimitingServerInterceptor concurrencyLimitingInterceptor;
     private final LoadBalancerServiceImplBase loadBalancerService;
 
     private final AtomicBoolean started = new AtomicBoolean();
@@ -85,7 +87,8 @@ public class TitusMasterGrpcServer {
             LoadBalancerServiceImplBase loadBalancerService,
             SchedulerServiceImplBase schedulerService,
             GrpcEndpointConfiguration config,
-            LeaderServerInterceptor leaderServerInterceptor) {
+            LeaderServerInterceptor leaderServerInterceptor,
+            AdaptiveConcurrencyLimitingServerInterceptor concurrencyLimitingInterceptor) {
         this.healthService = healthService;
         this.titusSupervisorService = titusSupervisorService;
         this.jobManagementService = jobManagementService;
@@ -96,6 +99,7 @@ public class TitusMasterGrpcServer {
         this.schedulerService = schedulerService;
         this.config = config;
         this.leaderServerInterceptor = leaderServerInterceptor;
+        this.concurrencyLimitingInterceptor = concurrencyLimitingInterceptor;
     }
 
     public int getGrpcPort() {
@@ -180,6 +184,6 @@ public class TitusMasterGrpcServer {
      * Override to add server side interceptors.
      */
     protected List<ServerInterceptor> createInterceptors(ServiceDescriptor serviceDescriptor) {
-        return Arrays.asList(new ErrorCatchingServerInterceptor(), leaderServerInterceptor, new V3HeaderInterceptor());
+        return Arrays.asList(new ErrorCatchingServerInterceptor(), concurrencyLimitingInterceptor, leaderServerInterceptor, new V3HeaderInterceptor());
     }
 }
@@ -16,12 +16,17 @@
 
 package com.netflix.titus.master.jobmanager.endpoint.v3;
 
+import javax.inject.Singleton;
+
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
+import com.netflix.archaius.ConfigProxyFactory;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.grpc.protogen.JobManagementServiceGrpc.JobManagementServiceImplBase;
 import com.netflix.titus.master.jobmanager.endpoint.v3.grpc.DefaultJobManagementServiceGrpc;
 import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
+import com.netflix.titus.runtime.endpoint.v3.grpc.GrpcObjectsCacheConfiguration;
 
 public class V3EndpointModule extends AbstractModule {
 
@@ -33,4 +38,10 @@ public class V3EndpointModule extends AbstractModule {
     protected void configure() {
         bind(JobManagementServiceImplBase.class).to(DefaultJobManagementServiceGrpc.class);
     }
+
+    @Provides
+    @Singleton
+    public GrpcObjectsCacheConfiguration getGrpcObjectsCacheConfiguration(ConfigProxyFactory factory) {
+        return factory.newProxy(GrpcObjectsCacheConfiguration.class);
+    }
 }
@@ -44,7 +44,6 @@ import com.netflix.titus.api.service.TitusServiceException;
 import com.netflix.titus.common.model.sanitizer.EntitySanitizer;
 import com.netflix.titus.common.model.validator.ValidationError;
 import com.netflix.titus.common.runtime.TitusRuntime;
-import com.netflix.titus.common.util.ProtobufExt;
 import com.netflix.titus.common.util.rx.ObservableExt;
 import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.grpc.protogen.Job;
@@ -76,10 +75,11 @@ import com.netflix.titus.master.model.ResourceDimensions;
 import com.netflix.titus.master.service.management.ApplicationSlaManagementService;
 import com.netflix.titus.runtime.endpoint.JobQueryCriteria;
 import com.netflix.titus.runtime.endpoint.authorization.AuthorizationService;
-import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
 import com.netflix.titus.runtime.endpoint.metadata.CallMetadata;
 import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
 import com.netflix.titus.runtime.endpoint.metadata.CallMetadataUtils;
+import com.netflix.titus.runtime.endpoint.v3.grpc.GrpcObjectsCache;
+import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcFieldsProjection;
 import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters;
 import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3JobQueryCriteriaEvaluator;
 import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3TaskQueryCriteriaEvaluator;
@@ -117,7 +117,7 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
     private final AgentManagementService agentManagementService;
     private final ApplicationSlaManagementService capacityGroupService;
     private final V3JobOperations jobOperations;
-    private final LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo;
+    private final GrpcObjectsCache grpcObjectsCache;
     private final EntitySanitizer entitySanitizer;
     private final Predicate<com.netflix.titus.api.jobmanager.model.job.JobDescriptor> disruptionBudgetEnabledPredicate;
     private final CallMetadataResolver callMetadataResolver;
@@ -130,7 +130,7 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
                                            AgentManagementService agentManagementService,
                                            ApplicationSlaManagementService capacityGroupService,
                                            V3JobOperations jobOperations,
-                                           LogStorageInfo<com.netflix.titus.api.jobmanager.model.job.Task> logStorageInfo,
+                                           GrpcObjectsCache grpcObjectsCache,
                                            @Named(JOB_STRICT_SANITIZER) EntitySanitizer entitySanitizer,
                                            @Named(FeatureRolloutPlans.DISRUPTION_BUDGET_FEATURE) Predicate<com.netflix.titus.api.jobmanager.model.job.JobDescriptor> disruptionBudgetEnabledPredicate,
                                            CallMetadataResolver callMetadataResolver,
@@ -141,7 +141,7 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
         this.agentManagementService = agentManagementService;
         this.capacityGroupService = capacityGroupService;
         this.jobOperations = jobOperations;
-        this.logStorageInfo = logStorageInfo;
+        this.grpcObjectsCache = grpcObjectsCache;
         this.entitySanitizer = entitySanitizer;
         this.disruptionBudgetEnabledPredicate = disruptionBudgetEnabledPredicate;
         this.callMetadataResolver = callMetadataResolver;
@@ -224,16 +224,16 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
                     JobManagerCursors::coreJobIndexOf,
                     JobManagerCursors::newCoreCursorFrom
             );
-            List<Job> grpcJobs = queryResult.getLeft().stream().map(V3GrpcModelConverters::toGrpcJob).collect(Collectors.toList());
-
-            JobQueryResult grpcQueryResult;
+            List<Job> grpcJobs;
             if (jobQuery.getFieldsList().isEmpty()) {
-                grpcQueryResult = toJobQueryResult(grpcJobs, queryResult.getRight());
+                grpcJobs = queryResult.getLeft().stream().map(grpcObjectsCache::getJob).collect(Collectors.toList());
             } else {
                 Set<String> fields = new HashSet<>(jobQuery.getFieldsList());
                 fields.addAll(JOB_MINIMUM_FIELD_SET);
-                grpcQueryResult = toJobQueryResult(grpcJobs.stream().map(j -> ProtobufExt.copy(j, fields)).collect(Collectors.toList()), queryResult.getRight());
+                V3GrpcFieldsProjection projection = V3GrpcFieldsProjection.of(fields);
+                grpcJobs = queryResult.getLeft().stream().map(job -> grpcObjectsCache.getJob(job, projection)).collect(Collectors.toList());
             }
+            JobQueryResult grpcQueryResult = toJobQueryResult(grpcJobs, queryResult.getRight());
 
             responseObserver.onNext(grpcQueryResult);
             responseObserver.onCompleted();
@@ -248,7 +248,7 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
 
         try {
             jobOperations.getJob(id)
-                    .map(j -> Observable.just(V3GrpcModelConverters.toGrpcJob(j)))
+                    .map(j -> Observable.just(grpcObjectsCache.getJob(j)))
                     .orElseGet(() -> Observable.error(JobManagerException.jobNotFound(id)))
                     .subscribe(
                             responseObserver::onNext,
@@ -282,16 +282,16 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
                     JobManagerCursors::newCoreCursorFrom
             );
 
-            List<Task> grpcTasks = queryResult.getLeft().stream().map(t -> V3GrpcModelConverters.toGrpcTask(t, logStorageInfo)).collect(Collectors.toList());
-
-            TaskQueryResult grpcQueryResult;
+            List<Task> grpcTasks;
             if (taskQuery.getFieldsList().isEmpty()) {
-                grpcQueryResult = toTaskQueryResult(grpcTasks, queryResult.getRight());
+                grpcTasks = queryResult.getLeft().stream().map(grpcObjectsCache::getTask).collect(Collectors.toList());
             } else {
                 Set<String> fields = new HashSet<>(taskQuery.getFieldsList());
                 fields.addAll(TASK_MINIMUM_FIELD_SET);
-                grpcQueryResult = toTaskQueryResult(grpcTasks.stream().map(t -> ProtobufExt.copy(t, fields)).collect(Collectors.toList()), queryResult.getRight());
+                V3GrpcFieldsProjection projection = V3GrpcFieldsProjection.of(fields);
+                grpcTasks = queryResult.getLeft().stream().map(task -> grpcObjectsCache.getTask(task, projection)).collect(Collectors.toList());
             }
+            TaskQueryResult grpcQueryResult = toTaskQueryResult(grpcTasks, queryResult.getRight());
 
             responseObserver.onNext(grpcQueryResult);
             responseObserver.onCompleted();
@@ -308,7 +308,7 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
             jobOperations.findTaskById(id)
                     .map(p -> {
                         com.netflix.titus.api.jobmanager.model.job.Task task = p.getRight();
-                        return Observable.just(V3GrpcModelConverters.toGrpcTask(task, logStorageInfo));
+                        return Observable.just(grpcObjectsCache.getTask(task));
                     })
                     .orElseGet(() -> Observable.error(JobManagerException.taskNotFound(id)))
                     .subscribe(
@@ -511,7 +511,7 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
         V3TaskQueryCriteriaEvaluator tasksPredicate = new V3TaskQueryCriteriaEvaluator(criteria, titusRuntime);
 
         Observable<JobChangeNotification> eventStream = jobOperations.observeJobs(jobsPredicate, tasksPredicate)
-                .map(event -> V3GrpcModelConverters.toGrpcJobChangeNotification(event, logStorageInfo))
+                .map(grpcObjectsCache::toGrpcJobChangeNotification)
                 .compose(ObservableExt.head(() -> {
                     List<JobChangeNotification> snapshot = createJobsSnapshot(jobsPredicate, tasksPredicate);
                     snapshot.add(SNAPSHOT_END_MARKER);
@@ -537,7 +537,7 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
     public void observeJob(JobId request, StreamObserver<JobChangeNotification> responseObserver) {
         String jobId = request.getId();
         Observable<JobChangeNotification> eventStream = jobOperations.observeJob(jobId)
-                .map(event -> V3GrpcModelConverters.toGrpcJobChangeNotification(event, logStorageInfo))
+                .map(grpcObjectsCache::toGrpcJobChangeNotification)
                 .compose(ObservableExt.head(() -> {
                     List<JobChangeNotification> snapshot = createJobSnapshot(jobId);
                     snapshot.add(SNAPSHOT_END_MARKER);
@@ -667,14 +667,14 @@ public class DefaultJobManagementServiceGrpc extends JobManagementServiceGrpc.Jo
     }
 
     private JobChangeNotification toJobChangeNotification(com.netflix.titus.api.jobmanager.model.job.Job<?> coreJob) {
-        Job grpcJob = V3GrpcModelConverters.toGrpcJob(coreJob);
+        Job grpcJob = grpcObjectsCache.getJob(coreJob);
         return JobChangeNotification.newBuilder()
                 .setJobUpdate(JobChangeNotification.JobUpdate.newBuilder().setJob(grpcJob))
                 .build();
     }
 
     private JobChangeNotification toJobChangeNotification(com.netflix.titus.api.jobmanager.model.job.Task coreTask) {
-        com.netflix.titus.grpc.protogen.Task grpcTask = V3GrpcModelConverters.toGrpcTask(coreTask, logStorageInfo);
+        com.netflix.titus.grpc.protogen.Task grpcTask = grpcObjectsCache.getTask(coreTask);
         return JobChangeNotification.newBuilder()
                 .setTaskUpdate(JobChangeNotification.TaskUpdate.newBuilder().setTask(grpcTask))
                 .build();
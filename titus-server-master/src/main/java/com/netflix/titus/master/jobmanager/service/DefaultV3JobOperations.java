@@ -28,7 +28,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import com.netflix.titus.api.FeatureActivationConfiguration;
-import com.netflix.titus.api.jobmanager.TaskAttributes;
 import com.netflix.titus.api.jobmanager.model.job.Capacity;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.JobCompatibility;
@@ -42,8 +41,6 @@ import com.netflix.titus.api.jobmanager.model.job.TaskState;
 import com.netflix.titus.api.jobmanager.model.job.TaskStatus;
 import com.netflix.titus.api.jobmanager.model.job.disruptionbudget.DisruptionBudget;
 import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
-import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
-import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
 import com.netflix.titus.api.jobmanager.model.job.ext.ServiceJobExt;
 import com.netflix.titus.api.jobmanager.service.JobManagerException;
 import com.netflix.titus.api.jobmanager.service.V3JobOperations;
@@ -51,7 +48,6 @@ import com.netflix.titus.api.jobmanager.store.JobStore;
 import com.netflix.titus.common.framework.reconciler.ChangeAction;
 import com.netflix.titus.common.framework.reconciler.EntityHolder;
 import com.netflix.titus.common.framework.reconciler.ModelActionHolder;
-import com.netflix.titus.common.framework.reconciler.ModelActionHolder.Model;
 import com.netflix.titus.common.framework.reconciler.ReconciliationEngine;
 import com.netflix.titus.common.framework.reconciler.ReconciliationFramework;
 import com.netflix.titus.common.runtime.TitusRuntime;
@@ -70,7 +66,6 @@ import com.netflix.titus.master.jobmanager.service.common.action.task.BasicTaskA
 import com.netflix.titus.master.jobmanager.service.common.action.task.KillInitiatedActions;
 import com.netflix.titus.master.jobmanager.service.event.JobManagerReconcilerEvent;
 import com.netflix.titus.master.jobmanager.service.event.JobModelReconcilerEvent.JobModelUpdateReconcilerEvent;
-import com.netflix.titus.master.jobmanager.service.event.JobModelReconcilerEvent.JobNewModelReconcilerEvent;
 import com.netflix.titus.master.jobmanager.service.limiter.JobSubmitLimiter;
 import com.netflix.titus.master.jobmanager.service.service.action.BasicServiceJobActions;
 import com.netflix.titus.master.jobmanager.service.service.action.MoveTaskBetweenJobsAction;
@@ -83,7 +78,7 @@ import reactor.core.publisher.Mono;
 import rx.Completable;
 import rx.Observable;
 import rx.Subscription;
-import rx.functions.Func1;
+import rx.schedulers.Schedulers;
 
 import static com.netflix.titus.common.util.FunctionExt.alwaysTrue;
 
@@ -108,6 +103,7 @@ public class DefaultV3JobOperations implements V3JobOperations {
     private ReconciliationFramework<JobManagerReconcilerEvent> reconciliationFramework;
     private Subscription transactionLoggerSubscription;
     private Subscription reconcilerEventSubscription;
+    private JobManagerEventDispatcher eventDispatcher;
 
     /**
      * WARNING: we depend here on {@link ManagementSubsystemInitializer} to enforce proper initialization order.
@@ -147,6 +143,10 @@ public class DefaultV3JobOperations implements V3JobOperations {
                 () -> logger.info("Event stream completed")
         );
 
+        if (jobManagerConfiguration.isEventDispatcherEnabled()) {
+            this.eventDispatcher = new JobManagerEventDispatcher(reconciliationFramework.events(), jobManagerConfiguration, titusRuntime, Schedulers.computation());
+        }
+
         reconciliationFramework.start();
     }
 
@@ -173,6 +173,9 @@ public class DefaultV3JobOperations implements V3JobOperations {
     @PreDestroy
     public void shutdown() {
         ObservableExt.safeUnsubscribe(transactionLoggerSubscription, reconcilerEventSubscription);
+        if (eventDispatcher != null) {
+            eventDispatcher.shutdown();
+        }
         if (reconciliationFramework != null) {
             reconciliationFramework.stop(RECONCILER_SHUTDOWN_TIMEOUT_MS);
         }
@@ -198,9 +201,11 @@ public class DefaultV3JobOperations implements V3JobOperations {
                     return store.storeJob(job).toObservable()
                             .concatWith(reconciliationFramework.newEngine(EntityHolder.newRoot(jobId, job)))
                             .map(engine -> jobId)
-                            .doOnTerminate(() -> jobSubmitLimiter.releaseId(jobDescriptor))
                             .doOnCompleted(() -> logger.info("Created job {}", jobId))
-                            .doOnError(e -> logger.info("Job {} creation failure", jobId, e));
+                            .doOnError(e -> {
+                                jobSubmitLimiter.releaseId(jobDescriptor);
+                                logger.info("Job {} creation failure", jobId, e);
+                            });
                 });
     }
 
@@ -478,6 +483,12 @@ public class DefaultV3JobOperations implements V3JobOperations {
     @Override
     public Observable<JobManagerEvent<?>> observeJobs(Predicate<Pair<Job<?>, List<Task>>> jobsPredicate,
                                                       Predicate<Pair<Job<?>, Task>> tasksPredicate) {
+        // Unfiltered subscribers are in-process components, which get the events directly on the reconciler thread,
+        // and are never terminated because of a slow event processing.
+        boolean unfiltered = (Object) jobsPredicate == alwaysTrue() && (Object) tasksPredicate == alwaysTrue();
+        if (eventDispatcher != null && !unfiltered) {
+            return eventDispatcher.observeJobs(jobsPredicate, tasksPredicate);
+        }
         return toJobManagerEvents(reconciliationFramework.events(), jobsPredicate, tasksPredicate);
     }
 
@@ -520,94 +531,9 @@ public class DefaultV3JobOperations implements V3JobOperations {
     private Observable<JobManagerEvent<?>> toJobManagerEvents(Observable<JobManagerReconcilerEvent> events,
                                                               Predicate<Pair<Job<?>, List<Task>>> jobsPredicate,
                                                               Predicate<Pair<Job<?>, Task>> tasksPredicate) {
-        return events.map(toJobManagerEvent(jobsPredicate, tasksPredicate))
-                .filter(Optional::isPresent)
-                .map(Optional::get);
-    }
-
-    private Func1<JobManagerReconcilerEvent, Optional<JobManagerEvent<?>>> toJobManagerEvent(
-            Predicate<Pair<Job<?>, List<Task>>> jobsPredicate, Predicate<Pair<Job<?>, Task>> tasksPredicate) {
-        return event -> {
-            if (event instanceof JobNewModelReconcilerEvent) {
-                JobNewModelReconcilerEvent newModelEvent = (JobNewModelReconcilerEvent) event;
-                return toJobUpdateEvent(newModelEvent, jobsPredicate);
-            }
-            if (!(event instanceof JobModelUpdateReconcilerEvent)) {
-                return Optional.empty();
-            }
-            JobModelUpdateReconcilerEvent modelUpdateEvent = (JobModelUpdateReconcilerEvent) event;
-            if (modelUpdateEvent.getModelActionHolder().getModel() != Model.Reference) {
-                return Optional.empty();
-            }
-            if (modelUpdateEvent.getChangedEntityHolder().getEntity() instanceof Job) {
-                return toJobUpdateEvent(modelUpdateEvent, jobsPredicate);
-            }
-            return toTaskUpdateEvent(modelUpdateEvent, tasksPredicate);
-        };
-    }
-
-    private Optional<JobManagerEvent<?>> toJobUpdateEvent(JobNewModelReconcilerEvent newModelEvent,
-                                                          Predicate<Pair<Job<?>, List<Task>>> jobsPredicate) {
-        Job<?> job = newModelEvent.getNewRoot().getEntity();
-        List<Task> tasks = newModelEvent.getNewRoot().getChildren()
-                .stream()
-                .map(EntityHolder::<Task>getEntity)
-                .collect(Collectors.toList());
-        return jobsPredicate.test(Pair.of(job, tasks))
-                ? Optional.of(JobUpdateEvent.newJob(job))
-                : Optional.empty();
-    }
-
-    private Optional<JobManagerEvent<?>> toJobUpdateEvent(JobModelUpdateReconcilerEvent modelUpdateEvent,
-                                                          Predicate<Pair<Job<?>, List<Task>>> jobsPredicate) {
-        Job<?> changed = modelUpdateEvent.getChangedEntityHolder().getEntity();
-        List<Task> tasks = modelUpdateEvent.getChangedEntityHolder().getChildren()
-                .stream()
-                .map(EntityHolder::<Task>getEntity)
-                .collect(Collectors.toList());
-
-        if (!modelUpdateEvent.getPreviousEntityHolder().isPresent()) {
-            return jobsPredicate.test(Pair.of(changed, tasks))
-                    ? Optional.of(JobUpdateEvent.jobChange(changed, changed))
-                    : Optional.empty();
-        }
-        Job<?> previous = modelUpdateEvent.getPreviousEntityHolder().get().getEntity();
-        if (changed.equals(previous)) {
-            return Optional.empty();
-        }
-        return jobsPredicate.test(Pair.of(changed, tasks))
-                ? Optional.of(JobUpdateEvent.jobChange(changed, previous))
-                : Optional.empty();
-    }
-
-    private Optional<JobManagerEvent<?>> toTaskUpdateEvent(JobModelUpdateReconcilerEvent modelUpdateEvent,
-                                                           Predicate<Pair<Job<?>, Task>> tasksPredicate) {
-        Job<?> job = modelUpdateEvent.getJob();
-        Task changed = modelUpdateEvent.getChangedEntityHolder().getEntity();
-        if (!modelUpdateEvent.getPreviousEntityHolder().isPresent()) {
-            return tasksPredicate.test(Pair.of(job, changed))
-                    ? Optional.of(toNewTaskUpdateEvent(job, changed))
-                    : Optional.empty();
-        }
-        Task previous = modelUpdateEvent.getPreviousEntityHolder().get().getEntity();
-        if (changed.equals(previous)) {
-            return Optional.empty();
-        }
-        return tasksPredicate.test(Pair.of(job, changed))
-                ? Optional.of(TaskUpdateEvent.taskChange(job, changed, previous))
-                : Optional.empty();
-    }
-
-    /**
-     * Check if it really is a new task, or if it existed before and was moved from another Job.
-     *
-     * @return an event indicating if the task was moved from another job
-     */
-    private TaskUpdateEvent toNewTaskUpdateEvent(Job<?> job, Task newTask) {
-        if (newTask.getTaskContext().containsKey(TaskAttributes.TASK_ATTRIBUTES_MOVED_FROM_JOB)) {
-            return TaskUpdateEvent.newTaskFromAnotherJob(job, newTask);
-        }
-        return TaskUpdateEvent.newTask(job, newTask);
+        return events.map(JobManagerEventDispatcher::toEventCandidate)
+                .filter(candidate -> candidate.isPresent() && candidate.get().matches(jobsPredicate, tasksPredicate))
+                .map(candidate -> candidate.get().getEvent());
     }
 
     private boolean isDesiredCapacityInvalid(Capacity targetCapacity, Job<ServiceJobExt> serviceJob) {
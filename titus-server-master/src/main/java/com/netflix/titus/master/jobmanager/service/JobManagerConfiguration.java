@@ -88,4 +88,26 @@ public interface JobManagerConfiguration {
      */
     @DefaultValue("false")
     boolean isFailOnDataValidation();
+
+    /**
+     * If enabled, a reference change action of a job is started as soon as it does not overlap with the actions in
+     * flight, instead of waiting for all of them to complete. This allows store updates of independent tasks of the same
+     * job to run concurrently. Applied to engines created after the change.
+     */
+    @DefaultValue("false")
+    boolean isPipelinedTransactionsEnabled();
+
+    /**
+     * If enabled, filtered job event subscribers share a single subscription to the reconciler event stream, with
+     * the events routed to subscribers via an index built from their query criteria. Requires restart.
+     */
+    @DefaultValue("true")
+    boolean isEventDispatcherEnabled();
+
+    /**
+     * Maximum number of job events queued for delivery to a single subscriber. A subscriber exceeding this limit
+     * is terminated.
+     */
+    @DefaultValue("10000")
+    int getEventDispatcherQueueSize();
 }
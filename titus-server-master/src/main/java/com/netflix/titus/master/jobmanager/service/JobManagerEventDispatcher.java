@@ -0,0 +1,386 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.jobmanager.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.titus.api.jobmanager.TaskAttributes;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobState;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
+import com.netflix.titus.common.framework.reconciler.EntityHolder;
+import com.netflix.titus.common.framework.reconciler.ModelActionHolder.Model;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.rx.ObservableExt;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.grpc.protogen.JobDescriptor.JobSpecCase;
+import com.netflix.titus.grpc.protogen.JobStatus;
+import com.netflix.titus.grpc.protogen.TaskStatus;
+import com.netflix.titus.master.MetricConstants;
+import com.netflix.titus.master.jobmanager.service.event.JobManagerReconcilerEvent;
+import com.netflix.titus.master.jobmanager.service.event.JobModelReconcilerEvent.JobModelUpdateReconcilerEvent;
+import com.netflix.titus.master.jobmanager.service.event.JobModelReconcilerEvent.JobNewModelReconcilerEvent;
+import com.netflix.titus.runtime.endpoint.JobQueryCriteria;
+import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3AbstractQueryCriteriaEvaluator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.exceptions.MissingBackpressureException;
+import rx.subjects.PublishSubject;
+
+/**
+ * Shares a single subscription to the reconciliation framework event stream between all
+ * {@link com.netflix.titus.api.jobmanager.service.V3JobOperations#observeJobs} subscribers. Each reconciler event
+ * is converted to a {@link JobManagerEvent} once, and evaluated only against the subscribers that can possibly match it.
+ * To find them, subscribers are indexed by the most selective key of their query criteria (job ids, application name or
+ * job state). Subscribers with none of those keys in their criteria, or with custom predicates, are evaluated against
+ * all events. The index only prunes the subscribers that cannot match, the full predicates are still checked.
+ * <p>
+ * The reconciliation thread only puts events into the per subscriber bounded queues, and the delivery happens
+ * on a separate scheduler. A subscriber that cannot keep up with the event stream and overflows its queue is terminated
+ * with an error, so it can resubscribe and get a fresh snapshot.
+ */
+class JobManagerEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobManagerEventDispatcher.class);
+
+    private static final String ROOT_METRIC_NAME = MetricConstants.METRIC_ROOT + "jobManager.eventDispatcher.";
+
+    private final JobManagerConfiguration configuration;
+    private final Scheduler scheduler;
+
+    private final Set<EventSubscriber> subscribers = new CopyOnWriteArraySet<>();
+    private volatile SubscriberIndex index = new SubscriberIndex(Collections.emptyList());
+
+    private final Registry registry;
+    private final Counter evaluationsCounter;
+    private final Counter deliveriesCounter;
+    private final Counter overflowsCounter;
+
+    private final Subscription eventSubscription;
+
+    JobManagerEventDispatcher(Observable<JobManagerReconcilerEvent> events,
+                              JobManagerConfiguration configuration,
+                              TitusRuntime titusRuntime,
+                              Scheduler scheduler) {
+        this.configuration = configuration;
+        this.scheduler = scheduler;
+
+        this.registry = titusRuntime.getRegistry();
+        this.evaluationsCounter = registry.counter(ROOT_METRIC_NAME + "evaluations");
+        this.deliveriesCounter = registry.counter(ROOT_METRIC_NAME + "deliveries");
+        this.overflowsCounter = registry.counter(ROOT_METRIC_NAME + "overflows");
+        PolledMeter.using(registry).withName(ROOT_METRIC_NAME + "subscribers").monitorValue(this, self -> self.subscribers.size());
+
+        this.eventSubscription = events.subscribe(
+                this::dispatch,
+                e -> {
+                    logger.error("Reconciler event stream terminated with an error", e);
+                    subscribers.forEach(subscriber -> subscriber.subject.onError(e));
+                },
+                () -> {
+                    logger.info("Reconciler event stream completed");
+                    subscribers.forEach(subscriber -> subscriber.subject.onCompleted());
+                }
+        );
+    }
+
+    void shutdown() {
+        ObservableExt.safeUnsubscribe(eventSubscription);
+        PolledMeter.remove(registry, registry.createId(ROOT_METRIC_NAME + "subscribers"));
+    }
+
+    Observable<JobManagerEvent<?>> observeJobs(Predicate<Pair<Job<?>, List<Task>>> jobsPredicate,
+                                               Predicate<Pair<Job<?>, Task>> tasksPredicate) {
+        return Observable.defer(() -> {
+            EventSubscriber subscriber = new EventSubscriber(jobsPredicate, tasksPredicate);
+            return subscriber.subject
+                    .doOnSubscribe(() -> register(subscriber))
+                    .observeOn(scheduler, configuration.getEventDispatcherQueueSize())
+                    .doOnError(e -> {
+                        if (e instanceof MissingBackpressureException) {
+                            overflowsCounter.increment();
+                            logger.warn("Terminating slow job event subscriber, which overflowed its queue (size={})", configuration.getEventDispatcherQueueSize());
+                        }
+                    })
+                    .doOnUnsubscribe(() -> unregister(subscriber));
+        });
+    }
+
+    @VisibleForTesting
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void register(EventSubscriber subscriber) {
+        synchronized (subscribers) {
+            subscribers.add(subscriber);
+            this.index = new SubscriberIndex(subscribers);
+        }
+    }
+
+    private void unregister(EventSubscriber subscriber) {
+        synchronized (subscribers) {
+            if (subscribers.remove(subscriber)) {
+                this.index = new SubscriberIndex(subscribers);
+            }
+        }
+    }
+
+    private void dispatch(JobManagerReconcilerEvent reconcilerEvent) {
+        SubscriberIndex current = index;
+        if (current.isEmpty()) {
+            return;
+        }
+        Optional<EventCandidate> candidateOpt = toEventCandidate(reconcilerEvent);
+        if (!candidateOpt.isPresent()) {
+            return;
+        }
+        EventCandidate candidate = candidateOpt.get();
+
+        List<EventSubscriber> targets = current.findCandidates(candidate.getJob());
+        evaluationsCounter.increment(targets.size());
+        for (EventSubscriber subscriber : targets) {
+            boolean matches;
+            try {
+                matches = candidate.matches(subscriber.jobsPredicate, subscriber.tasksPredicate);
+            } catch (Exception e) {
+                logger.warn("Job event subscriber predicate evaluation failure", e);
+                subscriber.subject.onError(e);
+                unregister(subscriber);
+                continue;
+            }
+            if (matches) {
+                subscriber.subject.onNext(candidate.getEvent());
+                deliveriesCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Converts a reconciler event to {@link JobManagerEvent}, keeping all data needed to evaluate it against
+     * the subscriber predicates. Returns {@link Optional#empty()} for events that should not be emitted at all.
+     */
+    static Optional<EventCandidate> toEventCandidate(JobManagerReconcilerEvent event) {
+        if (event instanceof JobNewModelReconcilerEvent) {
+            EntityHolder newRoot = ((JobNewModelReconcilerEvent) event).getNewRoot();
+            Job<?> job = newRoot.getEntity();
+            return Optional.of(EventCandidate.forJob(JobUpdateEvent.newJob(job), job, newRoot));
+        }
+        if (!(event instanceof JobModelUpdateReconcilerEvent)) {
+            return Optional.empty();
+        }
+        JobModelUpdateReconcilerEvent modelUpdateEvent = (JobModelUpdateReconcilerEvent) event;
+        if (modelUpdateEvent.getModelActionHolder().getModel() != Model.Reference) {
+            return Optional.empty();
+        }
+        if (modelUpdateEvent.getChangedEntityHolder().getEntity() instanceof Job) {
+            return toJobEventCandidate(modelUpdateEvent);
+        }
+        return toTaskEventCandidate(modelUpdateEvent);
+    }
+
+    private static Optional<EventCandidate> toJobEventCandidate(JobModelUpdateReconcilerEvent modelUpdateEvent) {
+        EntityHolder changedHolder = modelUpdateEvent.getChangedEntityHolder();
+        Job<?> changed = changedHolder.getEntity();
+
+        if (!modelUpdateEvent.getPreviousEntityHolder().isPresent()) {
+            return Optional.of(EventCandidate.forJob(JobUpdateEvent.jobChange(changed, changed), changed, changedHolder));
+        }
+        Job<?> previous = modelUpdateEvent.getPreviousEntityHolder().get().getEntity();
+        if (changed.equals(previous)) {
+            return Optional.empty();
+        }
+        return Optional.of(EventCandidate.forJob(JobUpdateEvent.jobChange(changed, previous), changed, changedHolder));
+    }
+
+    private static Optional<EventCandidate> toTaskEventCandidate(JobModelUpdateReconcilerEvent modelUpdateEvent) {
+        Job<?> job = modelUpdateEvent.getJob();
+        Task changed = modelUpdateEvent.getChangedEntityHolder().getEntity();
+        if (!modelUpdateEvent.getPreviousEntityHolder().isPresent()) {
+            return Optional.of(EventCandidate.forTask(toNewTaskUpdateEvent(job, changed), job, changed));
+        }
+        Task previous = modelUpdateEvent.getPreviousEntityHolder().get().getEntity();
+        if (changed.equals(previous)) {
+            return Optional.empty();
+        }
+        return Optional.of(EventCandidate.forTask(TaskUpdateEvent.taskChange(job, changed, previous), job, changed));
+    }
+
+    /**
+     * Check if it really is a new task, or if it existed before and was moved from another Job.
+     *
+     * @return an event indicating if the task was moved from another job
+     */
+    private static TaskUpdateEvent toNewTaskUpdateEvent(Job<?> job, Task newTask) {
+        if (newTask.getTaskContext().containsKey(TaskAttributes.TASK_ATTRIBUTES_MOVED_FROM_JOB)) {
+            return TaskUpdateEvent.newTaskFromAnotherJob(job, newTask);
+        }
+        return TaskUpdateEvent.newTask(job, newTask);
+    }
+
+    static class EventCandidate {
+
+        private final JobManagerEvent<?> event;
+        private final Job<?> job;
+        private final Task task;
+        private final EntityHolder jobHolder;
+
+        // Computed lazily, as it is needed only if there are subscribers with a job predicate to evaluate.
+        private List<Task> tasks;
+
+        private EventCandidate(JobManagerEvent<?> event, Job<?> job, Task task, EntityHolder jobHolder) {
+            this.event = event;
+            this.job = job;
+            this.task = task;
+            this.jobHolder = jobHolder;
+        }
+
+        JobManagerEvent<?> getEvent() {
+            return event;
+        }
+
+        Job<?> getJob() {
+            return job;
+        }
+
+        boolean matches(Predicate<Pair<Job<?>, List<Task>>> jobsPredicate, Predicate<Pair<Job<?>, Task>> tasksPredicate) {
+            if (task != null) {
+                return tasksPredicate.test(Pair.of(job, task));
+            }
+            if (tasks == null) {
+                tasks = jobHolder.getChildren().stream().map(EntityHolder::<Task>getEntity).collect(Collectors.toList());
+            }
+            return jobsPredicate.test(Pair.of(job, tasks));
+        }
+
+        private static EventCandidate forJob(JobManagerEvent<?> event, Job<?> job, EntityHolder jobHolder) {
+            return new EventCandidate(event, job, null, jobHolder);
+        }
+
+        private static EventCandidate forTask(JobManagerEvent<?> event, Job<?> job, Task task) {
+            return new EventCandidate(event, job, task, null);
+        }
+    }
+
+    private static class EventSubscriber {
+
+        private final Predicate<Pair<Job<?>, List<Task>>> jobsPredicate;
+        private final Predicate<Pair<Job<?>, Task>> tasksPredicate;
+
+        private final Set<String> jobIds;
+        private final Optional<String> applicationName;
+        private final Optional<JobState> jobState;
+
+        private final PublishSubject<JobManagerEvent<?>> subject = PublishSubject.create();
+
+        private EventSubscriber(Predicate<Pair<Job<?>, List<Task>>> jobsPredicate, Predicate<Pair<Job<?>, Task>> tasksPredicate) {
+            this.jobsPredicate = jobsPredicate;
+            this.tasksPredicate = tasksPredicate;
+
+            Optional<JobQueryCriteria<TaskStatus.TaskState, JobSpecCase>> criteriaOpt = findSharedCriteria(jobsPredicate, tasksPredicate);
+            Set<String> jobIds = criteriaOpt.map(JobQueryCriteria::getJobIds).orElse(Collections.emptySet());
+            Optional<String> applicationName = jobIds.isEmpty()
+                    ? criteriaOpt.flatMap(JobQueryCriteria::getAppName)
+                    : Optional.empty();
+            Optional<JobState> jobState = jobIds.isEmpty() && !applicationName.isPresent()
+                    ? criteriaOpt.flatMap(JobQueryCriteria::getJobState).map(state -> V3GrpcModelConverters.toCoreJobState((JobStatus.JobState) state))
+                    : Optional.empty();
+
+            this.jobIds = jobIds;
+            this.applicationName = applicationName;
+            this.jobState = jobState;
+        }
+
+        /**
+         * The index keys are taken from the query criteria, which apply to both job and task events. That is only
+         * valid if both predicates are built from the same criteria.
+         */
+        private static Optional<JobQueryCriteria<TaskStatus.TaskState, JobSpecCase>> findSharedCriteria(Predicate<?> jobsPredicate, Predicate<?> tasksPredicate) {
+            if (!(jobsPredicate instanceof V3AbstractQueryCriteriaEvaluator) || !(tasksPredicate instanceof V3AbstractQueryCriteriaEvaluator)) {
+                return Optional.empty();
+            }
+            JobQueryCriteria<TaskStatus.TaskState, JobSpecCase> criteria = ((V3AbstractQueryCriteriaEvaluator<?>) jobsPredicate).getCriteria();
+            return criteria == ((V3AbstractQueryCriteriaEvaluator<?>) tasksPredicate).getCriteria()
+                    ? Optional.of(criteria)
+                    : Optional.empty();
+        }
+    }
+
+    /**
+     * Immutable subscriber index, rebuilt on each subscriber change. Each subscriber is put under a single kind of key,
+     * so a subscriber is never returned twice for the same job.
+     */
+    private static class SubscriberIndex {
+
+        private final Map<String, List<EventSubscriber>> byJobId = new HashMap<>();
+        private final Map<String, List<EventSubscriber>> byApplicationName = new HashMap<>();
+        private final Map<JobState, List<EventSubscriber>> byJobState = new HashMap<>();
+        private final List<EventSubscriber> unindexed = new ArrayList<>();
+        private final boolean empty;
+
+        private SubscriberIndex(Collection<EventSubscriber> subscribers) {
+            for (EventSubscriber subscriber : subscribers) {
+                if (!subscriber.jobIds.isEmpty()) {
+                    subscriber.jobIds.forEach(jobId -> byJobId.computeIfAbsent(jobId, id -> new ArrayList<>()).add(subscriber));
+                } else if (subscriber.applicationName.isPresent()) {
+                    byApplicationName.computeIfAbsent(subscriber.applicationName.get(), name -> new ArrayList<>()).add(subscriber);
+                } else if (subscriber.jobState.isPresent()) {
+                    byJobState.computeIfAbsent(subscriber.jobState.get(), state -> new ArrayList<>()).add(subscriber);
+                } else {
+                    unindexed.add(subscriber);
+                }
+            }
+            this.empty = subscribers.isEmpty();
+        }
+
+        private boolean isEmpty() {
+            return empty;
+        }
+
+        private List<EventSubscriber> findCandidates(Job<?> job) {
+            List<EventSubscriber> result = new ArrayList<>(unindexed);
+            result.addAll(byJobId.getOrDefault(job.getId(), Collections.emptyList()));
+            String applicationName = job.getJobDescriptor().getApplicationName();
+            if (applicationName != null) {
+                result.addAll(byApplicationName.getOrDefault(applicationName, Collections.emptyList()));
+            }
+            result.addAll(byJobState.getOrDefault(job.getStatus().getState(), Collections.emptyList()));
+            return result;
+        }
+    }
+}
@@ -246,6 +246,7 @@ public class JobReconciliationFrameworkFactory {
                 JOB_EVENT_FACTORY,
                 this::extraChangeActionTags,
                 this::extraModelActionTags,
+                jobManagerConfiguration.isPipelinedTransactionsEnabled(),
                 titusRuntime
         );
     }
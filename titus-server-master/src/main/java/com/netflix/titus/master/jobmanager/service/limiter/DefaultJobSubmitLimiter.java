@@ -16,9 +16,13 @@
 
 package com.netflix.titus.master.jobmanager.service.limiter;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -26,19 +30,49 @@ import com.google.common.base.Preconditions;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
 import com.netflix.titus.api.jobmanager.model.job.JobGroupInfo;
+import com.netflix.titus.api.jobmanager.model.job.JobState;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
 import com.netflix.titus.api.jobmanager.service.V3JobOperations;
 import com.netflix.titus.api.model.v2.V2JobDefinition;
 import com.netflix.titus.api.model.v2.parameter.Parameters;
+import com.netflix.titus.common.util.rx.ObservableExt;
 import com.netflix.titus.master.jobmanager.service.JobManagerConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Subscription;
 
+/**
+ * Job submit limiter backed by an index of the active jobs, and their job group sequences. The index is built from
+ * the job manager state on first use, and next kept up to date from the job manager events, so a job submit check
+ * does not depend on the number of jobs in the system.
+ * <p>
+ * A job id sequence reservation of a successfully created job is kept until the job is added to the index, so there
+ * is no time window in which neither the reservation nor the index entry exist.
+ */
 @Singleton
 public class DefaultJobSubmitLimiter implements JobSubmitLimiter {
 
+    private static final Logger logger = LoggerFactory.getLogger(DefaultJobSubmitLimiter.class);
+
     private final JobManagerConfiguration configuration;
     private final V3JobOperations v3JobOperations;
 
     private final ConcurrentMap<String, Boolean> reservedJobIdSequences = new ConcurrentHashMap<>();
 
+    private final Set<String> activeJobIds = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, String> jobIdSequencesByJobId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> jobIdsByJobIdSequence = new ConcurrentHashMap<>();
+
+    private volatile boolean indexed;
+    private Subscription jobEventSubscription;
+
+    /**
+     * Ids of jobs seen as finished in the event stream while the index is seeded from the job manager snapshot. Set
+     * only during seeding, and guarded by the same lock as the event handling.
+     */
+    private Set<String> finishedWhileSeeding;
+
     @Inject
     public DefaultJobSubmitLimiter(JobManagerConfiguration configuration,
                                    V3JobOperations v3JobOperations) {
@@ -46,12 +80,18 @@ public class DefaultJobSubmitLimiter implements JobSubmitLimiter {
         this.v3JobOperations = v3JobOperations;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        ObservableExt.safeUnsubscribe(jobEventSubscription);
+    }
+
     @Override
     public <JOB_DESCR> Optional<String> checkIfAllowed(JOB_DESCR jobDescriptor) {
         Preconditions.checkArgument(
                 jobDescriptor instanceof JobDescriptor || jobDescriptor instanceof V2JobDefinition,
                 "Not V2 or V3 job descriptor"
         );
+        ensureIndexed();
 
         Optional<String> activeJobLimit = checkActiveJobLimit();
         if (activeJobLimit.isPresent()) {
@@ -63,6 +103,8 @@ public class DefaultJobSubmitLimiter implements JobSubmitLimiter {
 
     @Override
     public <JOB_DESCR> Optional<String> reserveId(JOB_DESCR jobDescriptor) {
+        ensureIndexed();
+
         String idSeq = createJobIdSequenceFrom(jobDescriptor);
         if (idSeq == null) {
             return Optional.empty();
@@ -82,7 +124,7 @@ public class DefaultJobSubmitLimiter implements JobSubmitLimiter {
     }
 
     private Optional<String> checkActiveJobLimit() {
-        int totalJobs = v3JobOperations.getJobs().size();
+        int totalJobs = activeJobIds.size();
         long limit = configuration.getMaxActiveJobs();
         if (totalJobs >= limit) {
             return Optional.of(String.format("Reached a limit of active jobs Titus can run (active=%d, limit=%d)", totalJobs, limit));
@@ -108,15 +150,102 @@ public class DefaultJobSubmitLimiter implements JobSubmitLimiter {
     }
 
     private Optional<String> isJobSequenceUsed(String newJobIdSequence) {
-        return v3JobOperations.getJobs().stream()
-                .filter(j -> {
-                    String v3JobIdSequence = formatJobGroupName(j.getJobDescriptor());
-                    return v3JobIdSequence != null && v3JobIdSequence.equals(newJobIdSequence);
-                })
-                .map(Job::getId)
-                .findFirst();
+        Set<String> jobIds = jobIdsByJobIdSequence.getOrDefault(newJobIdSequence, Collections.emptySet());
+        return jobIds.stream().findFirst();
+    }
+
+    /**
+     * Subscribes to the job manager event stream, and loads the current jobs. Called lazily, as the job manager
+     * is activated after this component.
+     * <p>
+     * The snapshot is applied under the same lock as the event handling, so an event cannot interleave with it.
+     * Events delivered after seeding are newer than, or the same as the snapshot state, and are applied on top of it.
+     * An event handled before the snapshot is applied (for example emitted synchronously on subscription) may be
+     * newer than the snapshot entry, so a job already seen as finished is never re-added from the snapshot.
+     */
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        synchronized (this) {
+            if (indexed) {
+                return;
+            }
+            // Subscribe first, so no update is lost.
+            this.finishedWhileSeeding = new HashSet<>();
+            this.jobEventSubscription = v3JobOperations.observeJobs().subscribe(
+                    this::handleJobEvent,
+                    e -> {
+                        logger.error("Job event stream terminated with an error. The job index will be rebuilt on next request", e);
+                        resetIndex();
+                    },
+                    () -> {
+                        logger.info("Job event stream completed. The job index will be rebuilt on next request");
+                        resetIndex();
+                    }
+            );
+            try {
+                v3JobOperations.getJobs().forEach(job -> {
+                    if (!finishedWhileSeeding.contains(job.getId())) {
+                        updateIndex((Job<?>) job);
+                    }
+                });
+            } finally {
+                this.finishedWhileSeeding = null;
+            }
+            this.indexed = !jobEventSubscription.isUnsubscribed();
+        }
     }
 
+    private synchronized void resetIndex() {
+        this.indexed = false;
+        ObservableExt.safeUnsubscribe(jobEventSubscription);
+        activeJobIds.clear();
+        jobIdSequencesByJobId.clear();
+        jobIdsByJobIdSequence.clear();
+    }
+
+    private synchronized void handleJobEvent(JobManagerEvent<?> event) {
+        if (event instanceof JobUpdateEvent) {
+            Job<?> job = ((JobUpdateEvent) event).getCurrent();
+            if (finishedWhileSeeding != null && job.getStatus().getState() == JobState.Finished) {
+                finishedWhileSeeding.add(job.getId());
+            }
+            updateIndex(job);
+        }
+    }
+
+    private void updateIndex(Job<?> job) {
+        String jobId = job.getId();
+        if (job.getStatus().getState() == JobState.Finished) {
+            activeJobIds.remove(jobId);
+            String jobIdSequence = jobIdSequencesByJobId.remove(jobId);
+            if (jobIdSequence != null) {
+                removeFromSequenceIndex(jobIdSequence, jobId);
+            }
+            return;
+        }
+
+        activeJobIds.add(jobId);
+        String jobIdSequence = formatJobGroupName(job.getJobDescriptor());
+        String previousJobIdSequence = jobIdSequence == null
+                ? jobIdSequencesByJobId.remove(jobId)
+                : jobIdSequencesByJobId.put(jobId, jobIdSequence);
+        if (previousJobIdSequence != null && !previousJobIdSequence.equals(jobIdSequence)) {
+            removeFromSequenceIndex(previousJobIdSequence, jobId);
+        }
+        if (jobIdSequence != null && jobIdsByJobIdSequence.computeIfAbsent(jobIdSequence, seq -> ConcurrentHashMap.newKeySet()).add(jobId)) {
+            // The sequence is now guarded by the index, so the reservation made when the job was created can be dropped.
+            reservedJobIdSequences.remove(jobIdSequence);
+        }
+    }
+
+    private void removeFromSequenceIndex(String jobIdSequence, String jobId) {
+        jobIdsByJobIdSequence.computeIfPresent(jobIdSequence, (seq, jobIds) -> {
+            jobIds.remove(jobId);
+            return jobIds.isEmpty() ? null : jobIds;
+        });
+    }
 
     private static String formatJobGroupName(JobDescriptor<?> jobDescriptor) {
         JobGroupInfo jobGroupInfo = jobDescriptor.getJobGroupInfo();
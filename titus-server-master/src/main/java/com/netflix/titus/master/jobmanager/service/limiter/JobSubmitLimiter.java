@@ -30,7 +30,8 @@ public interface JobSubmitLimiter {
     <JOB_DESCR> Optional<String> reserveId(JOB_DESCR jobDescriptor);
 
     /**
-     * Release job id sequence.
+     * Release job id sequence. Must be called if a job could not be created. A reservation of a successfully created
+     * job may be held by the limiter until the job is visible to its job id sequence check, and released by it.
      */
     <JOB_DESCR> void releaseId(JOB_DESCR jobDescriptor);
 }
@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -65,6 +66,10 @@ import static com.netflix.titus.master.MetricConstants.METRIC_LOADBALANCER;
  * <p>
  * This was a simple way to get a first version out of the door, but it will likely be changed in the future once we
  * have a good way to track which targets should be managed by this reconciler.
+ * <p>
+ * Downloading all targets registered on large load balancers is expensive, so only every
+ * {@link LoadBalancerConfiguration#getFullReconciliationRunInterval()} run is a full one. Other runs are incremental,
+ * and only check if the targets that should be registered are (see {@link LoadBalancerConnector#getRegisteredIps}).
  */
 public class DefaultLoadBalancerReconciler implements LoadBalancerReconciler {
     private static final Logger logger = LoggerFactory.getLogger(DefaultLoadBalancerReconciler.class);
@@ -84,12 +89,15 @@ public class DefaultLoadBalancerReconciler implements LoadBalancerReconciler {
     // visibility across multiple reconciliation runs, which may run on different threads
     private final Set<JobLoadBalancer> markedAsOrphan = ConcurrentHashMap.newKeySet();
 
+    private final AtomicLong runCounter = new AtomicLong();
+
     private final LoadBalancerStore store;
     private final LoadBalancerConnector connector;
     private final LoadBalancerJobOperations jobOperations;
     // TODO: make dynamic and switch to a Supplier<Long>
     private final long delayMs;
     private final Supplier<Long> timeoutMs;
+    private final Supplier<Integer> fullRunInterval;
     private final Registry registry;
     private final Scheduler scheduler;
 
@@ -113,6 +121,7 @@ public class DefaultLoadBalancerReconciler implements LoadBalancerReconciler {
         this.jobOperations = loadBalancerJobOperations;
         this.delayMs = configuration.getReconciliationDelayMs();
         this.timeoutMs = configuration::getReconciliationTimeoutMs;
+        this.fullRunInterval = configuration::getFullReconciliationRunInterval;
         this.registry = registry;
         this.scheduler = scheduler;
 
@@ -152,20 +161,30 @@ public class DefaultLoadBalancerReconciler implements LoadBalancerReconciler {
         final Observable<Map.Entry<String, List<JobLoadBalancerState>>> cleanupOrphansAndSnapshot = updateOrphanAssociations()
                 .andThen(snapshotAssociationsByLoadBalancer());
 
-        // full reconciliation run
-        final Observable<TargetStateBatchable> updatesForAll = cleanupOrphansAndSnapshot
-                .flatMap(entry -> reconcile(entry.getKey(), entry.getValue()), 1)
+        // full or incremental reconciliation run
+        final Observable<TargetStateBatchable> updatesForAll = Observable.defer(() -> {
+            final boolean fullRun = isFullRun();
+            return cleanupOrphansAndSnapshot.flatMap(entry -> fullRun
+                    ? reconcile(entry.getKey(), entry.getValue())
+                    : reconcileRegistered(entry.getKey(), entry.getValue()), 1);
+        })
                 .compose(ObservableExt.subscriptionTimeout(timeoutMs, TimeUnit.MILLISECONDS, scheduler))
                 .compose(fullReconciliationMetrics.asObservable())
                 .doOnError(e -> logger.error("reconciliation failed", e))
                 .onErrorResumeNext(Observable.empty());
 
-        // schedule periodic full reconciliations
+        // schedule periodic reconciliations
         return ObservableExt.periodicGenerator(updatesForAll, delayMs, delayMs, TimeUnit.MILLISECONDS, scheduler)
                 .compose(SpectatorExt.subscriptionMetrics(METRIC_RECONCILER, DefaultLoadBalancerReconciler.class, registry))
                 .flatMap(Observable::from, 1);
     }
 
+    private boolean isFullRun() {
+        final long run = runCounter.getAndIncrement();
+        final int interval = fullRunInterval.get();
+        return interval < 2 || run % interval == 0;
+    }
+
     private Observable<TargetStateBatchable> reconcile(String loadBalancerId, List<JobLoadBalancerState> associations) {
         final Observable<TargetStateBatchable> updatesForLoadBalancer = connector.getLoadBalancer(loadBalancerId)
                 // the same metrics transformer can be used for all subscriptions only because they are all being
@@ -178,6 +197,36 @@ public class DefaultLoadBalancerReconciler implements LoadBalancerReconciler {
                 .onErrorResumeNext(Observable.empty());
     }
 
+    /**
+     * Incremental reconciliation, which only registers missing targets. Targets registered by external systems are not
+     * deregistered, and <tt>Dissociated</tt> associations are not removed until the next full run. A load balancer
+     * found to be removed is handled the same way as in the full run.
+     */
+    private Observable<TargetStateBatchable> reconcileRegistered(String loadBalancerId, List<JobLoadBalancerState> associations) {
+        final Set<LoadBalancerTarget> shouldBeRegistered = shouldBeRegistered(associations);
+        final Set<String> shouldBeRegisteredIps = shouldBeRegistered.stream()
+                .map(LoadBalancerTarget::getIpAddress)
+                .collect(Collectors.toSet());
+
+        final Observable<TargetStateBatchable> updatesForLoadBalancer = connector.getLoadBalancer(loadBalancerId, shouldBeRegisteredIps)
+                // serialized with flatMap(maxConcurrent: 1), as in full reconciliation runs
+                .compose(registeredIpsMetrics.asSingle())
+                .flatMapObservable(loadBalancer -> {
+                    if (loadBalancer.getState() != LoadBalancer.State.ACTIVE) {
+                        return updatesFor(loadBalancer, associations);
+                    }
+                    final Set<LoadBalancerTarget> toRegister = shouldBeRegistered.stream()
+                            .filter(target -> !loadBalancer.getRegisteredIps().contains(target.getIpAddress()))
+                            .collect(Collectors.toSet());
+                    reportUpdates(toRegister, Collections.emptySet());
+                    return Observable.from(withState(now(), toRegister, State.Registered)).filter(this::isNotIgnored);
+                });
+
+        return updatesForLoadBalancer
+                .doOnError(e -> logger.error("Error while reconciling load balancer {}", loadBalancerId, e))
+                .onErrorResumeNext(Observable.empty());
+    }
+
     /**
      * Generates a stream of necessary updates based on what jobs are currently associated with a load balancer, and the
      * ip addresses currently registered on it.
@@ -195,10 +244,7 @@ public class DefaultLoadBalancerReconciler implements LoadBalancerReconciler {
         Set<LoadBalancerTarget> toDeregister;
         switch (loadBalancer.getState()) {
             case ACTIVE:
-                Set<LoadBalancerTarget> shouldBeRegistered = associations.stream()
-                        .filter(JobLoadBalancerState::isStateAssociated)
-                        .flatMap(association -> targetsForJobSafe(association).stream())
-                        .collect(Collectors.toSet());
+                Set<LoadBalancerTarget> shouldBeRegistered = shouldBeRegistered(associations);
                 Set<String> shouldBeRegisteredIps = shouldBeRegistered.stream()
                         .map(LoadBalancerTarget::getIpAddress)
                         .collect(Collectors.toSet());
@@ -260,6 +306,13 @@ public class DefaultLoadBalancerReconciler implements LoadBalancerReconciler {
         return !ignored.containsKey(update.getIdentifier());
     }
 
+    private Set<LoadBalancerTarget> shouldBeRegistered(List<JobLoadBalancerState> associations) {
+        return associations.stream()
+                .filter(JobLoadBalancerState::isStateAssociated)
+                .flatMap(association -> targetsForJobSafe(association).stream())
+                .collect(Collectors.toSet());
+    }
+
     private List<LoadBalancerTarget> targetsForJobSafe(JobLoadBalancerState association) {
         try {
             return jobOperations.targetsForJob(association.getJobLoadBalancer());
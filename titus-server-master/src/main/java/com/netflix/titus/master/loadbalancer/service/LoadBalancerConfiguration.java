@@ -51,6 +51,15 @@ public interface LoadBalancerConfiguration {
     @DefaultValue("30000")
     long getReconciliationDelayMs();
 
+    /**
+     * Every N-th reconciliation run is a full one, which downloads all targets registered on each load balancer, to
+     * deregister targets not managed by Titus and detect removed load balancers. Other runs only check if targets
+     * that should be registered are. Values lower than 2 make all runs full. Incremental runs delay deregistration
+     * of targets not managed by Titus to the next full run, so they must be enabled explicitly.
+     */
+    @DefaultValue("1")
+    int getFullReconciliationRunInterval();
+
     /**
      * Minimum time that items are held in a buffer for batching.
      */
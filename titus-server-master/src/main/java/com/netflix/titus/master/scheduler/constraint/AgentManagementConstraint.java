@@ -16,9 +16,14 @@
 
 package com.netflix.titus.master.scheduler.constraint;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -27,6 +32,9 @@ import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.fenzo.queues.QueuableTask;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import com.netflix.titus.api.agent.model.AgentInstance;
 import com.netflix.titus.api.agent.model.AgentInstanceGroup;
 import com.netflix.titus.api.agent.model.InstanceGroupLifecycleState;
@@ -34,22 +42,35 @@ import com.netflix.titus.api.agent.model.InstanceLifecycleState;
 import com.netflix.titus.api.agent.service.AgentManagementService;
 import com.netflix.titus.api.agent.service.AgentStatusMonitor;
 import com.netflix.titus.api.model.Tier;
+import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.CollectionsExt;
+import com.netflix.titus.common.util.time.Clock;
+import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.master.agent.AgentAttributes;
 import com.netflix.titus.master.scheduler.SchedulerConfiguration;
 
+import static com.netflix.titus.master.MetricConstants.METRIC_SCHEDULING_SERVICE;
 import static com.netflix.titus.master.scheduler.SchedulerUtils.getAttributeValueOrEmptyString;
 import static com.netflix.titus.master.scheduler.SchedulerUtils.getTier;
 
 /**
  * A system constraint that integrates with agent management in order to determine whether or a not a task
  * should be placed.
+ * <p>
+ * The verdicts depend only on the agent, and the task tier and GPU request, so they are precomputed once per
+ * scheduling iteration (see {@link #prepare()}) from the agent management state, and the evaluation is reduced to
+ * a few table lookups. Instance groups or instances that are not in the table (for example discovered during the
+ * iteration) are evaluated directly.
  */
 @Singleton
 public class AgentManagementConstraint implements SystemConstraint {
 
     public static final String NAME = "AgentManagementConstraint";
 
+    private static final String METRIC_ROOT = METRIC_SCHEDULING_SERVICE + "agentManagementConstraint.";
+
+    private static final Tier[] TIERS = Tier.values();
+
     private static final Result MISSING_INSTANCE_GROUP_ATTRIBUTE = new Result(false, "Missing instance group attribute");
     private static final Result INSTANCE_GROUP_NOT_FOUND = new Result(false, "Instance group not found");
     private static final Result INSTANCE_GROUP_NOT_ACTIVE = new Result(false, "Instance group is not active or phased out");
@@ -91,14 +112,28 @@ public class AgentManagementConstraint implements SystemConstraint {
     private final SchedulerConfiguration schedulerConfiguration;
     private final AgentManagementService agentManagementService;
     private final AgentStatusMonitor agentStatusMonitor;
+    private final Clock clock;
+
+    private final Timer precomputeTimer;
+    private final Counter tableHits;
+    private final Counter tableMisses;
+
+    private final AtomicReference<EligibilityTable> eligibilityTableRef = new AtomicReference<>(EligibilityTable.EMPTY);
 
     @Inject
     public AgentManagementConstraint(SchedulerConfiguration schedulerConfiguration,
                                      AgentManagementService agentManagementService,
-                                     AgentStatusMonitor agentStatusMonitor) {
+                                     AgentStatusMonitor agentStatusMonitor,
+                                     TitusRuntime titusRuntime) {
         this.schedulerConfiguration = schedulerConfiguration;
         this.agentManagementService = agentManagementService;
         this.agentStatusMonitor = agentStatusMonitor;
+        this.clock = titusRuntime.getClock();
+
+        Registry registry = titusRuntime.getRegistry();
+        this.precomputeTimer = registry.timer(METRIC_ROOT + "precomputeTime");
+        this.tableHits = registry.counter(METRIC_ROOT + "tableLookups", "result", "hit");
+        this.tableMisses = registry.counter(METRIC_ROOT + "tableLookups", "result", "miss");
     }
 
     @Override
@@ -106,14 +141,42 @@ public class AgentManagementConstraint implements SystemConstraint {
         return NAME;
     }
 
+    @Override
+    public void prepare() {
+        long startTime = clock.wallTime();
+
+        Map<String, Result[]> instanceGroupResults = new HashMap<>();
+        for (AgentInstanceGroup instanceGroup : agentManagementService.getInstanceGroups()) {
+            Result[] results = new Result[TIERS.length * 2];
+            for (Tier tier : TIERS) {
+                results[taskClassIndex(tier, false)] = evaluateInstanceGroup(instanceGroup, tier, false);
+                results[taskClassIndex(tier, true)] = evaluateInstanceGroup(instanceGroup, tier, true);
+            }
+            instanceGroupResults.put(instanceGroup.getId(), results);
+        }
+
+        Map<String, Result> instanceResults = new HashMap<>();
+        List<Pair<AgentInstanceGroup, List<AgentInstance>>> allInstances = agentManagementService.findAgentInstances(pair -> true);
+        for (Pair<AgentInstanceGroup, List<AgentInstance>> instanceGroupAndInstances : allInstances) {
+            for (AgentInstance instance : instanceGroupAndInstances.getRight()) {
+                instanceResults.put(instance.getId(), evaluateInstance(instance));
+            }
+        }
+
+        eligibilityTableRef.set(new EligibilityTable(instanceGroupResults, instanceResults));
+        precomputeTimer.record(clock.wallTime() - startTime, TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public Result evaluate(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
-        Result instanceGroupEvaluationResult = evaluateInstanceGroup(taskRequest, targetVM);
+        EligibilityTable eligibilityTable = eligibilityTableRef.get();
+
+        Result instanceGroupEvaluationResult = evaluateInstanceGroup(eligibilityTable, taskRequest, targetVM);
         if (instanceGroupEvaluationResult != TRUE_RESULT) {
             return instanceGroupEvaluationResult;
         }
 
-        Result InstanceEvaluationResult = evaluateInstance(targetVM);
+        Result InstanceEvaluationResult = evaluateInstance(eligibilityTable, targetVM);
         if (InstanceEvaluationResult != TRUE_RESULT) {
             return InstanceEvaluationResult;
         }
@@ -125,19 +188,32 @@ public class AgentManagementConstraint implements SystemConstraint {
         return reason != null && FAILURE_REASONS.contains(reason);
     }
 
-    private Result evaluateInstanceGroup(TaskRequest taskRequest, VirtualMachineCurrentState targetVM) {
+    private Result evaluateInstanceGroup(EligibilityTable eligibilityTable, TaskRequest taskRequest, VirtualMachineCurrentState targetVM) {
         String instanceGroupAttributeName = schedulerConfiguration.getInstanceGroupAttributeName();
         String instanceGroupId = getAttributeValueOrEmptyString(targetVM, instanceGroupAttributeName);
         if (Strings.isNullOrEmpty(instanceGroupId)) {
             return MISSING_INSTANCE_GROUP_ATTRIBUTE;
         }
 
+        //TODO read job resource dimensions when we get rid of v2
+        Tier tier = getTier((QueuableTask) taskRequest);
+        boolean gpuTask = taskRequestsGpu(taskRequest);
+
+        Result[] results = eligibilityTable.getInstanceGroupResults(instanceGroupId);
+        if (results != null) {
+            tableHits.increment();
+            return results[taskClassIndex(tier, gpuTask)];
+        }
+        tableMisses.increment();
+
         Optional<AgentInstanceGroup> instanceGroupOpt = agentManagementService.findInstanceGroup(instanceGroupId);
         if (!instanceGroupOpt.isPresent()) {
             return INSTANCE_GROUP_NOT_FOUND;
         }
+        return evaluateInstanceGroup(instanceGroupOpt.get(), tier, gpuTask);
+    }
 
-        AgentInstanceGroup instanceGroup = instanceGroupOpt.get();
+    private Result evaluateInstanceGroup(AgentInstanceGroup instanceGroup, Tier tier, boolean gpuTask) {
         InstanceGroupLifecycleState state = instanceGroup.getLifecycleStatus().getState();
 
         //TODO safer way to know what is active?
@@ -150,13 +226,10 @@ public class AgentManagementConstraint implements SystemConstraint {
             return instanceGroupAttributesResult;
         }
 
-        Tier tier = getTier((QueuableTask) taskRequest);
         if (instanceGroup.getTier() != tier) {
             return INSTANCE_GROUP_TIER_MISMATCH;
         }
 
-        //TODO read job resource dimensions when we get rid of v2
-        boolean gpuTask = taskRequestsGpu(taskRequest);
         boolean gpuAgent = instanceGroup.getResourceDimension().getGpu() > 0;
         if (gpuTask && !gpuAgent) {
             return INSTANCE_GROUP_DOES_NOT_HAVE_GPUS;
@@ -168,18 +241,27 @@ public class AgentManagementConstraint implements SystemConstraint {
         return TRUE_RESULT;
     }
 
-    private Result evaluateInstance(VirtualMachineCurrentState targetVM) {
+    private Result evaluateInstance(EligibilityTable eligibilityTable, VirtualMachineCurrentState targetVM) {
         String instanceId = getAttributeValueOrEmptyString(targetVM, schedulerConfiguration.getInstanceAttributeName());
         if (Strings.isNullOrEmpty(instanceId)) {
             return MISSING_INSTANCE_ATTRIBUTE;
         }
 
+        Result result = eligibilityTable.getInstanceResult(instanceId);
+        if (result != null) {
+            tableHits.increment();
+            return result;
+        }
+        tableMisses.increment();
+
         Optional<AgentInstance> instanceOpt = agentManagementService.findAgentInstance(instanceId);
         if (!instanceOpt.isPresent()) {
             return INSTANCE_NOT_FOUND;
         }
+        return evaluateInstance(instanceOpt.get());
+    }
 
-        AgentInstance instance = instanceOpt.get();
+    private Result evaluateInstance(AgentInstance instance) {
         InstanceLifecycleState state = instance.getLifecycleStatus().getState();
         if (state != InstanceLifecycleState.Started) {
             return INSTANCE_NOT_STARTED;
@@ -190,13 +272,17 @@ public class AgentManagementConstraint implements SystemConstraint {
             return instanceAttributesResult;
         }
 
-        if (!agentStatusMonitor.isHealthy(instanceId)) {
+        if (!agentStatusMonitor.isHealthy(instance.getId())) {
             return INSTANCE_UNHEALTHY;
         }
 
         return TRUE_RESULT;
     }
 
+    private static int taskClassIndex(Tier tier, boolean gpuTask) {
+        return tier.ordinal() * 2 + (gpuTask ? 1 : 0);
+    }
+
     private boolean taskRequestsGpu(TaskRequest taskRequest) {
         Map<String, Double> scalars = taskRequest.getScalarRequests();
         if (scalars != null && !scalars.isEmpty()) {
@@ -239,4 +325,29 @@ public class AgentManagementConstraint implements SystemConstraint {
         }
         return TRUE_RESULT;
     }
-}
\ No newline at end of file
+
+    /**
+     * Agent management verdicts computed at the beginning of a scheduling iteration. Instance group results are
+     * indexed by the task class (see {@link #taskClassIndex(Tier, boolean)}).
+     */
+    private static class EligibilityTable {
+
+        private static final EligibilityTable EMPTY = new EligibilityTable(Collections.emptyMap(), Collections.emptyMap());
+
+        private final Map<String, Result[]> instanceGroupResults;
+        private final Map<String, Result> instanceResults;
+
+        private EligibilityTable(Map<String, Result[]> instanceGroupResults, Map<String, Result> instanceResults) {
+            this.instanceGroupResults = instanceGroupResults;
+            this.instanceResults = instanceResults;
+        }
+
+        private Result[] getInstanceGroupResults(String instanceGroupId) {
+            return instanceGroupResults.get(instanceGroupId);
+        }
+
+        private Result getInstanceResult(String instanceId) {
+            return instanceResults.get(instanceId);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.scheduler.constraint;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable number of tasks of a job per zone, with the min, max and total values precomputed. Only zones with at least
+ * one task are included. The number of zones is small, so the min value is recomputed on each update.
+ */
+class JobZoneCounters {
+
+    static final JobZoneCounters EMPTY = new JobZoneCounters(Collections.emptyMap());
+
+    private final Map<String, Integer> countersByZoneId;
+    private final int min;
+    private final int max;
+    private final int total;
+
+    private JobZoneCounters(Map<String, Integer> countersByZoneId) {
+        this.countersByZoneId = countersByZoneId;
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        int total = 0;
+        for (int value : countersByZoneId.values()) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            total += value;
+        }
+        this.min = min;
+        this.max = max;
+        this.total = total;
+    }
+
+    int getCounter(String zoneId) {
+        return countersByZoneId.getOrDefault(zoneId, 0);
+    }
+
+    int getZoneCount() {
+        return countersByZoneId.size();
+    }
+
+    int getMin() {
+        return min;
+    }
+
+    int getMax() {
+        return max;
+    }
+
+    int getTotal() {
+        return total;
+    }
+
+    JobZoneCounters increment(String zoneId) {
+        Map<String, Integer> newCounters = new HashMap<>(countersByZoneId);
+        newCounters.put(zoneId, getCounter(zoneId) + 1);
+        return new JobZoneCounters(newCounters);
+    }
+
+    static JobZoneCounters of(Map<String, Integer> countersByZoneId) {
+        return countersByZoneId.isEmpty() ? EMPTY : new JobZoneCounters(new HashMap<>(countersByZoneId));
+    }
+}
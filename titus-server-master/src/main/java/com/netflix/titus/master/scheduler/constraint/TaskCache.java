@@ -18,17 +18,25 @@ package com.netflix.titus.master.scheduler.constraint;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import com.netflix.fenzo.TaskTracker;
+import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.titus.api.jobmanager.TaskAttributes;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.api.jobmanager.service.V3JobOperations;
 import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
+import com.netflix.titus.master.scheduler.SchedulerUtils;
 
 /**
  * Helper class that aggregates task data by multiple criteria used by Fenzo constraint/fitness evaluators.
@@ -53,10 +61,26 @@ public class TaskCache {
         return currentCacheValue.get().getTasksByZoneIdCounters(jobId);
     }
 
+    /**
+     * Returns the number of tasks per zone of a job, including both the running tasks and the tasks assigned in
+     * the current scheduling iteration.
+     */
+    JobZoneCounters getZoneCounters(String jobId, TaskTrackerState taskTrackerState, String zoneAttributeName) {
+        return currentCacheValue.get().getZoneCounters(jobId, taskTrackerState.getAllCurrentlyAssignedTasks(), zoneAttributeName);
+    }
+
     private class TaskCacheValue {
 
         private final Map<String, Map<String, Integer>> zoneBalanceCountersByJobId;
 
+        /**
+         * Zone counters of the running and assigned tasks. Fenzo only adds tasks to the assigned task set during
+         * a scheduling iteration, so the counters are updated incrementally, only when the assigned task set grows.
+         */
+        private final ConcurrentMap<String, JobZoneCounters> zoneCountersByJobId = new ConcurrentHashMap<>();
+        private final Set<String> countedAssignedTaskIds = new HashSet<>();
+        private volatile int countedAssignedTasks;
+
         private TaskCacheValue() {
             List<Pair<Job, List<Task>>> jobsAndTasks = v3JobOperations.getJobsAndTasks();
             this.zoneBalanceCountersByJobId = buildZoneBalanceCountersByJobId(jobsAndTasks);
@@ -66,6 +90,42 @@ public class TaskCache {
             return zoneBalanceCountersByJobId.getOrDefault(jobId, Collections.emptyMap());
         }
 
+        private JobZoneCounters getZoneCounters(String jobId, Map<String, TaskTracker.ActiveTask> assignedTasks, String zoneAttributeName) {
+            if (assignedTasks.size() != countedAssignedTasks) {
+                countAssignedTasks(assignedTasks, zoneAttributeName);
+            }
+            return zoneCountersByJobId.computeIfAbsent(jobId, this::newJobZoneCounters);
+        }
+
+        private synchronized void countAssignedTasks(Map<String, TaskTracker.ActiveTask> assignedTasks, String zoneAttributeName) {
+            if (assignedTasks.size() == countedAssignedTasks) {
+                return;
+            }
+            if (assignedTasks.size() < countedAssignedTasks) {
+                // Not expected within a scheduling iteration. Count everything again to stay consistent.
+                zoneCountersByJobId.clear();
+                countedAssignedTaskIds.clear();
+            }
+            for (Map.Entry<String, TaskTracker.ActiveTask> entry : assignedTasks.entrySet()) {
+                if (!countedAssignedTaskIds.add(entry.getKey())) {
+                    continue;
+                }
+                TaskTracker.ActiveTask activeTask = entry.getValue();
+                if (activeTask.getTaskRequest() instanceof V3QueueableTask) {
+                    String jobId = ((V3QueueableTask) activeTask.getTaskRequest()).getJob().getId();
+                    String zoneId = SchedulerUtils.getAttributeValueOrEmptyString(activeTask.getTotalLease().getAttributeMap(), zoneAttributeName);
+                    if (!zoneId.isEmpty()) {
+                        zoneCountersByJobId.compute(jobId, (id, counters) -> (counters == null ? newJobZoneCounters(id) : counters).increment(zoneId));
+                    }
+                }
+            }
+            countedAssignedTasks = countedAssignedTaskIds.size();
+        }
+
+        private JobZoneCounters newJobZoneCounters(String jobId) {
+            return JobZoneCounters.of(getTasksByZoneIdCounters(jobId));
+        }
+
         private Map<String, Map<String, Integer>> buildZoneBalanceCountersByJobId(List<Pair<Job, List<Task>>> jobsAndTasks) {
             Map<String, Map<String, Integer>> result = new HashMap<>();
             for (Pair<Job, List<Task>> jobAndTask : jobsAndTasks) {
@@ -16,8 +16,6 @@
 
 package com.netflix.titus.master.scheduler.constraint;
 
-import java.util.Map;
-
 import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VMTaskFitnessCalculator;
@@ -60,22 +58,14 @@ public class V3ZoneBalancedFitnessCalculator implements VMTaskFitnessCalculator
         }
 
         V3QueueableTask v3FenzoTask = (V3QueueableTask) taskRequest;
-        Map<String, Integer> tasksByZoneId = SchedulerUtils.groupCurrentlyAssignedTasksByZoneId(v3FenzoTask.getJob().getId(), taskTrackerState.getAllCurrentlyAssignedTasks().values(), zoneAttributeName);
-        Map<String, Integer> runningTasksByZoneId = taskCache.getTasksByZoneIdCounters(v3FenzoTask.getJob().getId());
-        for (Map.Entry<String, Integer> entry : runningTasksByZoneId.entrySet()) {
-            tasksByZoneId.put(entry.getKey(), tasksByZoneId.getOrDefault(entry.getKey(), 0) + entry.getValue());
-        }
+        JobZoneCounters zoneCounters = taskCache.getZoneCounters(v3FenzoTask.getJob().getId(), taskTrackerState, zoneAttributeName);
 
-        int taskZoneCounter = tasksByZoneId.getOrDefault(targetZoneId, 0);
-        if (taskZoneCounter == 0 || tasksByZoneId.isEmpty()) {
+        int taskZoneCounter = zoneCounters.getCounter(targetZoneId);
+        if (taskZoneCounter == 0 || zoneCounters.getZoneCount() == 0) {
             return MATCHING;
         }
 
-        double sum = 0.0;
-        for (int value : tasksByZoneId.values()) {
-            sum += value;
-        }
-        double avg = Math.ceil((sum + 1) / Math.max(expectedValues, tasksByZoneId.size()));
+        double avg = Math.ceil((zoneCounters.getTotal() + 1.0) / Math.max(expectedValues, zoneCounters.getZoneCount()));
         if (taskZoneCounter < avg) {
             return (avg - (double) taskZoneCounter) / avg;
         }
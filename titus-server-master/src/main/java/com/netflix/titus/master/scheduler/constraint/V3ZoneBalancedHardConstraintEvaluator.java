@@ -16,8 +16,6 @@
 
 package com.netflix.titus.master.scheduler.constraint;
 
-import java.util.Map;
-
 import com.netflix.fenzo.ConstraintEvaluator;
 import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
@@ -65,24 +63,15 @@ public class V3ZoneBalancedHardConstraintEvaluator implements ConstraintEvaluato
     }
 
     protected Result evaluate(String targetZoneId, String jobId, TaskTrackerState taskTrackerState) {
-        Map<String, Integer> tasksByZoneId = SchedulerUtils.groupCurrentlyAssignedTasksByZoneId(jobId, taskTrackerState.getAllCurrentlyAssignedTasks().values(), zoneAttributeName);
-        Map<String, Integer> runningTasksByZoneId = taskCache.getTasksByZoneIdCounters(jobId);
-        for (Map.Entry<String, Integer> entry : runningTasksByZoneId.entrySet()) {
-            tasksByZoneId.put(entry.getKey(), tasksByZoneId.getOrDefault(entry.getKey(), 0) + entry.getValue());
-        }
+        JobZoneCounters zoneCounters = taskCache.getZoneCounters(jobId, taskTrackerState, zoneAttributeName);
 
-        int taskZoneCounter = tasksByZoneId.getOrDefault(targetZoneId, 0);
+        int taskZoneCounter = zoneCounters.getCounter(targetZoneId);
         if (taskZoneCounter == 0) {
             return VALID;
         }
 
-        int min = Integer.MAX_VALUE;
-        int max = Integer.MIN_VALUE;
-        for (int i : tasksByZoneId.values()) {
-            min = Math.min(min, i);
-            max = Math.max(max, i);
-        }
-        min = expectedValues > tasksByZoneId.size() ? 0 : min;
+        int min = expectedValues > zoneCounters.getZoneCount() ? 0 : zoneCounters.getMin();
+        int max = zoneCounters.getMax();
         if (min == max || taskZoneCounter < max) {
             return VALID;
         }
@@ -18,6 +18,7 @@ package com.netflix.titus.master.scheduler.fitness;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import com.netflix.fenzo.TaskRequest;
 import com.netflix.fenzo.TaskTrackerState;
@@ -41,6 +42,7 @@ public class TitusFitnessCalculator implements VMTaskFitnessCalculator {
     private final VMTaskFitnessCalculator criticalServiceJobSpreader;
     private final VMTaskFitnessCalculator criticalServiceJobBinPacker;
     private final VMTaskFitnessCalculator defaultFitnessCalculator;
+    private final Function<VMTaskFitnessCalculator, VMTaskFitnessCalculator> calculatorDecorator;
 
     public static final com.netflix.fenzo.functions.Func1<Double, Boolean> fitnessGoodEnoughFunction =
             f -> f > 0.9;
@@ -48,8 +50,19 @@ public class TitusFitnessCalculator implements VMTaskFitnessCalculator {
     public TitusFitnessCalculator(SchedulerConfiguration configuration,
                                   AgentManagementFitnessCalculator agentManagementFitnessCalculator,
                                   AgentResourceCache agentResourceCache) {
+        this(configuration, agentManagementFitnessCalculator, agentResourceCache, Function.identity());
+    }
+
+    /**
+     * @param calculatorDecorator applied to each component fitness calculator (for example to measure its execution time)
+     */
+    public TitusFitnessCalculator(SchedulerConfiguration configuration,
+                                  AgentManagementFitnessCalculator agentManagementFitnessCalculator,
+                                  AgentResourceCache agentResourceCache,
+                                  Function<VMTaskFitnessCalculator, VMTaskFitnessCalculator> calculatorDecorator) {
         this.configuration = configuration;
         this.agentManagementFitnessCalculator = agentManagementFitnessCalculator;
+        this.calculatorDecorator = calculatorDecorator;
         this.criticalServiceJobSpreader = criticalServiceJobSpreader();
         this.criticalServiceJobBinPacker = criticalServiceJobBinPacker(agentResourceCache);
         this.defaultFitnessCalculator = defaultFitnessCalculator(agentResourceCache);
@@ -75,17 +88,17 @@ public class TitusFitnessCalculator implements VMTaskFitnessCalculator {
     private VMTaskFitnessCalculator criticalServiceJobSpreader() {
         List<WeightedFitnessCalculator> calculators = new ArrayList<>();
         if (configuration.isCriticalTierJobSpreadingEnabled()) {
-            calculators.add(new WeightedFitnessCalculator(new JobSpreadingFitnessCalculator(), 0.05));
-            calculators.add(new WeightedFitnessCalculator(new JobTypeFitnessCalculator(), 0.05));
-            calculators.add(new WeightedFitnessCalculator(new ImageSpreadingFitnessCalculator(), 0.1));
-            calculators.add(new WeightedFitnessCalculator(new SecurityGroupSpreadingFitnessCalculator(), 0.3));
-            calculators.add(new WeightedFitnessCalculator(agentManagementFitnessCalculator, 0.5));
+            calculators.add(weighted(new JobSpreadingFitnessCalculator(), 0.05));
+            calculators.add(weighted(new JobTypeFitnessCalculator(), 0.05));
+            calculators.add(weighted(new ImageSpreadingFitnessCalculator(), 0.1));
+            calculators.add(weighted(new SecurityGroupSpreadingFitnessCalculator(), 0.3));
+            calculators.add(weighted(agentManagementFitnessCalculator, 0.5));
         } else {
-            calculators.add(new WeightedFitnessCalculator(BinPackingFitnessCalculators.cpuMemBinPacker, 0.05));
-            calculators.add(new WeightedFitnessCalculator(new JobTypeFitnessCalculator(), 0.05));
-            calculators.add(new WeightedFitnessCalculator(new ImageSpreadingFitnessCalculator(), 0.1));
-            calculators.add(new WeightedFitnessCalculator(new SecurityGroupSpreadingFitnessCalculator(), 0.3));
-            calculators.add(new WeightedFitnessCalculator(agentManagementFitnessCalculator, 0.5));
+            calculators.add(weighted(BinPackingFitnessCalculators.cpuMemBinPacker, 0.05));
+            calculators.add(weighted(new JobTypeFitnessCalculator(), 0.05));
+            calculators.add(weighted(new ImageSpreadingFitnessCalculator(), 0.1));
+            calculators.add(weighted(new SecurityGroupSpreadingFitnessCalculator(), 0.3));
+            calculators.add(weighted(agentManagementFitnessCalculator, 0.5));
         }
 
         return new WeightedAverageFitnessCalculator(calculators);
@@ -93,21 +106,25 @@ public class TitusFitnessCalculator implements VMTaskFitnessCalculator {
 
     private VMTaskFitnessCalculator criticalServiceJobBinPacker(AgentResourceCache agentResourceCache) {
         List<WeightedFitnessCalculator> calculators = new ArrayList<>();
-        calculators.add(new WeightedFitnessCalculator(new JobTypeFitnessCalculator(), 0.05));
-        calculators.add(new WeightedFitnessCalculator(BinPackingFitnessCalculators.cpuMemBinPacker, 0.1));
-        calculators.add(new WeightedFitnessCalculator(new CachedImageFitnessCalculator(agentResourceCache), 0.15));
-        calculators.add(new WeightedFitnessCalculator(new CachedSecurityGroupFitnessCalculator(agentResourceCache), 0.2));
-        calculators.add(new WeightedFitnessCalculator(agentManagementFitnessCalculator, 0.5));
+        calculators.add(weighted(new JobTypeFitnessCalculator(), 0.05));
+        calculators.add(weighted(BinPackingFitnessCalculators.cpuMemBinPacker, 0.1));
+        calculators.add(weighted(new CachedImageFitnessCalculator(agentResourceCache), 0.15));
+        calculators.add(weighted(new CachedSecurityGroupFitnessCalculator(agentResourceCache), 0.2));
+        calculators.add(weighted(agentManagementFitnessCalculator, 0.5));
         return new WeightedAverageFitnessCalculator(calculators);
     }
 
     private VMTaskFitnessCalculator defaultFitnessCalculator(AgentResourceCache agentResourceCache) {
         List<WeightedFitnessCalculator> calculators = new ArrayList<>();
-        calculators.add(new WeightedFitnessCalculator(BinPackingFitnessCalculators.cpuMemBinPacker, 0.1));
-        calculators.add(new WeightedFitnessCalculator(new JobTypeFitnessCalculator(), 0.1));
-        calculators.add(new WeightedFitnessCalculator(new CachedImageFitnessCalculator(agentResourceCache), 0.15));
-        calculators.add(new WeightedFitnessCalculator(new CachedSecurityGroupFitnessCalculator(agentResourceCache), 0.15));
-        calculators.add(new WeightedFitnessCalculator(agentManagementFitnessCalculator, 0.5));
+        calculators.add(weighted(BinPackingFitnessCalculators.cpuMemBinPacker, 0.1));
+        calculators.add(weighted(new JobTypeFitnessCalculator(), 0.1));
+        calculators.add(weighted(new CachedImageFitnessCalculator(agentResourceCache), 0.15));
+        calculators.add(weighted(new CachedSecurityGroupFitnessCalculator(agentResourceCache), 0.15));
+        calculators.add(weighted(agentManagementFitnessCalculator, 0.5));
         return new WeightedAverageFitnessCalculator(calculators);
     }
+
+    private WeightedFitnessCalculator weighted(VMTaskFitnessCalculator calculator, double weight) {
+        return new WeightedFitnessCalculator(calculatorDecorator.apply(calculator), weight);
+    }
 }
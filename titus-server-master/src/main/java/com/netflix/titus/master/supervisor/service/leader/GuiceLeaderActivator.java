@@ -94,6 +94,10 @@ public class GuiceLeaderActivator implements LeaderActivator, ContainerEventList
                 .withName(MetricConstants.METRIC_LEADER + "activationTime")
                 .monitorValue(this, GuiceLeaderActivator::getActivationTime);
 
+        PolledMeter.using(registry)
+                .withName(MetricConstants.METRIC_LEADER + "timeToActive")
+                .monitorValue(this, GuiceLeaderActivator::getTimeToActive);
+
         PolledMeter.using(registry)
                 .withName(MetricConstants.METRIC_LEADER + "inActiveStateTime")
                 .monitorValue(this, self -> self.isActivated() ? clock.wallTime() - self.activationEndTimestamp : 0L);
@@ -134,6 +138,20 @@ public class GuiceLeaderActivator implements LeaderActivator, ContainerEventList
         return clock.wallTime() - activationStartTimestamp;
     }
 
+    /**
+     * Time from the leader election to the end of the activation process, which includes the wait for the container
+     * startup. It grows while the activation is in progress, and is -1 if this node is not the leader.
+     */
+    private long getTimeToActive() {
+        if (isActivated()) {
+            return activationEndTimestamp - electionTimestamp;
+        }
+        if (!isLeader()) {
+            return -1;
+        }
+        return clock.wallTime() - electionTimestamp;
+    }
+
     @Override
     public boolean isLeader() {
         return leader;
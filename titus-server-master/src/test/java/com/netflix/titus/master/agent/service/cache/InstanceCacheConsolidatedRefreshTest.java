@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.agent.service.cache;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.api.connector.cloud.Instance;
+import com.netflix.titus.api.connector.cloud.InstanceGroup;
+import com.netflix.titus.common.data.generator.DataGenerator;
+import com.netflix.titus.master.MetricConstants;
+import com.netflix.titus.master.agent.service.AgentManagementConfiguration;
+import com.netflix.titus.testkit.rx.ExtTestSubscriber;
+import com.netflix.titus.testkit.stub.connector.cloud.InstanceGenerators;
+import com.netflix.titus.testkit.stub.connector.cloud.TestableInstanceCloudConnector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+import static com.netflix.titus.master.agent.service.cache.InstanceTestUtils.CACHE_REFRESH_INTERVAL_MS;
+import static com.netflix.titus.master.agent.service.cache.InstanceTestUtils.expectInstanceGroupUpdateEvent;
+import static com.netflix.titus.master.agent.service.cache.InstanceTestUtils.mockedAgentManagementConfiguration;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class InstanceCacheConsolidatedRefreshTest {
+
+    private final TestScheduler testScheduler = Schedulers.test();
+
+    private final AgentManagementConfiguration configuration = mockedAgentManagementConfiguration();
+
+    private final TestableInstanceCloudConnector testConnector = new TestableInstanceCloudConnector();
+
+    private final Registry registry = new DefaultRegistry();
+
+    private DataGenerator<InstanceGroup> instanceGroupsGenerator = InstanceGenerators.instanceGroups(5);
+    private DataGenerator<Instance> instanceGenerator1;
+
+    private InstanceCache cache;
+    private final ExtTestSubscriber<CacheUpdateEvent> eventSubscriber = new ExtTestSubscriber<>();
+
+    @Before
+    public void setUp() {
+        when(configuration.isConsolidatedCacheRefreshEnabled()).thenReturn(true);
+        when(configuration.getCacheRefreshApiBudget()).thenReturn(100L);
+        when(configuration.getCacheRefreshApiBudgetRefillPerSec()).thenReturn(10L);
+
+        instanceGroupsGenerator = instanceGroupsGenerator.apply(testConnector::addInstanceGroup, 2);
+        instanceGenerator1 = InstanceGenerators.instances(testConnector.takeInstanceGroup(0)).apply(testConnector::addInstance, 5);
+        InstanceGenerators.instances(testConnector.takeInstanceGroup(1)).apply(testConnector::addInstance, 5);
+    }
+
+    @After
+    public void tearDown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    public void testBootstrap() {
+        newCache();
+        InstanceGroup firstInstanceGroup = cache.getInstanceGroup(testConnector.takeInstanceGroup(0).getId());
+        assertThat(firstInstanceGroup.getInstanceIds()).hasSize(5);
+        assertThat(cache.getInstanceGroup(testConnector.takeInstanceGroup(1).getId()).getInstanceIds()).hasSize(5);
+
+        testScheduler.advanceTimeBy(CACHE_REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        assertThat(eventSubscriber.takeNext()).isNull();
+    }
+
+    @Test
+    public void testOnlyChangedInstanceGroupIsReported() {
+        newCache();
+        String instanceGroupId = testConnector.takeInstanceGroup(0).getId();
+
+        instanceGenerator1 = instanceGenerator1.apply(testConnector::addInstance);
+        testScheduler.advanceTimeBy(CACHE_REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        assertThat(cache.getInstanceGroup(instanceGroupId).getInstanceIds()).hasSize(6);
+        expectInstanceGroupUpdateEvent(eventSubscriber, instanceGroupId);
+        assertThat(eventSubscriber.takeNext()).isNull();
+    }
+
+    @Test
+    public void testInstanceChanged() {
+        newCache();
+        Instance updatedInstance = testConnector.takeInstance(1, 0).toBuilder()
+                .withInstanceState(Instance.InstanceState.Terminated)
+                .build();
+        testConnector.addInstance(updatedInstance);
+
+        testScheduler.advanceTimeBy(CACHE_REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        assertThat(cache.getAgentInstance(updatedInstance.getId()).getInstanceState()).isEqualTo(Instance.InstanceState.Terminated);
+        expectInstanceGroupUpdateEvent(eventSubscriber, testConnector.takeInstanceGroup(1).getId());
+        assertThat(eventSubscriber.takeNext()).isNull();
+    }
+
+    @Test
+    public void testInstanceGroupRemoved() {
+        newCache();
+        int initialCount = cache.getInstanceGroups().size();
+
+        String removedInstanceGroupId = testConnector.takeInstanceGroup(0).getId();
+        testConnector.removeInstanceGroup(removedInstanceGroupId);
+
+        testScheduler.advanceTimeBy(CACHE_REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        assertThat(cache.getInstanceGroups()).hasSize(initialCount - 1);
+        expectInstanceGroupUpdateEvent(eventSubscriber, removedInstanceGroupId);
+    }
+
+    @Test
+    public void testRefreshIsDelayedWhenApiBudgetIsExhausted() {
+        when(configuration.getCacheRefreshApiBudget()).thenReturn(2L);
+        when(configuration.getCacheRefreshApiBudgetRefillPerSec()).thenReturn(1L);
+        newCache();
+
+        String instanceGroupId = testConnector.takeInstanceGroup(0).getId();
+        instanceGenerator1 = instanceGenerator1.apply(testConnector::addInstance);
+
+        // Each refresh costs two tokens, and only one token per second is added, so some cycles must be skipped.
+        testScheduler.advanceTimeBy(10 * CACHE_REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        assertThat(cache.getInstanceGroup(instanceGroupId).getInstanceIds()).hasSize(6);
+        assertThat(registry.counter(MetricConstants.METRIC_AGENT_CACHE + "apiBudgetExhausted", "action", "consolidatedRefresh").count()).isGreaterThan(0);
+    }
+
+    private void newCache() {
+        cache = InstanceCache.newInstance(configuration, testConnector, Collections.emptySet(), registry, testScheduler);
+        testScheduler.advanceTimeBy(CACHE_REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS); // This will populate the cache with the initial connector state
+        cache.events().subscribe(eventSubscriber);
+    }
+}
@@ -20,6 +20,7 @@ import java.io.File;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import com.netflix.spectator.api.DefaultRegistry;
 import com.netflix.titus.api.audit.model.AuditLogEvent;
 import com.netflix.titus.api.audit.model.AuditLogEvent.Type;
 import com.netflix.titus.api.audit.service.AuditLogService;
@@ -60,18 +61,30 @@ public class AuditEventDiskWriterTest {
         assertThat(LOG_FILE.exists()).isFalse();
 
         when(config.getAuditLogFolder()).thenReturn(LOG_FOLDER);
+        when(config.getAuditLogQueueSize()).thenReturn(100);
+        when(config.getAuditLogQueueOverflowPolicy()).thenReturn("DropOldest");
+        when(config.getAuditLogSegmentMaxSizeBytes()).thenReturn(1024 * 1024L);
+        when(config.getAuditLogSegmentMaxDurationMs()).thenReturn(3600_000L);
+        when(config.getAuditLogRetentionSegmentCount()).thenReturn(10);
+        when(config.getAuditLogRetentionSizeBytes()).thenReturn(10 * 1024 * 1024L);
         when(auditLogService.auditLogEvents()).thenReturn(eventSubject);
         when(rxEventBus.listen(AuditEventDiskWriter.class.getSimpleName(), UserRequestEvent.class)).thenReturn(rxEventSubject);
-        auditEventDiskWriter = new AuditEventDiskWriter(config, auditLogService, rxEventBus, testScheduler);
+    }
+
+    private void createWriter() {
+        auditEventDiskWriter = new AuditEventDiskWriter(config, auditLogService, rxEventBus, new DefaultRegistry(), testScheduler);
     }
 
     @After
     public void tearDown() throws Exception {
-        auditEventDiskWriter.shutdown();
+        if (auditEventDiskWriter != null) {
+            auditEventDiskWriter.shutdown();
+        }
     }
 
     @Test
     public void testLogWrite() throws Exception {
+        createWriter();
         eventSubject.onNext(createEvent());
         rxEventSubject.onNext(createHttpEvent());
         testScheduler.advanceTimeBy(WRITE_INTERVAL_MS, TimeUnit.MILLISECONDS);
@@ -80,6 +93,40 @@ public class AuditEventDiskWriterTest {
         assertThat(lines).hasSize(2);
     }
 
+    @Test
+    public void testSegmentedLogWrite() throws Exception {
+        when(config.isSegmentedAuditLogEnabled()).thenReturn(true);
+        for (AuditLogSegment segment : AuditLogSegment.listSegments(new File(LOG_FOLDER))) {
+            segment.getFile().delete();
+        }
+        createWriter();
+
+        AuditLogEvent event = createEvent();
+        UserRequestEvent httpEvent = createHttpEvent();
+        eventSubject.onNext(event);
+        rxEventSubject.onNext(httpEvent);
+        testScheduler.advanceTimeBy(WRITE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        auditEventDiskWriter.shutdown();
+        auditEventDiskWriter = null;
+
+        List<AuditRecord> records = new AuditLogReader(new File(LOG_FOLDER)).read(0, Long.MAX_VALUE);
+        assertThat(records).containsExactlyInAnyOrder(AuditRecord.of(event), AuditRecord.of(httpEvent));
+    }
+
+    @Test
+    public void testQueueOverflow() throws Exception {
+        when(config.getAuditLogQueueSize()).thenReturn(1);
+        createWriter();
+
+        eventSubject.onNext(createEvent());
+        eventSubject.onNext(createEvent());
+        testScheduler.advanceTimeBy(WRITE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        List<String> lines = IOExt.readLines(LOG_FILE);
+        assertThat(lines).hasSize(1);
+    }
+
     private AuditLogEvent createEvent() {
         return new AuditLogEvent(Type.JOB_SUBMIT, "operand", "data", System.currentTimeMillis());
     }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.audit.service;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuditRecordQueueTest {
+
+    @Test
+    public void testDropNewest() {
+        AuditRecordQueue queue = new AuditRecordQueue(2, AuditRecordQueue.OverflowPolicy.DropNewest, new DefaultRegistry());
+        assertThat(queue.offer(newRecord(1))).isTrue();
+        assertThat(queue.offer(newRecord(2))).isTrue();
+        assertThat(queue.offer(newRecord(3))).isFalse();
+
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(queue.poll()).isEqualTo(newRecord(1));
+        assertThat(queue.poll()).isEqualTo(newRecord(2));
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    public void testDropOldest() {
+        AuditRecordQueue queue = new AuditRecordQueue(2, AuditRecordQueue.OverflowPolicy.DropOldest, new DefaultRegistry());
+        assertThat(queue.offer(newRecord(1))).isTrue();
+        assertThat(queue.offer(newRecord(2))).isTrue();
+        assertThat(queue.offer(newRecord(3))).isTrue();
+
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(queue.poll()).isEqualTo(newRecord(2));
+        assertThat(queue.poll()).isEqualTo(newRecord(3));
+        assertThat(queue.poll()).isNull();
+    }
+
+    private AuditRecord newRecord(long timestamp) {
+        return new AuditRecord(timestamp, AuditRecord.Source.HTTP, "POST /api/v3/jobs", "user" + timestamp, "jobId=" + timestamp);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.audit.service;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.titus.common.util.time.Clocks;
+import com.netflix.titus.common.util.time.TestClock;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SegmentedAuditLogWriterTest {
+
+    private static final File LOG_FOLDER = new File("build/auditLogSegments");
+
+    private final TestClock clock = Clocks.test();
+
+    @Before
+    public void setUp() {
+        LOG_FOLDER.mkdirs();
+        for (AuditLogSegment segment : AuditLogSegment.listSegments(LOG_FOLDER)) {
+            segment.getFile().delete();
+        }
+    }
+
+    @Test
+    public void testSizeBasedRotationAndRetention() throws Exception {
+        SegmentedAuditLogWriter writer = newWriter(1024, 3);
+        for (int i = 0; i < 100; i++) {
+            writer.write(newRecord(i));
+        }
+        writer.close();
+
+        List<AuditLogSegment> segments = AuditLogSegment.listSegments(LOG_FOLDER);
+        assertThat(segments).hasSize(3);
+        assertThat(segments).allMatch(s -> !s.isActive());
+
+        // Oldest records removed by the retention policy
+        List<AuditRecord> records = new AuditLogReader(LOG_FOLDER).read(0, Long.MAX_VALUE);
+        assertThat(records).isNotEmpty();
+        assertThat(records.get(records.size() - 1)).isEqualTo(newRecord(99));
+        assertThat(records.get(0).getTimestamp()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testTimeBasedRotation() throws Exception {
+        SegmentedAuditLogWriter writer = newWriter(1024 * 1024, 10);
+        writer.write(newRecord(1));
+        writer.flush();
+        clock.advanceTime(1, TimeUnit.HOURS);
+        writer.flush();
+        writer.write(newRecord(2));
+        writer.close();
+
+        List<AuditLogSegment> segments = AuditLogSegment.listSegments(LOG_FOLDER);
+        assertThat(segments).hasSize(2);
+        assertThat(segments.get(0).getMinTimestamp()).isEqualTo(1);
+        assertThat(segments.get(1).getMinTimestamp()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTimeRangeQuery() throws Exception {
+        SegmentedAuditLogWriter writer = newWriter(512, 100);
+        for (int i = 0; i < 50; i++) {
+            writer.write(newRecord(i));
+        }
+        writer.close();
+
+        List<AuditRecord> records = new AuditLogReader(LOG_FOLDER).read(10, 19);
+        assertThat(records).hasSize(10);
+        assertThat(records.get(0)).isEqualTo(newRecord(10));
+        assertThat(records.get(9)).isEqualTo(newRecord(19));
+    }
+
+    @Test
+    public void testRecoveryOfPartiallyWrittenSegment() throws Exception {
+        SegmentedAuditLogWriter writer = newWriter(1024 * 1024, 10);
+        writer.write(newRecord(1));
+        writer.write(newRecord(2));
+        writer.flush();
+
+        // Simulate a crash in the middle of a record write
+        File activeFile = AuditLogSegment.listSegments(LOG_FOLDER).get(0).getFile();
+        try (RandomAccessFile file = new RandomAccessFile(activeFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        newWriter(1024 * 1024, 10).close();
+
+        List<AuditLogSegment> segments = AuditLogSegment.listSegments(LOG_FOLDER);
+        assertThat(segments).hasSize(1);
+        assertThat(segments.get(0).isActive()).isFalse();
+        assertThat(new AuditLogReader(LOG_FOLDER).read(0, Long.MAX_VALUE)).containsExactly(newRecord(1));
+    }
+
+    private SegmentedAuditLogWriter newWriter(long maxSegmentSize, int retentionCount) {
+        return new SegmentedAuditLogWriter(
+                LOG_FOLDER, maxSegmentSize, 3600_000, retentionCount, Long.MAX_VALUE, clock, new DefaultRegistry()
+        );
+    }
+
+    private AuditRecord newRecord(long timestamp) {
+        return new AuditRecord(timestamp, AuditRecord.Source.HTTP, "POST /api/v3/jobs", "user" + timestamp, "jobId=" + timestamp);
+    }
+}
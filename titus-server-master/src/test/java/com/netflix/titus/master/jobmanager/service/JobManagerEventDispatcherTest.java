@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.jobmanager.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.common.framework.reconciler.EntityHolder;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.grpc.protogen.JobDescriptor.JobSpecCase;
+import com.netflix.titus.grpc.protogen.TaskStatus;
+import com.netflix.titus.master.jobmanager.service.event.JobManagerReconcilerEvent;
+import com.netflix.titus.master.jobmanager.service.event.JobModelReconcilerEvent.JobNewModelReconcilerEvent;
+import com.netflix.titus.runtime.endpoint.JobQueryCriteria;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3JobQueryCriteriaEvaluator;
+import com.netflix.titus.runtime.endpoint.v3.grpc.query.V3TaskQueryCriteriaEvaluator;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import com.netflix.titus.testkit.rx.ExtTestSubscriber;
+import org.junit.After;
+import org.junit.Test;
+import rx.exceptions.MissingBackpressureException;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import static com.netflix.titus.common.util.CollectionsExt.asSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JobManagerEventDispatcherTest {
+
+    private static final int QUEUE_SIZE = 16;
+
+    private final TestScheduler testScheduler = Schedulers.test();
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.test(testScheduler);
+
+    private final JobManagerConfiguration configuration = mock(JobManagerConfiguration.class);
+
+    private final PublishSubject<JobManagerReconcilerEvent> events = PublishSubject.create();
+
+    private final JobManagerEventDispatcher dispatcher;
+
+    private final Job<BatchJobExt> job1 = newJob("app1");
+    private final Job<BatchJobExt> job2 = newJob("app2");
+
+    public JobManagerEventDispatcherTest() {
+        when(configuration.getEventDispatcherQueueSize()).thenReturn(QUEUE_SIZE);
+        this.dispatcher = new JobManagerEventDispatcher(events, configuration, titusRuntime, testScheduler);
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testRoutingByJobId() {
+        ExtTestSubscriber<JobManagerEvent<?>> subscriber1 = subscribe(JobQueryCriteria.<TaskStatus.TaskState, JobSpecCase>newBuilder()
+                .withJobIds(asSet(job1.getId()))
+                .build()
+        );
+        ExtTestSubscriber<JobManagerEvent<?>> subscriber2 = subscribe(JobQueryCriteria.<TaskStatus.TaskState, JobSpecCase>newBuilder()
+                .withJobIds(asSet(job2.getId()))
+                .build()
+        );
+
+        emitNewJob(job1);
+        emitNewJob(job2);
+        testScheduler.triggerActions();
+
+        assertThat(subscriber1.takeNext().getCurrent()).isEqualTo(job1);
+        assertThat(subscriber1.takeNext()).isNull();
+        assertThat(subscriber2.takeNext().getCurrent()).isEqualTo(job2);
+        assertThat(subscriber2.takeNext()).isNull();
+
+        // Each event evaluated only against the subscriber of its job.
+        assertThat(counter("evaluations")).isEqualTo(2);
+    }
+
+    @Test
+    public void testRoutingByApplicationName() {
+        ExtTestSubscriber<JobManagerEvent<?>> subscriber = subscribe(JobQueryCriteria.<TaskStatus.TaskState, JobSpecCase>newBuilder()
+                .withAppName("app2")
+                .build()
+        );
+
+        emitNewJob(job1);
+        emitNewJob(job2);
+        testScheduler.triggerActions();
+
+        assertThat(subscriber.takeNext().getCurrent()).isEqualTo(job2);
+        assertThat(subscriber.takeNext()).isNull();
+        assertThat(counter("evaluations")).isEqualTo(1);
+    }
+
+    @Test
+    public void testCustomPredicatesAreEvaluatedForAllEvents() {
+        Predicate<Pair<Job<?>, List<Task>>> jobsPredicate = jobAndTasks -> jobAndTasks.getLeft().getId().equals(job1.getId());
+        ExtTestSubscriber<JobManagerEvent<?>> subscriber = new ExtTestSubscriber<>();
+        dispatcher.observeJobs(jobsPredicate, jobAndTask -> true).subscribe(subscriber);
+
+        emitNewJob(job1);
+        emitNewJob(job2);
+        testScheduler.triggerActions();
+
+        assertThat(subscriber.takeNext().getCurrent()).isEqualTo(job1);
+        assertThat(subscriber.takeNext()).isNull();
+        assertThat(counter("evaluations")).isEqualTo(2);
+    }
+
+    @Test
+    public void testSlowSubscriberIsTerminated() {
+        ExtTestSubscriber<JobManagerEvent<?>> slowSubscriber = subscribe(JobQueryCriteria.<TaskStatus.TaskState, JobSpecCase>newBuilder().build());
+        assertThat(dispatcher.getSubscriberCount()).isEqualTo(1);
+
+        for (int i = 0; i < 2 * QUEUE_SIZE; i++) {
+            emitNewJob(job1);
+        }
+        testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        slowSubscriber.assertOnError(MissingBackpressureException.class);
+        assertThat(dispatcher.getSubscriberCount()).isZero();
+        assertThat(counter("overflows")).isEqualTo(1);
+    }
+
+    @Test
+    public void testUnsubscribeRemovesSubscriber() {
+        ExtTestSubscriber<JobManagerEvent<?>> subscriber = subscribe(JobQueryCriteria.<TaskStatus.TaskState, JobSpecCase>newBuilder()
+                .withJobIds(asSet(job1.getId()))
+                .build()
+        );
+        assertThat(dispatcher.getSubscriberCount()).isEqualTo(1);
+
+        subscriber.unsubscribe();
+        assertThat(dispatcher.getSubscriberCount()).isZero();
+
+        emitNewJob(job1);
+        testScheduler.triggerActions();
+        assertThat(subscriber.takeNext()).isNull();
+        assertThat(counter("evaluations")).isZero();
+    }
+
+    private ExtTestSubscriber<JobManagerEvent<?>> subscribe(JobQueryCriteria<TaskStatus.TaskState, JobSpecCase> criteria) {
+        ExtTestSubscriber<JobManagerEvent<?>> subscriber = new ExtTestSubscriber<>();
+        dispatcher.observeJobs(
+                new V3JobQueryCriteriaEvaluator(criteria, titusRuntime),
+                new V3TaskQueryCriteriaEvaluator(criteria, titusRuntime)
+        ).subscribe(subscriber);
+        return subscriber;
+    }
+
+    private void emitNewJob(Job<?> job) {
+        events.onNext(new JobNewModelReconcilerEvent(EntityHolder.newRoot(job.getId(), job)));
+    }
+
+    private long counter(String name) {
+        return titusRuntime.getRegistry().counter("titusMaster.jobManager.eventDispatcher." + name).count();
+    }
+
+    private static Job<BatchJobExt> newJob(String applicationName) {
+        Job<BatchJobExt> job = JobGenerator.batchJobs(JobDescriptorGenerator.oneTaskBatchJobDescriptor()).getValue();
+        return job.toBuilder()
+                .withJobDescriptor(job.getJobDescriptor().toBuilder().withApplicationName(applicationName).build())
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.jobmanager.service.limiter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.JobModel;
+import com.netflix.titus.api.jobmanager.model.job.JobState;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.jobmanager.service.V3JobOperations;
+import com.netflix.titus.master.jobmanager.service.JobManagerConfiguration;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import rx.subjects.PublishSubject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DefaultJobSubmitLimiterTest {
+
+    private static final long MAX_ACTIVE_JOBS = 2;
+
+    private final JobManagerConfiguration configuration = mock(JobManagerConfiguration.class);
+    private final V3JobOperations v3JobOperations = mock(V3JobOperations.class);
+
+    private final PublishSubject<JobManagerEvent<?>> jobEvents = PublishSubject.create();
+    private final List<Job> jobs = new ArrayList<>();
+
+    private final DefaultJobSubmitLimiter limiter = new DefaultJobSubmitLimiter(configuration, v3JobOperations);
+
+    @Before
+    public void setUp() {
+        when(configuration.getMaxActiveJobs()).thenReturn(MAX_ACTIVE_JOBS);
+        when(v3JobOperations.observeJobs()).thenReturn(jobEvents);
+        when(v3JobOperations.getJobs()).thenReturn(jobs);
+    }
+
+    @Test
+    public void testExistingJobSequenceIsRejected() {
+        Job<BatchJobExt> job = newJob("001");
+        jobs.add(job);
+
+        assertThat(limiter.checkIfAllowed(job.getJobDescriptor())).hasValueSatisfying(reason -> assertThat(reason).contains(job.getId()));
+        assertThat(limiter.checkIfAllowed(newJobDescriptor("002"))).isEmpty();
+    }
+
+    @Test
+    public void testJobSequenceIsReleasedWhenJobFinishes() {
+        limiter.checkIfAllowed(newJobDescriptor("001"));
+
+        Job<BatchJobExt> job = newJob("001");
+        jobEvents.onNext(JobUpdateEvent.newJob(job));
+        assertThat(limiter.checkIfAllowed(job.getJobDescriptor())).isPresent();
+
+        Job finishedJob = JobFunctions.changeJobStatus(job, JobState.Finished, "test");
+        jobEvents.onNext(JobUpdateEvent.jobChange(finishedJob, job));
+        assertThat(limiter.checkIfAllowed(job.getJobDescriptor())).isEmpty();
+    }
+
+    @Test
+    public void testReservationIsHeldUntilJobIsIndexed() {
+        JobDescriptor<BatchJobExt> jobDescriptor = newJobDescriptor("001");
+        assertThat(limiter.reserveId(jobDescriptor)).isEmpty();
+        assertThat(limiter.reserveId(jobDescriptor)).isPresent();
+
+        // Job created, and its reservation taken over by the index.
+        Job<BatchJobExt> job = newJob("001");
+        jobEvents.onNext(JobUpdateEvent.newJob(job));
+        assertThat(limiter.reserveId(jobDescriptor)).isEmpty();
+        assertThat(limiter.checkIfAllowed(jobDescriptor)).isPresent();
+    }
+
+    @Test
+    public void testActiveJobLimit() {
+        jobs.add(newJob("001"));
+        assertThat(limiter.checkIfAllowed(newJobDescriptor("003"))).isEmpty();
+
+        Job<BatchJobExt> job = newJob("002");
+        jobEvents.onNext(JobUpdateEvent.newJob(job));
+        assertThat(limiter.checkIfAllowed(newJobDescriptor("003"))).isPresent();
+
+        jobEvents.onNext(JobUpdateEvent.jobChange(JobFunctions.changeJobStatus(job, JobState.Finished, "test"), job));
+        assertThat(limiter.checkIfAllowed(newJobDescriptor("003"))).isEmpty();
+    }
+
+    @Test
+    public void testIndexIsRebuiltAfterEventStreamError() {
+        limiter.checkIfAllowed(newJobDescriptor("001"));
+        jobEvents.onError(new RuntimeException("simulated error"));
+
+        Job<BatchJobExt> job = newJob("001");
+        jobs.add(job);
+        when(v3JobOperations.observeJobs()).thenReturn(PublishSubject.create());
+
+        assertThat(limiter.checkIfAllowed(job.getJobDescriptor())).isPresent();
+    }
+
+    @Test
+    public void testJobFinishedDuringSeedingIsNotReaddedFromSnapshot() {
+        Job<BatchJobExt> job = newJob("001");
+        jobs.add(job);
+
+        // The job finishes after the snapshot is taken, but before it is applied to the index.
+        when(v3JobOperations.getJobs()).thenAnswer(invocation -> {
+            List<Job> snapshot = new ArrayList<>(jobs);
+            jobEvents.onNext(JobUpdateEvent.jobChange(JobFunctions.changeJobStatus(job, JobState.Finished, "test"), job));
+            return snapshot;
+        });
+
+        assertThat(limiter.checkIfAllowed(job.getJobDescriptor())).isEmpty();
+    }
+
+    private JobDescriptor<BatchJobExt> newJobDescriptor(String sequence) {
+        return JobDescriptorGenerator.oneTaskBatchJobDescriptor().toBuilder()
+                .withApplicationName("testApp")
+                .withJobGroupInfo(JobModel.newJobGroupInfo().withStack("main").withDetail("test").withSequence(sequence).build())
+                .build();
+    }
+
+    private Job<BatchJobExt> newJob(String sequence) {
+        return JobGenerator.batchJobs(newJobDescriptor(sequence)).getValue().toBuilder().withId("job#" + sequence).build();
+    }
+}
@@ -20,8 +20,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import com.netflix.spectator.api.NoopRegistry;
 import com.netflix.spectator.api.Registry;
@@ -41,14 +43,19 @@ import com.netflix.titus.runtime.store.v3.memory.InMemoryLoadBalancerStore;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.stubbing.OngoingStubbing;
+import rx.Completable;
 import rx.Single;
 import rx.observers.AssertableSubscriber;
 import rx.schedulers.Schedulers;
 import rx.schedulers.TestScheduler;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DefaultLoadBalancerReconcilerTest {
@@ -141,6 +148,76 @@ public class DefaultLoadBalancerReconcilerTest {
         });
     }
 
+    @Test
+    public void incrementalRunsOnlyRegisterMissingTargets() {
+        when(configuration.getFullReconciliationRunInterval()).thenReturn(3);
+        final List<Task> tasks = LoadBalancerTests.buildTasksStarted(5, jobId);
+        final Set<String> ipAddresses = tasks.stream()
+                .map(task -> task.getTaskContext().get(TaskAttributes.TASK_ATTRIBUTES_CONTAINER_IP))
+                .collect(Collectors.toSet());
+        final Set<String> registeredIps = ipAddresses.stream().limit(3).collect(Collectors.toSet());
+        final JobLoadBalancer jobLoadBalancer = new JobLoadBalancer(jobId, loadBalancerId);
+        final JobLoadBalancerState association = new JobLoadBalancerState(jobLoadBalancer, JobLoadBalancer.State.Associated);
+        when(v3JobOperations.getTasks(jobId)).thenReturn(tasks);
+        when(store.getAssociations()).thenReturn(Collections.singletonList(association));
+        reset(connector);
+        when(connector.getLoadBalancer(loadBalancerId)).thenReturn(Single.just(new LoadBalancer(
+                loadBalancerId,
+                LoadBalancer.State.ACTIVE,
+                CollectionsExt.merge(ipAddresses, CollectionsExt.asSet("1.1.1.1"))
+        )));
+        when(connector.getLoadBalancer(loadBalancerId, ipAddresses)).thenReturn(Single.just(
+                new LoadBalancer(loadBalancerId, LoadBalancer.State.ACTIVE, registeredIps)
+        ));
+
+        final AssertableSubscriber<TargetStateBatchable> subscriber = reconciler.events().test();
+
+        // first run is a full one, which deregisters the target not managed by Titus
+        testScheduler.advanceTimeBy(delayMs, TimeUnit.MILLISECONDS);
+        subscriber.assertNotCompleted().assertValueCount(1);
+        assertThat(subscriber.getOnNextEvents().get(0).getState()).isEqualTo(LoadBalancerTarget.State.Deregistered);
+        verify(connector, times(1)).getLoadBalancer(loadBalancerId);
+
+        // next two runs are incremental, and only register missing targets
+        testScheduler.advanceTimeBy(delayMs, TimeUnit.MILLISECONDS);
+        subscriber.assertNotCompleted().assertValueCount(3);
+        subscriber.getOnNextEvents().subList(1, 3).forEach(update -> {
+            assertThat(update.getState()).isEqualTo(LoadBalancerTarget.State.Registered);
+            assertThat(registeredIps).doesNotContain(update.getIdentifier().getIpAddress());
+        });
+        testScheduler.advanceTimeBy(delayMs, TimeUnit.MILLISECONDS);
+        subscriber.assertNotCompleted().assertValueCount(5);
+        verify(connector, times(2)).getLoadBalancer(loadBalancerId, ipAddresses);
+        verify(connector, times(1)).getLoadBalancer(loadBalancerId);
+
+        // and the next full run happens again after the configured number of runs
+        testScheduler.advanceTimeBy(delayMs, TimeUnit.MILLISECONDS);
+        subscriber.assertNotCompleted().assertValueCount(6);
+        verify(connector, times(2)).getLoadBalancer(loadBalancerId);
+    }
+
+    @Test
+    public void incrementalRunsDoNotRegisterTargetsOfRemovedLoadBalancer() {
+        when(configuration.getFullReconciliationRunInterval()).thenReturn(3);
+        final List<Task> tasks = LoadBalancerTests.buildTasksStarted(5, jobId);
+        final JobLoadBalancer jobLoadBalancer = new JobLoadBalancer(jobId, loadBalancerId);
+        final JobLoadBalancerState association = new JobLoadBalancerState(jobLoadBalancer, JobLoadBalancer.State.Associated);
+        when(v3JobOperations.getTasks(jobId)).thenReturn(tasks);
+        when(store.getAssociations()).thenReturn(Collections.singletonList(association));
+        when(store.addOrUpdateLoadBalancer(any(), any())).thenReturn(Completable.complete());
+        reset(connector);
+        final LoadBalancer removed = new LoadBalancer(loadBalancerId, LoadBalancer.State.REMOVED, Collections.emptySet());
+        when(connector.getLoadBalancer(loadBalancerId)).thenReturn(Single.just(removed));
+        when(connector.getLoadBalancer(eq(loadBalancerId), any())).thenReturn(Single.just(removed));
+
+        final AssertableSubscriber<TargetStateBatchable> subscriber = reconciler.events().test();
+
+        // one full and two incremental runs
+        testScheduler.advanceTimeBy(3 * delayMs, TimeUnit.MILLISECONDS);
+        subscriber.assertNotCompleted().assertNoValues();
+        verify(connector, times(1)).getLoadBalancer(loadBalancerId);
+    }
+
     @Test
     public void updatesAreIgnoredWhileCooldownIsActive() {
         final long cooldownPeriodMs = 5 * delayMs;
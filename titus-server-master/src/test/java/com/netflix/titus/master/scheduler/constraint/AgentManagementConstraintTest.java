@@ -27,13 +27,18 @@ import com.netflix.fenzo.TaskTrackerState;
 import com.netflix.fenzo.VirtualMachineCurrentState;
 import com.netflix.fenzo.VirtualMachineLease;
 import com.netflix.fenzo.queues.QAttributes;
+import com.netflix.titus.api.agent.model.AgentInstance;
 import com.netflix.titus.api.agent.model.AgentInstanceGroup;
 import com.netflix.titus.api.agent.model.InstanceGroupLifecycleState;
 import com.netflix.titus.api.agent.model.InstanceGroupLifecycleStatus;
+import com.netflix.titus.api.agent.model.InstanceLifecycleState;
+import com.netflix.titus.api.agent.model.InstanceLifecycleStatus;
 import com.netflix.titus.api.agent.service.AgentManagementService;
 import com.netflix.titus.api.agent.service.AgentStatusMonitor;
 import com.netflix.titus.api.model.ResourceDimension;
 import com.netflix.titus.api.model.Tier;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.master.agent.AgentAttributes;
 import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
 import com.netflix.titus.master.scheduler.SchedulerConfiguration;
@@ -42,7 +47,11 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AgentManagementConstraintTest {
@@ -51,7 +60,7 @@ public class AgentManagementConstraintTest {
     private final AgentManagementService agentManagementService = mock(AgentManagementService.class);
     private final AgentStatusMonitor agentStatusMonitor = mock(AgentStatusMonitor.class);
 
-    private final AgentManagementConstraint agentManagementConstraint = new AgentManagementConstraint(schedulerConfiguration, agentManagementService, agentStatusMonitor);
+    private final AgentManagementConstraint agentManagementConstraint = new AgentManagementConstraint(schedulerConfiguration, agentManagementService, agentStatusMonitor, TitusRuntimes.internal());
 
     @Before
     public void setUp() throws Exception {
@@ -132,6 +141,57 @@ public class AgentManagementConstraintTest {
         assertThat(result.getFailureReason()).isEqualToIgnoringCase("Instance group does not run non gpu tasks");
     }
 
+    @Test
+    public void precomputedEligibilityTable() {
+        AgentInstanceGroup agentInstanceGroup = createAgentInstanceGroup(InstanceGroupLifecycleState.Active, Tier.Flex);
+        AgentInstance agentInstance = createAgentInstance("1234", "instanceGroupId", Collections.emptyMap());
+        setAgentManagementState(agentInstanceGroup, agentInstance);
+
+        agentManagementConstraint.prepare();
+        Result result = agentManagementConstraint.evaluate(createTaskRequest(),
+                createVirtualMachineCurrentStateMock("1234", "instanceGroupId"), mock(TaskTrackerState.class));
+        assertThat(result.isSuccessful()).isTrue();
+        verify(agentManagementService, never()).findInstanceGroup(anyString());
+        verify(agentManagementService, never()).findAgentInstance(anyString());
+
+        setAgentManagementState(agentInstanceGroup, createAgentInstance("1234", "instanceGroupId", Collections.singletonMap(AgentAttributes.REMOVABLE, "true")));
+        agentManagementConstraint.prepare();
+        result = agentManagementConstraint.evaluate(createTaskRequest(),
+                createVirtualMachineCurrentStateMock("1234", "instanceGroupId"), mock(TaskTrackerState.class));
+        assertThat(result.isSuccessful()).isFalse();
+        assertThat(result.getFailureReason()).isEqualToIgnoringCase("Cannot place on instance due to removable agent attribute");
+    }
+
+    @Test
+    public void precomputedEligibilityTableTierMismatch() {
+        AgentInstanceGroup agentInstanceGroup = createAgentInstanceGroup(InstanceGroupLifecycleState.Active, Tier.Critical);
+        setAgentManagementState(agentInstanceGroup, createAgentInstance("1234", "instanceGroupId", Collections.emptyMap()));
+
+        agentManagementConstraint.prepare();
+        Result result = agentManagementConstraint.evaluate(createTaskRequest(),
+                createVirtualMachineCurrentStateMock("1234", "instanceGroupId"), mock(TaskTrackerState.class));
+        assertThat(result.isSuccessful()).isFalse();
+        assertThat(result.getFailureReason()).isEqualToIgnoringCase("Task cannot run on instance group tier");
+    }
+
+    private void setAgentManagementState(AgentInstanceGroup agentInstanceGroup, AgentInstance agentInstance) {
+        AgentInstanceGroup instanceGroup = agentInstanceGroup.toBuilder().withId("instanceGroupId").build();
+        when(agentManagementService.getInstanceGroups()).thenReturn(Collections.singletonList(instanceGroup));
+        when(agentManagementService.findAgentInstances(any())).thenReturn(
+                Collections.singletonList(Pair.of(instanceGroup, Collections.singletonList(agentInstance)))
+        );
+        when(agentStatusMonitor.isHealthy(agentInstance.getId())).thenReturn(true);
+    }
+
+    private AgentInstance createAgentInstance(String id, String instanceGroupId, Map<String, String> attributes) {
+        return AgentInstance.newBuilder()
+                .withId(id)
+                .withInstanceGroupId(instanceGroupId)
+                .withDeploymentStatus(InstanceLifecycleStatus.newBuilder().withState(InstanceLifecycleState.Started).build())
+                .withAttributes(attributes)
+                .build();
+    }
+
     private VirtualMachineCurrentState createVirtualMachineCurrentStateMock(String id, String asg) {
         VirtualMachineCurrentState currentState = mock(VirtualMachineCurrentState.class);
         VirtualMachineLease lease = mock(VirtualMachineLease.class);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.master.scheduler.constraint;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.fenzo.TaskTracker;
+import com.netflix.fenzo.TaskTrackerState;
+import com.netflix.fenzo.VirtualMachineLease;
+import com.netflix.titus.api.jobmanager.TaskAttributes;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.ServiceJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.ServiceJobExt;
+import com.netflix.titus.api.jobmanager.service.V3JobOperations;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.apache.mesos.Protos;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class V3ZoneBalancedHardConstraintEvaluatorTest {
+
+    private static final String ZONE_ATTRIBUTE_NAME = "zone";
+
+    private final V3JobOperations v3JobOperations = mock(V3JobOperations.class);
+    private final TaskTrackerState taskTrackerState = mock(TaskTrackerState.class);
+
+    private final Map<String, TaskTracker.ActiveTask> assignedTasks = new HashMap<>();
+
+    private final Job<ServiceJobExt> job = JobGenerator.serviceJobs(JobDescriptorGenerator.oneTaskServiceJobDescriptor()).getValue();
+
+    private final TaskCache taskCache = new TaskCache(v3JobOperations);
+    private final V3ZoneBalancedHardConstraintEvaluator evaluator = new V3ZoneBalancedHardConstraintEvaluator(taskCache, 3, ZONE_ATTRIBUTE_NAME);
+
+    @Before
+    public void setUp() {
+        ServiceJobTask runningTask = JobGenerator.serviceTasks(job).getValue().toBuilder()
+                .addToTaskContext(TaskAttributes.TASK_ATTRIBUTES_AGENT_ZONE, "zoneA")
+                .build();
+        List<Pair<Job, List<Task>>> jobsAndTasks = Collections.singletonList(
+                Pair.<Job, List<Task>>of(job, Collections.<Task>singletonList(runningTask))
+        );
+        when(v3JobOperations.getJobsAndTasks()).thenReturn(jobsAndTasks);
+        when(taskTrackerState.getAllCurrentlyAssignedTasks()).thenReturn(assignedTasks);
+
+        taskCache.prepare();
+    }
+
+    @Test
+    public void testRunningTasksAreCounted() {
+        assertThat(evaluator.evaluate("zoneA", job.getId(), taskTrackerState).isSuccessful()).isFalse();
+        assertThat(evaluator.evaluate("zoneB", job.getId(), taskTrackerState).isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void testAssignedTasksAreCountedIncrementally() {
+        assertThat(evaluator.evaluate("zoneA", job.getId(), taskTrackerState).isSuccessful()).isFalse();
+
+        assign("task1", "zoneB");
+        assign("task2", "zoneC");
+        assertThat(evaluator.evaluate("zoneA", job.getId(), taskTrackerState).isSuccessful()).isTrue();
+
+        assign("task3", "zoneB");
+        assertThat(evaluator.evaluate("zoneA", job.getId(), taskTrackerState).isSuccessful()).isTrue();
+        assertThat(evaluator.evaluate("zoneB", job.getId(), taskTrackerState).isSuccessful()).isFalse();
+        assertThat(evaluator.evaluate("zoneC", job.getId(), taskTrackerState).isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void testCountersAreResetOnNextIteration() {
+        assign("task1", "zoneB");
+        assign("task2", "zoneC");
+        assertThat(evaluator.evaluate("zoneA", job.getId(), taskTrackerState).isSuccessful()).isTrue();
+
+        assignedTasks.clear();
+        taskCache.prepare();
+        assertThat(evaluator.evaluate("zoneA", job.getId(), taskTrackerState).isSuccessful()).isFalse();
+    }
+
+    private void assign(String taskId, String zoneId) {
+        V3QueueableTask taskRequest = mock(V3QueueableTask.class);
+        when(taskRequest.getJob()).thenReturn(job);
+
+        VirtualMachineLease lease = mock(VirtualMachineLease.class);
+        Map<String, Protos.Attribute> attributes = Collections.singletonMap(ZONE_ATTRIBUTE_NAME,
+                Protos.Attribute.newBuilder().setName(ZONE_ATTRIBUTE_NAME).setType(Protos.Value.Type.TEXT).setText(Protos.Value.Text.newBuilder().setValue(zoneId)).build()
+        );
+        when(lease.getAttributeMap()).thenReturn(attributes);
+
+        TaskTracker.ActiveTask activeTask = mock(TaskTracker.ActiveTask.class);
+        when(activeTask.getTaskRequest()).thenReturn(taskRequest);
+        when(activeTask.getTotalLease()).thenReturn(lease);
+
+        assignedTasks.put(taskId, activeTask);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.connector.common.replicator;
+
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PreDestroy;
+
+import com.netflix.titus.common.util.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link DataReplicator} which bootstraps {@link StreamDataReplicator} in the background. Until the first snapshot
+ * is loaded, it returns the provided empty snapshot, and reports infinite staleness ({@link Long#MAX_VALUE}), so it is
+ * up to the client to decide how to handle this case.
+ */
+public class NonBlockingDataReplicator<SNAPSHOT, TRIGGER> implements DataReplicator<SNAPSHOT, TRIGGER> {
+
+    private static final Logger logger = LoggerFactory.getLogger(NonBlockingDataReplicator.class);
+
+    private final String name;
+    private final SNAPSHOT emptySnapshot;
+    private final Mono<StreamDataReplicator<SNAPSHOT, TRIGGER>> bootstrap;
+    private final AtomicReference<StreamDataReplicator<SNAPSHOT, TRIGGER>> delegateRef = new AtomicReference<>();
+    private final Disposable bootstrapSubscription;
+
+    public NonBlockingDataReplicator(String name,
+                                     SNAPSHOT emptySnapshot,
+                                     Flux<StreamDataReplicator<SNAPSHOT, TRIGGER>> replicatorFlux) {
+        this.name = name;
+        this.emptySnapshot = emptySnapshot;
+        this.bootstrap = replicatorFlux.next().cache();
+        this.bootstrapSubscription = bootstrap.subscribe(
+                delegate -> {
+                    logger.info("Data replicator {} bootstrapped", name);
+                    delegateRef.set(delegate);
+                },
+                e -> logger.error("Data replicator {} bootstrap failed", name, e)
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bootstrapSubscription.dispose();
+        StreamDataReplicator<SNAPSHOT, TRIGGER> delegate = delegateRef.get();
+        if (delegate != null) {
+            delegate.shutdown();
+        }
+    }
+
+    @Override
+    public SNAPSHOT getCurrent() {
+        StreamDataReplicator<SNAPSHOT, TRIGGER> delegate = delegateRef.get();
+        return delegate == null ? emptySnapshot : delegate.getCurrent();
+    }
+
+    @Override
+    public long getStalenessMs() {
+        StreamDataReplicator<SNAPSHOT, TRIGGER> delegate = delegateRef.get();
+        return delegate == null ? Long.MAX_VALUE : delegate.getStalenessMs();
+    }
+
+    @Override
+    public Flux<Long> observeDataStalenessMs() {
+        return bootstrap.flatMapMany(StreamDataReplicator::observeDataStalenessMs);
+    }
+
+    @Override
+    public Flux<Pair<SNAPSHOT, TRIGGER>> events() {
+        return bootstrap.flatMapMany(StreamDataReplicator::events);
+    }
+}
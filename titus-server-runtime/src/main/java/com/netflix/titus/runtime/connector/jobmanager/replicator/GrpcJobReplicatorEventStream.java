@@ -23,6 +23,7 @@ import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobModelInterner;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
 import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
@@ -49,6 +50,7 @@ public class GrpcJobReplicatorEventStream extends AbstractReplicatorEventStream<
     private static final Logger logger = LoggerFactory.getLogger(GrpcJobReplicatorEventStream.class);
 
     private final JobManagementClient client;
+    private final JobModelInterner interner;
 
     public GrpcJobReplicatorEventStream(JobManagementClient client,
                                         DataReplicatorMetrics metrics,
@@ -56,6 +58,7 @@ public class GrpcJobReplicatorEventStream extends AbstractReplicatorEventStream<
                                         Scheduler scheduler) {
         super(metrics, titusRuntime, scheduler);
         this.client = client;
+        this.interner = new JobModelInterner(titusRuntime.getRegistry());
     }
 
     @Override
@@ -108,13 +111,13 @@ public class GrpcJobReplicatorEventStream extends AbstractReplicatorEventStream<
                 switch (event.getNotificationCase()) {
                     case JOBUPDATE:
                         com.netflix.titus.grpc.protogen.Job job = event.getJobUpdate().getJob();
-                        builder.addOrUpdateJob(V3GrpcModelConverters.toCoreJob(job));
+                        builder.addOrUpdateJob(interner.intern(V3GrpcModelConverters.toCoreJob(job)));
                         break;
                     case TASKUPDATE:
                         com.netflix.titus.grpc.protogen.Task task = event.getTaskUpdate().getTask();
                         Job<?> taskJob = builder.getJob(task.getJobId());
                         if (taskJob != null) {
-                            builder.addOrUpdateTask(V3GrpcModelConverters.toCoreTask(taskJob, task), event.getTaskUpdate().getMovedFromAnotherJob());
+                            builder.addOrUpdateTask(interner.intern(V3GrpcModelConverters.toCoreTask(taskJob, task)), event.getTaskUpdate().getMovedFromAnotherJob());
                         } else {
                             titusRuntime.getCodeInvariants().inconsistent("Job record not found: jobId=%s, taskId=%s", task.getJobId(), task.getId());
                         }
@@ -141,7 +144,7 @@ public class GrpcJobReplicatorEventStream extends AbstractReplicatorEventStream<
 
             switch (event.getNotificationCase()) {
                 case JOBUPDATE:
-                    Job job = V3GrpcModelConverters.toCoreJob(event.getJobUpdate().getJob());
+                    Job job = interner.intern(V3GrpcModelConverters.toCoreJob(event.getJobUpdate().getJob()));
                     newSnapshot = lastSnapshot.updateJob(job);
                     coreEvent = toJobCoreEvent(job);
                     break;
@@ -150,7 +153,7 @@ public class GrpcJobReplicatorEventStream extends AbstractReplicatorEventStream<
                     Optional<Job<?>> taskJobOpt = lastSnapshot.findJob(task.getJobId());
                     if (taskJobOpt.isPresent()) {
                         Job<?> taskJob = taskJobOpt.get();
-                        Task coreTask = V3GrpcModelConverters.toCoreTask(taskJob, task);
+                        Task coreTask = interner.intern(V3GrpcModelConverters.toCoreTask(taskJob, task));
                         newSnapshot = lastSnapshot.updateTask(coreTask, event.getTaskUpdate().getMovedFromAnotherJob());
                         coreEvent = toTaskCoreEvent(taskJob, coreTask, event.getTaskUpdate().getMovedFromAnotherJob());
                     } else {
@@ -26,11 +26,13 @@ import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.runtime.connector.common.replicator.DataReplicator;
 import com.netflix.titus.runtime.connector.common.replicator.DataReplicatorDelegate;
 import com.netflix.titus.runtime.connector.common.replicator.DataReplicatorMetrics;
+import com.netflix.titus.runtime.connector.common.replicator.NonBlockingDataReplicator;
 import com.netflix.titus.runtime.connector.common.replicator.RetryableReplicatorEventStream;
 import com.netflix.titus.runtime.connector.common.replicator.StreamDataReplicator;
 import com.netflix.titus.runtime.connector.jobmanager.JobDataReplicator;
 import com.netflix.titus.runtime.connector.jobmanager.JobManagementClient;
 import com.netflix.titus.runtime.connector.jobmanager.JobSnapshot;
+import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 
 @Singleton
@@ -60,6 +62,19 @@ public class JobDataReplicatorProvider implements Provider<JobDataReplicator> {
         return replicator;
     }
 
+    /**
+     * Creates a job data replicator, which does not block until the first snapshot is loaded. Until then it returns
+     * an empty snapshot, and reports infinite staleness. Suitable for components that can fall back to TitusMaster
+     * when the replicated data is not available.
+     */
+    public static NonBlockingJobDataReplicator newNonBlockingJobDataReplicator(JobManagementClient client, TitusRuntime titusRuntime) {
+        return new NonBlockingJobDataReplicator(StreamDataReplicator.newStreamDataReplicator(
+                newReplicatorEventStream(client, titusRuntime),
+                new DataReplicatorMetrics(JOB_REPLICATOR, titusRuntime),
+                titusRuntime
+        ));
+    }
+
     private static RetryableReplicatorEventStream<JobSnapshot, JobManagerEvent<?>> newReplicatorEventStream(JobManagementClient client, TitusRuntime titusRuntime) {
         GrpcJobReplicatorEventStream grpcEventStream = new GrpcJobReplicatorEventStream(
                 client,
@@ -82,4 +97,10 @@ public class JobDataReplicatorProvider implements Provider<JobDataReplicator> {
             super(delegate);
         }
     }
+
+    public static class NonBlockingJobDataReplicator extends NonBlockingDataReplicator<JobSnapshot, JobManagerEvent<?>> implements JobDataReplicator {
+        private NonBlockingJobDataReplicator(Flux<StreamDataReplicator<JobSnapshot, JobManagerEvent<?>>> replicatorFlux) {
+            super(JOB_REPLICATOR, JobSnapshot.empty(), replicatorFlux);
+        }
+    }
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.connector.registry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.time.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link RegistryClient} decorator caching the resolved image digests. Concurrent lookups of the same image are
+ * collapsed into a single registry request. Resolved digests are kept for the configured TTL, and refreshed in the
+ * background when they are requested after the refresh-ahead threshold. Not found images are cached for a shorter
+ * period of time. Other errors are not cached, so the next request goes to the registry again.
+ */
+@Singleton
+public class CachingRegistryClient implements RegistryClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingRegistryClient.class);
+
+    private static final String METRIC_ROOT = "titus.registryClient.digestCache.";
+
+    private final TitusRegistryClientConfiguration configuration;
+    private final RegistryClient delegate;
+    private final Clock clock;
+    private final Registry registry;
+
+    private final ConcurrentMap<String, CacheEntry> entries;
+
+    private final Id requestsId;
+    private final Id refreshesId;
+    private final Id registryLatencyId;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+
+    @Inject
+    public CachingRegistryClient(TitusRegistryClientConfiguration configuration,
+                                 DefaultDockerRegistryClient delegate,
+                                 TitusRuntime titusRuntime) {
+        this.configuration = configuration;
+        this.delegate = delegate;
+        this.clock = titusRuntime.getClock();
+        this.registry = titusRuntime.getRegistry();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(configuration.getDigestCacheMaxSize())
+                .<String, CacheEntry>build()
+                .asMap();
+
+        this.requestsId = registry.createId(METRIC_ROOT + "requests");
+        this.refreshesId = registry.createId(METRIC_ROOT + "refreshes");
+        this.registryLatencyId = registry.createId(METRIC_ROOT + "registryLatency");
+
+        PolledMeter.using(registry).withName(METRIC_ROOT + "hitRatio").monitorValue(this, self -> {
+            long requests = self.requestCount.get();
+            return requests == 0 ? 0 : (double) self.hitCount.get() / requests;
+        });
+        PolledMeter.using(registry).withName(METRIC_ROOT + "size").monitorValue(entries, ConcurrentMap::size);
+    }
+
+    @Override
+    public Mono<String> getImageDigest(String repository, String reference) {
+        if (!configuration.isDigestCacheEnabled()) {
+            return delegate.getImageDigest(repository, reference);
+        }
+        return Mono.defer(() -> {
+            String key = repository + ':' + reference;
+            long now = clock.wallTime();
+
+            CacheEntry entry = entries.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                if (!entry.isDone()) {
+                    recordRequest("coalesced", true);
+                } else if (entry.isNotFound()) {
+                    recordRequest("notFoundHit", true);
+                } else {
+                    recordRequest("hit", true);
+                    if (entry.tryStartRefresh(now)) {
+                        refresh(key, entry);
+                    }
+                }
+                return entry.asMono();
+            }
+
+            recordRequest("miss", false);
+            CacheEntry loaded = entries.compute(key, (k, current) ->
+                    current != null && current != entry && !current.isExpired(now)
+                            ? current
+                            : new CacheEntry(repository, reference)
+            );
+            if (loaded.tryStartLoading()) {
+                loaded.load(error -> entries.remove(key, loaded));
+            }
+            return loaded.asMono();
+        });
+    }
+
+    private void refresh(String key, CacheEntry current) {
+        registry.counter(refreshesId).increment();
+        CacheEntry refreshed = new CacheEntry(current.repository, current.reference);
+        refreshed.tryStartLoading();
+        refreshed.load(error -> logger.debug("Image digest refresh failed for {}: {}", key, error.getMessage()));
+        // The flag is reset however the refresh terminates. If the refreshed entry replaced the current one, it is
+        // no longer used.
+        refreshed.asMono().doFinally(signal -> current.refreshCompleted()).subscribe(
+                digest -> entries.replace(key, current, refreshed),
+                error -> {
+                    if (refreshed.isNotFound()) {
+                        entries.replace(key, current, refreshed);
+                    }
+                }
+        );
+    }
+
+    private void recordRequest(String result, boolean hit) {
+        requestCount.incrementAndGet();
+        if (hit) {
+            hitCount.incrementAndGet();
+        }
+        registry.counter(requestsId.withTag("result", result)).increment();
+    }
+
+    private class CacheEntry {
+
+        private final String repository;
+        private final String reference;
+
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private final AtomicBoolean loading = new AtomicBoolean();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private volatile long completedAt = -1;
+        private volatile boolean notFound;
+
+        private CacheEntry(String repository, String reference) {
+            this.repository = repository;
+            this.reference = reference;
+        }
+
+        private boolean tryStartLoading() {
+            return loading.compareAndSet(false, true);
+        }
+
+        /**
+         * Fetches the digest from the registry. Errors other than image not found, are passed to the error handler,
+         * and are not cached.
+         */
+        private void load(Consumer<Throwable> transientErrorHandler) {
+            long startTime = clock.wallTime();
+            delegate.getImageDigest(repository, reference).subscribe(
+                    digest -> {
+                        recordLatency(startTime, "success");
+                        completedAt = clock.wallTime();
+                        future.complete(digest);
+                    },
+                    error -> {
+                        notFound = error instanceof TitusRegistryException
+                                && ((TitusRegistryException) error).getErrorCode() == TitusRegistryException.ErrorCode.IMAGE_NOT_FOUND;
+                        recordLatency(startTime, notFound ? "notFound" : "error");
+                        completedAt = clock.wallTime();
+                        if (!notFound) {
+                            transientErrorHandler.accept(error);
+                        }
+                        future.completeExceptionally(error);
+                    },
+                    () -> {
+                        completedAt = clock.wallTime();
+                        future.complete(null);
+                    }
+            );
+        }
+
+        private boolean isDone() {
+            return completedAt >= 0;
+        }
+
+        private boolean isNotFound() {
+            return notFound;
+        }
+
+        private boolean isExpired(long now) {
+            if (!isDone()) {
+                return false;
+            }
+            long ttlMs = notFound ? configuration.getDigestCacheNegativeTtlMs() : configuration.getDigestCacheTtlMs();
+            return now - completedAt >= ttlMs;
+        }
+
+        private boolean tryStartRefresh(long now) {
+            long refreshAfterMs = (long) (configuration.getDigestCacheTtlMs() * configuration.getDigestCacheRefreshAheadFactor());
+            return now - completedAt >= refreshAfterMs && refreshing.compareAndSet(false, true);
+        }
+
+        private void refreshCompleted() {
+            refreshing.set(false);
+        }
+
+        private Mono<String> asMono() {
+            return Mono.create(sink -> future.whenComplete((digest, error) -> {
+                if (error != null) {
+                    sink.error(error);
+                } else if (digest == null) {
+                    sink.success();
+                } else {
+                    sink.success(digest);
+                }
+            }));
+        }
+
+        private void recordLatency(long startTime, String status) {
+            registry.timer(registryLatencyId.withTag("status", status)).record(clock.wallTime() - startTime, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -26,7 +26,7 @@ import com.netflix.titus.runtime.endpoint.validator.JobImageValidatorConfigurati
 public class TitusContainerRegistryModule extends AbstractModule {
     @Override
     protected void configure() {
-        bind(RegistryClient.class).to(DefaultDockerRegistryClient.class);
+        bind(RegistryClient.class).to(CachingRegistryClient.class);
     }
 
     @Provides
@@ -36,4 +36,34 @@ public interface TitusRegistryClientConfiguration {
 
     @DefaultValue("5")
     int getRegistryRetryDelayMs();
+
+    /**
+     * If set to true, the resolved image digests are cached, and concurrent lookups of the same image are collapsed
+     * into a single registry request.
+     */
+    @DefaultValue("true")
+    boolean isDigestCacheEnabled();
+
+    /**
+     * @return time for which a resolved image digest is kept in cache. As a tag can be moved to a different image,
+     * this value bounds the time for which a job may be submitted with an outdated digest
+     */
+    @DefaultValue("60000")
+    long getDigestCacheTtlMs();
+
+    /**
+     * @return time for which a not found image is kept in cache
+     */
+    @DefaultValue("5000")
+    long getDigestCacheNegativeTtlMs();
+
+    /**
+     * @return fraction of the TTL after which a cache hit triggers a background refresh of the digest, so frequently
+     * used images do not expire from the cache
+     */
+    @DefaultValue("0.75")
+    double getDigestCacheRefreshAheadFactor();
+
+    @DefaultValue("10000")
+    long getDigestCacheMaxSize();
 }
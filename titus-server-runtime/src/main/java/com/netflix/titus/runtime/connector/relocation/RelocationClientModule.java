@@ -26,6 +26,7 @@ import com.netflix.titus.grpc.protogen.TaskRelocationServiceGrpc;
 import com.netflix.titus.grpc.protogen.TaskRelocationServiceGrpc.TaskRelocationServiceStub;
 import com.netflix.titus.runtime.connector.GrpcClientConfiguration;
 import com.netflix.titus.runtime.connector.common.reactor.ReactorToGrpcClientBuilder;
+import com.netflix.titus.runtime.connector.relocation.replicator.RelocationDataReplicatorProvider;
 import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
 import io.grpc.Channel;
 
@@ -36,6 +37,7 @@ public class RelocationClientModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(RelocationServiceClient.class).to(RelocationServiceClientGrpcBridge.class);
+        bind(RelocationDataReplicator.class).toProvider(RelocationDataReplicatorProvider.class);
     }
 
     @Provides
@@ -21,6 +21,8 @@ import java.util.Optional;
 import java.util.Set;
 
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface RelocationServiceClient {
@@ -28,4 +30,10 @@ public interface RelocationServiceClient {
     Mono<Optional<TaskRelocationPlan>> findTaskRelocationPlan(String taskId);
 
     Mono<List<TaskRelocationPlan>> findTaskRelocationPlans(Set<String> taskIds);
+
+    /**
+     * Emits all active relocation plans, followed by {@link TaskRelocationEvent#newSnapshotEndEvent()} marker, and
+     * next plan updates and removals as they happen.
+     */
+    Flux<TaskRelocationEvent> events();
 }
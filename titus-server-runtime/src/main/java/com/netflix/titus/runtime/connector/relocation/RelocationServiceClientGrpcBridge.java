@@ -21,15 +21,24 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
 import com.netflix.titus.common.util.StringExt;
 import com.netflix.titus.grpc.protogen.Page;
+import com.netflix.titus.grpc.protogen.RelocationEvent;
 import com.netflix.titus.grpc.protogen.TaskRelocationQuery;
+import com.netflix.titus.grpc.protogen.TaskRelocationServiceGrpc.TaskRelocationServiceStub;
+import com.netflix.titus.runtime.connector.GrpcClientConfiguration;
+import com.netflix.titus.runtime.endpoint.common.grpc.ReactorGrpcClientAdapter;
+import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
 import com.netflix.titus.runtime.relocation.endpoint.RelocationGrpcModelConverters;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import static com.netflix.titus.runtime.connector.relocation.RelocationClientTransportModule.RELOCATION_CLIENT;
 import static com.netflix.titus.runtime.relocation.endpoint.RelocationGrpcModelConverters.toCoreTaskRelocationPlan;
 
 /**
@@ -42,9 +51,19 @@ public class RelocationServiceClientGrpcBridge implements RelocationServiceClien
 
     private final TransportRelocationServiceClient transportRelocationClient;
 
+    /**
+     * {@link TransportRelocationServiceClient} sets a deadline on all calls, so the event stream, which is never
+     * completed by the server, is called with this adapter instead.
+     */
+    private final ReactorGrpcClientAdapter<TaskRelocationServiceStub> streamingClientAdapter;
+
     @Inject
-    public RelocationServiceClientGrpcBridge(TransportRelocationServiceClient transportRelocationClient) {
+    public RelocationServiceClientGrpcBridge(TransportRelocationServiceClient transportRelocationClient,
+                                             TaskRelocationServiceStub stub,
+                                             CallMetadataResolver callMetadataResolver,
+                                             @Named(RELOCATION_CLIENT) GrpcClientConfiguration configuration) {
         this.transportRelocationClient = transportRelocationClient;
+        this.streamingClientAdapter = new ReactorGrpcClientAdapter<>(stub, callMetadataResolver, configuration);
     }
 
     @Override
@@ -78,4 +97,11 @@ public class RelocationServiceClientGrpcBridge implements RelocationServiceClien
             return Mono.just(coreList);
         });
     }
+
+    @Override
+    public Flux<TaskRelocationEvent> events() {
+        return streamingClientAdapter.<RelocationEvent>asFlux((client, streamObserver) ->
+                client.observeRelocationEvents(TaskRelocationQuery.getDefaultInstance(), streamObserver)
+        ).map(RelocationGrpcModelConverters::toCoreRelocationEvent);
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.connector.relocation;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
+import com.netflix.titus.common.util.CollectionsExt;
+
+public class TaskRelocationSnapshot {
+
+    private static final TaskRelocationSnapshot EMPTY = new TaskRelocationSnapshot("empty", Collections.emptyMap());
+
+    private final String snapshotId;
+    private final Map<String, TaskRelocationPlan> plans;
+
+    public TaskRelocationSnapshot(String snapshotId, Map<String, TaskRelocationPlan> plans) {
+        this.snapshotId = snapshotId;
+        this.plans = Collections.unmodifiableMap(plans);
+    }
+
+    public String getSnapshotId() {
+        return snapshotId;
+    }
+
+    public Map<String, TaskRelocationPlan> getPlans() {
+        return plans;
+    }
+
+    public Optional<TaskRelocationPlan> findPlan(String taskId) {
+        return Optional.ofNullable(plans.get(taskId));
+    }
+
+    public Optional<TaskRelocationSnapshot> updatePlan(TaskRelocationPlan plan) {
+        if (plan.equals(plans.get(plan.getTaskId()))) {
+            return Optional.empty();
+        }
+        return Optional.of(new TaskRelocationSnapshot(snapshotId, CollectionsExt.copyAndAdd(plans, plan.getTaskId(), plan)));
+    }
+
+    public Optional<TaskRelocationSnapshot> removePlan(String taskId) {
+        if (!plans.containsKey(taskId)) {
+            return Optional.empty();
+        }
+        return Optional.of(new TaskRelocationSnapshot(snapshotId, CollectionsExt.copyAndRemove(plans, taskId)));
+    }
+
+    @Override
+    public String toString() {
+        return "TaskRelocationSnapshot{" +
+                "snapshotId='" + snapshotId + '\'' +
+                ", plans=" + plans.size() +
+                '}';
+    }
+
+    public static TaskRelocationSnapshot empty() {
+        return EMPTY;
+    }
+}
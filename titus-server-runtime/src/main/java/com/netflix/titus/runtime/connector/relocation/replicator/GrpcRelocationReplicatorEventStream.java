@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.connector.relocation.replicator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationPlanRemovedEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationPlanUpdateEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationSnapshotEndEvent;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.runtime.connector.common.replicator.AbstractReplicatorEventStream;
+import com.netflix.titus.runtime.connector.common.replicator.DataReplicatorMetrics;
+import com.netflix.titus.runtime.connector.common.replicator.ReplicatorEvent;
+import com.netflix.titus.runtime.connector.relocation.RelocationServiceClient;
+import com.netflix.titus.runtime.connector.relocation.TaskRelocationSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+public class GrpcRelocationReplicatorEventStream extends AbstractReplicatorEventStream<TaskRelocationSnapshot, TaskRelocationEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcRelocationReplicatorEventStream.class);
+
+    private final RelocationServiceClient client;
+
+    public GrpcRelocationReplicatorEventStream(RelocationServiceClient client,
+                                               DataReplicatorMetrics metrics,
+                                               TitusRuntime titusRuntime,
+                                               Scheduler scheduler) {
+        super(metrics, titusRuntime, scheduler);
+        this.client = client;
+    }
+
+    @Override
+    protected Flux<ReplicatorEvent<TaskRelocationSnapshot, TaskRelocationEvent>> newConnection() {
+        return Flux.defer(() -> {
+            CacheUpdater cacheUpdater = new CacheUpdater();
+            logger.info("Connecting to the task relocation event stream...");
+            return client.events().flatMap(cacheUpdater::onEvent);
+        });
+    }
+
+    private class CacheUpdater {
+
+        private final Map<String, TaskRelocationPlan> snapshotPlans = new HashMap<>();
+        private final AtomicReference<TaskRelocationSnapshot> lastSnapshotRef = new AtomicReference<>();
+
+        private Flux<ReplicatorEvent<TaskRelocationSnapshot, TaskRelocationEvent>> onEvent(TaskRelocationEvent event) {
+            try {
+                if (lastSnapshotRef.get() != null) {
+                    return processSnapshotUpdate(event);
+                }
+                if (event instanceof TaskRelocationSnapshotEndEvent) {
+                    return buildInitialCache();
+                }
+                if (event instanceof TaskRelocationPlanUpdateEvent) {
+                    TaskRelocationPlan plan = ((TaskRelocationPlanUpdateEvent) event).getPlan();
+                    snapshotPlans.put(plan.getTaskId(), plan);
+                } else if (event instanceof TaskRelocationPlanRemovedEvent) {
+                    snapshotPlans.remove(((TaskRelocationPlanRemovedEvent) event).getTaskId());
+                }
+            } catch (Exception e) {
+                logger.warn("Unexpected error when handling the task relocation event: {}", event, e);
+                return Flux.error(e); // Return error to force the cache reconnect.
+            }
+            return Flux.empty();
+        }
+
+        private Flux<ReplicatorEvent<TaskRelocationSnapshot, TaskRelocationEvent>> buildInitialCache() {
+            TaskRelocationSnapshot initialSnapshot = new TaskRelocationSnapshot(UUID.randomUUID().toString(), new HashMap<>(snapshotPlans));
+
+            // Clear so the garbage collector can reclaim the memory (we no longer need this data).
+            snapshotPlans.clear();
+
+            logger.info("Task relocation snapshot loaded: {}", initialSnapshot);
+
+            lastSnapshotRef.set(initialSnapshot);
+            return Flux.just(new ReplicatorEvent<>(initialSnapshot, TaskRelocationSnapshotEndEvent.getInstance(), titusRuntime.getClock().wallTime()));
+        }
+
+        private Flux<ReplicatorEvent<TaskRelocationSnapshot, TaskRelocationEvent>> processSnapshotUpdate(TaskRelocationEvent event) {
+            TaskRelocationSnapshot snapshot = lastSnapshotRef.get();
+            Optional<TaskRelocationSnapshot> newSnapshot = Optional.empty();
+
+            if (event instanceof TaskRelocationPlanUpdateEvent) {
+                newSnapshot = snapshot.updatePlan(((TaskRelocationPlanUpdateEvent) event).getPlan());
+            } else if (event instanceof TaskRelocationPlanRemovedEvent) {
+                newSnapshot = snapshot.removePlan(((TaskRelocationPlanRemovedEvent) event).getTaskId());
+            }
+
+            if (newSnapshot.isPresent()) {
+                lastSnapshotRef.set(newSnapshot.get());
+                return Flux.just(new ReplicatorEvent<>(newSnapshot.get(), event, titusRuntime.getClock().wallTime()));
+            }
+            return Flux.empty();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.connector.relocation.replicator;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationSnapshotEndEvent;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.runtime.connector.common.replicator.DataReplicatorMetrics;
+import com.netflix.titus.runtime.connector.common.replicator.NonBlockingDataReplicator;
+import com.netflix.titus.runtime.connector.common.replicator.RetryableReplicatorEventStream;
+import com.netflix.titus.runtime.connector.common.replicator.StreamDataReplicator;
+import com.netflix.titus.runtime.connector.relocation.RelocationDataReplicator;
+import com.netflix.titus.runtime.connector.relocation.RelocationServiceClient;
+import com.netflix.titus.runtime.connector.relocation.TaskRelocationSnapshot;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Unlike the job or eviction replicators, the relocation data is not critical for the clients, so the bootstrap
+ * process does not block (see {@link NonBlockingDataReplicator}).
+ */
+@Singleton
+public class RelocationDataReplicatorProvider implements Provider<RelocationDataReplicator> {
+
+    private static final String RELOCATION_REPLICATOR = "relocationReplicator";
+    private static final String RELOCATION_REPLICATOR_RETRYABLE_STREAM = "relocationReplicatorRetryableStream";
+    private static final String RELOCATION_REPLICATOR_GRPC_STREAM = "relocationReplicatorGrpcStream";
+
+    private final RelocationDataReplicatorImpl replicator;
+
+    @Inject
+    public RelocationDataReplicatorProvider(RelocationServiceClient client, TitusRuntime titusRuntime) {
+        this.replicator = new RelocationDataReplicatorImpl(StreamDataReplicator.newStreamDataReplicator(
+                newReplicatorEventStream(client, titusRuntime),
+                new DataReplicatorMetrics(RELOCATION_REPLICATOR, titusRuntime),
+                titusRuntime
+        ));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replicator.shutdown();
+    }
+
+    @Override
+    public RelocationDataReplicator get() {
+        return replicator;
+    }
+
+    private static RetryableReplicatorEventStream<TaskRelocationSnapshot, TaskRelocationEvent> newReplicatorEventStream(RelocationServiceClient client, TitusRuntime titusRuntime) {
+        GrpcRelocationReplicatorEventStream grpcEventStream = new GrpcRelocationReplicatorEventStream(
+                client,
+                new DataReplicatorMetrics(RELOCATION_REPLICATOR_GRPC_STREAM, titusRuntime),
+                titusRuntime,
+                Schedulers.parallel()
+        );
+
+        return new RetryableReplicatorEventStream<>(
+                TaskRelocationSnapshot.empty(),
+                TaskRelocationSnapshotEndEvent.getInstance(),
+                grpcEventStream,
+                new DataReplicatorMetrics(RELOCATION_REPLICATOR_RETRYABLE_STREAM, titusRuntime),
+                titusRuntime,
+                Schedulers.parallel()
+        );
+    }
+
+    private static class RelocationDataReplicatorImpl extends NonBlockingDataReplicator<TaskRelocationSnapshot, TaskRelocationEvent> implements RelocationDataReplicator {
+        private RelocationDataReplicatorImpl(Flux<StreamDataReplicator<TaskRelocationSnapshot, TaskRelocationEvent>> replicatorFlux) {
+            super(RELOCATION_REPLICATOR, TaskRelocationSnapshot.empty(), replicatorFlux);
+        }
+    }
+}
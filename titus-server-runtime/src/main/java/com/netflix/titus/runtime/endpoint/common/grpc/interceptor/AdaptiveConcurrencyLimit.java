@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.common.grpc.interceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted from the observed request latencies (gradient). While the latency stays within a
+ * tolerance of the lowest latency observed recently, the limit grows. When it goes above it, requests are queueing,
+ * and the limit is reduced proportionally to the latency increase. Explicit overload errors reduce the limit
+ * multiplicatively. If min and max limits are equal, the limit is static.
+ */
+class AdaptiveConcurrencyLimit {
+
+    /**
+     * The lowest latency is relearned periodically, as the request mix may change over time.
+     */
+    private static final int MIN_RTT_RESET_SAMPLES = 1_000;
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesSinceMinRttReset;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.backoffRatio = backoffRatio;
+        this.limit = clamp(initialLimit);
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Reserves a slot for a request, if less than the given number of requests is in flight.
+     */
+    boolean tryAcquire(int allowedLimit) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowedLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot reserved with {@link #tryAcquire(int)}, and updates the limit with the request outcome.
+     */
+    void release(long rttNanos, boolean overloaded) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(rttNanos, inFlightBefore, overloaded);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightBefore, boolean overloaded) {
+        if (overloaded) {
+            limit = clamp(limit * backoffRatio);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        if (++samplesSinceMinRttReset >= MIN_RTT_RESET_SAMPLES) {
+            minRttNanos = rttNanos;
+            samplesSinceMinRttReset = 0;
+        } else {
+            minRttNanos = Math.min(minRttNanos, rttNanos);
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * minRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+
+        // Do not grow the limit if the current one is not used.
+        if (newLimit > limit && inFlightBefore * 2 < limit) {
+            return;
+        }
+        limit = clamp(limit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
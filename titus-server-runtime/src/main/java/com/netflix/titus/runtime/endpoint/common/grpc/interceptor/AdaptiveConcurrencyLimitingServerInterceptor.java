@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.common.grpc.interceptor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.google.common.base.Strings;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.time.Clock;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.runtime.endpoint.metadata.CallMetadata;
+import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Limits the number of concurrently executing requests, separately for queries, mutations and streams, so a burst
+ * of expensive queries cannot starve the job mutations or the replicator streams. Query and mutation limits are
+ * adjusted from the observed latencies (see {@link AdaptiveConcurrencyLimit}). Requests above the limit are rejected
+ * immediately with {@link Status#RESOURCE_EXHAUSTED}. Callers matching
+ * {@link GrpcConcurrencyLimitConfiguration#getPriorityCallerIdPattern()} may use the full limit, while other callers
+ * only a part of it.
+ * <p>
+ * The interceptor must run after {@link com.netflix.titus.runtime.endpoint.metadata.V3HeaderInterceptor}, which
+ * provides the caller data.
+ */
+@Singleton
+public class AdaptiveConcurrencyLimitingServerInterceptor implements ServerInterceptor {
+
+    private static final String METRIC_ROOT = "titus.grpcServer.concurrencyLimit.";
+
+    private static final String[] QUERY_METHOD_PREFIXES = {"find", "get", "check"};
+
+    enum MethodClass {
+        Query,
+        Mutation,
+        Stream
+    }
+
+    private final GrpcConcurrencyLimitConfiguration configuration;
+    private final CallMetadataResolver callMetadataResolver;
+    private final Clock clock;
+    private final Registry registry;
+
+    private final Map<MethodClass, AdaptiveConcurrencyLimit> limits = new EnumMap<>(MethodClass.class);
+    private final ConcurrentMap<String, MethodClass> methodClasses = new ConcurrentHashMap<>();
+    private final AtomicReference<Pair<String, Optional<Pattern>>> priorityCallerPatternRef = new AtomicReference<>(Pair.of("", Optional.empty()));
+
+    private final Id rejectedId;
+
+    @Inject
+    public AdaptiveConcurrencyLimitingServerInterceptor(GrpcConcurrencyLimitConfiguration configuration,
+                                                        CallMetadataResolver callMetadataResolver,
+                                                        TitusRuntime titusRuntime) {
+        this.configuration = configuration;
+        this.callMetadataResolver = callMetadataResolver;
+        this.clock = titusRuntime.getClock();
+        this.registry = titusRuntime.getRegistry();
+
+        for (MethodClass methodClass : MethodClass.values()) {
+            AdaptiveConcurrencyLimit limit = methodClass == MethodClass.Stream
+                    ? newStaticLimit(configuration.getMaxStreams())
+                    : newAdaptiveLimit(configuration);
+            limits.put(methodClass, limit);
+
+            PolledMeter.using(registry).withId(registry.createId(METRIC_ROOT + "limit", "methodClass", methodClass.name()))
+                    .monitorValue(limit, AdaptiveConcurrencyLimit::getLimit);
+            PolledMeter.using(registry).withId(registry.createId(METRIC_ROOT + "inFlight", "methodClass", methodClass.name()))
+                    .monitorValue(limit, AdaptiveConcurrencyLimit::getInFlight);
+        }
+        this.rejectedId = registry.createId(METRIC_ROOT + "rejected");
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        if (!configuration.isEnabled()) {
+            return next.startCall(call, headers);
+        }
+
+        MethodClass methodClass = methodClasses.computeIfAbsent(call.getMethodDescriptor().getFullMethodName(), name -> classify(call.getMethodDescriptor()));
+        AdaptiveConcurrencyLimit limit = limits.get(methodClass);
+
+        boolean priorityCaller = isPriorityCaller();
+        int allowedLimit = priorityCaller
+                ? limit.getLimit()
+                : Math.max(1, (int) (limit.getLimit() * configuration.getNonPriorityLimitRatio()));
+        if (!limit.tryAcquire(allowedLimit)) {
+            registry.counter(rejectedId.withTag("methodClass", methodClass.name()).withTag("priority", Boolean.toString(priorityCaller))).increment();
+            call.close(
+                    Status.RESOURCE_EXHAUSTED.withDescription(String.format("Too many concurrent %s requests (limit=%s)", methodClass, allowedLimit)),
+                    new Metadata()
+            );
+            return new ServerCall.Listener<ReqT>() {
+            };
+        }
+
+        long startTime = clock.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable releaseAction = () -> {
+            if (!released.getAndSet(true)) {
+                limit.release(clock.nanoTime() - startTime, false);
+            }
+        };
+
+        ServerCall<ReqT, RespT> releasingCall = new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (!released.getAndSet(true)) {
+                    limit.release(clock.nanoTime() - startTime, isOverloadStatus(status));
+                }
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(releasingCall, headers);
+        } catch (RuntimeException e) {
+            releaseAction.run();
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(listener) {
+            @Override
+            public void onCancel() {
+                releaseAction.run();
+                super.onCancel();
+            }
+
+            @Override
+            public void onComplete() {
+                releaseAction.run();
+                super.onComplete();
+            }
+        };
+    }
+
+    AdaptiveConcurrencyLimit getLimit(MethodClass methodClass) {
+        return limits.get(methodClass);
+    }
+
+    private boolean isPriorityCaller() {
+        Optional<Pattern> pattern = getPriorityCallerPattern();
+        if (!pattern.isPresent()) {
+            return false;
+        }
+        Optional<CallMetadata> callMetadata = callMetadataResolver.resolve();
+        if (!callMetadata.isPresent()) {
+            return false;
+        }
+        if (pattern.get().matcher(callMetadata.get().getCallerId()).matches()) {
+            return true;
+        }
+        for (String caller : callMetadata.get().getCallPath()) {
+            if (pattern.get().matcher(caller).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Optional<Pattern> getPriorityCallerPattern() {
+        String patternValue = Strings.nullToEmpty(configuration.getPriorityCallerIdPattern());
+        Pair<String, Optional<Pattern>> current = priorityCallerPatternRef.get();
+        if (current.getLeft().equals(patternValue)) {
+            return current.getRight();
+        }
+        Optional<Pattern> pattern = patternValue.isEmpty() ? Optional.empty() : Optional.of(Pattern.compile(patternValue));
+        priorityCallerPatternRef.set(Pair.of(patternValue, pattern));
+        return pattern;
+    }
+
+    static MethodClass classify(MethodDescriptor<?, ?> methodDescriptor) {
+        MethodDescriptor.MethodType type = methodDescriptor.getType();
+        if (type == MethodDescriptor.MethodType.SERVER_STREAMING || type == MethodDescriptor.MethodType.CLIENT_STREAMING
+                || type == MethodDescriptor.MethodType.BIDI_STREAMING) {
+            return MethodClass.Stream;
+        }
+        String fullMethodName = methodDescriptor.getFullMethodName();
+        String methodName = fullMethodName.substring(fullMethodName.lastIndexOf('/') + 1).toLowerCase();
+        for (String prefix : QUERY_METHOD_PREFIXES) {
+            if (methodName.startsWith(prefix)) {
+                return MethodClass.Query;
+            }
+        }
+        return MethodClass.Mutation;
+    }
+
+    private static boolean isOverloadStatus(Status status) {
+        return status.getCode() == Status.Code.DEADLINE_EXCEEDED || status.getCode() == Status.Code.RESOURCE_EXHAUSTED;
+    }
+
+    private static AdaptiveConcurrencyLimit newAdaptiveLimit(GrpcConcurrencyLimitConfiguration configuration) {
+        return new AdaptiveConcurrencyLimit(
+                configuration.getInitialLimit(),
+                configuration.getMinLimit(),
+                configuration.getMaxLimit(),
+                configuration.getRttTolerance(),
+                configuration.getSmoothing(),
+                configuration.getBackoffRatio()
+        );
+    }
+
+    private static AdaptiveConcurrencyLimit newStaticLimit(int limit) {
+        return new AdaptiveConcurrencyLimit(limit, limit, limit, 1.0, 0.0, 1.0);
+    }
+}
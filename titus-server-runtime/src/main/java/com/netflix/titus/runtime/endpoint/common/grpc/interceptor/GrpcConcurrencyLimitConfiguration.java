@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.common.grpc.interceptor;
+
+import com.netflix.archaius.api.annotations.Configuration;
+import com.netflix.archaius.api.annotations.DefaultValue;
+
+/**
+ * Configuration of {@link AdaptiveConcurrencyLimitingServerInterceptor}.
+ */
+@Configuration(prefix = "titus.grpcServer.concurrencyLimit")
+public interface GrpcConcurrencyLimitConfiguration {
+
+    /**
+     * TODO Feature flag. Remove once stable.
+     */
+    @DefaultValue("false")
+    boolean isEnabled();
+
+    /**
+     * Initial concurrency limit of the query and mutation method classes.
+     */
+    @DefaultValue("100")
+    int getInitialLimit();
+
+    @DefaultValue("20")
+    int getMinLimit();
+
+    @DefaultValue("1000")
+    int getMaxLimit();
+
+    /**
+     * Latency increase over the lowest recently observed latency, which is not treated as a sign of queueing.
+     */
+    @DefaultValue("2.0")
+    double getRttTolerance();
+
+    /**
+     * Weight of a new limit estimate, with the remaining part taken from the current limit.
+     */
+    @DefaultValue("0.2")
+    double getSmoothing();
+
+    /**
+     * Multiplier applied to the limit, when a request fails with an overload error (deadline exceeded or resource exhausted).
+     */
+    @DefaultValue("0.9")
+    double getBackoffRatio();
+
+    /**
+     * Maximum number of concurrently open streams. Stream durations say nothing about the server load, so this
+     * limit is static.
+     */
+    @DefaultValue("2000")
+    int getMaxStreams();
+
+    /**
+     * Regular expression matching the caller ids, that may use the full concurrency limit. Other callers are
+     * limited to {@link #getNonPriorityLimitRatio()} of it, so a burst of low priority requests cannot starve them.
+     */
+    @DefaultValue("")
+    String getPriorityCallerIdPattern();
+
+    @DefaultValue("0.8")
+    double getNonPriorityLimitRatio();
+}
@@ -160,7 +160,7 @@ public class JsonMessageReaderWriter implements MessageBodyReader<Object>, Messa
         if (fields.isEmpty()) {
             MAPPER.writeValue(entityStream, entity);
         } else {
-            ObjectMappers.applyFieldsFilter(MAPPER, fields).writeValue(entityStream, entity);
+            ObjectMappers.fieldsFilterWriter(MAPPER, fields).writeValue(entityStream, entity);
         }
     }
 }
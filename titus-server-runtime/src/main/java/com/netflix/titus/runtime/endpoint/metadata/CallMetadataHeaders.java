@@ -28,6 +28,12 @@ public final class CallMetadataHeaders {
 
     public final static String CALL_REASON_HEADER = "X-Titus-CallReason";
 
+    /**
+     * Maximum acceptable staleness (in milliseconds) of the data returned by a query. Lets a client bound the age of the
+     * data served from a local cache, or force the request to be served by TitusMaster (value 0).
+     */
+    public final static String MAX_STALENESS_HEADER = "X-Titus-MaxStalenessMs";
+
     /**
      * For internal usage only (TitusFederation -> TitusGateway -> TitusMaster).
      */
@@ -45,6 +45,7 @@ public class V3HeaderInterceptor implements ServerInterceptor {
     public static Metadata.Key<String> CALLER_ID_KEY = Metadata.Key.of(CallMetadataHeaders.CALLER_ID_HEADER, Metadata.ASCII_STRING_MARSHALLER);
     public static Metadata.Key<String> DIRECT_CALLER_ID_KEY = Metadata.Key.of(CallMetadataHeaders.DIRECT_CALLER_ID_HEADER, Metadata.ASCII_STRING_MARSHALLER);
     public static Metadata.Key<String> CALL_REASON_KEY = Metadata.Key.of(CallMetadataHeaders.CALL_REASON_HEADER, Metadata.ASCII_STRING_MARSHALLER);
+    public static Metadata.Key<String> MAX_STALENESS_KEY = Metadata.Key.of(CallMetadataHeaders.MAX_STALENESS_HEADER, Metadata.ASCII_STRING_MARSHALLER);
     public static Metadata.Key<byte[]> CALL_METADATA_KEY = Metadata.Key.of(CallMetadataHeaders.CALL_METADATA_HEADER, Metadata.BINARY_BYTE_MARSHALLER);
 
     public static Context.Key<String> DEBUG_CONTEXT_KEY = Context.key(CallMetadataHeaders.DEBUG_HEADER);
@@ -52,6 +53,7 @@ public class V3HeaderInterceptor implements ServerInterceptor {
     public static Context.Key<String> CALLER_ID_CONTEXT_KEY = Context.key(CallMetadataHeaders.CALLER_ID_HEADER);
     public static Context.Key<String> DIRECT_CALLER_ID_CONTEXT_KEY = Context.key(CallMetadataHeaders.DIRECT_CALLER_ID_HEADER);
     public static Context.Key<String> CALL_REASON_CONTEXT_KEY = Context.key(CallMetadataHeaders.CALL_REASON_HEADER);
+    public static Context.Key<String> MAX_STALENESS_CONTEXT_KEY = Context.key(CallMetadataHeaders.MAX_STALENESS_HEADER);
     public static Context.Key<CallMetadata> CALL_METADATA_CONTEXT_KEY = Context.key(CallMetadataHeaders.CALL_METADATA_HEADER);
 
     @Override
@@ -85,6 +87,10 @@ public class V3HeaderInterceptor implements ServerInterceptor {
         if (callReasonValue != null) {
             wrappedContext = wrappedContext.withValue(CALL_REASON_CONTEXT_KEY, callReasonValue.toString());
         }
+        Object maxStalenessValue = headers.get(MAX_STALENESS_KEY);
+        if (maxStalenessValue != null) {
+            wrappedContext = wrappedContext.withValue(MAX_STALENESS_CONTEXT_KEY, maxStalenessValue.toString());
+        }
         Object callMetadataValue = headers.get(CALL_METADATA_KEY);
         if (callMetadataValue != null) {
             try {
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.v3.grpc;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.cache.Cache;
+import com.netflix.titus.common.util.cache.Caches;
+import com.netflix.titus.grpc.protogen.JobChangeNotification;
+import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
+
+/**
+ * Memoizes conversion of the core job and task entities to their GRPC representation. The core entities are immutable,
+ * so a converted value is kept for as long as its source entity instance is referenced (the cache keys are weak, and
+ * compared by identity), and it is shared by all queries and event subscribers.
+ */
+@Singleton
+public class GrpcObjectsCache {
+
+    private static final String METRIC_ROOT = "titus.grpcObjectsCache.";
+
+    private final GrpcObjectsCacheConfiguration configuration;
+    private final LogStorageInfo<Task> logStorageInfo;
+
+    private final Cache<Job<?>, com.netflix.titus.grpc.protogen.Job> jobCache;
+    private final Cache<Task, com.netflix.titus.grpc.protogen.Task> taskCache;
+
+    @Inject
+    public GrpcObjectsCache(GrpcObjectsCacheConfiguration configuration,
+                            LogStorageInfo<Task> logStorageInfo,
+                            TitusRuntime titusRuntime) {
+        this.configuration = configuration;
+        this.logStorageInfo = logStorageInfo;
+        this.jobCache = Caches.instrumentedIdentityCacheWithMaxSize(configuration.getMaxJobs(), METRIC_ROOT + "jobs", titusRuntime.getRegistry());
+        this.taskCache = Caches.instrumentedIdentityCacheWithMaxSize(configuration.getMaxTasks(), METRIC_ROOT + "tasks", titusRuntime.getRegistry());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobCache.shutdown();
+        taskCache.shutdown();
+    }
+
+    public com.netflix.titus.grpc.protogen.Job getJob(Job<?> coreJob) {
+        if (!configuration.isEnabled()) {
+            return V3GrpcModelConverters.toGrpcJob(coreJob);
+        }
+        return jobCache.get(coreJob, V3GrpcModelConverters::toGrpcJob);
+    }
+
+    public com.netflix.titus.grpc.protogen.Task getTask(Task coreTask) {
+        if (!configuration.isEnabled()) {
+            return V3GrpcModelConverters.toGrpcTask(coreTask, logStorageInfo);
+        }
+        return taskCache.get(coreTask, task -> V3GrpcModelConverters.toGrpcTask(task, logStorageInfo));
+    }
+
+    /**
+     * Returns the job with only the fields selected by the projection. If the full GRPC job is cached, the projection
+     * is applied to it. Otherwise only the selected fields are converted. Projected values are not cached.
+     */
+    public com.netflix.titus.grpc.protogen.Job getJob(Job<?> coreJob, V3GrpcFieldsProjection projection) {
+        if (configuration.isEnabled()) {
+            com.netflix.titus.grpc.protogen.Job cached = jobCache.getIfPresent(coreJob);
+            if (cached != null) {
+                return projection.apply(cached);
+            }
+        }
+        return projection.toGrpcJob(coreJob);
+    }
+
+    /**
+     * Returns the task with only the fields selected by the projection. If the full GRPC task is cached, the projection
+     * is applied to it. Otherwise only the selected fields are converted. Projected values are not cached.
+     */
+    public com.netflix.titus.grpc.protogen.Task getTask(Task coreTask, V3GrpcFieldsProjection projection) {
+        if (configuration.isEnabled()) {
+            com.netflix.titus.grpc.protogen.Task cached = taskCache.getIfPresent(coreTask);
+            if (cached != null) {
+                return projection.apply(cached);
+            }
+        }
+        return projection.toGrpcTask(coreTask, logStorageInfo);
+    }
+
+    /**
+     * Equivalent of {@link V3GrpcModelConverters#toGrpcJobChangeNotification(JobManagerEvent, LogStorageInfo)} using
+     * the cached job and task values.
+     */
+    public JobChangeNotification toGrpcJobChangeNotification(JobManagerEvent<?> event) {
+        if (event instanceof JobUpdateEvent) {
+            JobUpdateEvent jobUpdateEvent = (JobUpdateEvent) event;
+            return JobChangeNotification.newBuilder()
+                    .setJobUpdate(JobChangeNotification.JobUpdate.newBuilder()
+                            .setJob(getJob(jobUpdateEvent.getCurrent()))
+                    ).build();
+        }
+
+        TaskUpdateEvent taskUpdateEvent = (TaskUpdateEvent) event;
+        return JobChangeNotification.newBuilder().setTaskUpdate(
+                JobChangeNotification.TaskUpdate.newBuilder()
+                        .setTask(getTask(taskUpdateEvent.getCurrent()))
+                        .setMovedFromAnotherJob(taskUpdateEvent.isMovedFromAnotherJob())
+        ).build();
+    }
+}
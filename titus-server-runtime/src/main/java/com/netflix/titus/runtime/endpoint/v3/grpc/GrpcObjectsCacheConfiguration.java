@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.v3.grpc;
+
+import com.netflix.archaius.api.annotations.Configuration;
+import com.netflix.archaius.api.annotations.DefaultValue;
+
+@Configuration(prefix = "titus.grpcObjectsCache")
+public interface GrpcObjectsCacheConfiguration {
+
+    /**
+     * If disabled, each job and task is converted to its GRPC representation on each request.
+     */
+    @DefaultValue("true")
+    boolean isEnabled();
+
+    @DefaultValue("50000")
+    long getMaxJobs();
+
+    @DefaultValue("500000")
+    long getMaxTasks();
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.v3.grpc;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.Message;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.ServiceJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.common.util.ProtobufExt;
+import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
+import rx.exceptions.Exceptions;
+
+import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcJobDescriptor;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcJobStatus;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcJobStatusHistory;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcLogLocation;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcMigrationDetails;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcTaskContext;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcTaskStatus;
+import static com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters.toGrpcTaskStatusHistory;
+
+/**
+ * Field mask aware variant of the {@link V3GrpcModelConverters} job and task converters. Only the requested top level
+ * fields are converted from the core model, so a query asking for a few fields does not pay for building the full
+ * GRPC object, and pruning it afterwards. Nested field selections (for example 'status.state') are applied with
+ * {@link ProtobufExt#copy(Message, Set)} to the partially built object, which gives the same result as pruning the full one.
+ * <p>
+ * A projection is compiled once per distinct field set, and cached.
+ */
+public final class V3GrpcFieldsProjection {
+
+    private static final int MAX_CACHED_PROJECTIONS = 1_000;
+
+    private static final Cache<Set<String>, V3GrpcFieldsProjection> PROJECTIONS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_PROJECTIONS)
+            .build();
+
+    private final Set<String> fields;
+    private final boolean hasNestedFields;
+
+    private final boolean id;
+    private final boolean jobId;
+    private final boolean jobDescriptor;
+    private final boolean status;
+    private final boolean statusHistory;
+    private final boolean taskContext;
+    private final boolean attributes;
+    private final boolean logLocation;
+    private final boolean migrationDetails;
+
+    private V3GrpcFieldsProjection(Set<String> fields) {
+        this.fields = fields;
+
+        Set<String> topLevelNames = new HashSet<>();
+        boolean nested = false;
+        for (String field : fields) {
+            int idx = field.indexOf('.');
+            if (idx < 0) {
+                topLevelNames.add(field);
+            } else {
+                topLevelNames.add(field.substring(0, idx));
+                nested = true;
+            }
+        }
+        this.hasNestedFields = nested;
+
+        this.id = topLevelNames.contains("id");
+        this.jobId = topLevelNames.contains("jobId");
+        this.jobDescriptor = topLevelNames.contains("jobDescriptor");
+        this.status = topLevelNames.contains("status");
+        this.statusHistory = topLevelNames.contains("statusHistory");
+        this.taskContext = topLevelNames.contains("taskContext");
+        this.attributes = topLevelNames.contains("attributes");
+        this.logLocation = topLevelNames.contains("logLocation");
+        this.migrationDetails = topLevelNames.contains("migrationDetails");
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public com.netflix.titus.grpc.protogen.Job toGrpcJob(Job<?> coreJob) {
+        com.netflix.titus.grpc.protogen.Job.Builder builder = com.netflix.titus.grpc.protogen.Job.newBuilder();
+        if (id) {
+            builder.setId(coreJob.getId());
+        }
+        if (jobDescriptor) {
+            builder.setJobDescriptor(toGrpcJobDescriptor(coreJob.getJobDescriptor()));
+        }
+        if (status) {
+            builder.setStatus(toGrpcJobStatus(coreJob.getStatus()));
+        }
+        if (statusHistory) {
+            builder.addAllStatusHistory(toGrpcJobStatusHistory(coreJob.getStatusHistory()));
+        }
+        return applyNested(builder.build());
+    }
+
+    public com.netflix.titus.grpc.protogen.Task toGrpcTask(Task coreTask, LogStorageInfo<Task> logStorageInfo) {
+        com.netflix.titus.grpc.protogen.Task.Builder builder = com.netflix.titus.grpc.protogen.Task.newBuilder();
+        if (id) {
+            builder.setId(coreTask.getId());
+        }
+        if (jobId) {
+            builder.setJobId(coreTask.getJobId());
+        }
+        if (status) {
+            builder.setStatus(toGrpcTaskStatus(coreTask.getStatus()));
+        }
+        if (statusHistory) {
+            builder.addAllStatusHistory(toGrpcTaskStatusHistory(coreTask.getStatusHistory()));
+        }
+        if (taskContext) {
+            builder.putAllTaskContext(toGrpcTaskContext(coreTask));
+        }
+        if (attributes) {
+            builder.putAllAttributes(coreTask.getAttributes());
+        }
+        if (logLocation) {
+            builder.setLogLocation(toGrpcLogLocation(coreTask, logStorageInfo));
+        }
+        if (migrationDetails && coreTask instanceof ServiceJobTask) {
+            builder.setMigrationDetails(toGrpcMigrationDetails(((ServiceJobTask) coreTask).getMigrationDetails()));
+        }
+        return applyNested(builder.build());
+    }
+
+    /**
+     * Applies the projection to an already built GRPC object.
+     */
+    public <T extends Message> T apply(T message) {
+        return ProtobufExt.copy(message, fields);
+    }
+
+    private <T extends Message> T applyNested(T message) {
+        return hasNestedFields ? ProtobufExt.copy(message, fields) : message;
+    }
+
+    public static V3GrpcFieldsProjection of(Collection<String> fields) {
+        Preconditions.checkArgument(!fields.isEmpty(), "Fields projection, with no field names provided");
+
+        Set<String> normalizedFields = Collections.unmodifiableSet(new TreeSet<>(fields));
+        try {
+            return PROJECTIONS.get(normalizedFields, () -> new V3GrpcFieldsProjection(normalizedFields));
+        } catch (ExecutionException e) {
+            throw Exceptions.propagate(e.getCause());
+        }
+    }
+}
@@ -826,7 +826,7 @@ public final class V3GrpcModelConverters {
                 .build();
     }
 
-    public static com.netflix.titus.grpc.protogen.Task toGrpcTask(Task coreTask, LogStorageInfo<Task> logStorageInfo) {
+    public static Map<String, String> toGrpcTaskContext(Task coreTask) {
         Map<String, String> taskContext = new HashMap<>(coreTask.getTaskContext());
         taskContext.put(TASK_ATTRIBUTES_TASK_ORIGINAL_ID, coreTask.getOriginalId());
         taskContext.put(TASK_ATTRIBUTES_RESUBMIT_NUMBER, Integer.toString(coreTask.getResubmitNumber()));
@@ -837,13 +837,16 @@ public final class V3GrpcModelConverters {
             BatchJobTask batchTask = (BatchJobTask) coreTask;
             taskContext.put(TASK_ATTRIBUTES_TASK_INDEX, Integer.toString(batchTask.getIndex()));
         }
+        return taskContext;
+    }
 
+    public static com.netflix.titus.grpc.protogen.Task toGrpcTask(Task coreTask, LogStorageInfo<Task> logStorageInfo) {
         com.netflix.titus.grpc.protogen.Task.Builder taskBuilder = com.netflix.titus.grpc.protogen.Task.newBuilder()
                 .setId(coreTask.getId())
                 .setJobId(coreTask.getJobId())
                 .setStatus(toGrpcTaskStatus(coreTask.getStatus()))
                 .addAllStatusHistory(toGrpcTaskStatusHistory(coreTask.getStatusHistory()))
-                .putAllTaskContext(taskContext)
+                .putAllTaskContext(toGrpcTaskContext(coreTask))
                 .putAllAttributes(coreTask.getAttributes())
                 .setLogLocation(toGrpcLogLocation(coreTask, logStorageInfo));
 
@@ -38,12 +38,14 @@ import com.netflix.titus.runtime.endpoint.v3.grpc.V3GrpcModelConverters;
 
 public abstract class V3AbstractQueryCriteriaEvaluator<TASK_OR_SET> implements Predicate<Pair<Job<?>, TASK_OR_SET>> {
 
+    private final JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> criteria;
     private final Predicate<Pair<Job<?>, TASK_OR_SET>> queryPredicate;
 
     protected V3AbstractQueryCriteriaEvaluator(List<Predicate<Pair<Job<?>, TASK_OR_SET>>> taskPredicates,
                                                JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> criteria) {
         List<Predicate<Pair<Job<?>, TASK_OR_SET>>> predicates = createJobPredicates(criteria);
         predicates.addAll(taskPredicates);
+        this.criteria = criteria;
         this.queryPredicate = matchAll(predicates);
     }
 
@@ -52,6 +54,10 @@ public abstract class V3AbstractQueryCriteriaEvaluator<TASK_OR_SET> implements P
         return queryPredicate.test(jobListPair);
     }
 
+    public JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> getCriteria() {
+        return criteria;
+    }
+
     private List<Predicate<Pair<Job<?>, TASK_OR_SET>>> createJobPredicates(JobQueryCriteria<TaskStatus.TaskState, JobDescriptor.JobSpecCase> criteria) {
         List<Predicate<Pair<Job<?>, TASK_OR_SET>>> predicates = new ArrayList<>();
 
@@ -17,12 +17,18 @@
 package com.netflix.titus.runtime.relocation.endpoint;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Preconditions;
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
 import com.netflix.titus.api.relocation.model.TaskRelocationStatus;
 import com.netflix.titus.api.relocation.model.TaskRelocationStatus.TaskRelocationState;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationPlanRemovedEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationPlanUpdateEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationSnapshotEndEvent;
+import com.netflix.titus.grpc.protogen.RelocationEvent;
 import com.netflix.titus.grpc.protogen.TaskRelocationExecution;
 import com.netflix.titus.grpc.protogen.TaskRelocationExecutions;
 import com.netflix.titus.grpc.protogen.TaskRelocationPlans;
@@ -96,4 +102,49 @@ public class RelocationGrpcModelConverters {
         }
         throw new IllegalStateException("Unrecognized state: " + coreState);
     }
+
+    public static TaskRelocationEvent toCoreRelocationEvent(RelocationEvent grpcEvent) {
+        switch (grpcEvent.getEventCase()) {
+            case SNAPSHOTEND:
+                return TaskRelocationEvent.newSnapshotEndEvent();
+            case TASKRELOCATIONPLANUPDATEEVENT:
+                return TaskRelocationEvent.newTaskRelocationPlanUpdateEvent(
+                        toCoreTaskRelocationPlan(grpcEvent.getTaskRelocationPlanUpdateEvent().getPlan())
+                );
+            case TASKRELOCATIONPLANREMOVEEVENT:
+                return TaskRelocationEvent.newTaskRelocationPlanRemovedEvent(grpcEvent.getTaskRelocationPlanRemoveEvent().getTaskId());
+            case EVENT_NOT_SET:
+        }
+        throw new IllegalArgumentException("No mapping for: " + grpcEvent);
+    }
+
+    public static Optional<RelocationEvent> toGrpcRelocationEvent(TaskRelocationEvent coreEvent) {
+        if (coreEvent instanceof TaskRelocationSnapshotEndEvent) {
+            RelocationEvent grpcEvent = RelocationEvent.newBuilder()
+                    .setSnapshotEnd(RelocationEvent.SnapshotEnd.getDefaultInstance())
+                    .build();
+            return Optional.of(grpcEvent);
+        }
+        if (coreEvent instanceof TaskRelocationPlanUpdateEvent) {
+            TaskRelocationPlanUpdateEvent updateEvent = (TaskRelocationPlanUpdateEvent) coreEvent;
+            RelocationEvent grpcEvent = RelocationEvent.newBuilder()
+                    .setTaskRelocationPlanUpdateEvent(RelocationEvent.TaskRelocationPlanUpdateEvent.newBuilder()
+                            .setPlan(toGrpcTaskRelocationPlan(updateEvent.getPlan()))
+                            .build()
+                    )
+                    .build();
+            return Optional.of(grpcEvent);
+        }
+        if (coreEvent instanceof TaskRelocationPlanRemovedEvent) {
+            TaskRelocationPlanRemovedEvent removedEvent = (TaskRelocationPlanRemovedEvent) coreEvent;
+            RelocationEvent grpcEvent = RelocationEvent.newBuilder()
+                    .setTaskRelocationPlanRemoveEvent(RelocationEvent.TaskRelocationPlanRemoveEvent.newBuilder()
+                            .setTaskId(removedEvent.getTaskId())
+                            .build()
+                    )
+                    .build();
+            return Optional.of(grpcEvent);
+        }
+        return Optional.empty();
+    }
 }
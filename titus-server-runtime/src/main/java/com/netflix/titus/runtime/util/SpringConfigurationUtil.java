@@ -41,6 +41,14 @@ public class SpringConfigurationUtil {
         }
     }
 
+    public static boolean getBoolean(Environment environment, String key, boolean defaultValue) {
+        String value = environment.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value);
+    }
+
     public static String getString(Environment environment, String key, String defaultValue) {
         return environment.getProperty(key, defaultValue);
     }
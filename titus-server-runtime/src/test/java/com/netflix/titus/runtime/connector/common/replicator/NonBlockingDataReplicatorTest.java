@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.connector.common.replicator;
+
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.time.Clocks;
+import com.netflix.titus.common.util.time.TestClock;
+import org.junit.After;
+import org.junit.Test;
+import reactor.core.publisher.DirectProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NonBlockingDataReplicatorTest {
+
+    private final TestClock clock = Clocks.test();
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.test(clock);
+
+    private final DirectProcessor<ReplicatorEvent<String, String>> eventPublisher = DirectProcessor.create();
+
+    private final NonBlockingDataReplicator<String, String> replicator = new NonBlockingDataReplicator<>(
+            "test",
+            "empty",
+            StreamDataReplicator.newStreamDataReplicator(
+                    () -> eventPublisher,
+                    new DataReplicatorMetrics("test", titusRuntime),
+                    titusRuntime
+            )
+    );
+
+    @After
+    public void tearDown() {
+        replicator.shutdown();
+    }
+
+    @Test
+    public void testEmptySnapshotAndInfiniteStalenessBeforeBootstrap() {
+        assertThat(replicator.getCurrent()).isEqualTo("empty");
+        assertThat(replicator.getStalenessMs()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testDelegatesAfterBootstrap() {
+        eventPublisher.onNext(new ReplicatorEvent<>("firstUpdate", "firstTrigger", clock.wallTime()));
+        clock.advanceTime(1, TimeUnit.SECONDS);
+
+        assertThat(replicator.getCurrent()).isEqualTo("firstUpdate");
+        assertThat(replicator.getStalenessMs()).isEqualTo(1_000);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.connector.registry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.time.Clocks;
+import com.netflix.titus.common.util.time.TestClock;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.integration.ClientAndServer;
+import org.mockserver.model.Header;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockserver.integration.ClientAndServer.startClientAndServer;
+
+public class CachingRegistryClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final long TTL_MS = 60_000;
+    private static final long NEGATIVE_TTL_MS = 5_000;
+
+    private static final String REPO = "titusops/alpine";
+    private static final String TAG = "latest";
+    private static final String DIGEST = "sha256:f9f5bb506406b80454a4255b33ed2e4383b9e4a32fb94d6f7e51922704e818fa";
+
+    private final TestClock clock = Clocks.test();
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.test(clock);
+
+    private final TitusRegistryClientConfiguration configuration = mock(TitusRegistryClientConfiguration.class);
+
+    private ClientAndServer mockServer;
+
+    private CachingRegistryClient registryClient;
+
+    @Before
+    public void setUp() {
+        mockServer = startClientAndServer(0);
+
+        when(configuration.getRegistryUri()).thenReturn("http://localhost:" + mockServer.getPort());
+        when(configuration.isSecure()).thenReturn(false);
+        when(configuration.getRegistryTimeoutMs()).thenReturn(2_000);
+        when(configuration.getRegistryRetryCount()).thenReturn(3);
+        when(configuration.getRegistryRetryDelayMs()).thenReturn(5);
+        when(configuration.isDigestCacheEnabled()).thenReturn(true);
+        when(configuration.getDigestCacheTtlMs()).thenReturn(TTL_MS);
+        when(configuration.getDigestCacheNegativeTtlMs()).thenReturn(NEGATIVE_TTL_MS);
+        when(configuration.getDigestCacheRefreshAheadFactor()).thenReturn(0.75);
+        when(configuration.getDigestCacheMaxSize()).thenReturn(100L);
+
+        registryClient = new CachingRegistryClient(configuration, new DefaultDockerRegistryClient(configuration, titusRuntime), titusRuntime);
+    }
+
+    @After
+    public void tearDown() {
+        mockServer.stop();
+    }
+
+    @Test
+    public void testDigestIsCached() {
+        givenDigest(DIGEST, 0);
+
+        assertThat(getDigest()).isEqualTo(DIGEST);
+        assertThat(getDigest()).isEqualTo(DIGEST);
+        assertThat(registryRequestCount(TAG)).isEqualTo(1);
+    }
+
+    @Test
+    public void testConcurrentLookupsAreCoalesced() {
+        givenDigest(DIGEST, 500);
+
+        List<String> digests = Flux.range(0, 10)
+                .flatMap(i -> registryClient.getImageDigest(REPO, TAG))
+                .collectList()
+                .block(TIMEOUT);
+
+        assertThat(digests).hasSize(10).containsOnly(DIGEST);
+        assertThat(registryRequestCount(TAG)).isEqualTo(1);
+    }
+
+    @Test
+    public void testDigestExpiresAfterTtl() {
+        givenDigest(DIGEST, 0);
+        getDigest();
+
+        clock.advanceTime(Duration.ofMillis(TTL_MS));
+        getDigest();
+
+        assertThat(registryRequestCount(TAG)).isEqualTo(2);
+    }
+
+    @Test
+    public void testRefreshAhead() {
+        givenDigest(DIGEST, 0);
+        getDigest();
+
+        clock.advanceTime(Duration.ofMillis(TTL_MS * 3 / 4));
+        assertThat(getDigest()).isEqualTo(DIGEST);
+        await().timeout(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).until(() -> registryRequestCount(TAG) == 2);
+
+        // The refreshed entry resets the TTL.
+        clock.advanceTime(Duration.ofMillis(TTL_MS / 2));
+        getDigest();
+        assertThat(registryRequestCount(TAG)).isEqualTo(2);
+    }
+
+    @Test
+    public void testRefreshIsRetriedAfterEmptyResult() {
+        DefaultDockerRegistryClient delegate = mock(DefaultDockerRegistryClient.class);
+        when(delegate.getImageDigest(REPO, TAG)).thenReturn(Mono.just(DIGEST), Mono.empty(), Mono.just(DIGEST));
+        CachingRegistryClient client = new CachingRegistryClient(configuration, delegate, titusRuntime);
+
+        client.getImageDigest(REPO, TAG).block(TIMEOUT);
+        clock.advanceTime(Duration.ofMillis(TTL_MS * 3 / 4));
+
+        // The first refresh completes without a digest, and the next request starts a new one.
+        assertThat(client.getImageDigest(REPO, TAG).block(TIMEOUT)).isEqualTo(DIGEST);
+        assertThat(client.getImageDigest(REPO, TAG).block(TIMEOUT)).isEqualTo(DIGEST);
+        verify(delegate, times(3)).getImageDigest(REPO, TAG);
+    }
+
+    @Test
+    public void testNotFoundIsCachedWithNegativeTtl() {
+        mockServer
+                .when(HttpRequest.request().withPath(manifestPath(TAG)))
+                .respond(HttpResponse.response().withStatusCode(HttpResponseStatus.NOT_FOUND.code()));
+
+        expectNotFound();
+        expectNotFound();
+        assertThat(registryRequestCount(TAG)).isEqualTo(1);
+
+        clock.advanceTime(Duration.ofMillis(NEGATIVE_TTL_MS));
+        expectNotFound();
+        assertThat(registryRequestCount(TAG)).isEqualTo(2);
+    }
+
+    @Test
+    public void testTransientErrorIsNotCached() {
+        mockServer
+                .when(HttpRequest.request().withPath(manifestPath(TAG)))
+                .respond(HttpResponse.response().withStatusCode(HttpResponseStatus.SERVICE_UNAVAILABLE.code()));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                getDigest();
+                fail("Expected registry error");
+            } catch (TitusRegistryException e) {
+                assertThat(e.getErrorCode()).isEqualTo(TitusRegistryException.ErrorCode.INTERNAL);
+            }
+        }
+        assertThat(registryRequestCount(TAG)).isEqualTo(2);
+    }
+
+    private void givenDigest(String digest, long delayMs) {
+        mockServer
+                .when(HttpRequest.request().withMethod("GET").withPath(manifestPath(TAG)))
+                .respond(HttpResponse.response()
+                        .withStatusCode(HttpResponseStatus.OK.code())
+                        .withHeader(new Header("Docker-Content-Digest", digest))
+                        .withBody("{\"schemaVersion\": 2}")
+                        .withDelay(TimeUnit.MILLISECONDS, delayMs)
+                );
+    }
+
+    private String getDigest() {
+        return registryClient.getImageDigest(REPO, TAG).timeout(TIMEOUT).block();
+    }
+
+    private void expectNotFound() {
+        try {
+            registryClient.getImageDigest(REPO, TAG).timeout(TIMEOUT).block();
+            fail("Expected image not found error");
+        } catch (TitusRegistryException e) {
+            assertThat(e.getErrorCode()).isEqualTo(TitusRegistryException.ErrorCode.IMAGE_NOT_FOUND);
+        }
+    }
+
+    private int registryRequestCount(String reference) {
+        return mockServer.retrieveRecordedRequests(HttpRequest.request().withPath(manifestPath(reference))).length;
+    }
+
+    private static String manifestPath(String reference) {
+        return "/v2/" + REPO + "/manifests/" + reference;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.connector.relocation.replicator;
+
+import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
+import com.netflix.titus.api.relocation.model.TaskRelocationPlan.TaskRelocationReason;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.runtime.connector.common.replicator.DataReplicatorMetrics;
+import com.netflix.titus.runtime.connector.common.replicator.ReplicatorEvent;
+import com.netflix.titus.runtime.connector.relocation.RelocationServiceClient;
+import com.netflix.titus.runtime.connector.relocation.TaskRelocationSnapshot;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.EmitterProcessor;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GrpcRelocationReplicatorEventStreamTest {
+
+    private final TitusRuntime titusRuntime = TitusRuntimes.test();
+
+    private final RelocationServiceClient client = mock(RelocationServiceClient.class);
+
+    private final EmitterProcessor<TaskRelocationEvent> eventProcessor = EmitterProcessor.create();
+
+    @Before
+    public void setUp() {
+        when(client.events()).thenReturn(eventProcessor);
+    }
+
+    @Test
+    public void testCacheBootstrap() {
+        newConnectVerifier()
+                .then(() -> {
+                    eventProcessor.onNext(TaskRelocationEvent.newTaskRelocationPlanUpdateEvent(newPlan("task1")));
+                    eventProcessor.onNext(TaskRelocationEvent.newSnapshotEndEvent());
+                })
+                .assertNext(next -> assertThat(next.getSnapshot().findPlan("task1")).isPresent())
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void testPlanUpdateAndRemove() {
+        newConnectVerifier()
+                .then(() -> eventProcessor.onNext(TaskRelocationEvent.newSnapshotEndEvent()))
+                .assertNext(next -> assertThat(next.getSnapshot().getPlans()).isEmpty())
+                .then(() -> eventProcessor.onNext(TaskRelocationEvent.newTaskRelocationPlanUpdateEvent(newPlan("task1"))))
+                .assertNext(next -> assertThat(next.getSnapshot().findPlan("task1")).isPresent())
+                .then(() -> eventProcessor.onNext(TaskRelocationEvent.newTaskRelocationPlanRemovedEvent("task1")))
+                .assertNext(next -> assertThat(next.getSnapshot().findPlan("task1")).isEmpty())
+                .thenCancel()
+                .verify();
+    }
+
+    private TaskRelocationPlan newPlan(String taskId) {
+        return TaskRelocationPlan.newBuilder()
+                .withTaskId(taskId)
+                .withReason(TaskRelocationReason.TaskMigration)
+                .withRelocationTime(titusRuntime.getClock().wallTime() + 1_000)
+                .build();
+    }
+
+    private GrpcRelocationReplicatorEventStream newStream() {
+        return new GrpcRelocationReplicatorEventStream(client, new DataReplicatorMetrics("test", titusRuntime), titusRuntime, Schedulers.parallel());
+    }
+
+    private StepVerifier.FirstStep<ReplicatorEvent<TaskRelocationSnapshot, TaskRelocationEvent>> newConnectVerifier() {
+        return StepVerifier.withVirtualTime(() -> newStream().connect().log());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.common.grpc.interceptor;
+
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.titus.runtime.endpoint.common.grpc.interceptor.AdaptiveConcurrencyLimitingServerInterceptor.MethodClass;
+import io.grpc.MethodDescriptor;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long LOW_RTT = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long HIGH_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 2.0, 0.2, 0.9);
+
+    @Test
+    public void testAcquireIsBoundedByLimit() {
+        AdaptiveConcurrencyLimit staticLimit = new AdaptiveConcurrencyLimit(2, 2, 2, 1.0, 0.0, 1.0);
+        assertThat(staticLimit.tryAcquire(staticLimit.getLimit())).isTrue();
+        assertThat(staticLimit.tryAcquire(staticLimit.getLimit())).isTrue();
+        assertThat(staticLimit.tryAcquire(staticLimit.getLimit())).isFalse();
+        assertThat(staticLimit.getInFlight()).isEqualTo(2);
+
+        staticLimit.release(HIGH_RTT, true);
+        assertThat(staticLimit.getLimit()).isEqualTo(2);
+        assertThat(staticLimit.tryAcquire(staticLimit.getLimit())).isTrue();
+    }
+
+    @Test
+    public void testLimitGrowsWhenLatencyIsStable() {
+        acquireAll();
+        for (int i = 0; i < 10; i++) {
+            limit.release(LOW_RTT, false);
+        }
+        assertThat(limit.getLimit()).isGreaterThan(10);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyGrows() {
+        acquireAll();
+        limit.release(LOW_RTT, false);
+        for (int i = 0; i < 9; i++) {
+            limit.release(HIGH_RTT, false);
+        }
+        assertThat(limit.getLimit()).isLessThan(10);
+    }
+
+    @Test
+    public void testLimitIsNotGrownWhenNotUsed() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(limit.tryAcquire(limit.getLimit())).isTrue();
+            limit.release(LOW_RTT, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testOverloadBacksOff() {
+        assertThat(limit.tryAcquire(limit.getLimit())).isTrue();
+        limit.release(LOW_RTT, true);
+        assertThat(limit.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    public void testMethodClassification() {
+        assertThat(classify("com.netflix.titus.JobManagementService/FindTasks", MethodDescriptor.MethodType.UNARY)).isEqualTo(MethodClass.Query);
+        assertThat(classify("com.netflix.titus.JobManagementService/KillTask", MethodDescriptor.MethodType.UNARY)).isEqualTo(MethodClass.Mutation);
+        assertThat(classify("com.netflix.titus.JobManagementService/ObserveJobs", MethodDescriptor.MethodType.SERVER_STREAMING)).isEqualTo(MethodClass.Stream);
+    }
+
+    private void acquireAll() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire(limit.getLimit())).isTrue();
+        }
+        assertThat(limit.tryAcquire(limit.getLimit())).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private MethodClass classify(String fullMethodName, MethodDescriptor.MethodType type) {
+        MethodDescriptor<Object, Object> methodDescriptor = MethodDescriptor.newBuilder(mock(MethodDescriptor.Marshaller.class), mock(MethodDescriptor.Marshaller.class))
+                .setFullMethodName(fullMethodName)
+                .setType(type)
+                .build();
+        return AdaptiveConcurrencyLimitingServerInterceptor.classify(methodDescriptor);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.common.grpc.interceptor;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.runtime.endpoint.common.grpc.interceptor.AdaptiveConcurrencyLimitingServerInterceptor.MethodClass;
+import com.netflix.titus.runtime.endpoint.metadata.CallMetadata;
+import com.netflix.titus.runtime.endpoint.metadata.CallMetadataResolver;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveConcurrencyLimitingServerInterceptorTest {
+
+    private static final int LIMIT = 2;
+
+    private final GrpcConcurrencyLimitConfiguration configuration = mock(GrpcConcurrencyLimitConfiguration.class);
+    private final CallMetadataResolver callMetadataResolver = mock(CallMetadataResolver.class);
+
+    private final AtomicReference<ServerCall<Object, Object>> forwardedCallRef = new AtomicReference<>();
+    private final ServerCall.Listener<Object> nextListener = new ServerCall.Listener<Object>() {
+    };
+
+    private final ServerCallHandler<Object, Object> handler = (call, headers) -> {
+        forwardedCallRef.set(call);
+        return nextListener;
+    };
+
+    private AdaptiveConcurrencyLimitingServerInterceptor interceptor;
+
+    @Before
+    public void setUp() {
+        when(configuration.isEnabled()).thenReturn(true);
+        when(configuration.getInitialLimit()).thenReturn(LIMIT);
+        when(configuration.getMinLimit()).thenReturn(LIMIT);
+        when(configuration.getMaxLimit()).thenReturn(LIMIT);
+        when(configuration.getRttTolerance()).thenReturn(2.0);
+        when(configuration.getSmoothing()).thenReturn(0.2);
+        when(configuration.getBackoffRatio()).thenReturn(0.9);
+        when(configuration.getMaxStreams()).thenReturn(10);
+        when(configuration.getPriorityCallerIdPattern()).thenReturn("priority.*");
+        when(configuration.getNonPriorityLimitRatio()).thenReturn(0.5);
+        when(callMetadataResolver.resolve()).thenReturn(Optional.empty());
+
+        this.interceptor = new AdaptiveConcurrencyLimitingServerInterceptor(configuration, callMetadataResolver, TitusRuntimes.internal());
+    }
+
+    @Test
+    public void testPermitIsReleasedOnceOnClose() {
+        ServerCall.Listener<Object> listener = interceptor.interceptCall(newQueryCall(), new Metadata(), handler);
+        assertThat(inFlight()).isEqualTo(1);
+
+        forwardedCallRef.get().close(Status.OK, new Metadata());
+        assertThat(inFlight()).isZero();
+
+        listener.onComplete();
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    public void testPermitIsReleasedOnceOnCancel() {
+        ServerCall.Listener<Object> listener = interceptor.interceptCall(newQueryCall(), new Metadata(), handler);
+        assertThat(inFlight()).isEqualTo(1);
+
+        listener.onCancel();
+        assertThat(inFlight()).isZero();
+
+        forwardedCallRef.get().close(Status.CANCELLED, new Metadata());
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    public void testPermitIsReleasedWhenStartCallThrows() {
+        ServerCallHandler<Object, Object> failingHandler = (call, headers) -> {
+            throw new IllegalStateException("simulated error");
+        };
+        assertThatThrownBy(() -> interceptor.interceptCall(newQueryCall(), new Metadata(), failingHandler))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    public void testCallAboveLimitIsRejected() {
+        interceptor.interceptCall(newQueryCall(), new Metadata(), handler);
+
+        // Non priority callers are limited to half of the limit.
+        ServerCall<Object, Object> rejectedCall = newQueryCall();
+        interceptor.interceptCall(rejectedCall, new Metadata(), handler);
+
+        ArgumentCaptor<Status> statusCaptor = ArgumentCaptor.forClass(Status.class);
+        verify(rejectedCall).close(statusCaptor.capture(), any());
+        assertThat(statusCaptor.getValue().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        assertThat(inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPriorityCallerCanUseFullLimit() {
+        when(callMetadataResolver.resolve()).thenReturn(Optional.of(
+                new CallMetadata("priorityApp", "test", Collections.emptyList(), false)
+        ));
+
+        for (int i = 0; i < LIMIT; i++) {
+            ServerCall<Object, Object> call = newQueryCall();
+            interceptor.interceptCall(call, new Metadata(), handler);
+            verify(call, never()).close(any(), any());
+        }
+        assertThat(inFlight()).isEqualTo(LIMIT);
+
+        ServerCall<Object, Object> rejectedCall = newQueryCall();
+        interceptor.interceptCall(rejectedCall, new Metadata(), handler);
+        verify(rejectedCall).close(any(), any());
+    }
+
+    private int inFlight() {
+        return interceptor.getLimit(MethodClass.Query).getInFlight();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ServerCall<Object, Object> newQueryCall() {
+        MethodDescriptor<Object, Object> methodDescriptor = MethodDescriptor.newBuilder(mock(MethodDescriptor.Marshaller.class), mock(MethodDescriptor.Marshaller.class))
+                .setFullMethodName("com.netflix.titus.JobManagementService/FindTasks")
+                .setType(MethodDescriptor.MethodType.UNARY)
+                .build();
+        ServerCall<Object, Object> call = mock(ServerCall.class);
+        when(call.getMethodDescriptor()).thenReturn(methodDescriptor);
+        return call;
+    }
+}
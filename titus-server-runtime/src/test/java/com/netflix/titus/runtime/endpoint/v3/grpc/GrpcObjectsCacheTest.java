@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.v3.grpc;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.netflix.archaius.ConfigProxyFactory;
+import com.netflix.archaius.config.MapConfig;
+import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GrpcObjectsCacheTest {
+
+    private static final LogStorageInfo<Task> LOG_STORAGE_INFO = new EmptyLogStorageInfo<>();
+
+    private final GrpcObjectsCacheConfiguration configuration = new ConfigProxyFactory(MapConfig.from(Collections.emptyMap()))
+            .newProxy(GrpcObjectsCacheConfiguration.class);
+
+    private final GrpcObjectsCache cache = new GrpcObjectsCache(configuration, LOG_STORAGE_INFO, TitusRuntimes.internal());
+
+    @After
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void testJobConversionIsMemoized() {
+        Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+
+        com.netflix.titus.grpc.protogen.Job grpcJob = cache.getJob(job);
+        assertThat(grpcJob).isEqualTo(V3GrpcModelConverters.toGrpcJob(job));
+        assertThat(cache.getJob(job)).isSameAs(grpcJob);
+    }
+
+    @Test
+    public void testNewTaskVersionIsConvertedAgain() {
+        BatchJobTask task = JobGenerator.oneBatchTask();
+        BatchJobTask updatedTask = task.toBuilder().withResubmitNumber(task.getResubmitNumber() + 1).build();
+
+        com.netflix.titus.grpc.protogen.Task grpcTask = cache.getTask(task);
+        assertThat(cache.getTask(task)).isSameAs(grpcTask);
+
+        com.netflix.titus.grpc.protogen.Task grpcUpdatedTask = cache.getTask(updatedTask);
+        assertThat(grpcUpdatedTask).isNotSameAs(grpcTask);
+        assertThat(grpcUpdatedTask).isEqualTo(V3GrpcModelConverters.toGrpcTask(updatedTask, LOG_STORAGE_INFO));
+    }
+
+    @Test
+    public void testProjectionIsAppliedToCachedValue() {
+        Job<BatchJobExt> job = JobGenerator.oneBatchJob();
+        BatchJobTask task = JobGenerator.oneBatchTask();
+        V3GrpcFieldsProjection projection = V3GrpcFieldsProjection.of(Arrays.asList("id", "status"));
+
+        // Not cached yet, so only the projected fields are converted.
+        com.netflix.titus.grpc.protogen.Job projectedJob = cache.getJob(job, projection);
+        com.netflix.titus.grpc.protogen.Task projectedTask = cache.getTask(task, projection);
+
+        cache.getJob(job);
+        cache.getTask(task);
+        assertThat(cache.getJob(job, projection)).isEqualTo(projectedJob).isEqualTo(projection.apply(cache.getJob(job)));
+        assertThat(cache.getTask(task, projection)).isEqualTo(projectedTask).isEqualTo(projection.apply(cache.getTask(task)));
+        assertThat(projectedJob.hasJobDescriptor()).isFalse();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.runtime.endpoint.v3.grpc;
+
+import java.util.Set;
+
+import com.netflix.titus.api.jobmanager.model.job.BatchJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.ServiceJobTask;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.jobmanager.model.job.ext.ServiceJobExt;
+import com.netflix.titus.common.util.ProtobufExt;
+import com.netflix.titus.runtime.endpoint.common.EmptyLogStorageInfo;
+import com.netflix.titus.runtime.endpoint.common.LogStorageInfo;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import org.junit.Test;
+
+import static com.netflix.titus.common.util.CollectionsExt.asSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class V3GrpcFieldsProjectionTest {
+
+    private static final LogStorageInfo<Task> LOG_STORAGE_INFO = new EmptyLogStorageInfo<>();
+
+    private final Job<BatchJobExt> batchJob = JobGenerator.oneBatchJob();
+    private final BatchJobTask batchTask = JobGenerator.batchTasks(batchJob).getValue();
+
+    private final Job<ServiceJobExt> serviceJob = JobGenerator.serviceJobs(JobDescriptorGenerator.oneTaskServiceJobDescriptor()).getValue();
+    private final ServiceJobTask serviceTask = JobGenerator.serviceTasks(serviceJob).getValue();
+
+    @Test
+    public void testTopLevelJobFields() {
+        verifyJob(batchJob, asSet("id", "status"));
+        verifyJob(serviceJob, asSet("id", "jobDescriptor", "statusHistory"));
+    }
+
+    @Test
+    public void testNestedJobFields() {
+        verifyJob(batchJob, asSet("id", "status.state", "jobDescriptor.owner", "jobDescriptor.attributes.key"));
+    }
+
+    @Test
+    public void testTopLevelTaskFields() {
+        verifyTask(batchTask, asSet("id", "status", "jobId"));
+        verifyTask(serviceTask, asSet("id", "taskContext", "attributes", "logLocation", "migrationDetails"));
+    }
+
+    @Test
+    public void testNestedTaskFields() {
+        verifyTask(batchTask, asSet("id", "status.state", "taskContext.task.index"));
+        verifyTask(serviceTask, asSet("id", "statusHistory.state", "migrationDetails.needsMigration"));
+    }
+
+    @Test
+    public void testProjectionIsCompiledOncePerFieldSet() {
+        V3GrpcFieldsProjection projection = V3GrpcFieldsProjection.of(asSet("id", "status", "jobId"));
+        assertThat(V3GrpcFieldsProjection.of(asSet("jobId", "id", "status"))).isSameAs(projection);
+        assertThat(V3GrpcFieldsProjection.of(asSet("id", "status"))).isNotSameAs(projection);
+    }
+
+    private void verifyJob(Job<?> job, Set<String> fields) {
+        com.netflix.titus.grpc.protogen.Job expected = ProtobufExt.copy(V3GrpcModelConverters.toGrpcJob(job), fields);
+        assertThat(V3GrpcFieldsProjection.of(fields).toGrpcJob(job)).isEqualTo(expected);
+    }
+
+    private void verifyTask(Task task, Set<String> fields) {
+        com.netflix.titus.grpc.protogen.Task expected = ProtobufExt.copy(V3GrpcModelConverters.toGrpcTask(task, LOG_STORAGE_INFO), fields);
+        assertThat(V3GrpcFieldsProjection.of(fields).toGrpcTask(task, LOG_STORAGE_INFO)).isEqualTo(expected);
+    }
+}
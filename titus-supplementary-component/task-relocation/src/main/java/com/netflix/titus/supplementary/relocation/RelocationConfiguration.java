@@ -41,4 +41,18 @@ public interface RelocationConfiguration {
 
     @DefaultValue("" + 30_000)
     long getDataStalenessThresholdMs();
+
+    /**
+     * If enabled, the relocation plans are updated only for tasks affected by the job and agent replicator events
+     * received since the last iteration. Requires restart.
+     */
+    @DefaultValue("false")
+    boolean isIncrementalRelocationPlanUpdateEnabled();
+
+    /**
+     * Interval at which all tasks are evaluated when {@link #isIncrementalRelocationPlanUpdateEnabled()} is set.
+     * The full refresh result is compared with the incrementally updated one, and replaces it.
+     */
+    @DefaultValue("" + 10 * 60_000)
+    long getRelocationPlanFullRefreshIntervalMs();
 }
@@ -53,4 +53,14 @@ public class RelocationConfigurationBean implements RelocationConfiguration {
     public long getDataStalenessThresholdMs() {
         return SpringConfigurationUtil.getLong(environment, PREFIX + "dataStalenessThresholdMs", 30_000);
     }
+
+    @Override
+    public boolean isIncrementalRelocationPlanUpdateEnabled() {
+        return SpringConfigurationUtil.getBoolean(environment, PREFIX + "incrementalRelocationPlanUpdateEnabled", false);
+    }
+
+    @Override
+    public long getRelocationPlanFullRefreshIntervalMs() {
+        return SpringConfigurationUtil.getLong(environment, PREFIX + "relocationPlanFullRefreshIntervalMs", 600_000);
+    }
 }
@@ -18,12 +18,19 @@ package com.netflix.titus.supplementary.relocation.endpoint.grpc;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import com.netflix.titus.api.jobmanager.service.ReadOnlyJobOperations;
+import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
 import com.netflix.titus.api.relocation.model.TaskRelocationStatus;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationPlanRemovedEvent;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationPlanUpdateEvent;
 import com.netflix.titus.common.util.CollectionsExt;
 import com.netflix.titus.grpc.protogen.RelocationEvent;
 import com.netflix.titus.grpc.protogen.RelocationTaskId;
@@ -33,6 +40,7 @@ import com.netflix.titus.grpc.protogen.TaskRelocationPlans;
 import com.netflix.titus.grpc.protogen.TaskRelocationQuery;
 import com.netflix.titus.grpc.protogen.TaskRelocationServiceGrpc;
 import com.netflix.titus.runtime.relocation.endpoint.RelocationGrpcModelConverters;
+import com.netflix.titus.supplementary.relocation.endpoint.TaskRelocationPlanPredicate;
 import com.netflix.titus.supplementary.relocation.store.TaskRelocationResultStore;
 import com.netflix.titus.supplementary.relocation.workflow.RelocationWorkflowExecutor;
 import io.grpc.Status;
@@ -41,6 +49,7 @@ import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 
 import static com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil.attachCancellingCallback;
 import static com.netflix.titus.runtime.endpoint.common.grpc.GrpcUtil.safeOnError;
@@ -120,11 +129,42 @@ public class TaskRelocationGrpcService extends TaskRelocationServiceGrpc.TaskRel
         attachCancellingCallback(responseObserver, disposable);
     }
 
-    /**
-     * TODO Implement
-     */
     @Override
     public void observeRelocationEvents(TaskRelocationQuery request, StreamObserver<RelocationEvent> responseObserver) {
-        responseObserver.onError(new RuntimeException("not implemented yet"));
+        Predicate<TaskRelocationPlan> filter = new TaskRelocationPlanPredicate(jobOperations, request);
+        Disposable disposable = filterEvents(relocationWorkflowExecutor.events(), filter)
+                .subscribe(
+                        event -> RelocationGrpcModelConverters.toGrpcRelocationEvent(event).ifPresent(responseObserver::onNext),
+                        e -> safeOnError(logger, e, responseObserver),
+                        responseObserver::onCompleted
+                );
+        attachCancellingCallback(responseObserver, disposable);
+    }
+
+    /**
+     * Emits updates of plans matching the filter, and removals of plans emitted before. A plan that no longer matches
+     * the filter is emitted as removed.
+     */
+    private Flux<TaskRelocationEvent> filterEvents(Flux<TaskRelocationEvent> events, Predicate<TaskRelocationPlan> filter) {
+        return Flux.defer(() -> {
+            Set<String> emittedTaskIds = new HashSet<>();
+            return events.<TaskRelocationEvent>handle((event, sink) -> {
+                if (event instanceof TaskRelocationPlanUpdateEvent) {
+                    TaskRelocationPlan plan = ((TaskRelocationPlanUpdateEvent) event).getPlan();
+                    if (filter.test(plan)) {
+                        emittedTaskIds.add(plan.getTaskId());
+                        sink.next(event);
+                    } else if (emittedTaskIds.remove(plan.getTaskId())) {
+                        sink.next(TaskRelocationEvent.newTaskRelocationPlanRemovedEvent(plan.getTaskId()));
+                    }
+                } else if (event instanceof TaskRelocationPlanRemovedEvent) {
+                    if (emittedTaskIds.remove(((TaskRelocationPlanRemovedEvent) event).getTaskId())) {
+                        sink.next(event);
+                    }
+                } else {
+                    sink.next(event);
+                }
+            });
+        });
     }
 }
@@ -20,6 +20,7 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.PreDestroy;
@@ -32,6 +33,7 @@ import com.netflix.titus.api.jobmanager.service.ReadOnlyJobOperations;
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
 import com.netflix.titus.api.relocation.model.TaskRelocationStatus;
 import com.netflix.titus.api.relocation.model.TaskRelocationStatus.TaskRelocationState;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
 import com.netflix.titus.common.framework.scheduler.ExecutionContext;
 import com.netflix.titus.common.framework.scheduler.ScheduleReference;
 import com.netflix.titus.common.framework.scheduler.model.ScheduleDescriptor;
@@ -48,6 +50,7 @@ import com.netflix.titus.supplementary.relocation.model.DeschedulingResult;
 import com.netflix.titus.supplementary.relocation.store.TaskRelocationResultStore;
 import com.netflix.titus.supplementary.relocation.store.TaskRelocationStore;
 import com.netflix.titus.supplementary.relocation.workflow.step.DeschedulerStep;
+import com.netflix.titus.supplementary.relocation.workflow.step.MustBeRelocatedTaskChangeTracker;
 import com.netflix.titus.supplementary.relocation.workflow.step.MustBeRelocatedTaskCollectorStep;
 import com.netflix.titus.supplementary.relocation.workflow.step.MustBeRelocatedTaskStoreUpdateStep;
 import com.netflix.titus.supplementary.relocation.workflow.step.RelocationTransactionLogger;
@@ -55,6 +58,7 @@ import com.netflix.titus.supplementary.relocation.workflow.step.TaskEvictionResu
 import com.netflix.titus.supplementary.relocation.workflow.step.TaskEvictionStep;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 
 @Singleton
@@ -80,12 +84,14 @@ public class DefaultRelocationWorkflowExecutor implements RelocationWorkflowExec
     private final WorkflowMetrics metrics;
     private final ScheduleReference disposable;
 
+    private final Optional<MustBeRelocatedTaskChangeTracker> changeTracker;
     private final MustBeRelocatedTaskCollectorStep mustBeRelocatedTaskCollectorStep;
     private final DeschedulerStep deschedulerStep;
     private final MustBeRelocatedTaskStoreUpdateStep mustBeRelocatedTaskStoreUpdateStep;
     private final TaskEvictionResultStoreStep taskEvictionResultStoreStep;
     private final TaskEvictionStep taskEvictionStep;
     private final DeschedulingResultLogger deschedulingResultLogger;
+    private final RelocationEventEmitter eventEmitter = new RelocationEventEmitter();
 
     private volatile long lastDeschedulingTimestamp;
     private volatile Map<String, TaskRelocationPlan> lastRelocationPlan = PLANS_NOT_READY;
@@ -114,7 +120,12 @@ public class DefaultRelocationWorkflowExecutor implements RelocationWorkflowExec
         ensureReplicatorsReady();
 
         RelocationTransactionLogger transactionLog = new RelocationTransactionLogger(jobOperations);
-        this.mustBeRelocatedTaskCollectorStep = new MustBeRelocatedTaskCollectorStep(agentOperations, jobOperations, titusRuntime);
+        this.changeTracker = configuration.isIncrementalRelocationPlanUpdateEnabled()
+                ? Optional.of(new MustBeRelocatedTaskChangeTracker(jobDataReplicator, agentDataReplicator, titusRuntime))
+                : Optional.empty();
+        this.mustBeRelocatedTaskCollectorStep = new MustBeRelocatedTaskCollectorStep(
+                agentOperations, jobOperations, changeTracker, configuration.getRelocationPlanFullRefreshIntervalMs(), titusRuntime
+        );
         this.mustBeRelocatedTaskStoreUpdateStep = new MustBeRelocatedTaskStoreUpdateStep(activeStore, transactionLog, titusRuntime);
         this.deschedulerStep = new DeschedulerStep(deschedulerService, transactionLog, titusRuntime);
         this.taskEvictionStep = new TaskEvictionStep(evictionServiceClient, titusRuntime, transactionLog, Schedulers.parallel());
@@ -164,6 +175,8 @@ public class DefaultRelocationWorkflowExecutor implements RelocationWorkflowExec
     @PreDestroy
     public void shutdown() {
         IOExt.closeSilently(disposable);
+        changeTracker.ifPresent(MustBeRelocatedTaskChangeTracker::shutdown);
+        eventEmitter.shutdown();
     }
 
     @Override
@@ -184,6 +197,11 @@ public class DefaultRelocationWorkflowExecutor implements RelocationWorkflowExec
         return Collections.unmodifiableMap(lastEvictionResult);
     }
 
+    @Override
+    public Flux<TaskRelocationEvent> events() {
+        return eventEmitter.events();
+    }
+
     private void nextRelocationStep(ExecutionContext executionContext) {
         long count = executionContext.getExecutionId().getTotal();
         boolean descheduling = titusRuntime.getClock().isPast(lastDeschedulingTimestamp + configuration.getDeschedulingIntervalMs());
@@ -195,8 +213,10 @@ public class DefaultRelocationWorkflowExecutor implements RelocationWorkflowExec
         try {
             executed = doWork(descheduling);
             logger.info("Task relocation iteration {} finished in {}sec", count, stopwatch.elapsed(TimeUnit.SECONDS));
+            metrics.onIterationCompleted(descheduling, true, stopwatch.elapsed(TimeUnit.MILLISECONDS));
         } catch (Exception e) {
             logger.error("Task relocation iteration {} failed after {}sec", count, stopwatch.elapsed(TimeUnit.SECONDS), e);
+            metrics.onIterationCompleted(descheduling, false, stopwatch.elapsed(TimeUnit.MILLISECONDS));
         }
 
         if (executed && descheduling) {
@@ -234,6 +254,8 @@ public class DefaultRelocationWorkflowExecutor implements RelocationWorkflowExec
             });
         }
 
+        eventEmitter.publish(lastRelocationPlan);
+
         return true;
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.supplementary.relocation.workflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Sets;
+import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import com.netflix.titus.common.util.tuple.Pair;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * {@link RelocationEventEmitter} emits task relocation plan changes. A new subscriber gets the current plans,
+ * followed by the snapshot end marker, and next the difference between consecutive plans published by the relocation
+ * workflow. Subscribers that connect before the first plan is published, get the snapshot after it is.
+ */
+class RelocationEventEmitter {
+
+    private volatile Pair<Long, Map<String, TaskRelocationPlan>> lastPublished;
+
+    @VisibleForTesting
+    final Set<SinkHolder> eventSubscriberSinks = Sets.newConcurrentHashSet();
+
+    Flux<TaskRelocationEvent> events() {
+        return Flux.create(sink -> {
+            SinkHolder sinkHolder = new SinkHolder(sink);
+            eventSubscriberSinks.add(sinkHolder);
+            sink.onDispose(() -> eventSubscriberSinks.remove(sinkHolder));
+
+            Pair<Long, Map<String, TaskRelocationPlan>> current = lastPublished;
+            if (current != null) {
+                sinkHolder.refresh(current);
+            }
+        });
+    }
+
+    void publish(Map<String, TaskRelocationPlan> plans) {
+        Pair<Long, Map<String, TaskRelocationPlan>> previous = lastPublished;
+        long version = previous == null ? 0 : previous.getLeft() + 1;
+        Pair<Long, Map<String, TaskRelocationPlan>> current = Pair.of(version, Collections.unmodifiableMap(new HashMap<>(plans)));
+        this.lastPublished = current;
+
+        eventSubscriberSinks.forEach(sinkHolder -> {
+            if (sinkHolder.sink.isCancelled()) {
+                eventSubscriberSinks.remove(sinkHolder);
+            } else {
+                sinkHolder.refresh(current);
+            }
+        });
+    }
+
+    void shutdown() {
+        eventSubscriberSinks.forEach(sinkHolder -> sinkHolder.sink.complete());
+        eventSubscriberSinks.clear();
+    }
+
+    @VisibleForTesting
+    class SinkHolder {
+
+        private final FluxSink<TaskRelocationEvent> sink;
+
+        private long emittedVersion = -1;
+        private Map<String, TaskRelocationPlan> emittedPlans;
+
+        private SinkHolder(FluxSink<TaskRelocationEvent> sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * Called concurrently by a new subscriber, and the relocation workflow, so older versions are ignored.
+         */
+        private synchronized void refresh(Pair<Long, Map<String, TaskRelocationPlan>> current) {
+            if (current.getLeft() <= emittedVersion) {
+                return;
+            }
+            Map<String, TaskRelocationPlan> plans = current.getRight();
+            if (emittedPlans == null) {
+                plans.values().forEach(plan -> sink.next(TaskRelocationEvent.newTaskRelocationPlanUpdateEvent(plan)));
+                sink.next(TaskRelocationEvent.newSnapshotEndEvent());
+            } else {
+                changeEvents(emittedPlans, plans).forEach(sink::next);
+            }
+            this.emittedVersion = current.getLeft();
+            this.emittedPlans = plans;
+        }
+
+        private List<TaskRelocationEvent> changeEvents(Map<String, TaskRelocationPlan> previous, Map<String, TaskRelocationPlan> current) {
+            List<TaskRelocationEvent> events = new ArrayList<>();
+            current.forEach((taskId, plan) -> {
+                if (!plan.equals(previous.get(taskId))) {
+                    events.add(TaskRelocationEvent.newTaskRelocationPlanUpdateEvent(plan));
+                }
+            });
+            previous.keySet().forEach(taskId -> {
+                if (!current.containsKey(taskId)) {
+                    events.add(TaskRelocationEvent.newTaskRelocationPlanRemovedEvent(taskId));
+                }
+            });
+            return events;
+        }
+    }
+}
@@ -20,6 +20,8 @@ import java.util.Map;
 
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
 import com.netflix.titus.api.relocation.model.TaskRelocationStatus;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import reactor.core.publisher.Flux;
 
 public interface RelocationWorkflowExecutor {
 
@@ -28,4 +30,10 @@ public interface RelocationWorkflowExecutor {
     Map<String, TaskRelocationPlan> getLastEvictionPlan();
 
     Map<String, TaskRelocationStatus> getLastEvictionResults();
+
+    /**
+     * Emits the current relocation plans, followed by the snapshot end marker, and next the plan changes made by
+     * the subsequent relocation workflow iterations.
+     */
+    Flux<TaskRelocationEvent> events();
 }
@@ -16,7 +16,10 @@
 
 package com.netflix.titus.supplementary.relocation.workflow;
 
+import java.util.concurrent.TimeUnit;
+
 import com.netflix.spectator.api.Gauge;
+import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.supplementary.relocation.RelocationMetrics;
@@ -29,11 +32,20 @@ class WorkflowMetrics {
 
     private final Gauge stalenessStatusGauge;
     private final Gauge stalenessTimeGauge;
+    private final Id iterationExecutionTimeId;
 
     WorkflowMetrics(TitusRuntime titusRuntime) {
         this.registry = titusRuntime.getRegistry();
         this.stalenessStatusGauge = registry.gauge(EVACUATION_METRICS + "stalenessStatus");
         this.stalenessTimeGauge = registry.gauge(EVACUATION_METRICS + "stalenessMs");
+        this.iterationExecutionTimeId = registry.createId(EVACUATION_METRICS + "iterationExecutionTime");
+    }
+
+    void onIterationCompleted(boolean descheduling, boolean success, long elapsedMs) {
+        registry.timer(iterationExecutionTimeId
+                .withTag("descheduling", Boolean.toString(descheduling))
+                .withTag("status", success ? "success" : "failure")
+        ).record(elapsedMs, TimeUnit.MILLISECONDS);
     }
 
     void setStaleness(boolean stalenessStatus, long stalenessMs) {
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.supplementary.relocation.workflow.step;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.titus.api.agent.model.event.AgentEvent;
+import com.netflix.titus.api.agent.model.event.AgentInstanceGroupRemovedEvent;
+import com.netflix.titus.api.agent.model.event.AgentInstanceGroupUpdateEvent;
+import com.netflix.titus.api.agent.model.event.AgentInstanceRemovedEvent;
+import com.netflix.titus.api.agent.model.event.AgentInstanceUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.JobUpdateEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
+import com.netflix.titus.common.runtime.TitusRuntime;
+import com.netflix.titus.common.util.rx.ReactorExt;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.runtime.connector.agent.AgentDataReplicator;
+import com.netflix.titus.runtime.connector.agent.AgentSnapshot;
+import com.netflix.titus.runtime.connector.jobmanager.JobDataReplicator;
+import com.netflix.titus.runtime.connector.jobmanager.JobSnapshot;
+import com.netflix.titus.supplementary.relocation.RelocationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+
+/**
+ * Collects identifiers of jobs, tasks, agent instances and instance groups changed since the last
+ * {@link #drainChanges()} call, from the job and agent replicator events. A snapshot (re)load, or a replicator
+ * stream termination request a full refresh, as the individual changes are not known in such case.
+ */
+public class MustBeRelocatedTaskChangeTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(MustBeRelocatedTaskChangeTracker.class);
+
+    private static final String METRIC_ROOT = RelocationMetrics.METRIC_ROOT + "changeTracker.";
+
+    private final JobDataReplicator jobDataReplicator;
+    private final AgentDataReplicator agentDataReplicator;
+
+    private final Registry registry;
+    private final Id eventsId;
+
+    private Changes pending = Changes.fullRefresh();
+
+    private Disposable jobSubscription;
+    private Disposable agentSubscription;
+
+    /**
+     * Replicators periodically re-emit the last event with the same snapshot, to signal that the data is fresh.
+     * These are ignored.
+     */
+    private JobSnapshot lastJobSnapshot;
+    private AgentSnapshot lastAgentSnapshot;
+
+    public MustBeRelocatedTaskChangeTracker(JobDataReplicator jobDataReplicator,
+                                            AgentDataReplicator agentDataReplicator,
+                                            TitusRuntime titusRuntime) {
+        this.jobDataReplicator = jobDataReplicator;
+        this.agentDataReplicator = agentDataReplicator;
+        this.registry = titusRuntime.getRegistry();
+        this.eventsId = registry.createId(METRIC_ROOT + "events");
+
+        subscribe();
+    }
+
+    public synchronized void shutdown() {
+        ReactorExt.safeDispose(jobSubscription, agentSubscription);
+    }
+
+    /**
+     * Returns all changes collected since the previous invocation.
+     */
+    public synchronized Changes drainChanges() {
+        Changes result = pending;
+        this.pending = new Changes();
+        if (jobSubscription.isDisposed() || agentSubscription.isDisposed()) {
+            ReactorExt.safeDispose(jobSubscription, agentSubscription);
+            subscribe();
+        }
+        return result;
+    }
+
+    private void subscribe() {
+        this.lastJobSnapshot = null;
+        this.lastAgentSnapshot = null;
+        this.jobSubscription = jobDataReplicator.events().subscribe(
+                this::onJobEvent,
+                e -> onStreamTermination("job", e),
+                () -> onStreamTermination("job", null)
+        );
+        this.agentSubscription = agentDataReplicator.events().subscribe(
+                this::onAgentEvent,
+                e -> onStreamTermination("agent", e),
+                () -> onStreamTermination("agent", null)
+        );
+    }
+
+    private synchronized void onJobEvent(Pair<JobSnapshot, JobManagerEvent<?>> event) {
+        if (event.getLeft() == lastJobSnapshot) {
+            return;
+        }
+        this.lastJobSnapshot = event.getLeft();
+
+        JobManagerEvent<?> trigger = event.getRight();
+        if (trigger instanceof JobUpdateEvent) {
+            pending.jobIds.add(((JobUpdateEvent) trigger).getCurrent().getId());
+            recordEvent("job");
+        } else if (trigger instanceof TaskUpdateEvent) {
+            pending.taskIds.add(((TaskUpdateEvent) trigger).getCurrentTask().getId());
+            recordEvent("task");
+        } else {
+            pending.fullRefreshRequired = true;
+            recordEvent("jobSnapshot");
+        }
+    }
+
+    private synchronized void onAgentEvent(Pair<AgentSnapshot, AgentEvent> event) {
+        if (event.getLeft() == lastAgentSnapshot) {
+            return;
+        }
+        this.lastAgentSnapshot = event.getLeft();
+
+        AgentEvent trigger = event.getRight();
+        if (trigger instanceof AgentInstanceUpdateEvent) {
+            pending.instanceIds.add(((AgentInstanceUpdateEvent) trigger).getAgentInstance().getId());
+            recordEvent("instance");
+        } else if (trigger instanceof AgentInstanceRemovedEvent) {
+            pending.instanceIds.add(((AgentInstanceRemovedEvent) trigger).getAgentInstanceId());
+            recordEvent("instance");
+        } else if (trigger instanceof AgentInstanceGroupUpdateEvent) {
+            pending.instanceGroupIds.add(((AgentInstanceGroupUpdateEvent) trigger).getAgentInstanceGroup().getId());
+            recordEvent("instanceGroup");
+        } else if (trigger instanceof AgentInstanceGroupRemovedEvent) {
+            pending.instanceGroupIds.add(((AgentInstanceGroupRemovedEvent) trigger).getInstanceGroupId());
+            recordEvent("instanceGroup");
+        } else {
+            pending.fullRefreshRequired = true;
+            recordEvent("agentSnapshot");
+        }
+    }
+
+    private synchronized void onStreamTermination(String source, Throwable error) {
+        if (error == null) {
+            logger.info("The {} replicator event stream completed. Requesting full refresh, and resubscribing", source);
+        } else {
+            logger.warn("The {} replicator event stream terminated with an error. Requesting full refresh, and resubscribing", source, error);
+        }
+        pending.fullRefreshRequired = true;
+        recordEvent(source + "StreamTermination");
+    }
+
+    private void recordEvent(String kind) {
+        registry.counter(eventsId.withTag("kind", kind)).increment();
+    }
+
+    public static class Changes {
+
+        private final Set<String> jobIds = new HashSet<>();
+        private final Set<String> taskIds = new HashSet<>();
+        private final Set<String> instanceIds = new HashSet<>();
+        private final Set<String> instanceGroupIds = new HashSet<>();
+        private boolean fullRefreshRequired;
+
+        public Set<String> getJobIds() {
+            return jobIds;
+        }
+
+        public Set<String> getTaskIds() {
+            return taskIds;
+        }
+
+        public Set<String> getInstanceIds() {
+            return instanceIds;
+        }
+
+        public Set<String> getInstanceGroupIds() {
+            return instanceGroupIds;
+        }
+
+        public boolean isFullRefreshRequired() {
+            return fullRefreshRequired;
+        }
+
+        private static Changes fullRefresh() {
+            Changes changes = new Changes();
+            changes.fullRefreshRequired = true;
+            return changes;
+        }
+    }
+}
@@ -19,13 +19,21 @@ package com.netflix.titus.supplementary.relocation.workflow.step;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.Sets;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
 import com.netflix.titus.api.agent.model.AgentInstance;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
 import com.netflix.titus.api.agent.service.ReadOnlyAgentOperations;
+import com.netflix.titus.api.jobmanager.TaskAttributes;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.Task;
 import com.netflix.titus.api.jobmanager.model.job.TaskState;
@@ -35,8 +43,11 @@ import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan.TaskRelocationReason;
 import com.netflix.titus.common.runtime.TitusRuntime;
 import com.netflix.titus.common.util.time.Clock;
+import com.netflix.titus.common.util.tuple.Pair;
 import com.netflix.titus.common.util.tuple.Triple;
+import com.netflix.titus.supplementary.relocation.RelocationMetrics;
 import com.netflix.titus.supplementary.relocation.util.RelocationUtil;
+import com.netflix.titus.supplementary.relocation.workflow.step.MustBeRelocatedTaskChangeTracker.Changes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,43 +56,109 @@ import static com.netflix.titus.supplementary.relocation.util.RelocationPredicat
 
 /**
  * Step at which all containers that are requested to terminate are identified, and their relocation timestamps are set.
+ * <p>
+ * If a {@link MustBeRelocatedTaskChangeTracker} is provided, only tasks affected by the changes reported by it
+ * are evaluated again. All tasks are evaluated at the configured full refresh interval, which also serves as
+ * a consistency check of the incremental updates.
  */
 public class MustBeRelocatedTaskCollectorStep {
 
     private static final Logger logger = LoggerFactory.getLogger(MustBeRelocatedTaskCollectorStep.class);
 
+    private static final String METRIC_ROOT = RelocationMetrics.METRIC_ROOT + "mustBeRelocatedTaskCollector.";
+
     private final ReadOnlyAgentOperations agentOperations;
     private final ReadOnlyJobOperations jobOperations;
+    private final Optional<MustBeRelocatedTaskChangeTracker> changeTracker;
+    private final long fullRefreshIntervalMs;
     private final StepMetrics metrics;
     private final Clock clock;
 
+    private final Registry registry;
+    private final Id executionTimeId;
+    private final Id evaluatedTasksId;
+    private final Id inconsistenciesId;
+
     private Map<String, TaskRelocationPlan> lastResult = Collections.emptyMap();
+    private long lastFullRefreshTimestamp;
+
+    /**
+     * Indexes of tasks evaluated in the last full refresh or incremental update, by their agent location.
+     */
+    private final Map<String, Pair<String, String>> locationByTaskId = new HashMap<>();
+    private final Map<String, Set<String>> taskIdsByInstanceId = new HashMap<>();
+    private final Map<String, Set<String>> taskIdsByInstanceGroupId = new HashMap<>();
 
     public MustBeRelocatedTaskCollectorStep(ReadOnlyAgentOperations agentOperations,
                                             ReadOnlyJobOperations jobOperations,
                                             TitusRuntime titusRuntime) {
+        this(agentOperations, jobOperations, Optional.empty(), 0, titusRuntime);
+    }
+
+    public MustBeRelocatedTaskCollectorStep(ReadOnlyAgentOperations agentOperations,
+                                            ReadOnlyJobOperations jobOperations,
+                                            Optional<MustBeRelocatedTaskChangeTracker> changeTracker,
+                                            long fullRefreshIntervalMs,
+                                            TitusRuntime titusRuntime) {
         this.agentOperations = agentOperations;
         this.jobOperations = jobOperations;
+        this.changeTracker = changeTracker;
+        this.fullRefreshIntervalMs = fullRefreshIntervalMs;
         this.clock = titusRuntime.getClock();
         this.metrics = new StepMetrics("mustBeRelocatedTaskCollectorStep", titusRuntime);
+
+        this.registry = titusRuntime.getRegistry();
+        this.executionTimeId = registry.createId(METRIC_ROOT + "executionTime");
+        this.evaluatedTasksId = registry.createId(METRIC_ROOT + "evaluatedTasks");
+        this.inconsistenciesId = registry.createId(METRIC_ROOT + "inconsistencies");
     }
 
     public Map<String, TaskRelocationPlan> collectTasksThatMustBeRelocated() {
         Stopwatch stopwatch = Stopwatch.createStarted();
         try {
-            Map<String, TaskRelocationPlan> result = buildRelocationPlans();
+            Map<String, TaskRelocationPlan> result = changeTracker.isPresent()
+                    ? updateRelocationPlans(changeTracker.get().drainChanges())
+                    : buildRelocationPlans();
             metrics.onSuccess(result.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
             logger.debug("Step results: {}", result);
             return result;
         } catch (Exception e) {
             logger.error("Step processing error", e);
             metrics.onError(stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            // The drained changes are lost, so force the full refresh in the next iteration.
+            this.lastFullRefreshTimestamp = 0;
             throw e;
         }
     }
 
+    private Map<String, TaskRelocationPlan> updateRelocationPlans(Changes changes) {
+        if (changes.isFullRefreshRequired()) {
+            return buildRelocationPlans();
+        }
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Map<String, TaskRelocationPlan> incrementalResult = applyChanges(changes);
+        registry.timer(executionTimeId.withTag("mode", "incremental")).record(stopwatch.elapsed(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+
+        if (!clock.isPast(lastFullRefreshTimestamp + fullRefreshIntervalMs)) {
+            return incrementalResult;
+        }
+
+        Map<String, TaskRelocationPlan> fullResult = buildRelocationPlans();
+        int inconsistencies = Sets.symmetricDifference(incrementalResult.keySet(), fullResult.keySet()).size();
+        if (inconsistencies > 0) {
+            logger.warn("Incrementally updated relocation plans differ from the full refresh result: incremental={}, full={}",
+                    incrementalResult.keySet(), fullResult.keySet());
+            registry.counter(inconsistenciesId).increment(inconsistencies);
+        }
+        return fullResult;
+    }
+
     private Map<String, TaskRelocationPlan> buildRelocationPlans() {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+
         Map<String, TaskRelocationPlan> result = new HashMap<>();
+        clearLocationIndex();
         List<Triple<Job<?>, Task, AgentInstance>> allItems = findAllJobTaskAgentTriples();
         allItems.forEach(triple -> {
 
@@ -89,6 +166,7 @@ public class MustBeRelocatedTaskCollectorStep {
             Task task = triple.getSecond();
             AgentInstance instance = triple.getThird();
 
+            addToLocationIndex(task.getId(), instance);
             agentOperations.findInstanceGroup(instance.getInstanceGroupId()).ifPresent(instanceGroup ->
                     checkIfNeedsRelocationPlan(job, task, instanceGroup, instance).ifPresent(reason ->
                             result.put(task.getId(), buildSelfManagedRelocationPlan(job, task, reason))
@@ -96,18 +174,98 @@ public class MustBeRelocatedTaskCollectorStep {
         });
 
         this.lastResult = result;
-        
+        this.lastFullRefreshTimestamp = clock.wallTime();
+
+        registry.timer(executionTimeId.withTag("mode", "full")).record(stopwatch.elapsed(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        registry.counter(evaluatedTasksId.withTag("mode", "full")).increment(allItems.size());
+
+        return result;
+    }
+
+    private Map<String, TaskRelocationPlan> applyChanges(Changes changes) {
+        Set<String> taskIds = new HashSet<>(changes.getTaskIds());
+        changes.getJobIds().forEach(jobId -> jobOperations.getTasks(jobId).forEach(task -> taskIds.add(task.getId())));
+        changes.getInstanceIds().forEach(instanceId -> taskIds.addAll(taskIdsByInstanceId.getOrDefault(instanceId, Collections.emptySet())));
+        changes.getInstanceGroupIds().forEach(instanceGroupId -> taskIds.addAll(taskIdsByInstanceGroupId.getOrDefault(instanceGroupId, Collections.emptySet())));
+
+        Map<String, TaskRelocationPlan> result = new HashMap<>(lastResult);
+        taskIds.forEach(taskId -> {
+            Optional<TaskRelocationPlan> plan = evaluateTask(taskId);
+            if (plan.isPresent()) {
+                result.put(taskId, plan.get());
+            } else {
+                result.remove(taskId);
+            }
+        });
+
+        this.lastResult = result;
+        registry.counter(evaluatedTasksId.withTag("mode", "incremental")).increment(taskIds.size());
+
         return result;
     }
 
+    private Optional<TaskRelocationPlan> evaluateTask(String taskId) {
+        removeFromLocationIndex(taskId);
+
+        Optional<Pair<Job<?>, Task>> jobAndTask = jobOperations.findTaskById(taskId);
+        if (!jobAndTask.isPresent() || !isRelocationCandidate(jobAndTask.get().getRight())) {
+            return Optional.empty();
+        }
+        Job<?> job = jobAndTask.get().getLeft();
+        Task task = jobAndTask.get().getRight();
+
+        String instanceId = task.getTaskContext().get(TaskAttributes.TASK_ATTRIBUTES_AGENT_INSTANCE_ID);
+        Optional<AgentInstance> instance = instanceId == null ? Optional.empty() : agentOperations.findAgentInstance(instanceId);
+        if (!instance.isPresent()) {
+            return Optional.empty();
+        }
+        addToLocationIndex(taskId, instance.get());
+
+        Optional<AgentInstanceGroup> instanceGroup = agentOperations.findInstanceGroup(instance.get().getInstanceGroupId());
+        if (!instanceGroup.isPresent()) {
+            return Optional.empty();
+        }
+        return checkIfNeedsRelocationPlan(job, task, instanceGroup.get(), instance.get())
+                .map(reason -> buildSelfManagedRelocationPlan(job, task, reason));
+    }
+
+    private void addToLocationIndex(String taskId, AgentInstance instance) {
+        locationByTaskId.put(taskId, Pair.of(instance.getId(), instance.getInstanceGroupId()));
+        taskIdsByInstanceId.computeIfAbsent(instance.getId(), id -> new HashSet<>()).add(taskId);
+        taskIdsByInstanceGroupId.computeIfAbsent(instance.getInstanceGroupId(), id -> new HashSet<>()).add(taskId);
+    }
+
+    private void removeFromLocationIndex(String taskId) {
+        Pair<String, String> location = locationByTaskId.remove(taskId);
+        if (location != null) {
+            removeFromIndex(taskIdsByInstanceId, location.getLeft(), taskId);
+            removeFromIndex(taskIdsByInstanceGroupId, location.getRight(), taskId);
+        }
+    }
+
+    private void removeFromIndex(Map<String, Set<String>> index, String key, String taskId) {
+        Set<String> taskIds = index.get(key);
+        if (taskIds != null) {
+            taskIds.remove(taskId);
+            if (taskIds.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void clearLocationIndex() {
+        locationByTaskId.clear();
+        taskIdsByInstanceId.clear();
+        taskIdsByInstanceGroupId.clear();
+    }
+
     private List<Triple<Job<?>, Task, AgentInstance>> findAllJobTaskAgentTriples() {
         Map<String, AgentInstance> taskToInstanceMap = RelocationUtil.buildTasksToInstanceMap(agentOperations, jobOperations);
 
         List<Triple<Job<?>, Task, AgentInstance>> result = new ArrayList<>();
         jobOperations.getJobs().forEach(job -> {
             jobOperations.getTasks(job.getId()).forEach(task -> {
-                TaskState taskState = task.getStatus().getState();
-                if (taskState != TaskState.Accepted && taskState != TaskState.KillInitiated && taskState != TaskState.Finished) {
+                if (isRelocationCandidate(task)) {
                     AgentInstance instance = taskToInstanceMap.get(task.getId());
                     if (instance != null) {
                         result.add(Triple.of(job, task, instance));
@@ -118,6 +276,11 @@ public class MustBeRelocatedTaskCollectorStep {
         return result;
     }
 
+    private static boolean isRelocationCandidate(Task task) {
+        TaskState taskState = task.getStatus().getState();
+        return taskState != TaskState.Accepted && taskState != TaskState.KillInitiated && taskState != TaskState.Finished;
+    }
+
     /**
      * Relocation plans today are limited to self managed polices.
      */
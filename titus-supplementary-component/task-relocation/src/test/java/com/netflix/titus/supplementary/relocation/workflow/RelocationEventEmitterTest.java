@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.supplementary.relocation.workflow;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
+import com.netflix.titus.api.relocation.model.event.TaskRelocationEvent;
+import com.netflix.titus.testkit.rx.TitusRxSubscriber;
+import org.junit.Test;
+
+import static com.netflix.titus.supplementary.relocation.TaskRelocationPlanGenerator.oneMigrationPlan;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RelocationEventEmitterTest {
+
+    private final RelocationEventEmitter emitter = new RelocationEventEmitter();
+
+    @Test
+    public void testSnapshotIsEmittedAfterFirstPublish() {
+        TitusRxSubscriber<TaskRelocationEvent> subscriber = new TitusRxSubscriber<>();
+        emitter.events().subscribe(subscriber);
+        assertThat(subscriber.getAllItems()).isEmpty();
+
+        TaskRelocationPlan plan = oneMigrationPlan();
+        emitter.publish(Collections.singletonMap(plan.getTaskId(), plan));
+
+        assertThat(subscriber.getAllItems()).containsExactly(
+                TaskRelocationEvent.newTaskRelocationPlanUpdateEvent(plan),
+                TaskRelocationEvent.newSnapshotEndEvent()
+        );
+    }
+
+    @Test
+    public void testChangesAreEmittedAfterSnapshot() {
+        TaskRelocationPlan plan1 = oneMigrationPlan();
+        TaskRelocationPlan plan2 = plan1.toBuilder().withTaskId("task2").build();
+        Map<String, TaskRelocationPlan> plans = new HashMap<>();
+        plans.put(plan1.getTaskId(), plan1);
+        emitter.publish(plans);
+
+        TitusRxSubscriber<TaskRelocationEvent> subscriber = new TitusRxSubscriber<>();
+        emitter.events().subscribe(subscriber);
+        assertThat(subscriber.getAllItems()).hasSize(2);
+
+        // Unchanged plans are not emitted again.
+        plans.put(plan2.getTaskId(), plan2);
+        emitter.publish(plans);
+        assertThat(subscriber.getAllItems()).hasSize(3);
+        assertThat(subscriber.getAllItems().get(2)).isEqualTo(TaskRelocationEvent.newTaskRelocationPlanUpdateEvent(plan2));
+
+        plans.remove(plan1.getTaskId());
+        emitter.publish(plans);
+        assertThat(subscriber.getAllItems()).hasSize(4);
+        assertThat(subscriber.getAllItems().get(3)).isEqualTo(TaskRelocationEvent.newTaskRelocationPlanRemovedEvent(plan1.getTaskId()));
+    }
+
+    @Test
+    public void testCancelledSubscriberIsRemoved() {
+        TitusRxSubscriber<TaskRelocationEvent> subscriber = new TitusRxSubscriber<>();
+        emitter.events().subscribe(subscriber);
+        assertThat(emitter.eventSubscriberSinks).hasSize(1);
+
+        subscriber.dispose();
+        emitter.publish(Collections.emptyMap());
+        assertThat(emitter.eventSubscriberSinks).isEmpty();
+    }
+
+    @Test
+    public void testShutdownCompletesSubscribers() {
+        TitusRxSubscriber<TaskRelocationEvent> subscriber = new TitusRxSubscriber<>();
+        emitter.events().subscribe(subscriber);
+
+        emitter.shutdown();
+        assertThat(subscriber.isOpen()).isFalse();
+        assertThat(subscriber.hasError()).isFalse();
+    }
+}
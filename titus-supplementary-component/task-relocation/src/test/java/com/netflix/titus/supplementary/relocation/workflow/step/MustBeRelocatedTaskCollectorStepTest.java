@@ -17,28 +17,53 @@
 package com.netflix.titus.supplementary.relocation.workflow.step;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
+import com.netflix.titus.api.agent.model.event.AgentEvent;
 import com.netflix.titus.api.jobmanager.model.job.Job;
 import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
 import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.event.JobManagerEvent;
+import com.netflix.titus.api.jobmanager.model.job.event.TaskUpdateEvent;
 import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
 import com.netflix.titus.common.util.time.TestClock;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.runtime.connector.agent.AgentDataReplicator;
+import com.netflix.titus.runtime.connector.agent.AgentSnapshot;
+import com.netflix.titus.runtime.connector.jobmanager.JobDataReplicator;
+import com.netflix.titus.runtime.connector.jobmanager.JobSnapshot;
 import com.netflix.titus.supplementary.relocation.AbstractTaskRelocationTest;
 import com.netflix.titus.supplementary.relocation.TestDataFactory;
 import com.netflix.titus.api.relocation.model.TaskRelocationPlan;
 import org.junit.Test;
+import reactor.core.publisher.DirectProcessor;
 
 import static com.netflix.titus.supplementary.relocation.TestDataFactory.newSelfManagedDisruptionBudget;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class MustBeRelocatedTaskCollectorStepTest extends AbstractTaskRelocationTest {
 
+    private static final long FULL_REFRESH_INTERVAL_MS = 60_000;
+
     private final MustBeRelocatedTaskCollectorStep step;
 
+    private final DirectProcessor<Pair<JobSnapshot, JobManagerEvent<?>>> jobEvents = DirectProcessor.create();
+    private final DirectProcessor<Pair<AgentSnapshot, AgentEvent>> agentEvents = DirectProcessor.create();
+    private final MustBeRelocatedTaskCollectorStep incrementalStep;
+
     public MustBeRelocatedTaskCollectorStepTest() {
         super(TestDataFactory.activeRemovableSetup());
         this.step = new MustBeRelocatedTaskCollectorStep(agentOperations, jobOperations, titusRuntime);
+
+        JobDataReplicator jobDataReplicator = mock(JobDataReplicator.class);
+        when(jobDataReplicator.events()).thenReturn(jobEvents);
+        AgentDataReplicator agentDataReplicator = mock(AgentDataReplicator.class);
+        when(agentDataReplicator.events()).thenReturn(agentEvents);
+        MustBeRelocatedTaskChangeTracker changeTracker = new MustBeRelocatedTaskChangeTracker(jobDataReplicator, agentDataReplicator, titusRuntime);
+        this.incrementalStep = new MustBeRelocatedTaskCollectorStep(agentOperations, jobOperations, Optional.of(changeTracker), FULL_REFRESH_INTERVAL_MS, titusRuntime);
     }
 
     @Test
@@ -80,4 +105,51 @@ public class MustBeRelocatedTaskCollectorStepTest extends AbstractTaskRelocation
 
         assertThat(first).isEqualTo(second);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIncrementalUpdateOfChangedTask() {
+        Task task = addJobOnActiveInstanceGroup();
+        assertThat(incrementalStep.collectTasksThatMustBeRelocated()).isEmpty();
+
+        relocationConnectorStubs.place(TestDataFactory.REMOVABLE_INSTANCE_GROUP, task);
+        emitTaskUpdate(task.getId());
+
+        assertThat(incrementalStep.collectTasksThatMustBeRelocated()).containsOnlyKeys(task.getId());
+    }
+
+    @Test
+    public void testChangeWithoutEventIsFoundByFullRefresh() {
+        Task task = addJobOnActiveInstanceGroup();
+        assertThat(incrementalStep.collectTasksThatMustBeRelocated()).isEmpty();
+
+        relocationConnectorStubs.place(TestDataFactory.REMOVABLE_INSTANCE_GROUP, task);
+        assertThat(incrementalStep.collectTasksThatMustBeRelocated()).isEmpty();
+
+        clock.advanceTime(FULL_REFRESH_INTERVAL_MS + 1, TimeUnit.MILLISECONDS);
+        assertThat(incrementalStep.collectTasksThatMustBeRelocated()).containsOnlyKeys(task.getId());
+    }
+
+    @Test
+    public void testSnapshotReloadTriggersFullRefresh() {
+        Task task = addJobOnActiveInstanceGroup();
+        assertThat(incrementalStep.collectTasksThatMustBeRelocated()).isEmpty();
+
+        relocationConnectorStubs.place(TestDataFactory.REMOVABLE_INSTANCE_GROUP, task);
+        jobEvents.onNext(Pair.of(mock(JobSnapshot.class), JobManagerEvent.snapshotMarker()));
+
+        assertThat(incrementalStep.collectTasksThatMustBeRelocated()).containsOnlyKeys(task.getId());
+    }
+
+    private Task addJobOnActiveInstanceGroup() {
+        Job<BatchJobExt> job = TestDataFactory.newBatchJob("job1", 1, newSelfManagedDisruptionBudget(1_000));
+        relocationConnectorStubs.addJob(job);
+        Task task = jobOperations.getTasks().get(0);
+        relocationConnectorStubs.place(TestDataFactory.ACTIVE_INSTANCE_GROUP, task);
+        return task;
+    }
+
+    private void emitTaskUpdate(String taskId) {
+        Pair<Job<?>, Task> jobAndTask = jobOperations.findTaskById(taskId).get();
+        jobEvents.onNext(Pair.of(mock(JobSnapshot.class), TaskUpdateEvent.newTask(jobAndTask.getLeft(), jobAndTask.getRight())));
+    }
+}
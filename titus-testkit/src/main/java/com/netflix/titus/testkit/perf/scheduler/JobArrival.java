@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.testkit.perf.scheduler;
+
+import com.netflix.titus.api.model.Tier;
+
+/**
+ * A single job submission from a job arrival trace.
+ */
+public class JobArrival {
+
+    public enum JobType {Batch, Service}
+
+    private final long arrivalTimeMs;
+    private final JobType jobType;
+    private final Tier tier;
+    private final String capacityGroup;
+    private final double cpu;
+    private final int memoryMB;
+    private final int diskMB;
+    private final int networkMbps;
+    private final int taskCount;
+    private final long runtimeMs;
+
+    public JobArrival(long arrivalTimeMs,
+                      JobType jobType,
+                      Tier tier,
+                      String capacityGroup,
+                      double cpu,
+                      int memoryMB,
+                      int diskMB,
+                      int networkMbps,
+                      int taskCount,
+                      long runtimeMs) {
+        this.arrivalTimeMs = arrivalTimeMs;
+        this.jobType = jobType;
+        this.tier = tier;
+        this.capacityGroup = capacityGroup;
+        this.cpu = cpu;
+        this.memoryMB = memoryMB;
+        this.diskMB = diskMB;
+        this.networkMbps = networkMbps;
+        this.taskCount = taskCount;
+        this.runtimeMs = runtimeMs;
+    }
+
+    /**
+     * Time offset (in milliseconds) from the beginning of the trace.
+     */
+    public long getArrivalTimeMs() {
+        return arrivalTimeMs;
+    }
+
+    public JobType getJobType() {
+        return jobType;
+    }
+
+    public Tier getTier() {
+        return tier;
+    }
+
+    public String getCapacityGroup() {
+        return capacityGroup;
+    }
+
+    public double getCpu() {
+        return cpu;
+    }
+
+    public int getMemoryMB() {
+        return memoryMB;
+    }
+
+    public int getDiskMB() {
+        return diskMB;
+    }
+
+    public int getNetworkMbps() {
+        return networkMbps;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Task execution time of a batch job. Service job tasks, and batch tasks with runtime <= 0, run until the end of
+     * the simulation.
+     */
+    public long getRuntimeMs() {
+        return runtimeMs;
+    }
+
+    @Override
+    public String toString() {
+        return "JobArrival{" +
+                "arrivalTimeMs=" + arrivalTimeMs +
+                ", jobType=" + jobType +
+                ", tier=" + tier +
+                ", capacityGroup='" + capacityGroup + '\'' +
+                ", cpu=" + cpu +
+                ", memoryMB=" + memoryMB +
+                ", diskMB=" + diskMB +
+                ", networkMbps=" + networkMbps +
+                ", taskCount=" + taskCount +
+                ", runtimeMs=" + runtimeMs +
+                '}';
+    }
+}
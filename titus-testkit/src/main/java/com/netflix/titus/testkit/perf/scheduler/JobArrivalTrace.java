@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.testkit.perf.scheduler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import com.netflix.titus.api.model.Tier;
+import com.netflix.titus.testkit.perf.scheduler.JobArrival.JobType;
+
+/**
+ * A time ordered sequence of job arrivals. A trace is either loaded from a CSV file, with one job per line in the format:
+ * <pre>
+ * arrivalTimeMs,jobType,tier,capacityGroup,cpu,memoryMB,diskMB,networkMbps,taskCount[,runtimeMs]
+ * </pre>
+ * (lines starting with '#' are ignored), or generated from a random seed, so the same trace can be replayed many times.
+ */
+public class JobArrivalTrace {
+
+    private static final double[] CPUS = {1, 2, 4, 8};
+    private static final int[] MEMORY_MB = {1024, 2048, 4096, 8192, 16384};
+
+    private final List<JobArrival> arrivals;
+
+    private JobArrivalTrace(List<JobArrival> arrivals) {
+        List<JobArrival> sorted = new ArrayList<>(arrivals);
+        sorted.sort(Comparator.comparingLong(JobArrival::getArrivalTimeMs));
+        this.arrivals = Collections.unmodifiableList(sorted);
+    }
+
+    public List<JobArrival> getArrivals() {
+        return arrivals;
+    }
+
+    public int getTaskCount() {
+        return arrivals.stream().mapToInt(JobArrival::getTaskCount).sum();
+    }
+
+    public static JobArrivalTrace load(File file) throws IOException {
+        List<JobArrival> arrivals = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    arrivals.add(parse(line));
+                } catch (RuntimeException e) {
+                    throw new IOException(String.format("Invalid job arrival in %s at line %s: %s", file, lineNumber, e.getMessage()), e);
+                }
+            }
+        }
+        return new JobArrivalTrace(arrivals);
+    }
+
+    /**
+     * Generates a trace with job arrivals following the Poisson process.
+     *
+     * @param seed                 random generator seed; the same seed always produces the same trace
+     * @param jobCount             number of jobs in the trace
+     * @param meanInterArrivalMs   mean time between two consecutive job arrivals
+     * @param meanBatchJobRuntimeMs mean batch task execution time
+     */
+    public static JobArrivalTrace synthetic(long seed, int jobCount, long meanInterArrivalMs, long meanBatchJobRuntimeMs) {
+        Random random = new Random(seed);
+        List<JobArrival> arrivals = new ArrayList<>();
+        long time = 0;
+        for (int i = 0; i < jobCount; i++) {
+            time += (long) (-Math.log(1 - random.nextDouble()) * meanInterArrivalMs);
+            boolean batch = random.nextDouble() < 0.7;
+            Tier tier = !batch && random.nextDouble() < 0.5 ? Tier.Critical : Tier.Flex;
+            arrivals.add(new JobArrival(
+                    time,
+                    batch ? JobType.Batch : JobType.Service,
+                    tier,
+                    tier == Tier.Critical ? "critical" : "flex" + random.nextInt(4),
+                    CPUS[random.nextInt(CPUS.length)],
+                    MEMORY_MB[random.nextInt(MEMORY_MB.length)],
+                    10_000,
+                    128,
+                    batch ? 1 + random.nextInt(100) : 1 + random.nextInt(20),
+                    batch ? (long) (-Math.log(1 - random.nextDouble()) * meanBatchJobRuntimeMs) : 0
+            ));
+        }
+        return new JobArrivalTrace(arrivals);
+    }
+
+    private static JobArrival parse(String line) {
+        String[] fields = line.split(",");
+        if (fields.length < 9) {
+            throw new IllegalArgumentException("expected at least 9 fields, but got " + fields.length);
+        }
+        return new JobArrival(
+                Long.parseLong(fields[0].trim()),
+                JobType.valueOf(capitalize(fields[1].trim())),
+                Tier.valueOf(capitalize(fields[2].trim())),
+                fields[3].trim(),
+                Double.parseDouble(fields[4].trim()),
+                Integer.parseInt(fields[5].trim()),
+                Integer.parseInt(fields[6].trim()),
+                Integer.parseInt(fields[7].trim()),
+                Integer.parseInt(fields[8].trim()),
+                fields.length > 9 ? Long.parseLong(fields[9].trim()) : 0
+        );
+    }
+
+    private static String capitalize(String value) {
+        return value.isEmpty() ? value : Character.toUpperCase(value.charAt(0)) + value.substring(1).toLowerCase();
+    }
+}
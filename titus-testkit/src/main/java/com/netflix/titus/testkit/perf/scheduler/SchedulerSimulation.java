@@ -0,0 +1,489 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.testkit.perf.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.netflix.archaius.ConfigProxyFactory;
+import com.netflix.archaius.config.MapConfig;
+import com.netflix.fenzo.ConstraintEvaluator;
+import com.netflix.fenzo.SchedulingResult;
+import com.netflix.fenzo.TaskAssignmentResult;
+import com.netflix.fenzo.TaskRequest;
+import com.netflix.fenzo.TaskScheduler;
+import com.netflix.fenzo.TaskTrackerState;
+import com.netflix.fenzo.VMAssignmentResult;
+import com.netflix.fenzo.VMTaskFitnessCalculator;
+import com.netflix.fenzo.VirtualMachineCurrentState;
+import com.netflix.fenzo.VirtualMachineLease;
+import com.netflix.fenzo.plugins.VMLeaseObject;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.titus.api.agent.model.AgentInstanceGroup;
+import com.netflix.titus.api.agent.service.AgentManagementService;
+import com.netflix.titus.api.jobmanager.model.job.Container;
+import com.netflix.titus.api.jobmanager.model.job.ContainerResources;
+import com.netflix.titus.api.jobmanager.model.job.Job;
+import com.netflix.titus.api.jobmanager.model.job.JobDescriptor;
+import com.netflix.titus.api.jobmanager.model.job.JobFunctions;
+import com.netflix.titus.api.jobmanager.model.job.JobModel;
+import com.netflix.titus.api.jobmanager.model.job.Task;
+import com.netflix.titus.api.jobmanager.model.job.ext.BatchJobExt;
+import com.netflix.titus.api.jobmanager.model.job.ext.ServiceJobExt;
+import com.netflix.titus.api.model.Tier;
+import com.netflix.titus.common.runtime.TitusRuntimes;
+import com.netflix.titus.common.util.tuple.Pair;
+import com.netflix.titus.master.jobmanager.service.common.V3QueueableTask;
+import com.netflix.titus.master.scheduler.SchedulerConfiguration;
+import com.netflix.titus.master.scheduler.constraint.ConstraintEvaluatorTransformer;
+import com.netflix.titus.master.scheduler.constraint.SystemHardConstraint;
+import com.netflix.titus.master.scheduler.constraint.SystemSoftConstraint;
+import com.netflix.titus.master.scheduler.fitness.AgentManagementFitnessCalculator;
+import com.netflix.titus.master.scheduler.fitness.TitusFitnessCalculator;
+import com.netflix.titus.master.scheduler.fitness.networkinterface.TitusNetworkInterfaceFitnessEvaluator;
+import com.netflix.titus.master.scheduler.resourcecache.AgentResourceCache;
+import com.netflix.titus.master.scheduler.resourcecache.DefaultAgentResourceCache;
+import com.netflix.titus.testkit.embedded.cloud.SimulatedCloud;
+import com.netflix.titus.testkit.embedded.cloud.agent.SimulatedTitusAgent;
+import com.netflix.titus.testkit.embedded.cloud.agent.SimulatedTitusAgentCluster;
+import com.netflix.titus.testkit.model.agent.AgentComponentStub;
+import com.netflix.titus.testkit.model.agent.AgentGenerator;
+import com.netflix.titus.testkit.model.job.JobDescriptorGenerator;
+import com.netflix.titus.testkit.model.job.JobGenerator;
+import com.netflix.titus.testkit.perf.scheduler.JobArrival.JobType;
+import org.HdrHistogram.Histogram;
+import org.apache.mesos.Protos;
+
+/**
+ * Headless scheduler simulation. Job arrivals from a {@link JobArrivalTrace} are placed on the agents of a
+ * {@link SimulatedCloud} by a Fenzo {@link TaskScheduler}, configured the same way as in
+ * {@link com.netflix.titus.master.scheduler.DefaultSchedulingService} (Titus fitness calculator, network interface
+ * evaluator, agent management fitness). The system hard and soft constraints are the no-op ones, as the production
+ * ones depend on the agent management and job services state, which is not modelled here. The simulation measures
+ * the placement and fitness evaluation cost only, and constraint evaluation is not included. The scheduling loop is driven synchronously on a virtual clock advancing by a
+ * fixed interval per iteration, so a run with a given trace and cluster is deterministic, and only the scheduling
+ * cost itself is measured.
+ * <p>
+ * Agents are represented by offers with their currently available resources. After each placement, or task
+ * completion, the remaining resources of an agent are re-offered in the next iteration, the same way Mesos does it.
+ */
+public class SchedulerSimulation {
+
+    private static final long LEASE_OFFER_EXPIRY_SECS = TimeUnit.DAYS.toSeconds(365);
+
+    private final JobArrivalTrace trace;
+    private final long iterationIntervalMs;
+    private final int maxIterations;
+
+    private final TaskScheduler taskScheduler;
+    private final Map<String, AgentState> agentsByHostname = new HashMap<>();
+    private final List<TimedFitnessCalculator> timedCalculators = new ArrayList<>();
+
+    private final ConstraintEvaluatorTransformer<Pair<String, String>> constraintEvaluatorTransformer = new NoOpConstraintEvaluatorTransformer();
+    private final SystemSoftConstraint systemSoftConstraint = new NoOpSystemSoftConstraint();
+    private final SystemHardConstraint systemHardConstraint = new NoOpSystemHardConstraint();
+
+    private final Set<String> dirtyAgents = new HashSet<>();
+    private final Map<String, PendingTask> pendingTasks = new LinkedHashMap<>();
+    private final PriorityQueue<RunningTask> runningBatchTasks = new PriorityQueue<>(Comparator.comparingLong(t -> t.finishTime));
+    private final Histogram iterationLatencyUs = new Histogram(TimeUnit.MINUTES.toMicros(10), 3);
+
+    private long now;
+    private long leaseSequence;
+    private int submittedTasks;
+    private int placedTasks;
+    private long placementFailures;
+    private long lastPlacementTime;
+
+    public SchedulerSimulation(SimulatedCloud cloud, JobArrivalTrace trace, long iterationIntervalMs, int maxIterations) {
+        this.trace = trace;
+        this.iterationIntervalMs = iterationIntervalMs;
+        this.maxIterations = maxIterations;
+
+        SchedulerConfiguration configuration = new ConfigProxyFactory(MapConfig.from(Collections.emptyMap()))
+                .newProxy(SchedulerConfiguration.class);
+        AgentResourceCache agentResourceCache = new DefaultAgentResourceCache(new DefaultRegistry());
+
+        AgentComponentStub agentComponent = AgentComponentStub.newAgentComponent();
+        for (SimulatedTitusAgentCluster cluster : cloud.getAgentInstanceGroups()) {
+            AgentInstanceGroup instanceGroup = AgentGenerator.agentServerGroup(
+                    cluster.getName(), Tier.Flex, cluster.getAgents().size(), cluster.getInstanceType()
+            );
+            agentComponent.addInstanceGroup(instanceGroup);
+        }
+        AgentManagementService agentManagementService = agentComponent.getAgentManagementService();
+        AgentManagementFitnessCalculator agentManagementFitnessCalculator = new AgentManagementFitnessCalculator(
+                configuration, agentManagementService, hostname -> 1.0
+        );
+
+        TimedFitnessCalculator titusFitnessCalculator = timed(new TitusFitnessCalculator(
+                configuration, agentManagementFitnessCalculator, agentResourceCache, this::timed
+        ));
+
+        this.taskScheduler = new TaskScheduler.Builder()
+                .withLeaseRejectAction(this::onLeaseRejected)
+                .withLeaseOfferExpirySecs(LEASE_OFFER_EXPIRY_SECS)
+                .withFitnessCalculator(titusFitnessCalculator)
+                .withFitnessGoodEnoughFunction(TitusFitnessCalculator.fitnessGoodEnoughFunction)
+                .withPreferentialNamedConsumableResourceEvaluator(
+                        new TitusNetworkInterfaceFitnessEvaluator(configuration, agentResourceCache, TitusRuntimes.internal())
+                )
+                .withMaxConcurrent(configuration.getSchedulerMaxConcurrent())
+                .withTaskBatchSizeSupplier(configuration::getTaskBatchSize)
+                .withMaxOffersToReject(1)
+                .build();
+
+        for (SimulatedTitusAgentCluster cluster : cloud.getAgentInstanceGroups()) {
+            for (SimulatedTitusAgent agent : cluster.getAgents()) {
+                Protos.Offer offerTemplate = agent.observeOffers().take(1).toBlocking().first().getOffer();
+                AgentState agentState = new AgentState(offerTemplate, agent);
+                agentsByHostname.put(agentState.hostname, agentState);
+                dirtyAgents.add(agentState.hostname);
+            }
+        }
+    }
+
+    public SchedulerSimulationReport run() {
+        List<JobArrival> arrivals = trace.getArrivals();
+        int nextArrival = 0;
+        int iteration = 0;
+
+        while (iteration < maxIterations) {
+            iteration++;
+            now += iterationIntervalMs;
+
+            completeFinishedTasks();
+            boolean submitted = false;
+            while (nextArrival < arrivals.size() && arrivals.get(nextArrival).getArrivalTimeMs() <= now) {
+                submit(arrivals.get(nextArrival++));
+                submitted = true;
+            }
+            if (submitted) {
+                sortPendingTasks();
+            }
+
+            boolean noMoreArrivals = nextArrival >= arrivals.size();
+            if (pendingTasks.isEmpty()) {
+                if (noMoreArrivals) {
+                    break;
+                }
+                continue;
+            }
+
+            int placed = scheduleOnce();
+            if (placed == 0 && noMoreArrivals && runningBatchTasks.isEmpty() && dirtyAgents.isEmpty()) {
+                // Nothing will change anymore, so the remaining tasks cannot be placed.
+                break;
+            }
+        }
+
+        long startTime = arrivals.isEmpty() ? 0 : arrivals.get(0).getArrivalTimeMs();
+        return new SchedulerSimulationReport(
+                agentsByHostname.size(),
+                iteration,
+                submittedTasks,
+                placedTasks,
+                pendingTasks.size(),
+                placementFailures,
+                Math.max(0, lastPlacementTime - startTime),
+                iterationLatencyUs,
+                getFitnessCalculatorStats()
+        );
+    }
+
+    private int scheduleOnce() {
+        List<VirtualMachineLease> newLeases = new ArrayList<>();
+        for (String hostname : dirtyAgents) {
+            AgentState agentState = agentsByHostname.get(hostname);
+            if (agentState.leaseId != null) {
+                taskScheduler.expireLease(agentState.leaseId);
+            }
+            newLeases.add(agentState.newLease(leaseSequence++));
+        }
+        dirtyAgents.clear();
+
+        List<V3QueueableTask> queue = new ArrayList<>(pendingTasks.size());
+        pendingTasks.values().forEach(pending -> queue.add(pending.queueableTask));
+
+        long startTime = System.nanoTime();
+        SchedulingResult result = taskScheduler.scheduleOnce(queue, newLeases);
+        long elapsedUs = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        iterationLatencyUs.recordValue(Math.min(elapsedUs, iterationLatencyUs.getHighestTrackableValue()));
+
+        placementFailures += result.getFailures().size();
+
+        int placed = 0;
+        for (VMAssignmentResult assignmentResult : result.getResultMap().values()) {
+            AgentState agentState = agentsByHostname.get(assignmentResult.getHostname());
+            agentState.leaseId = null;
+            for (TaskAssignmentResult taskAssignment : assignmentResult.getTasksAssigned()) {
+                PendingTask pending = pendingTasks.remove(taskAssignment.getTaskId());
+                taskScheduler.getTaskAssigner().call(taskAssignment.getRequest(), agentState.hostname);
+                agentState.allocate(pending.queueableTask);
+                if (pending.arrival.getJobType() == JobType.Batch && pending.arrival.getRuntimeMs() > 0) {
+                    runningBatchTasks.add(new RunningTask(pending.queueableTask, agentState.hostname, now + pending.arrival.getRuntimeMs()));
+                }
+                placed++;
+            }
+            dirtyAgents.add(agentState.hostname);
+        }
+        if (placed > 0) {
+            placedTasks += placed;
+            lastPlacementTime = now;
+        }
+        return placed;
+    }
+
+    private void completeFinishedTasks() {
+        while (!runningBatchTasks.isEmpty() && runningBatchTasks.peek().finishTime <= now) {
+            RunningTask running = runningBatchTasks.poll();
+            taskScheduler.getTaskUnAssigner().call(running.queueableTask.getId(), running.hostname);
+            agentsByHostname.get(running.hostname).release(running.queueableTask);
+            dirtyAgents.add(running.hostname);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void submit(JobArrival arrival) {
+        Job<?> job = newJob(arrival);
+        List<? extends Task> tasks = arrival.getJobType() == JobType.Batch
+                ? JobGenerator.batchTasks((Job<BatchJobExt>) job).getValues(arrival.getTaskCount())
+                : JobGenerator.serviceTasks((Job<ServiceJobExt>) job).getValues(arrival.getTaskCount());
+        for (Task task : tasks) {
+            V3QueueableTask queueableTask = new V3QueueableTask(
+                    arrival.getTier(),
+                    arrival.getCapacityGroup(),
+                    job,
+                    task,
+                    Collections::emptySet,
+                    constraintEvaluatorTransformer,
+                    systemSoftConstraint,
+                    systemHardConstraint
+            );
+            pendingTasks.put(task.getId(), new PendingTask(arrival, queueableTask));
+        }
+        submittedTasks += tasks.size();
+    }
+
+    /**
+     * Fenzo evaluates tasks in the queue order, so the tasks are kept ordered by tier, and arrival time within a tier,
+     * which is how the tiered queue in the scheduling service orders them.
+     */
+    private void sortPendingTasks() {
+        List<PendingTask> sorted = new ArrayList<>(pendingTasks.values());
+        sorted.sort(Comparator.comparing((PendingTask p) -> p.arrival.getTier()).thenComparingLong(p -> p.arrival.getArrivalTimeMs()));
+        pendingTasks.clear();
+        sorted.forEach(p -> pendingTasks.put(p.queueableTask.getId(), p));
+    }
+
+    private Job<?> newJob(JobArrival arrival) {
+        if (arrival.getJobType() == JobType.Batch) {
+            JobDescriptor<BatchJobExt> descriptor = JobFunctions.changeBatchJobSize(
+                    withResources(JobDescriptorGenerator.oneTaskBatchJobDescriptor(), arrival), arrival.getTaskCount()
+            );
+            return JobGenerator.batchJobs(descriptor).getValue();
+        }
+        JobDescriptor<ServiceJobExt> descriptor = JobFunctions.changeServiceJobCapacity(
+                withResources(JobDescriptorGenerator.oneTaskServiceJobDescriptor(), arrival), arrival.getTaskCount()
+        );
+        return JobGenerator.serviceJobs(descriptor).getValue();
+    }
+
+    private <E extends JobDescriptor.JobDescriptorExt> JobDescriptor<E> withResources(JobDescriptor<E> descriptor, JobArrival arrival) {
+        Container container = descriptor.getContainer();
+        return JobModel.newJobDescriptor(descriptor)
+                .withCapacityGroup(arrival.getCapacityGroup())
+                .withContainer(JobModel.newContainer(container)
+                        .withContainerResources(ContainerResources.newBuilder(container.getContainerResources())
+                                .withCpu(arrival.getCpu())
+                                .withMemoryMB(arrival.getMemoryMB())
+                                .withDiskMB(arrival.getDiskMB())
+                                .withNetworkMbps(arrival.getNetworkMbps())
+                                .build()
+                        )
+                        .build()
+                )
+                .build();
+    }
+
+    private TimedFitnessCalculator timed(VMTaskFitnessCalculator calculator) {
+        TimedFitnessCalculator timed = new TimedFitnessCalculator(calculator);
+        timedCalculators.add(timed);
+        return timed;
+    }
+
+    private void onLeaseRejected(VirtualMachineLease lease) {
+        AgentState agentState = agentsByHostname.get(lease.hostname());
+        if (agentState != null && lease.getId().equals(agentState.leaseId)) {
+            agentState.leaseId = null;
+            dirtyAgents.add(agentState.hostname);
+        }
+    }
+
+    private Map<String, long[]> getFitnessCalculatorStats() {
+        Map<String, long[]> stats = new TreeMap<>();
+        for (TimedFitnessCalculator calculator : timedCalculators) {
+            long[] entry = stats.computeIfAbsent(calculator.getName(), name -> new long[2]);
+            entry[0] += calculator.getInvocations();
+            entry[1] += calculator.getTotalTimeNs();
+        }
+        return stats;
+    }
+
+    private static class AgentState {
+
+        private final Protos.Offer offerTemplate;
+        private final String hostname;
+
+        private double cpus;
+        private double memoryMB;
+        private double diskMB;
+        private double networkMbps;
+
+        private String leaseId;
+
+        private AgentState(Protos.Offer offerTemplate, SimulatedTitusAgent agent) {
+            this.offerTemplate = offerTemplate;
+            this.hostname = offerTemplate.getHostname();
+            this.cpus = agent.getTotalCPUs();
+            this.memoryMB = agent.getTotalMemory();
+            this.diskMB = agent.getTotalDisk();
+            this.networkMbps = agent.getTotalNetworkMbs();
+        }
+
+        private void allocate(TaskRequest request) {
+            cpus -= request.getCPUs();
+            memoryMB -= request.getMemory();
+            diskMB -= request.getDisk();
+            networkMbps -= request.getNetworkMbps();
+        }
+
+        private void release(TaskRequest request) {
+            cpus += request.getCPUs();
+            memoryMB += request.getMemory();
+            diskMB += request.getDisk();
+            networkMbps += request.getNetworkMbps();
+        }
+
+        private VirtualMachineLease newLease(long sequence) {
+            this.leaseId = hostname + "-offer-" + sequence;
+            Protos.Offer.Builder builder = offerTemplate.toBuilder()
+                    .setId(Protos.OfferID.newBuilder().setValue(leaseId))
+                    .clearResources();
+            for (Protos.Resource resource : offerTemplate.getResourcesList()) {
+                builder.addResources(withAvailableValue(resource));
+            }
+            return new VMLeaseObject(builder.build());
+        }
+
+        private Protos.Resource withAvailableValue(Protos.Resource resource) {
+            double value;
+            switch (resource.getName()) {
+                case "cpus":
+                    value = cpus;
+                    break;
+                case "mem":
+                    value = memoryMB;
+                    break;
+                case "disk":
+                    value = diskMB;
+                    break;
+                case "network":
+                    value = networkMbps;
+                    break;
+                default:
+                    return resource;
+            }
+            return resource.toBuilder().setScalar(Protos.Value.Scalar.newBuilder().setValue(Math.max(0, value))).build();
+        }
+    }
+
+    private static class PendingTask {
+
+        private final JobArrival arrival;
+        private final V3QueueableTask queueableTask;
+
+        private PendingTask(JobArrival arrival, V3QueueableTask queueableTask) {
+            this.arrival = arrival;
+            this.queueableTask = queueableTask;
+        }
+    }
+
+    private static class RunningTask {
+
+        private final V3QueueableTask queueableTask;
+        private final String hostname;
+        private final long finishTime;
+
+        private RunningTask(V3QueueableTask queueableTask, String hostname, long finishTime) {
+            this.queueableTask = queueableTask;
+            this.hostname = hostname;
+            this.finishTime = finishTime;
+        }
+    }
+
+    private static class NoOpConstraintEvaluatorTransformer implements ConstraintEvaluatorTransformer<Pair<String, String>> {
+
+        @Override
+        public Optional<ConstraintEvaluator> hardConstraint(Pair<String, String> hardConstraint, Supplier<Set<String>> activeTasksGetter) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<VMTaskFitnessCalculator> softConstraint(Pair<String, String> softConstraint, Supplier<Set<String>> activeTasksGetter) {
+            return Optional.empty();
+        }
+    }
+
+    private static class NoOpSystemSoftConstraint implements SystemSoftConstraint {
+
+        @Override
+        public String getName() {
+            return "NoOpSystemSoftConstraint";
+        }
+
+        @Override
+        public double calculateFitness(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
+            return 1.0;
+        }
+    }
+
+    private static class NoOpSystemHardConstraint implements SystemHardConstraint {
+
+        @Override
+        public String getName() {
+            return "NoOpSystemHardConstraint";
+        }
+
+        @Override
+        public Result evaluate(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
+            return new Result(true, "");
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.testkit.perf.scheduler;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of a {@link SchedulerSimulation} run. Iteration latencies are recorded in microseconds.
+ */
+public class SchedulerSimulationReport {
+
+    private final int agentCount;
+    private final int iterations;
+    private final int submittedTasks;
+    private final int placedTasks;
+    private final int unplacedTasks;
+    private final long placementFailures;
+    private final long virtualMakespanMs;
+    private final Histogram iterationLatencyUs;
+    private final Map<String, long[]> fitnessCalculatorStats;
+
+    SchedulerSimulationReport(int agentCount,
+                              int iterations,
+                              int submittedTasks,
+                              int placedTasks,
+                              int unplacedTasks,
+                              long placementFailures,
+                              long virtualMakespanMs,
+                              Histogram iterationLatencyUs,
+                              Map<String, long[]> fitnessCalculatorStats) {
+        this.agentCount = agentCount;
+        this.iterations = iterations;
+        this.submittedTasks = submittedTasks;
+        this.placedTasks = placedTasks;
+        this.unplacedTasks = unplacedTasks;
+        this.placementFailures = placementFailures;
+        this.virtualMakespanMs = virtualMakespanMs;
+        this.iterationLatencyUs = iterationLatencyUs;
+        this.fitnessCalculatorStats = fitnessCalculatorStats;
+    }
+
+    public int getAgentCount() {
+        return agentCount;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getSubmittedTasks() {
+        return submittedTasks;
+    }
+
+    public int getPlacedTasks() {
+        return placedTasks;
+    }
+
+    /**
+     * Number of tasks still waiting in the queue when the simulation ended.
+     */
+    public int getUnplacedTasks() {
+        return unplacedTasks;
+    }
+
+    /**
+     * Total number of task placement failures reported by Fenzo, summed over all iterations.
+     */
+    public long getPlacementFailures() {
+        return placementFailures;
+    }
+
+    /**
+     * Virtual time from the first job arrival until the last task placement.
+     */
+    public long getVirtualMakespanMs() {
+        return virtualMakespanMs;
+    }
+
+    public Histogram getIterationLatencyUs() {
+        return iterationLatencyUs;
+    }
+
+    /**
+     * Total scheduling time (wall clock) of all iterations.
+     */
+    public long getTotalSchedulingTimeMs() {
+        return TimeUnit.MICROSECONDS.toMillis((long) (iterationLatencyUs.getMean() * iterationLatencyUs.getTotalCount()));
+    }
+
+    public double getPlacedTasksPerSecond() {
+        long totalMs = getTotalSchedulingTimeMs();
+        return totalMs == 0 ? 0 : placedTasks * 1000.0 / totalMs;
+    }
+
+    /**
+     * Fitness calculator name to a pair of values {invocation count, total execution time in nanoseconds}.
+     */
+    public Map<String, long[]> getFitnessCalculatorStats() {
+        return fitnessCalculatorStats;
+    }
+
+    public void print(PrintStream out) {
+        out.println("Scheduler simulation report");
+        out.println("===========================");
+        out.printf("Agents:                    %d%n", agentCount);
+        out.printf("Iterations:                %d%n", iterations);
+        out.printf("Tasks submitted:           %d%n", submittedTasks);
+        out.printf("Tasks placed:              %d%n", placedTasks);
+        out.printf("Tasks unplaced:            %d%n", unplacedTasks);
+        out.printf("Placement failures:        %d%n", placementFailures);
+        out.printf("Virtual makespan:          %ds%n", TimeUnit.MILLISECONDS.toSeconds(virtualMakespanMs));
+        out.printf("Total scheduling time:     %dms%n", getTotalSchedulingTimeMs());
+        out.printf("Placed tasks per second:   %.1f%n", getPlacedTasksPerSecond());
+        out.println();
+        out.println("Iteration latency (ms)");
+        out.printf("    p50=%.2f, p90=%.2f, p99=%.2f, max=%.2f%n",
+                iterationLatencyUs.getValueAtPercentile(50) / 1000.0,
+                iterationLatencyUs.getValueAtPercentile(90) / 1000.0,
+                iterationLatencyUs.getValueAtPercentile(99) / 1000.0,
+                iterationLatencyUs.getMaxValue() / 1000.0
+        );
+        out.println();
+        out.println("Fitness calculators");
+        fitnessCalculatorStats.forEach((name, stats) -> out.printf("    %-45s invocations=%d, totalTime=%dms, avg=%.2fus%n",
+                name, stats[0], TimeUnit.NANOSECONDS.toMillis(stats[1]), stats[0] == 0 ? 0.0 : stats[1] / 1000.0 / stats[0]
+        ));
+        out.flush();
+    }
+}
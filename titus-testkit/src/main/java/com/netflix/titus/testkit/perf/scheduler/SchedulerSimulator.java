@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.testkit.perf.scheduler;
+
+import java.io.File;
+import java.io.PrintWriter;
+
+import com.netflix.titus.common.aws.AwsInstanceType;
+import com.netflix.titus.testkit.embedded.cloud.SimulatedCloud;
+import com.netflix.titus.testkit.embedded.cloud.agent.SimulatedTitusAgentCluster;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.log4j.PropertyConfigurator;
+
+/**
+ * Command line runner for {@link SchedulerSimulation}. Creates a simulated cloud with the requested number of agents,
+ * replays a job arrival trace (loaded from a file, or generated from a seed), and prints the simulation report.
+ */
+public class SchedulerSimulator {
+
+    static {
+        PropertyConfigurator.configure(SchedulerSimulator.class.getClassLoader().getResource("load-log4j.properties"));
+    }
+
+    private static final int MAX_AGENTS_PER_INSTANCE_GROUP = 1000;
+
+    private final CommandLine cli;
+
+    public SchedulerSimulator(String[] args) {
+        this.cli = parseOptions(args);
+    }
+
+    public SchedulerSimulationReport run() throws Exception {
+        int agentCount = getIntOpt(cli, 'a', 10_000);
+        AwsInstanceType instanceType = cli.hasOption('i')
+                ? AwsInstanceType.valueOf(cli.getOptionValue('i'))
+                : AwsInstanceType.R4_8XLarge;
+        long intervalMs = getIntOpt(cli, 'n', 1_000);
+        int maxIterations = getIntOpt(cli, 'm', 1_000_000);
+
+        JobArrivalTrace trace;
+        if (cli.hasOption('t')) {
+            trace = JobArrivalTrace.load(new File(cli.getOptionValue('t')));
+        } else {
+            trace = JobArrivalTrace.synthetic(
+                    getIntOpt(cli, 's', 1),
+                    getIntOpt(cli, 'j', 10_000),
+                    getIntOpt(cli, 'r', 100),
+                    getIntOpt(cli, 'd', 600_000)
+            );
+        }
+
+        SimulatedCloud cloud = new SimulatedCloud();
+        try {
+            for (int idx = 0; idx * MAX_AGENTS_PER_INSTANCE_GROUP < agentCount; idx++) {
+                int size = Math.min(MAX_AGENTS_PER_INSTANCE_GROUP, agentCount - idx * MAX_AGENTS_PER_INSTANCE_GROUP);
+                cloud.addInstanceGroup(SimulatedTitusAgentCluster.aTitusAgentCluster("simulated-" + idx, idx)
+                        .withComputeResources(cloud.getComputeResources())
+                        .withInstanceType(instanceType)
+                        .withSize(size)
+                        .withMaxSize(size)
+                        .withContainerPlayersManager(cloud.getContainerPlayersManager())
+                        .build()
+                );
+            }
+
+            System.out.printf("Simulating %d tasks of %d jobs on %d agents (%s)...%n",
+                    trace.getTaskCount(), trace.getArrivals().size(), agentCount, instanceType);
+            return new SchedulerSimulation(cloud, trace, intervalMs, maxIterations).run();
+        } finally {
+            cloud.shutdown();
+        }
+    }
+
+    private static int getIntOpt(CommandLine cli, char opt, int defaultValue) {
+        try {
+            return cli.hasOption(opt) ? ((Number) cli.getParsedOptionValue(Character.toString(opt))).intValue() : defaultValue;
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static Options getOptions() {
+        Options options = new Options();
+        options.addOption(Option.builder("a").longOpt("agents").argName("agent_count").hasArg().type(Number.class)
+                .desc("Number of agents (default 10000)")
+                .build());
+        options.addOption(Option.builder("i").longOpt("instance-type").argName("instance_type").hasArg()
+                .desc("Agent instance type, for example R4_8XLarge (default)")
+                .build());
+        options.addOption(Option.builder("t").longOpt("trace").argName("trace_file").hasArg()
+                .desc("Job arrival trace file (CSV); if not set, a synthetic trace is generated")
+                .build());
+        options.addOption(Option.builder("j").longOpt("jobs").argName("job_count").hasArg().type(Number.class)
+                .desc("Number of jobs in the synthetic trace (default 10000)")
+                .build());
+        options.addOption(Option.builder("s").longOpt("seed").argName("seed").hasArg().type(Number.class)
+                .desc("Synthetic trace random seed (default 1)")
+                .build());
+        options.addOption(Option.builder("r").longOpt("inter-arrival").argName("interval_ms").hasArg().type(Number.class)
+                .desc("Mean time between job arrivals in the synthetic trace (default 100ms)")
+                .build());
+        options.addOption(Option.builder("d").longOpt("runtime").argName("runtime_ms").hasArg().type(Number.class)
+                .desc("Mean batch task runtime in the synthetic trace (default 600000ms)")
+                .build());
+        options.addOption(Option.builder("n").longOpt("interval").argName("interval_ms").hasArg().type(Number.class)
+                .desc("Virtual time between scheduling iterations (default 1000ms)")
+                .build());
+        options.addOption(Option.builder("m").longOpt("max-iterations").argName("iteration_count").hasArg().type(Number.class)
+                .desc("Maximum number of scheduling iterations (default 1000000)")
+                .build());
+        return options;
+    }
+
+    private static CommandLine parseOptions(String[] args) {
+        Options options = getOptions();
+
+        CommandLineParser parser = new DefaultParser();
+        try {
+            return parser.parse(options, args);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+
+    private static boolean hasHelpOption(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("-h") || arg.equals("--help")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void printHelp() {
+        PrintWriter writer = new PrintWriter(System.out);
+        HelpFormatter formatter = new HelpFormatter();
+
+        writer.println("Usage: SchedulerSimulator [params]");
+        writer.println();
+        writer.println("Options");
+        formatter.printOptions(writer, 128, getOptions(), 4, 4);
+        writer.println();
+        writer.flush();
+    }
+
+    public static void main(String[] args) {
+        if (hasHelpOption(args)) {
+            printHelp();
+            return;
+        }
+        try {
+            new SchedulerSimulator(args).run().print(System.out);
+        } catch (Exception e) {
+            System.err.println("ERROR: simulation failure");
+            e.printStackTrace();
+            System.exit(-1);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.testkit.perf.scheduler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.netflix.fenzo.TaskRequest;
+import com.netflix.fenzo.TaskTrackerState;
+import com.netflix.fenzo.VMTaskFitnessCalculator;
+import com.netflix.fenzo.VirtualMachineCurrentState;
+
+/**
+ * {@link VMTaskFitnessCalculator} wrapper measuring the number of invocations and the total execution time of the
+ * delegate. Fenzo evaluates fitness of multiple agents concurrently (see {@link com.netflix.fenzo.TaskScheduler.Builder#withMaxConcurrent(int)}),
+ * so the counters are updated from many threads.
+ */
+class TimedFitnessCalculator implements VMTaskFitnessCalculator {
+
+    private final VMTaskFitnessCalculator delegate;
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder totalTimeNs = new LongAdder();
+
+    TimedFitnessCalculator(VMTaskFitnessCalculator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public double calculateFitness(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
+        long startTime = System.nanoTime();
+        try {
+            return delegate.calculateFitness(taskRequest, targetVM, taskTrackerState);
+        } finally {
+            totalTimeNs.add(System.nanoTime() - startTime);
+            invocations.increment();
+        }
+    }
+
+    long getInvocations() {
+        return invocations.sum();
+    }
+
+    long getTotalTimeNs() {
+        return totalTimeNs.sum();
+    }
+}
@@ -98,6 +98,17 @@ public class TestableInstanceCloudConnector implements InstanceCloudConnector {
         );
     }
 
+    @Override
+    public Observable<List<Instance>> getInstancesByInstanceGroupIds(List<String> instanceGroupIds) {
+        return Observable.fromCallable(() -> {
+            instanceGroupIds.forEach(this::executeInterceptors);
+            return instancesById.values().stream()
+                    .map(Pair::getLeft)
+                    .filter(instance -> instanceGroupIds.contains(instance.getInstanceGroupId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
     @Override
     public Completable updateCapacity(String instanceGroupId, Optional<Integer> min, Optional<Integer> desired) {
         return null;
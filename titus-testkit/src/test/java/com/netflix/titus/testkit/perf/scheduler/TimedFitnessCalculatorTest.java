@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.titus.testkit.perf.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.fenzo.TaskRequest;
+import com.netflix.fenzo.TaskTrackerState;
+import com.netflix.fenzo.VMTaskFitnessCalculator;
+import com.netflix.fenzo.VirtualMachineCurrentState;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TimedFitnessCalculatorTest {
+
+    private static final long DELAY_MS = 2;
+
+    private final TimedFitnessCalculator calculator = new TimedFitnessCalculator(new VMTaskFitnessCalculator() {
+        @Override
+        public String getName() {
+            return "delayed";
+        }
+
+        @Override
+        public double calculateFitness(TaskRequest taskRequest, VirtualMachineCurrentState targetVM, TaskTrackerState taskTrackerState) {
+            try {
+                Thread.sleep(DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1.0;
+        }
+    });
+
+    @Test
+    public void testInvocationsAndTimeAreMeasured() {
+        assertThat(calculator.calculateFitness(mock(TaskRequest.class), mock(VirtualMachineCurrentState.class), mock(TaskTrackerState.class))).isEqualTo(1.0);
+
+        assertThat(calculator.getName()).isEqualTo("delayed");
+        assertThat(calculator.getInvocations()).isEqualTo(1);
+        assertThat(calculator.getTotalTimeNs()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(DELAY_MS));
+    }
+
+    @Test
+    public void testConcurrentInvocationsAreAllCounted() throws Exception {
+        int threads = 8;
+        int invocationsPerThread = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < invocationsPerThread; j++) {
+                        calculator.calculateFitness(mock(TaskRequest.class), mock(VirtualMachineCurrentState.class), mock(TaskTrackerState.class));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long expectedInvocations = threads * invocationsPerThread;
+        assertThat(calculator.getInvocations()).isEqualTo(expectedInvocations);
+        assertThat(calculator.getTotalTimeNs()).isGreaterThanOrEqualTo(expectedInvocations * TimeUnit.MILLISECONDS.toNanos(DELAY_MS));
+    }
+}